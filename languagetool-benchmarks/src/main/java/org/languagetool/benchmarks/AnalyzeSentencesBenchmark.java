@@ -0,0 +1,53 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures word tokenization, tagging, chunking and disambiguation of the already
+ * split sentences of the corpus, i.e. what {@code JLanguageTool.analyzeSentences()} does.
+ * The difference between the two benchmarks is the cost of disambiguation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AnalyzeSentencesBenchmark {
+
+  @Benchmark
+  public void analyzeSentences(PipelineState state, Blackhole bh) throws IOException {
+    for (String sentence : state.sentences) {
+      bh.consume(state.lt.getAnalyzedSentence(sentence));
+    }
+  }
+
+  @Benchmark
+  public void analyzeSentencesWithoutDisambiguation(PipelineState state, Blackhole bh) throws IOException {
+    for (String sentence : state.sentences) {
+      bh.consume(state.lt.getRawAnalyzedSentence(sentence));
+    }
+  }
+
+}
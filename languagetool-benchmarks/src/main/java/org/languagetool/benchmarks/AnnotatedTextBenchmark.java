@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping of match positions from plain text to text with markup, as done by
+ * {@code JLanguageTool} for every match, on annotated documents of increasing size. With
+ * a logarithmic lookup the time per lookup should grow only slightly with the document size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotatedTextBenchmark {
+
+  private static final int LOOKUPS = 10_000;
+
+  @Param({"16", "256", "1024"})
+  public int sizeInKb;
+
+  private AnnotatedText text;
+  private int[] positions;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    AnnotatedTextBuilder builder = new AnnotatedTextBuilder();
+    int totalLength = 0;
+    int i = 0;
+    while (totalLength < sizeInKb * 1024) {
+      String word = "word" + i + " ";
+      builder.addText(word);
+      String markup = i % 10 == 0 ? "<p class='x'>" : "<b>";
+      if (i % 10 == 0) {
+        builder.addMarkup(markup, "\n\n");
+      } else {
+        builder.addMarkup(markup);
+      }
+      totalLength += word.length() + markup.length();
+      i++;
+    }
+    text = builder.build();
+    int plainTextLength = text.getPlainText().length();
+    Random random = new Random(42);
+    positions = new int[LOOKUPS];
+    for (int j = 0; j < LOOKUPS; j++) {
+      positions[j] = random.nextInt(plainTextLength - 1);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public int getOriginalTextPositionFor() {
+    int sum = 0;
+    for (int position : positions) {
+      sum += text.getOriginalTextPositionFor(position, false);
+      sum += text.getOriginalTextPositionFor(position, true);
+    }
+    return sum;
+  }
+
+}
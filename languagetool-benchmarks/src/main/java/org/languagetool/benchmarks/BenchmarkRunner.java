@@ -0,0 +1,49 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the pipeline benchmarks with the GC profiler enabled, so that every phase reports
+ * both its throughput and its allocation rate ({@code gc.alloc.rate.norm}, i.e. bytes per operation).
+ * Usage: {@code java -jar target/benchmarks.jar [benchmarkRegex] [languageCode...]}
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    ChainedOptionsBuilder options = new OptionsBuilder()
+      .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*")
+      .addProfiler(GCProfiler.class);
+    if (args.length > 1) {
+      String[] languageCodes = new String[args.length - 1];
+      System.arraycopy(args, 1, languageCodes, 0, languageCodes.length);
+      options.param("languageCode", languageCodes);
+    }
+    new Runner(options.build()).run();
+  }
+
+}
@@ -0,0 +1,65 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures matching of the XML pattern rules that the rule set preselects for each sentence.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PatternRuleBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class PreselectedRules {
+    List<List<AbstractPatternRule>> rulesPerSentence;
+
+    @Setup(Level.Trial)
+    public void setup(PipelineState state) {
+      rulesPerSentence = new ArrayList<>();
+      for (AnalyzedSentence sentence : state.analyzedSentences) {
+        rulesPerSentence.add(state.patternRulesForSentence(sentence));
+      }
+    }
+  }
+
+  @Benchmark
+  public void matchPatternRules(PipelineState state, PreselectedRules rules, Blackhole bh) throws IOException {
+    List<AnalyzedSentence> sentences = state.analyzedSentences;
+    for (int i = 0; i < sentences.size(); i++) {
+      AnalyzedSentence sentence = sentences.get(i);
+      for (AbstractPatternRule rule : rules.rulesPerSentence.get(i)) {
+        bh.consume(rule.match(sentence));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import com.google.common.io.Resources;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.TextLevelRule;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.languagetool.rules.patterns.RuleSet;
+import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark state shared by all pipeline phase benchmarks: a {@link JLanguageTool} instance
+ * for the language under test, its fixed corpus and the results of the phases that run
+ * before the one being measured, so every benchmark only measures its own phase.
+ */
+@State(Scope.Benchmark)
+public class PipelineState {
+
+  @Param({"en-US", "de-DE", "fr", "es", "uk", "pt-PT"})
+  public String languageCode;
+
+  public JLanguageTool lt;
+  public String text;
+  public List<String> sentences;
+  public List<AnalyzedSentence> analyzedSentences;
+  public RuleSet ruleSet;
+  public List<SpellingCheckRule> spellingRules;
+  public List<TextLevelRule> textLevelRules;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    Language language = Languages.getLanguageForShortCode(languageCode);
+    lt = new JLanguageTool(language);
+    text = loadCorpus(language.getShortCode());
+    sentences = lt.sentenceTokenize(text);
+    analyzedSentences = new ArrayList<>(sentences.size());
+    for (String sentence : sentences) {
+      analyzedSentences.add(lt.getAnalyzedSentence(sentence));
+    }
+    List<Rule> activeRules = lt.getAllActiveRules();
+    // same kind of rule set JLanguageTool uses internally for its checks:
+    ruleSet = RuleSet.textLemmaHinted(activeRules);
+    spellingRules = activeRules.stream()
+      .filter(rule -> rule instanceof SpellingCheckRule)
+      .map(rule -> (SpellingCheckRule) rule)
+      .collect(Collectors.toList());
+    textLevelRules = activeRules.stream()
+      .filter(rule -> rule instanceof TextLevelRule)
+      .map(rule -> (TextLevelRule) rule)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * @return the pattern rules (from XML) that {@link #ruleSet} selects for the given sentence
+   */
+  public List<AbstractPatternRule> patternRulesForSentence(AnalyzedSentence sentence) {
+    List<AbstractPatternRule> result = new ArrayList<>();
+    for (Rule rule : ruleSet.rulesForSentence(sentence)) {
+      if (rule instanceof AbstractPatternRule) {
+        result.add((AbstractPatternRule) rule);
+      }
+    }
+    return result;
+  }
+
+  static String loadCorpus(String langCode) throws IOException {
+    String path = "/org/languagetool/benchmarks/corpus/" + langCode + ".txt";
+    URL url = PipelineState.class.getResource(path);
+    if (url == null) {
+      throw new IllegalArgumentException("No benchmark corpus found at " + path);
+    }
+    return Resources.toString(url, StandardCharsets.UTF_8);
+  }
+
+}
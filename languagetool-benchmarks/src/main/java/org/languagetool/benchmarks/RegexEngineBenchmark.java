@@ -0,0 +1,63 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the total matching time of the pattern rules with the regex automaton that
+ * {@code StringMatcher} uses for most regular expressions, and with {@code java.util.regex} only.
+ * The engine is chosen when the rules are loaded, so each variant runs in its own JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RegexEngineBenchmark {
+
+  @Benchmark
+  @Fork(1)
+  public void matchWithAutomaton(PipelineState state, PatternRuleBenchmark.PreselectedRules rules, Blackhole bh) throws IOException {
+    match(state, rules, bh);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-DdisableRegexAutomaton")
+  public void matchWithJavaRegex(PipelineState state, PatternRuleBenchmark.PreselectedRules rules, Blackhole bh) throws IOException {
+    match(state, rules, bh);
+  }
+
+  private static void match(PipelineState state, PatternRuleBenchmark.PreselectedRules rules, Blackhole bh) throws IOException {
+    List<AnalyzedSentence> sentences = state.analyzedSentences;
+    for (int i = 0; i < sentences.size(); i++) {
+      AnalyzedSentence sentence = sentences.get(i);
+      for (AbstractPatternRule rule : rules.rulesPerSentence.get(i)) {
+        bh.consume(rule.match(sentence));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.broker.ResourceDataBroker;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.languagetool.rules.patterns.CompiledRuleCache;
+import org.languagetool.rules.patterns.PatternRuleLoader;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationRuleLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the startup cost of loading a language's XML pattern and disambiguation rules,
+ * parsing the XML compared to reading them from a warm {@link CompiledRuleCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleLoadingBenchmark {
+
+  @Param({"en-US", "de-DE", "fr", "es", "uk", "pt-PT"})
+  public String languageCode;
+
+  private Language language;
+  private List<String> ruleFiles;
+  private String disambiguationFile;
+  private File cacheDir;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    language = Languages.getLanguageForShortCode(languageCode);
+    ruleFiles = new ArrayList<>();
+    ResourceDataBroker dataBroker = JLanguageTool.getDataBroker();
+    for (String ruleFile : language.getRuleFileNames()) {
+      if (dataBroker.ruleFileExists(ruleFile)) {
+        ruleFiles.add(ruleFile);
+      }
+    }
+    String disambFile = language.getShortCode() + "/disambiguation.xml";
+    disambiguationFile = dataBroker.resourceExists(disambFile) ? disambFile : null;
+    cacheDir = Files.createTempDirectory("lt-rule-cache").toFile();
+    // fill the cache so the cached benchmark measures a warm start:
+    CompiledRuleCache.setCacheDir(cacheDir);
+    try {
+      loadRules();
+    } finally {
+      CompiledRuleCache.setCacheDir(null);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    CompiledRuleCache.setCacheDir(null);
+    File[] files = cacheDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    cacheDir.delete();
+  }
+
+  @Benchmark
+  public int loadFromXml() throws Exception {
+    CompiledRuleCache.setCacheDir(null);
+    return loadRules();
+  }
+
+  @Benchmark
+  public int loadFromCache() throws Exception {
+    CompiledRuleCache.setCacheDir(cacheDir);
+    return loadRules();
+  }
+
+  private int loadRules() throws Exception {
+    int ruleCount = 0;
+    ResourceDataBroker dataBroker = JLanguageTool.getDataBroker();
+    PatternRuleLoader ruleLoader = new PatternRuleLoader();
+    for (String ruleFile : ruleFiles) {
+      try (InputStream is = dataBroker.getAsStream(ruleFile)) {
+        List<AbstractPatternRule> rules = ruleLoader.getRules(is, ruleFile, language);
+        ruleCount += rules.size();
+      }
+    }
+    if (disambiguationFile != null) {
+      try (InputStream is = dataBroker.getFromResourceDirAsStream(disambiguationFile)) {
+        List<DisambiguationPatternRule> rules = new DisambiguationRuleLoader().getRules(is, language, disambiguationFile);
+        ruleCount += rules.size();
+      }
+    }
+    return ruleCount;
+  }
+
+}
@@ -1,5 +1,5 @@
 /* LanguageTool, a natural language style checker
- * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
  *
  * This library is free software; you can redistribute it and/or
  * modify it under the terms of the GNU Lesser General Public
@@ -16,37 +16,29 @@
  * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
  * USA
  */
-package org.languagetool.markup;
+package org.languagetool.benchmarks;
 
-/**
- * A fake markup data object giving information on the impact of the fake markup.
- * Use {@link AnnotatedTextBuilder} to create objects of this type.
- * @since 4.8
- */
-class MappingValue {
-
-  private final int totalPosition;
-  private final int fakeMarkupLength;
-
-  MappingValue(int totalPosition) {
-    this(totalPosition, 0);
-  }
+import org.languagetool.AnalyzedSentence;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
 
-  MappingValue(int totalPosition, int fakeMarkupLength) {
-    this.totalPosition = totalPosition;
-    this.fakeMarkupLength = fakeMarkupLength;
-  }
+import java.util.concurrent.TimeUnit;
 
-  int getTotalPosition() {
-    return totalPosition;
-  }
+/**
+ * Measures the hint-based rule preselection of {@link org.languagetool.rules.patterns.RuleSet#rulesForSentence}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RulesForSentenceBenchmark {
 
-  int getFakeMarkupLength() {
-    return fakeMarkupLength;
+  @Benchmark
+  public void rulesForSentence(PipelineState state, Blackhole bh) {
+    for (AnalyzedSentence sentence : state.analyzedSentences) {
+      bh.consume(state.ruleSet.rulesForSentence(sentence));
+    }
   }
 
-  @Override
-  public String toString() {
-    return "totalPos:" + totalPosition + ",fakeMarkupLen=" + fakeMarkupLength;
-  }
 }
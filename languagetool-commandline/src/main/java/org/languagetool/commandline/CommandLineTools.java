@@ -265,6 +265,8 @@ public final class CommandLineTools {
                                         JLanguageTool lt) throws IOException {
     int iterationCount = 3;
     long[] workTime = new long[iterationCount];
+    long[] immunizationTime = new long[iterationCount];
+    long extraImmunizationTime = 0;
     List<Rule> rules = lt.getAllActiveRules();
     int ruleCount = rules.size();
 
@@ -305,7 +307,7 @@ public final class CommandLineTools {
     System.out.printf("Disambig time: %d ms, %f sent/sec\n\n", disambigTime, (float)sentences.size()/disambigTime);
 
     System.out.printf("Testing %d rules%n", ruleCount);
-    System.out.printf("%-40s%10s%10s%10s%15s\n", "Rule ID", "Time", "Sentences", "Matches", "Sentences per sec.");
+    System.out.printf("%-40s%10s%12s%10s%10s%15s\n", "Rule ID", "Time", "Immun. time", "Sentences", "Matches", "Sentences per sec.");
     
     
     for (Rule rule : rules) {
@@ -322,18 +324,26 @@ public final class CommandLineTools {
         }
         long endTime =  System.currentTimeMillis();
         workTime[k] = endTime - startTime;
+        // included in the time above, measured again to show how much of it the anti-patterns take:
+        if (!rule.getAntiPatterns().isEmpty()) {
+          for (AnalyzedSentence sentence : analyzedSentences) {
+            rule.applyAntiPatterns(sentence);
+          }
+        }
+        immunizationTime[k] = System.currentTimeMillis() - endTime;
+        extraImmunizationTime += immunizationTime[k];
       }
 
       long time = median(workTime);
       float timeInSeconds = time / 1000.0f;
       float sentencesPerSecond = sentences.size() / timeInSeconds;
       System.out.printf(Locale.ENGLISH,
-              "%-40s%10d%10d%10d%15.1f\n", rule.getId(),
-              time, sentences.size(), matchCount, sentencesPerSecond);
+              "%-40s%10d%12d%10d%10d%15.1f\n", rule.getId(),
+              time, median(immunizationTime), sentences.size(), matchCount, sentencesPerSecond);
     }
     
     long ruleEndTime =  System.currentTimeMillis();
-    System.out.printf("\nTotal rule time: %d ms\n", (ruleEndTime - disambigEndTime)/iterationCount);
+    System.out.printf("\nTotal rule time: %d ms\n", (ruleEndTime - disambigEndTime - extraImmunizationTime)/iterationCount);
   }
 
   private static long median(long[] m) {
@@ -32,6 +32,7 @@ public final class AnalyzedToken {
 
   private final String token;
   private final String posTag;
+  private final int posTagId;
   private final String lemma;
   private final String lemmaOrToken;  // used only for matching with Elements
 
@@ -41,6 +42,7 @@ public final class AnalyzedToken {
   public AnalyzedToken(String token, String posTag, String lemma) {
     this.token = Objects.requireNonNull(token, "token cannot be null");
     this.posTag = posTag != null ? posTag.trim() : null;
+    this.posTagId = PosTagDictionary.getId(this.posTag);
     this.lemma = lemma;    
     if (lemma == null) {
       lemmaOrToken = token;
@@ -65,6 +67,13 @@ public final class AnalyzedToken {
     return posTag;
   }
 
+  /**
+   * @return the ID of the POS tag in {@link PosTagDictionary}, or -1
+   */
+  int getPosTagId() {
+    return posTagId;
+  }
+
   /**
    * @return the token's lemma or {@code null}
    */
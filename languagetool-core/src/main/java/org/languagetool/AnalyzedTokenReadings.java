@@ -221,16 +221,7 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
    * @since 1.8
    */
   public boolean hasPartialPosTag(String posTag) {
-    boolean found = false;
-    for (AnalyzedToken reading : anTokReadings) {
-      if (reading.getPOSTag() != null) {
-        found = reading.getPOSTag().contains(posTag);
-        if (found) {
-          break;
-        }
-      }
-    }
-    return found;
+    return hasPosTagMatching(PosTagMatcher.forSubstring(posTag));
   }
 
  /**
@@ -255,16 +246,7 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
    * @since 4.0
    */
   public boolean hasPosTagStartingWith(String posTag) {
-    boolean found = false;
-    for (AnalyzedToken reading : anTokReadings) {
-      if (reading.getPOSTag() != null) {
-        found = reading.getPOSTag().startsWith(posTag);
-        if (found) {
-          break;
-        }
-      }
-    }
-    return found;
+    return hasPosTagMatching(PosTagMatcher.forPrefix(posTag));
   }
 
   /**
@@ -274,17 +256,20 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
    * @since 2.9
    */
   public boolean matchesPosTagRegex(String posTagRegex) {
-    Pattern pattern = Pattern.compile(posTagRegex);
-    boolean found = false;
+    return hasPosTagMatching(PosTagMatcher.forRegex(posTagRegex));
+  }
+
+  /**
+   * Checks if at least one of the readings has a POS tag accepted by the matcher.
+   * @since 6.3
+   */
+  public boolean hasPosTagMatching(PosTagMatcher matcher) {
     for (AnalyzedToken reading : anTokReadings) {
-      if (reading.getPOSTag() != null) {
-        found = pattern.matcher(reading.getPOSTag()).matches();
-        if (found) {
-          break;
-        }
+      if (matcher.matches(reading)) {
+        return true;
       }
     }
-    return found;
+    return false;
   }
   
   public boolean matchesChunkRegex(String chunkRegex) {
@@ -308,14 +293,10 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
    * @since 5.5
    */
   public AnalyzedToken readingWithTagRegex(String posTagRegex) {
-    Pattern pattern = Pattern.compile(posTagRegex);
-    boolean found = false;
+    PosTagMatcher matcher = PosTagMatcher.forRegex(posTagRegex);
     for (AnalyzedToken reading : anTokReadings) {
-      if (reading.getPOSTag() != null) {
-        found = pattern.matcher(reading.getPOSTag()).matches();
-        if (found) {
-          return reading;
-        }
+      if (matcher.matches(reading)) {
+        return reading;
       }
     }
     return null;
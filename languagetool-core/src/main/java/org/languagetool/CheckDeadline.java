@@ -0,0 +1,140 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time by which a check should be finished. Unlike interrupting the checking thread, this
+ * lets the check stop by itself: disambiguation and rule matching look at the deadline of the
+ * current check (see {@link #current()}) and stop early when it has expired, so that the check
+ * returns the matches found so far. The rules that haven't been applied to the whole text are
+ * collected, see {@link CheckResults#getSkippedRuleIds()}.
+ * @since 6.3
+ */
+public final class CheckDeadline {
+
+  /** A deadline that never expires. */
+  public static final CheckDeadline NONE = new CheckDeadline(0, false);
+
+  private static final ThreadLocal<CheckDeadline> current = ThreadLocal.withInitial(() -> NONE);
+  // System.nanoTime() is only called for every n-th call of isExpired(), as it's called very often:
+  private static final int CLOCK_CHECK_INTERVAL = 64;
+
+  private final long deadlineNanos;
+  private final boolean limited;
+  private final Set<String> skippedRuleIds = ConcurrentHashMap.newKeySet();
+  private volatile boolean expired;
+  // not synchronized, losing an update only delays the next clock check:
+  private int callsUntilClockCheck;
+
+  private CheckDeadline(long deadlineNanos, boolean limited) {
+    this.deadlineNanos = deadlineNanos;
+    this.limited = limited;
+  }
+
+  /**
+   * @param millis time from now until the deadline, &lt;= 0 means the deadline has already expired
+   */
+  public static CheckDeadline after(long millis) {
+    return new CheckDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis), true);
+  }
+
+  /**
+   * The deadline of the check running in the current thread, {@link #NONE} if there's none.
+   */
+  public static CheckDeadline current() {
+    return current.get();
+  }
+
+  /**
+   * Make this the deadline of the current thread, until {@link #restore(CheckDeadline)} is called.
+   * @return the previous deadline of the current thread
+   */
+  CheckDeadline enter() {
+    CheckDeadline previous = current.get();
+    current.set(this);
+    return previous;
+  }
+
+  /**
+   * @param previous the value returned by {@link #enter()}
+   */
+  static void restore(CheckDeadline previous) {
+    if (previous == NONE) {
+      current.remove();
+    } else {
+      current.set(previous);
+    }
+  }
+
+  /**
+   * Cheap enough to be called in inner loops, as the clock is only looked at now and then.
+   * So the result may become true a little later than the deadline.
+   */
+  public boolean isExpired() {
+    if (!limited) {
+      return false;
+    }
+    if (expired) {
+      return true;
+    }
+    if (--callsUntilClockCheck > 0) {
+      return false;
+    }
+    callsUntilClockCheck = CLOCK_CHECK_INTERVAL;
+    if (System.nanoTime() - deadlineNanos >= 0) {
+      expired = true;
+    }
+    return expired;
+  }
+
+  /**
+   * Like {@link #isExpired()}, but always looks at the clock. For code that runs once per rule or task, not in inner loops.
+   */
+  boolean hasPassed() {
+    if (!limited) {
+      return false;
+    }
+    if (!expired && System.nanoTime() - deadlineNanos >= 0) {
+      expired = true;
+    }
+    return expired;
+  }
+
+  public boolean isLimited() {
+    return limited;
+  }
+
+  /**
+   * Remember that a rule hasn't been applied (completely) to all sentences because the deadline expired.
+   */
+  public void addSkippedRule(String ruleId) {
+    if (limited) {
+      skippedRuleIds.add(ruleId);
+    }
+  }
+
+  public Set<String> getSkippedRuleIds() {
+    return Collections.unmodifiableSet(skippedRuleIds);
+  }
+
+}
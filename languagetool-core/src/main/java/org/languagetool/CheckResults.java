@@ -21,9 +21,7 @@ package org.languagetool;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.rules.RuleMatch;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * @since 5.3
@@ -33,6 +31,7 @@ public class CheckResults {
   private List<RuleMatch> ruleMatches;
   private List<Range> ignoredRanges;
   private final List<SentenceRange> sentenceRanges = new ArrayList<>();
+  private final Set<String> skippedRuleIds = new TreeSet<>();
 
   public CheckResults(List<RuleMatch> ruleMatches, List<Range> ignoredRanges) {
     this.ruleMatches = Objects.requireNonNull(ruleMatches);
@@ -55,6 +54,23 @@ public class CheckResults {
     this.sentenceRanges.addAll(sentenceRanges);
   }
   
+  /**
+   * IDs of the rules that haven't been applied to all of the text, because the
+   * {@link CheckDeadline} of the check expired. Empty if the results are complete.
+   * @since 6.3
+   */
+  @NotNull
+  public Set<String> getSkippedRuleIds() {
+    return Collections.unmodifiableSet(skippedRuleIds);
+  }
+
+  /**
+   * @since 6.3
+   */
+  public void addSkippedRuleIds(Collection<String> ruleIds) {
+    skippedRuleIds.addAll(ruleIds);
+  }
+
   public void setIgnoredRanges(List<Range> ignoredRanges) {
     this.ignoredRanges = Objects.requireNonNull(ignoredRanges);
   }
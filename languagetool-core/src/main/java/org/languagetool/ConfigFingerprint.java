@@ -0,0 +1,211 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.CategoryId;
+import org.languagetool.rules.Rule;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * For internal use only. A 128 bit hash of all the settings that check results depend on.
+ * It's computed once per check, so that cache keys don't need to keep and compare all the settings.
+ * @since 6.3
+ */
+final class ConfigFingerprint {
+
+  private final long high;
+  private final long low;
+
+  private ConfigFingerprint(HashCode hash) {
+    ByteBuffer buffer = ByteBuffer.wrap(hash.asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+    this.high = buffer.getLong();
+    this.low = buffer.getLong();
+  }
+
+  /**
+   * The fingerprint of the settings of a {@link JLanguageTool} object.
+   */
+  static ConfigFingerprint of(Language lang, @Nullable Language motherTongue,
+                              Set<String> disabledRules, Set<CategoryId> disabledRuleCategories,
+                              Set<String> enabledRules, Set<CategoryId> enabledRuleCategories,
+                              @Nullable UserConfig userConfig, @Nullable List<Language> altLanguages) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    putLanguage(hasher, Objects.requireNonNull(lang));
+    putLanguage(hasher, motherTongue);
+    putStrings(hasher, disabledRules);
+    putStrings(hasher, categoryIds(disabledRuleCategories));
+    putStrings(hasher, enabledRules);
+    putStrings(hasher, categoryIds(enabledRuleCategories));
+    putUserConfig(hasher, userConfig);
+    if (altLanguages == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(altLanguages.size());
+      for (Language altLanguage : altLanguages) {
+        putLanguage(hasher, altLanguage);
+      }
+    }
+    return new ConfigFingerprint(hasher.hash());
+  }
+
+  /**
+   * The fingerprint of these settings combined with the settings of a single check.
+   */
+  ConfigFingerprint withCheckSettings(JLanguageTool.Mode mode, JLanguageTool.Level level,
+                                      @Nullable Long textSessionID, @Nullable Set<ToneTag> toneTags) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    hasher.putLong(high).putLong(low);
+    hasher.putInt(Objects.requireNonNull(mode).ordinal());
+    hasher.putInt(Objects.requireNonNull(level).ordinal());
+    hasher.putBoolean(textSessionID != null);
+    if (textSessionID != null) {
+      hasher.putLong(textSessionID);
+    }
+    List<String> toneTagNames = new ArrayList<>();
+    if (toneTags != null) {
+      for (ToneTag toneTag : toneTags) {
+        toneTagNames.add(toneTag.name());
+      }
+    }
+    putStrings(hasher, toneTagNames);
+    return new ConfigFingerprint(hasher.hash());
+  }
+
+  /**
+   * A 128 bit hash of these settings and a sentence, as a key for storing its matches outside the heap.
+   */
+  HashCode hashWith(String text) {
+    return Hashing.murmur3_128().newHasher()
+      .putLong(high)
+      .putLong(low)
+      .putString(text, StandardCharsets.UTF_8)
+      .hash();
+  }
+
+  private static void putLanguage(Hasher hasher, @Nullable Language lang) {
+    if (lang == null) {
+      hasher.putInt(0);
+    } else {
+      // same as Language.equals():
+      putString(hasher, lang.getClass().getName());
+      putString(hasher, lang.getShortCodeWithCountryAndVariant());
+    }
+  }
+
+  private static void putUserConfig(Hasher hasher, @Nullable UserConfig userConfig) {
+    if (userConfig == null) {
+      hasher.putInt(0);
+      return;
+    }
+    hasher.putInt(1);
+    // the same properties as UserConfig.equals():
+    SortedMap<String, Integer> ruleValues = new TreeMap<>(userConfig.getConfigValues());
+    hasher.putInt(ruleValues.size());
+    for (Map.Entry<String, Integer> entry : ruleValues.entrySet()) {
+      putString(hasher, entry.getKey());
+      hasher.putInt(entry.getValue());
+    }
+    List<String> userRuleIds = new ArrayList<>();
+    for (Rule rule : userConfig.getRules()) {
+      userRuleIds.add(rule.getId());
+    }
+    putStrings(hasher, userRuleIds);
+    hasher.putLong(userConfig.getPremiumUid() != null ? userConfig.getPremiumUid() : Long.MIN_VALUE);
+    putString(hasher, userConfig.getUserDictName());
+    List<String> words = userConfig.getAcceptedWords();
+    hasher.putInt(words.size());
+    for (String word : words) {
+      putString(hasher, word);
+    }
+    hasher.putBoolean(userConfig.filterDictionaryMatches());
+    List<String> abTest = userConfig.getAbTest();
+    hasher.putInt(abTest != null ? abTest.size() : -1);
+    if (abTest != null) {
+      for (String test : abTest) {
+        putString(hasher, test);
+      }
+    }
+    hasher.putBoolean(userConfig.getHidePremiumMatches());
+    putString(hasher, String.join(",", userConfig.getPreferredLanguages()));
+  }
+
+  @Nullable
+  private static List<String> categoryIds(@Nullable Set<CategoryId> ids) {
+    if (ids == null) {
+      return null;
+    }
+    List<String> result = new ArrayList<>(ids.size());
+    for (CategoryId id : ids) {
+      result.add(id.toString());
+    }
+    return result;
+  }
+
+  /**
+   * Sorted, so that equal sets always get the same hash.
+   */
+  private static void putStrings(Hasher hasher, @Nullable Collection<String> strings) {
+    if (strings == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    List<String> sorted = new ArrayList<>(strings);
+    Collections.sort(sorted);
+    hasher.putInt(sorted.size());
+    for (String s : sorted) {
+      putString(hasher, s);
+    }
+  }
+
+  private static void putString(Hasher hasher, @Nullable String s) {
+    if (s == null) {
+      hasher.putInt(-1);
+    } else {
+      // the length avoids collisions like ["ab", "c"] vs. ["a", "bc"]:
+      hasher.putInt(s.length());
+      hasher.putString(s, StandardCharsets.UTF_8);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ConfigFingerprint other = (ConfigFingerprint) o;
+    return high == other.high && low == other.low;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (low ^ (low >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%016x%016x", high, low);
+  }
+}
@@ -0,0 +1,67 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link SecondLevelResultCache} in the heap of the current process, as a reference implementation
+ * and for tests. It can be shared by several {@link ResultCache} objects, but not by several processes.
+ * @since 6.3
+ */
+public class InMemorySecondLevelResultCache implements SecondLevelResultCache {
+
+  private static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+  private final Cache<ByteBuffer, byte[]> cache;
+
+  public InMemorySecondLevelResultCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * @param maxBytes maximum size of all keys and values
+   */
+  public InMemorySecondLevelResultCache(long maxBytes) {
+    cache = CacheBuilder.newBuilder()
+      .maximumWeight(maxBytes)
+      .weigher((ByteBuffer key, byte[] value) -> key.capacity() + value.length)
+      .build();
+  }
+
+  @Override
+  public CompletableFuture<byte[]> get(byte[] key) {
+    return CompletableFuture.completedFuture(cache.getIfPresent(ByteBuffer.wrap(key)));
+  }
+
+  @Override
+  public CompletableFuture<Void> put(byte[] key, byte[] value) {
+    cache.put(ByteBuffer.wrap(key.clone()), value.clone());
+    return CompletableFuture.completedFuture(null);
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+}
@@ -18,50 +18,40 @@
  */
 package org.languagetool;
 
+import com.google.common.hash.HashCode;
 import org.languagetool.rules.CategoryId;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
 /**
- * For internal use only. Used as a key for caching check results.
+ * For internal use only. Used as a key for caching check results: the sentence
+ * and a {@link ConfigFingerprint} of all the settings the results depend on.
  * @since 3.7
  */
 class InputSentence {
 
   private final String text;
-  private final Language lang;
-  private final Language motherTongue;
-  private final Set<String> disabledRules;
-  private final Set<CategoryId> disabledRuleCategories;
-  private final Set<String> enabledRules;
-  private final Set<CategoryId> enabledRuleCategories;
-  private final UserConfig userConfig;
-  private final List<Language> altLanguages;
-  private final JLanguageTool.Mode mode;
-  private final JLanguageTool.Level level;
-  private final Long textSessionID;
-  private final Set<ToneTag> toneTags;
+  private final ConfigFingerprint config;
+  private final int hash;
+
+  /**
+   * @param config the fingerprint of the settings, including the ones from {@link ConfigFingerprint#withCheckSettings}
+   * @since 6.3
+   */
+  InputSentence(String text, ConfigFingerprint config) {
+    this.text = Objects.requireNonNull(text);
+    this.config = Objects.requireNonNull(config);
+    this.hash = 31 * text.hashCode() + config.hashCode();
+  }
 
   InputSentence(String text, Language lang, Language motherTongue,
                 Set<String> disabledRules, Set<CategoryId> disabledRuleCategories,
                 Set<String> enabledRules, Set<CategoryId> enabledRuleCategories, UserConfig userConfig,
                 List<Language> altLanguages, JLanguageTool.Mode mode, JLanguageTool.Level level, Long textSessionID, Set<ToneTag> toneTags) {
-    this.text = Objects.requireNonNull(text);
-    this.lang = Objects.requireNonNull(lang);
-    this.motherTongue = motherTongue;
-    this.disabledRules = disabledRules;
-    this.disabledRuleCategories = disabledRuleCategories;
-    this.enabledRules = enabledRules;
-    this.enabledRuleCategories = enabledRuleCategories;
-    this.userConfig = userConfig;
-    this.textSessionID = textSessionID;
-    this.altLanguages = altLanguages;
-    this.mode = Objects.requireNonNull(mode);
-    this.level = Objects.requireNonNull(level);
-    this.toneTags = toneTags != null ? toneTags : Collections.emptySet();
+    this(text, ConfigFingerprint.of(lang, motherTongue, disabledRules, disabledRuleCategories,
+      enabledRules, enabledRuleCategories, userConfig, altLanguages).withCheckSettings(mode, level, textSessionID, toneTags));
   }
 
   InputSentence(String text, Language lang, Language motherTongue,
@@ -86,6 +76,14 @@ class InputSentence {
   public String getText() {
     return text;
   }
+
+  /**
+   * A 128 bit hash of this key, for storing results outside the heap.
+   * @since 6.3
+   */
+  HashCode getLongHash() {
+    return config.hashWith(text);
+  }
   
   @Override
   public boolean equals(Object o) {
@@ -93,25 +91,14 @@ class InputSentence {
     if (o == this) return true;
     if (o.getClass() != getClass()) return false;
     InputSentence other = (InputSentence) o;
-    return Objects.equals(text, other.text) && 
-           Objects.equals(lang, other.lang) &&
-           Objects.equals(motherTongue, other.motherTongue) &&
-           Objects.equals(disabledRules, other.disabledRules) &&
-           Objects.equals(disabledRuleCategories, other.disabledRuleCategories) &&
-           Objects.equals(enabledRules, other.enabledRules) &&
-           Objects.equals(enabledRuleCategories, other.enabledRuleCategories) &&
-           Objects.equals(userConfig, other.userConfig) &&
-           Objects.equals(textSessionID, other.textSessionID) &&
-           Objects.equals(altLanguages, other.altLanguages) &&
-           mode == other.mode &&
-           level == other.level &&
-           Objects.equals(toneTags, other.toneTags);
+    return hash == other.hash &&
+           config.equals(other.config) &&
+           text.equals(other.text);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(text, lang, motherTongue, disabledRules, disabledRuleCategories,
-            enabledRules, enabledRuleCategories, userConfig, textSessionID, altLanguages, mode, level, toneTags);
+    return hash;
   }
 
   @Override
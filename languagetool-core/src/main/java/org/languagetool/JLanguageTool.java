@@ -584,7 +584,7 @@ public class JLanguageTool {
     } catch (Exception e) {
       throw new RuntimeException("Could not load language model capable rules.", e);
     }
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -638,7 +638,7 @@ public class JLanguageTool {
     Function<Rule, Rule> enhanced = language.getRemoteEnhancedRules(getMessageBundle(language), configs, userConfig, motherTongue, altLanguages, inputLogging);
     transformRules(enhanced, builtinRules);
     transformRules(enhanced, userRules);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -685,7 +685,7 @@ public class JLanguageTool {
     throws ParserConfigurationException, SAXException, IOException {
     String falseFriendRulesFilename = JLanguageTool.getDataBroker().getRulesDir() + "/" + FALSE_FRIEND_FILE;
     userRules.addAll(loadFalseFriendRules(falseFriendRulesFilename));
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -704,7 +704,7 @@ public class JLanguageTool {
    */
   public void addRule(Rule rule) {
     userRules.add(rule);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -716,7 +716,7 @@ public class JLanguageTool {
   public void disableRule(String ruleId) {
     disabledRules.add(ruleId);
     enabledRules.remove(ruleId);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -728,7 +728,7 @@ public class JLanguageTool {
   public void disableRules(List<String> ruleIds) {
     disabledRules.addAll(ruleIds);
     enabledRules.removeAll(ruleIds);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -741,7 +741,7 @@ public class JLanguageTool {
   public void disableCategory(CategoryId id) {
     disabledRuleCategories.add(id);
     enabledRuleCategories.remove(id);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -780,7 +780,7 @@ public class JLanguageTool {
   public void enableRule(String ruleId) {
     disabledRules.remove(ruleId);
     enabledRules.add(ruleId);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -793,7 +793,7 @@ public class JLanguageTool {
   public void enableRuleCategory(CategoryId id) {
     disabledRuleCategories.remove(id);
     enabledRuleCategories.add(id);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -923,12 +923,30 @@ public class JLanguageTool {
   
   public CheckResults check2(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
                              Mode mode, Level level, @NotNull Set<ToneTag> toneTags, @Nullable Long textSessionID) throws IOException {
-    annotatedText = cleanText(annotatedText);
-    List<String> sentences = getSentences(annotatedText, tokenizeText);
-    List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, toneTags, textSessionID, sentences, analyzedSentences);
-    checkResults.addSentenceRanges(SentenceRange.getRangesFromSentences(annotatedText, sentences));
-    return checkResults;
+    return check2(annotatedText, tokenizeText, paraMode, listener, mode, level, toneTags, textSessionID, CheckDeadline.NONE);
+  }
+
+  /**
+   * Like {@link #check2(AnnotatedText, boolean, ParagraphHandling, RuleMatchListener, Mode, Level, Set, Long)}, but
+   * stops when the deadline expires and returns the matches found until then. The rules that haven't been
+   * applied to all sentences are listed in {@link CheckResults#getSkippedRuleIds()}.
+   * @since 6.3
+   */
+  public CheckResults check2(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
+                             Mode mode, Level level, @NotNull Set<ToneTag> toneTags, @Nullable Long textSessionID,
+                             @NotNull CheckDeadline deadline) throws IOException {
+    CheckDeadline previousDeadline = deadline.enter();
+    try {
+      annotatedText = cleanText(annotatedText);
+      List<String> sentences = getSentences(annotatedText, tokenizeText);
+      List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+      CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, toneTags, textSessionID, sentences, analyzedSentences);
+      checkResults.addSentenceRanges(SentenceRange.getRangesFromSentences(annotatedText, sentences));
+      checkResults.addSkippedRuleIds(deadline.getSkippedRuleIds());
+      return checkResults;
+    } finally {
+      CheckDeadline.restore(previousDeadline);
+    }
   }
 
   private List<String> getSentences(AnnotatedText annotatedText, boolean tokenizeText) {
@@ -996,7 +1014,7 @@ public class JLanguageTool {
     List<Integer> requestSize = new ArrayList<>();
     ExecutorService remoteRulesThreadPool =
       mode == Mode.TEXTLEVEL_ONLY || remoteRules.isEmpty() ? null :
-      LtThreadPoolFactory.getFixedThreadPoolExecutor(LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL).orElse(null);
+      LtThreadPoolFactory.getExecutorService(LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL).orElse(null);
     if (remoteRulesThreadPool != null) {
       // trigger remote rules to run on whole text at once, at the start, then we wait for the results
       remoteRuleTasks = new ArrayList<>();
@@ -1077,6 +1095,42 @@ public class JLanguageTool {
   }
 
   private final Map<LevelToneTagCacheKey, RuleSet> ruleSetCache = new ConcurrentHashMap<>();
+  // fingerprint of the settings the result cache keys depend on, null after the settings have been changed:
+  private volatile ConfigFingerprint configFingerprint;
+  // rules by full id, for decoding rule matches stored outside the heap, null after the rules have been changed:
+  private volatile Map<String, Rule> rulesByFullId;
+
+  private void clearRuleCaches() {
+    ruleSetCache.clear();
+    configFingerprint = null;
+    rulesByFullId = null;
+  }
+
+  @Nullable
+  private Rule getRuleByFullId(String fullId) {
+    Map<String, Rule> rules = rulesByFullId;
+    if (rules == null) {
+      rules = new HashMap<>();
+      for (Rule rule : getAllRules()) {
+        rules.putIfAbsent(rule.getFullId(), rule);
+      }
+      for (Rule rule : userConfig.getRules()) {
+        rules.putIfAbsent(rule.getFullId(), rule);
+      }
+      rulesByFullId = rules;
+    }
+    return rules.get(fullId);
+  }
+
+  private ConfigFingerprint getConfigFingerprint(Mode mode, Level level, Long textSessionID, Set<ToneTag> toneTags) {
+    ConfigFingerprint fingerprint = configFingerprint;
+    if (fingerprint == null) {
+      fingerprint = ConfigFingerprint.of(language, motherTongue, disabledRules, disabledRuleCategories,
+        enabledRules, enabledRuleCategories, userConfig, altLanguages);
+      configFingerprint = fingerprint;
+    }
+    return fingerprint.withCheckSettings(mode, level, textSessionID, toneTags);
+  }
 
   private RuleSet getActiveRulesForLevelAndToneTags(Level level, Set<ToneTag> toneTags) {
     LevelToneTagCacheKey key = new LevelToneTagCacheKey(level, toneTags);
@@ -1187,17 +1241,16 @@ public class JLanguageTool {
     if (result.isRemote()) {
       RemoteRuleMetrics.request(ruleKey, deadlineStartNanos, chars, loggedResult);
     }
+    ConfigFingerprint cacheConfig = cache != null && result.isSuccess() ? getConfigFingerprint(mode, level, textSessionID, toneTags) : null;
     for (int sentenceIndex = 0; sentenceIndex < analyzedSentences.size(); sentenceIndex++) {
       AnalyzedSentence sentence = analyzedSentences.get(sentenceIndex);
       List<RuleMatch> matches = result.matchesForSentence(sentence);
       if (matches == null) {
         continue;
       }
-      if (cache != null && result.isSuccess()) {
+      if (cacheConfig != null) {
         // store in cache
-        InputSentence cacheKey = new InputSentence(
-          sentence.getText(), language, motherTongue, disabledRules, disabledRuleCategories,
-          enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level, textSessionID, toneTags);
+        InputSentence cacheKey = new InputSentence(sentence.getText(), cacheConfig);
         Map<String, List<RuleMatch>> cacheEntry = cache.getRemoteMatchesCache().get(cacheKey, HashMap::new);
         cacheEntry.put(ruleKey, matches);
       }
@@ -1232,17 +1285,15 @@ public class JLanguageTool {
                                 List<FutureTask<RemoteRuleResult>> remoteRuleTasks, List<Integer> requestSize,
                                 Map<Integer, List<RuleMatch>> cachedResults, Map<Integer, Integer> matchOffset,
                                 Long textSessionID, ExecutorService executor, Set<ToneTag> toneTags) {
-    List<InputSentence> cacheKeys = new LinkedList<>();
+    List<InputSentence> cacheKeys = new ArrayList<>(analyzedSentences.size());
+    ConfigFingerprint cacheConfig = getConfigFingerprint(mode, level, textSessionID, toneTags);
     int offset = 0;
     // prepare keys for caching, offsets for adjusting match positions
     for (int i = 0; i < analyzedSentences.size(); i++) {
       AnalyzedSentence s = analyzedSentences.get(i);
       matchOffset.put(i, offset);
       offset += s.getText().length();
-      InputSentence cacheKey = new InputSentence(s.getText(), language, motherTongue,
-        disabledRules, disabledRuleCategories, enabledRules, enabledRuleCategories,
-        userConfig, altLanguages, mode, level, textSessionID, toneTags);
-      cacheKeys.add(cacheKey);
+      cacheKeys.add(new InputSentence(s.getText(), cacheConfig));
     }
     for (RemoteRule rule : rules) {
       FutureTask<RemoteRuleResult> task;
@@ -1356,7 +1407,8 @@ public class JLanguageTool {
   protected CheckResults performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentenceTexts,
                                          RuleSet ruleSet, ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules, Set<ToneTag> toneTags) throws IOException {
     List<SentenceData> sentences = computeSentenceData(analyzedSentences, sentenceTexts);
-    Callable<CheckResults> matcher = new TextCheckCallable(ruleSet, sentences, paraMode, annotatedText, listener, mode, level, checkRemoteRules, toneTags);
+    Callable<CheckResults> matcher = new TextCheckCallable(ruleSet, sentences, paraMode, annotatedText, listener, mode, level, checkRemoteRules, toneTags,
+      CheckDeadline.current());
     try {
       return matcher.call();
     } catch (IOException e) {
@@ -1426,6 +1478,7 @@ public class JLanguageTool {
     List<RuleMatch> sentenceMatches = new ArrayList<>();
     List<String> errorRateLog = new ArrayList<>();
     float tmpErrorsPerWord = 0.0f;
+    CheckDeadline deadline = CheckDeadline.current();
     for (int i = 0, rulesSize = rules.size(); i < rulesSize; i++) {
       Rule rule = rules.get(i);
       if (rule instanceof TextLevelRule || !checkRemoteRules && rule instanceof RemoteRule) {
@@ -1453,6 +1506,11 @@ public class JLanguageTool {
             " this sentence has " + sentenceMatches.size() + " matches");
         }
       }
+      if (deadline.isExpired()) {
+        // pattern rules stop matching when the deadline expires, so this rule counts as skipped, too:
+        addSkippedRules(deadline, rules.subList(i, rulesSize), checkRemoteRules);
+        break;
+      }
     }
     if (sentenceMatches.isEmpty()) {
       return sentenceMatches;
@@ -1467,6 +1525,14 @@ public class JLanguageTool {
     return applyCustomFilters(new SameRuleGroupFilter().filter(sentenceMatches), text);
   }
 
+  private static void addSkippedRules(CheckDeadline deadline, List<Rule> rules, boolean checkRemoteRules) {
+    for (Rule rule : rules) {
+      if (!(rule instanceof TextLevelRule) && (checkRemoteRules || !(rule instanceof RemoteRule))) {
+        deadline.addSkippedRule(rule.getId());
+      }
+    }
+  }
+
   private boolean ignoreRule(Rule rule) {
     Category ruleCategory = rule.getCategory();
     boolean isCategoryDisabled = (disabledRuleCategories.contains(ruleCategory.getId()) || rule.getCategory().isDefaultOff())
@@ -1603,12 +1669,19 @@ public class JLanguageTool {
       return cachedSentence;
     } else {
       AnalyzedSentence raw = getRawAnalyzedSentence(sentence);
-      AnalyzedSentence disambig = language.getDisambiguator().disambiguate(raw, checkCancelledCallback);
+      CheckDeadline deadline = CheckDeadline.current();
+      CheckCancelledCallback cancelledCallback = checkCancelledCallback;
+      if (deadline.isLimited()) {
+        CheckCancelledCallback callback = checkCancelledCallback;
+        cancelledCallback = () -> deadline.isExpired() || callback != null && callback.checkCancelled();
+      }
+      AnalyzedSentence disambig = language.getDisambiguator().disambiguate(raw, cancelledCallback);
       AnalyzedSentence analyzedSentence = new AnalyzedSentence(disambig.getTokens(), raw.getTokens());
       if (language.getPostDisambiguationChunker() != null) {
         language.getPostDisambiguationChunker().addChunkTags(Arrays.asList(analyzedSentence.getTokens()));
       }
-      if (cache != null) {
+      // the disambiguation may have been stopped by the deadline, so don't keep the result:
+      if (cache != null && !deadline.isExpired()) {
         cache.put(cacheKey, analyzedSentence);
       }
       return analyzedSentence;
@@ -1917,10 +1990,12 @@ public class JLanguageTool {
     private final Mode mode;
     private final Level level;
     private final Set<ToneTag> toneTags;
+    private final CheckDeadline deadline;
 
     TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText,
-                      RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules, Set<ToneTag> toneTags) {
+                      RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules, Set<ToneTag> toneTags,
+                      CheckDeadline deadline) {
       this.rules = rules;
       this.checkRemoteRules = checkRemoteRules;
       this.sentences = Objects.requireNonNull(sentences);
@@ -1930,10 +2005,21 @@ public class JLanguageTool {
       this.mode = Objects.requireNonNull(mode);
       this.level = Objects.requireNonNull(level);
       this.toneTags = toneTags;
+      this.deadline = Objects.requireNonNull(deadline);
     }
 
     @Override
     public CheckResults call() throws Exception {
+      // this may run in a thread pool, so make the deadline known to the rules of this thread:
+      CheckDeadline previousDeadline = deadline.enter();
+      try {
+        return check();
+      } finally {
+        CheckDeadline.restore(previousDeadline);
+      }
+    }
+
+    private CheckResults check() throws Exception {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<Range> ignoreRanges = new ArrayList<>();
       if (mode == Mode.ALL) {
@@ -1963,6 +2049,10 @@ public class JLanguageTool {
           if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
             break;
           }
+          if (deadline.isExpired()) {
+            deadline.addSkippedRule(rule.getId());
+            continue;
+          }
           if (analyzedSentences == null) {
             analyzedSentences = sentences.stream().map(s -> s.analyzed).collect(Collectors.toList());
           }
@@ -2006,8 +2096,23 @@ public class JLanguageTool {
       int wordCounter = 0;
       float tmpErrorsPerWord = 0.0f;
       List<String> errorRateLog = new ArrayList<>();
+      ConfigFingerprint cacheConfig = cache != null ? getConfigFingerprint(mode, level, null, toneTags) : null;
+      List<InputSentence> cacheKeys = new ArrayList<>();
+      if (cache != null) {
+        for (SentenceData sentence : sentences) {
+          cacheKeys.add(new InputSentence(sentence.text, cacheConfig));
+        }
+      }
+      // start all lookups in the shared cache now, so we don't wait for them one by one:
+      ResultCache.SecondLevelLookup secondLevelLookup = cache != null ? cache.lookUpInSecondLevel(cacheKeys) : null;
       for (int i = 0, sentencesSize = sentences.size(); i < sentencesSize; i++) {
         SentenceData sentence = sentences.get(i);
+        if (deadline.isExpired()) {
+          List<Rule> remainingRules = new ArrayList<>(this.rules.allRules());
+          remainingRules.addAll(userConfig.getRules());
+          addSkippedRules(deadline, remainingRules, checkRemoteRules);
+          break;
+        }
         wordCounter += sentence.wordCount;
         try {
           //comment in to trigger an exception via input text:
@@ -2017,10 +2122,8 @@ public class JLanguageTool {
           List<RuleMatch> sentenceMatches = null;
           InputSentence cacheKey = null;
           if (cache != null) {
-            cacheKey = new InputSentence(sentence.text, language, motherTongue,
-                    disabledRules, disabledRuleCategories,
-                    enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level, toneTags);
-            sentenceMatches = cache.getIfPresent(cacheKey);
+            cacheKey = cacheKeys.get(i);
+            sentenceMatches = cache.getIfPresent(cacheKey, sentence.analyzed, JLanguageTool.this::getRuleByFullId, secondLevelLookup);
           }
           if (sentenceMatches == null) {
 
@@ -2028,7 +2131,8 @@ public class JLanguageTool {
             rules.addAll(userConfig.getRules());
             sentenceMatches = checkAnalyzedSentence(paraMode, rules, sentence.analyzed, checkRemoteRules, textWordCounter);
           }
-          if (cache != null) {
+          // matches found after the deadline has expired may be incomplete:
+          if (cache != null && !deadline.isExpired()) {
             cache.put(cacheKey, sentenceMatches);
           }
           if (!sentenceMatches.isEmpty()) {
@@ -2111,6 +2215,7 @@ public class JLanguageTool {
 
   public void setConfigValues(Map<String, Integer> v) {
     userConfig.insertConfigValues(v);
+    configFingerprint = null;
   }
 
 }
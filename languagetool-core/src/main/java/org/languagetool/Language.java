@@ -23,6 +23,7 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.broker.ResourceDataBroker;
 import org.languagetool.chunking.Chunker;
 import org.languagetool.language.Contributor;
+import org.languagetool.languagemodel.HashedNgramLanguageModel;
 import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.languagemodel.LuceneLanguageModel;
 import org.languagetool.markup.AnnotatedText;
@@ -183,7 +184,9 @@ public abstract class Language {
   protected LanguageModel initLanguageModel(File indexDir, LanguageModel languageModel) {
     if (languageModel == null) {
       File topIndexDir = new File(indexDir, getShortCode());
-      if (topIndexDir.exists()) {
+      if (HashedNgramLanguageModel.isHashedNgramDirectory(topIndexDir)) {
+        languageModel = new HashedNgramLanguageModel(topIndexDir);
+      } else if (topIndexDir.exists()) {
         languageModel = new LuceneLanguageModel(topIndexDir);
       } else if (noLmWarningPrinted.compareAndSet(false, true)) {
         System.err.println("WARN: ngram index dir " + topIndexDir + " not found for " + getName());
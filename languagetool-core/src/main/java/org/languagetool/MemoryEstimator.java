@@ -0,0 +1,153 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap memory retained by cached objects, so that {@link ResultCache} can be limited
+ * by a memory budget. The numbers assume a 64 bit JVM with compressed references. Objects that are
+ * shared with other cache entries or with the rules (like {@link org.languagetool.rules.Rule} objects
+ * or the sentence referenced by a {@link RuleMatch}) are not counted.
+ * @since 6.3
+ */
+final class MemoryEstimator {
+
+  // object header plus alignment:
+  private static final int OBJECT = 16;
+  private static final int REFERENCE = 4;
+  // String object plus its array:
+  private static final int STRING = 40;
+  // internal node of a hash map or cache entry:
+  private static final int MAP_ENTRY = 48;
+  // a RuleMatch with its positions, without strings and suggestions:
+  private static final int RULE_MATCH = 136;
+  // guess for suggestions that haven't been computed yet:
+  private static final int LAZY_SUGGESTIONS = 64;
+
+  private MemoryEstimator() {
+  }
+
+  static long estimate(InputSentence key) {
+    return OBJECT + 3 * REFERENCE + string(key.getText()) + OBJECT + 16;
+  }
+
+  static long estimate(SimpleInputSentence key) {
+    return OBJECT + 2 * REFERENCE + string(key.getText());
+  }
+
+  static long estimate(AnalyzedSentence sentence) {
+    AnalyzedTokenReadings[] tokens = sentence.getTokens();
+    AnalyzedTokenReadings[] preDisambigTokens = sentence.getPreDisambigTokens();
+    int nonBlankCount = sentence.getTokensWithoutWhitespace().length;
+    long size = OBJECT + 8 * REFERENCE;
+    size += array(tokens.length) + array(preDisambigTokens.length) + 2 * array(nonBlankCount);
+    size += array(tokens.length + 1);  // whitespace positions
+    // token and lemma offset maps, each with about one entry and one list per token:
+    size += 2 * (array(nonBlankCount) + nonBlankCount * (MAP_ENTRY + OBJECT + array(1) + OBJECT));
+    for (int i = 0; i < tokens.length; i++) {
+      size += estimate(tokens[i]);
+      if (preDisambigTokens != tokens && i < preDisambigTokens.length && preDisambigTokens[i] != tokens[i]) {
+        size += estimate(preDisambigTokens[i]);
+      }
+    }
+    return size;
+  }
+
+  static long estimate(AnalyzedTokenReadings readings) {
+    long size = OBJECT + 48;
+    String token = readings.getToken();
+    size += string(token);
+    String cleanToken = readings.getCleanToken();
+    if (cleanToken != token) {
+      size += string(cleanToken);
+    }
+    int readingsLength = readings.getReadingsLength();
+    size += array(readingsLength);
+    for (int i = 0; i < readingsLength; i++) {
+      AnalyzedToken reading = readings.getAnalyzedToken(i);
+      size += OBJECT + 4 * REFERENCE + 8;
+      size += string(reading.getPOSTag());
+      if (reading.getLemma() != token) {
+        size += string(reading.getLemma());
+      }
+    }
+    return size;
+  }
+
+  static long estimate(List<RuleMatch> matches) {
+    long size = OBJECT + array(matches.size());
+    for (RuleMatch match : matches) {
+      size += estimate(match);
+    }
+    return size;
+  }
+
+  static long estimate(Map<String, List<RuleMatch>> matchesByRule) {
+    long size = OBJECT + array(matchesByRule.size());
+    for (List<RuleMatch> matches : matchesByRule.values()) {
+      // the keys are rule ids, which are shared with the rules
+      size += MAP_ENTRY + (matches != null ? estimate(matches) : 0);
+    }
+    return size;
+  }
+
+  static long estimate(RuleMatch match) {
+    long size = RULE_MATCH;
+    size += string(match.getMessage());
+    size += string(match.getShortMessage());
+    if (match.getUrl() != null) {
+      size += OBJECT + 4 * STRING;
+    }
+    if (match.hasLazySuggestedReplacements()) {
+      // don't compute suggestions just to weigh them
+      size += LAZY_SUGGESTIONS;
+    } else {
+      List<SuggestedReplacement> suggestions = match.getSuggestedReplacementObjects();
+      size += OBJECT + array(suggestions.size());
+      for (SuggestedReplacement suggestion : suggestions) {
+        size += OBJECT + 6 * REFERENCE;
+        size += string(suggestion.getReplacement());
+        size += string(suggestion.getShortDescription());
+      }
+    }
+    return size;
+  }
+
+  private static long string(@Nullable String s) {
+    return s == null ? 0 : STRING + 2L * s.length();
+  }
+
+  private static long array(int length) {
+    return OBJECT + (long) length * REFERENCE;
+  }
+
+  /**
+   * @return {@code size} as a weight for the cache, which only accepts {@code int}
+   */
+  static int toWeight(long size) {
+    return (int) Math.min(Integer.MAX_VALUE, MAP_ENTRY + size);
+  }
+
+}
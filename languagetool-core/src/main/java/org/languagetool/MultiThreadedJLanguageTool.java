@@ -21,8 +21,10 @@ package org.languagetool;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.languagetool.markup.AnnotatedText;
+import org.languagetool.rules.RemoteRule;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
 import org.languagetool.rules.patterns.RuleSet;
 
 import java.io.IOException;
@@ -44,6 +46,11 @@ import java.util.stream.IntStream;
  */
 public class MultiThreadedJLanguageTool extends JLanguageTool {
   
+  // rules with fewer sentences are not split into several tasks:
+  private static final int MIN_SENTENCES_PER_TASK = 10;
+
+  static final RuleCostHistory costHistory = new RuleCostHistory();
+
   private final int threadPoolSize;
   private final ExecutorService threadPool;
 
@@ -182,25 +189,30 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
       }
     }
 
-    AtomicInteger ruleIndex = new AtomicInteger();
-    Map<Integer, List<RuleMatch>> ruleMatches = new TreeMap<>();
+    List<RuleTask> tasks = createTasks(allRules, map);
+    // the tasks run in other threads, which don't know the deadline of this thread:
+    CheckDeadline deadline = CheckDeadline.current();
+    AtomicInteger taskIndex = new AtomicInteger();
+    Map<Long, List<RuleMatch>> ruleMatches = new TreeMap<>();
     List<Range> ignoreRanges = new ArrayList<>();
     List<Future<?>> futures = IntStream.range(0, getThreadPoolSize()).mapToObj(__ -> getExecutorService().submit(() -> {
       while (true) {
-        int index = ruleIndex.getAndIncrement();
-        if (index >= allRules.size()) return null;
-
-        Rule rule = allRules.get(index);
-        BitSet applicable = map.get(rule);
-        if (applicable == null) continue;
+        int index = taskIndex.getAndIncrement();
+        if (index >= tasks.size()) return null;
 
+        RuleTask task = tasks.get(index);
+        long startTime = System.nanoTime();
         // less need for special treatment of remote rules when execution is already parallel
-        CheckResults res = new TextCheckCallable(RuleSet.plain(Collections.singletonList(rule)),
-          RuleSet.filterList(applicable, sentences),
-          paraMode, annotatedText, listener, mode, level, true, toneTags).call();
+        CheckResults res = new TextCheckCallable(RuleSet.plain(Collections.singletonList(task.rule)),
+          RuleSet.filterList(task.sentences, sentences),
+          paraMode, annotatedText, listener, mode, level, true, toneTags, deadline).call();
+        // a rule stopped by the deadline hasn't checked all its sentences, its time would make it look cheaper than it is:
+        if (!deadline.hasPassed()) {
+          costHistory.add(getLanguage(), task.rule, task.sentences.cardinality(), System.nanoTime() - startTime);
+        }
         if (!res.getRuleMatches().isEmpty()) {
           synchronized (ruleMatches) {
-            ruleMatches.put(index, res.getRuleMatches());
+            ruleMatches.put(task.getOrderKey(), res.getRuleMatches());
           }
           synchronized (ignoreRanges) {
             ignoreRanges.addAll(res.getIgnoredRanges());
@@ -221,8 +233,96 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     return new CheckResults(rm, ignoreRanges);
   }
 
+  /**
+   * Create one task per rule, except for expensive rules, which get split into tasks for ranges
+   * of sentences, so they can run on several threads instead of making the others wait for them.
+   * The costs are estimated from earlier checks, and the most expensive tasks come first.
+   */
+  List<RuleTask> createTasks(List<Rule> allRules, Map<Rule, BitSet> applicableSentences) {
+    Language lang = getLanguage();
+    double defaultCost = costHistory.getAverageNanosPerSentence(lang, 1);
+    List<RuleTask> ruleTasks = new ArrayList<>();
+    double totalCost = 0;
+    for (int i = 0; i < allRules.size(); i++) {
+      Rule rule = allRules.get(i);
+      BitSet applicable = applicableSentences.get(rule);
+      if (applicable == null) continue;
+      double cost = costHistory.getNanosPerSentence(lang, rule, defaultCost) * applicable.cardinality();
+      ruleTasks.add(new RuleTask(i, 0, rule, applicable, cost));
+      totalCost += cost;
+    }
+    double maxTaskCost = totalCost / (getThreadPoolSize() * 2);
+    List<RuleTask> tasks = new ArrayList<>();
+    for (RuleTask task : ruleTasks) {
+      int chunks = 1;
+      if (task.cost > maxTaskCost && canSplit(task.rule)) {
+        int maxChunks = Math.min(getThreadPoolSize(), task.sentences.cardinality() / MIN_SENTENCES_PER_TASK);
+        chunks = (int) Math.min(Math.ceil(task.cost / maxTaskCost), maxChunks);
+      }
+      if (chunks > 1) {
+        tasks.addAll(task.split(chunks));
+      } else {
+        tasks.add(task);
+      }
+    }
+    // stable sort, so tasks with the same cost keep the rule order:
+    tasks.sort(Comparator.comparingDouble((RuleTask task) -> task.cost).reversed());
+    return tasks;
+  }
+
+  private static boolean canSplit(Rule rule) {
+    // text level rules need all sentences, remote rules are more efficient with more sentences per request:
+    return !(rule instanceof TextLevelRule) && !(rule instanceof RemoteRule);
+  }
+
+  /**
+   * A rule and the sentences it needs to check.
+   */
+  static class RuleTask {
+    final int ruleIndex;
+    final int chunk;
+    final Rule rule;
+    final BitSet sentences;
+    final double cost;
+
+    RuleTask(int ruleIndex, int chunk, Rule rule, BitSet sentences, double cost) {
+      this.ruleIndex = ruleIndex;
+      this.chunk = chunk;
+      this.rule = rule;
+      this.sentences = sentences;
+      this.cost = cost;
+    }
+
+    /**
+     * Split into tasks for consecutive ranges of sentences with (almost) the same number of sentences.
+     */
+    List<RuleTask> split(int chunks) {
+      int sentenceCount = sentences.cardinality();
+      List<RuleTask> result = new ArrayList<>(chunks);
+      int sentence = sentences.nextSetBit(0);
+      for (int i = 0; i < chunks; i++) {
+        int chunkSize = sentenceCount / chunks + (i < sentenceCount % chunks ? 1 : 0);
+        BitSet chunkSentences = new BitSet();
+        for (int j = 0; j < chunkSize; j++) {
+          chunkSentences.set(sentence);
+          sentence = sentences.nextSetBit(sentence + 1);
+        }
+        result.add(new RuleTask(ruleIndex, i, rule, chunkSentences, cost * chunkSize / sentenceCount));
+      }
+      return result;
+    }
+
+    /**
+     * Sorts the matches by rule, then by sentence, like in a check that isn't split into tasks.
+     */
+    long getOrderKey() {
+      return ((long) ruleIndex << 32) | chunk;
+    }
+  }
+
   private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
     private final String sentence;
+    private final CheckDeadline deadline = CheckDeadline.current();
 
     private AnalyzeSentenceCallable(String sentence) {
       this.sentence = sentence;
@@ -230,7 +330,12 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
 
     @Override
     public AnalyzedSentence call() throws Exception {
-      return getAnalyzedSentence(sentence);
+      CheckDeadline previousDeadline = deadline.enter();
+      try {
+        return getAnalyzedSentence(sentence);
+      } finally {
+        CheckDeadline.restore(previousDeadline);
+      }
     }
   }
   
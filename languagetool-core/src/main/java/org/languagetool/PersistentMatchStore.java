@@ -0,0 +1,390 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.hash.HashCode;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A memory-mapped, append-only file of encoded sentence matches, so that the matches of
+ * popular sentences survive a restart. Each record holds a 128 bit hash of the cache key,
+ * the sentence text (to rule out hash collisions) and the data. An index of the records is
+ * kept on the heap and rebuilt from the file when it's opened. When the file is full, it's
+ * compacted: records that have been superseded are dropped and, if that isn't enough, the oldest
+ * records. The file starts with the LanguageTool version; a file written by another version
+ * is discarded, as its matches may be outdated. A file must not be used by more than one process.
+ * @since 6.3
+ */
+final class PersistentMatchStore implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(PersistentMatchStore.class);
+
+  private static final int MAGIC = 0x4C54504D;  // "LTPM"
+  private static final int FORMAT_VERSION = 1;
+  // record header: body length, CRC32 of the body
+  private static final int RECORD_HEADER = 8;
+  // body: key hash, text length, text, data
+  private static final int KEY_BYTES = 16;
+  // after compaction, at most this part of the file is used, so there's room for new records:
+  private static final double COMPACTED_FILL_RATIO = 0.5;
+  // null if the JVM doesn't let us unmap buffers, then the garbage collector unmaps them at some point:
+  @Nullable
+  private static final BufferCleaner CLEANER = createCleaner();
+
+  private final File file;
+  private final int capacity;
+  private final byte[] header;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // record offset by key hash, in the order the records were written:
+  private LinkedHashMap<HashCode, Integer> index = new LinkedHashMap<>();
+
+  private RandomAccessFile raf;
+  private MappedByteBuffer buffer;
+  private int writePos;
+  private boolean closed;
+
+  /**
+   * @param version records are only read from a file written with the same version
+   */
+  PersistentMatchStore(File file, long maxBytes, String version) throws IOException {
+    if (maxBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("maxBytes must be <= " + Integer.MAX_VALUE + ": " + maxBytes);
+    }
+    this.file = file;
+    this.header = createHeader(version);
+    if (maxBytes < header.length + 1024) {
+      throw new IllegalArgumentException("maxBytes is too small: " + maxBytes);
+    }
+    this.capacity = (int) maxBytes;
+    boolean valid = file.length() > 0 && hasHeader(file, header);
+    if (file.length() > 0 && !valid) {
+      logger.info("Discarding result cache file " + file + ", it was written by another version or is corrupt");
+      Files.delete(file.toPath());
+    }
+    raf = new RandomAccessFile(file, "rw");
+    buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    if (valid) {
+      writePos = readIndex();
+      logger.info("Loaded " + index.size() + " entries from result cache file " + file);
+    } else {
+      writeHeader(buffer);
+      writePos = header.length;
+    }
+    terminate(buffer, writePos);
+  }
+
+  /**
+   * @return the data stored for the key, or {@code null}
+   */
+  @Nullable
+  byte[] get(HashCode key, String text) {
+    lock.readLock().lock();
+    try {
+      Integer offset = index.get(key);
+      if (offset == null || closed) {
+        return null;
+      }
+      ByteBuffer record = buffer.duplicate();
+      record.position(offset);
+      int bodyLength = record.getInt();
+      record.getInt();  // CRC has been checked when the index was built
+      record.position(record.position() + KEY_BYTES);
+      byte[] textBytes = new byte[record.getInt()];
+      record.get(textBytes);
+      if (!text.equals(new String(textBytes, StandardCharsets.UTF_8))) {
+        return null;
+      }
+      byte[] data = new byte[bodyLength - KEY_BYTES - 4 - textBytes.length];
+      record.get(data);
+      return data;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  boolean contains(HashCode key) {
+    lock.readLock().lock();
+    try {
+      return index.containsKey(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Append a record, compacting the file if it's full. Does nothing if the key is already stored.
+   */
+  void put(HashCode key, String text, byte[] data) throws IOException {
+    byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+    int bodyLength = KEY_BYTES + 4 + textBytes.length + data.length;
+    if (RECORD_HEADER + bodyLength > (capacity - header.length) * COMPACTED_FILL_RATIO) {
+      return;
+    }
+    ByteBuffer body = ByteBuffer.allocate(bodyLength);
+    body.put(key.asBytes());
+    body.putInt(textBytes.length);
+    body.put(textBytes);
+    body.put(data);
+    CRC32 crc = new CRC32();
+    crc.update(body.array());
+    lock.writeLock().lock();
+    try {
+      if (closed || index.containsKey(key)) {
+        return;
+      }
+      // 4 more bytes for the terminator:
+      if (writePos + RECORD_HEADER + bodyLength + 4 > capacity) {
+        compact();
+      }
+      buffer.position(writePos);
+      buffer.putInt(bodyLength);
+      buffer.putInt((int) crc.getValue());
+      buffer.put(body.array());
+      index.put(key, writePos);
+      writePos = buffer.position();
+      terminate(buffer, writePos);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (!closed) {
+        closed = true;
+        buffer.force();
+        raf.close();
+        unmap(buffer);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Copy the newest records to a new file so that it's filled to at most {@link #COMPACTED_FILL_RATIO},
+   * then replace the old file. If that fails, the old file and index are kept. Must be called with the write lock held.
+   */
+  private void compact() throws IOException {
+    long startTime = System.currentTimeMillis();
+    int maxBytes = (int) ((capacity - header.length) * COMPACTED_FILL_RATIO);
+    // keep the newest records, i.e. the ones at the end of the index:
+    List<Map.Entry<HashCode, Integer>> entries = new ArrayList<>(index.entrySet());
+    int keepFrom = entries.size();
+    int keptBytes = 0;
+    while (keepFrom > 0) {
+      int length = RECORD_HEADER + buffer.getInt(entries.get(keepFrom - 1).getValue());
+      if (keptBytes + length > maxBytes) {
+        break;
+      }
+      keptBytes += length;
+      keepFrom--;
+    }
+    File tmpFile = new File(file.getPath() + ".tmp");
+    RandomAccessFile newRaf = new RandomAccessFile(tmpFile, "rw");
+    MappedByteBuffer newBuffer = null;
+    LinkedHashMap<HashCode, Integer> newIndex = new LinkedHashMap<>();
+    try {
+      newRaf.setLength(0);
+      newBuffer = newRaf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      writeHeader(newBuffer);
+      for (Map.Entry<HashCode, Integer> entry : entries.subList(keepFrom, entries.size())) {
+        int offset = entry.getValue();
+        int length = RECORD_HEADER + buffer.getInt(offset);
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        record.limit(offset + length);
+        newIndex.put(entry.getKey(), newBuffer.position());
+        newBuffer.put(record);
+      }
+      terminate(newBuffer, newBuffer.position());
+      newBuffer.force();
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      newRaf.close();
+      if (newBuffer != null) {
+        unmap(newBuffer);
+      }
+      try {
+        Files.deleteIfExists(tmpFile.toPath());
+      } catch (IOException deleteException) {
+        e.addSuppressed(deleteException);
+      }
+      throw e;
+    }
+    raf.close();
+    // without this, the old file's pages stay mapped until the buffer gets garbage collected:
+    unmap(buffer);
+    raf = newRaf;
+    buffer = newBuffer;
+    index = newIndex;
+    writePos = newBuffer.position();
+    logger.info("Compacted result cache file " + file + " from " + entries.size() + " to " + index.size() +
+      " entries in " + (System.currentTimeMillis() - startTime) + "ms");
+  }
+
+  /**
+   * Release the mapping right away. The buffer must not be used anymore, access to it would crash the JVM.
+   * Must be called with the write lock held.
+   */
+  private void unmap(MappedByteBuffer mapped) {
+    if (CLEANER == null) {
+      return;
+    }
+    try {
+      CLEANER.unmap(mapped);
+    } catch (Exception e) {
+      logger.warn("Could not unmap result cache file " + file, e);
+    }
+  }
+
+  /**
+   * @return the position after the last valid record
+   */
+  private int readIndex() {
+    int pos = header.length;
+    CRC32 crc = new CRC32();
+    while (pos + RECORD_HEADER <= capacity) {
+      int bodyLength = buffer.getInt(pos);
+      if (bodyLength < KEY_BYTES + 4 || pos + RECORD_HEADER + bodyLength > capacity) {
+        break;
+      }
+      byte[] body = new byte[bodyLength];
+      ByteBuffer record = buffer.duplicate();
+      record.position(pos + RECORD_HEADER);
+      record.get(body);
+      crc.reset();
+      crc.update(body);
+      if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+        logger.warn("Corrupt record in result cache file " + file + " at position " + pos + ", ignoring the rest of the file");
+        break;
+      }
+      HashCode key = HashCode.fromBytes(Arrays.copyOf(body, KEY_BYTES));
+      // a newer record of the same key is at the end:
+      index.remove(key);
+      index.put(key, pos);
+      pos += RECORD_HEADER + bodyLength;
+    }
+    return pos;
+  }
+
+  private void writeHeader(ByteBuffer target) {
+    target.position(0);
+    target.put(header);
+  }
+
+  /**
+   * Mark the end of the records, so that data from before a compaction or crash isn't read.
+   */
+  private static void terminate(ByteBuffer target, int pos) {
+    if (pos + 4 <= target.capacity()) {
+      target.putInt(pos, 0);
+    }
+  }
+
+  /**
+   * There's no public API for unmapping a buffer (before Java 19), so use the same internal APIs as Lucene's MMapDirectory:
+   * {@code sun.misc.Unsafe.invokeCleaner()} since Java 9, the buffer's {@code sun.misc.Cleaner} in Java 8.
+   */
+  @Nullable
+  private static BufferCleaner createCleaner() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      try {
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        Object unsafe = theUnsafe.get(null);
+        return buffer -> invokeCleaner.invoke(unsafe, buffer);
+      } catch (NoSuchMethodException e) {
+        // Java 8:
+        Method cleanerMethod = Class.forName("java.nio.DirectByteBuffer").getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+        cleanMethod.setAccessible(true);
+        return buffer -> {
+          Object cleaner = cleanerMethod.invoke(buffer);
+          if (cleaner != null) {
+            cleanMethod.invoke(cleaner);
+          }
+        };
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      logger.warn("Cannot unmap result cache files, they'll be unmapped by the garbage collector: " + e);
+      return null;
+    }
+  }
+
+  private static byte[] createHeader(String version) {
+    byte[] versionBytes = version.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer result = ByteBuffer.allocate(12 + versionBytes.length);
+    result.putInt(MAGIC);
+    result.putInt(FORMAT_VERSION);
+    result.putInt(versionBytes.length);
+    result.put(versionBytes);
+    return result.array();
+  }
+
+  private static boolean hasHeader(File file, byte[] header) throws IOException {
+    if (file.length() < header.length) {
+      return false;
+    }
+    try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+      byte[] fileHeader = new byte[header.length];
+      in.readFully(fileHeader);
+      return Arrays.equals(header, fileHeader);
+    }
+  }
+
+  @FunctionalInterface
+  private interface BufferCleaner {
+    void unmap(MappedByteBuffer buffer) throws Exception;
+  }
+
+}
@@ -0,0 +1,66 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns a small int to each POS tag when an {@link AnalyzedToken} with that tag is created, so that
+ * {@link PosTagMatcher} can remember its result per tag. The IDs are shared by all languages, as
+ * tokens don't know their language, but each language only uses its own range of tags.
+ * @since 6.3
+ */
+final class PosTagDictionary {
+
+  // POS tags come from the taggers' dictionaries, so this is only reached if a tagger makes up tags:
+  private static final int MAX_SIZE = 100_000;
+
+  private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  private PosTagDictionary() {
+  }
+
+  /**
+   * @return the ID of the tag, or -1 for {@code null} or if the dictionary is full
+   */
+  static int getId(@Nullable String posTag) {
+    if (posTag == null) {
+      return -1;
+    }
+    Integer id = ids.get(posTag);
+    return id != null ? id : add(posTag);
+  }
+
+  private static synchronized int add(String posTag) {
+    Integer id = ids.get(posTag);
+    if (id != null) {
+      return id;
+    }
+    int size = ids.size();
+    if (size >= MAX_SIZE) {
+      return -1;
+    }
+    ids.put(posTag, size);
+    return size;
+  }
+
+}
@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.patterns.StringMatcher;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Tests the POS tags of tokens, e.g. against a regular expression. The test runs only once
+ * per tag: the result is kept in a bit set indexed by the tag's ID (see {@link PosTagDictionary}),
+ * so after the first few sentences, testing a token is a bit lookup. The bit set is allocated in
+ * pages, as a matcher usually only sees the tags of one language.
+ * @since 6.3
+ */
+public final class PosTagMatcher {
+
+  private static final int MAX_CACHED_MATCHERS = 10_000;
+  private static final int PAGE_BITS = 10;  // tag IDs per page: 1024
+  private static final Map<String, PosTagMatcher> regexMatchers = new ConcurrentHashMap<>();
+  private static final Map<String, PosTagMatcher> substringMatchers = new ConcurrentHashMap<>();
+  private static final Map<String, PosTagMatcher> prefixMatchers = new ConcurrentHashMap<>();
+
+  private final Predicate<String> predicate;
+  // two bits per tag ID: whether the result is known, and the result; replaced (not modified) on updates:
+  private volatile long[][] pages = new long[0][];
+
+  public PosTagMatcher(Predicate<String> predicate) {
+    this.predicate = predicate;
+  }
+
+  /**
+   * A matcher for tags that match the regular expression, shared by all callers.
+   */
+  public static PosTagMatcher forRegex(String posTagRegex) {
+    return getCached(regexMatchers, posTagRegex, StringMatcher.regexp(posTagRegex)::matches);
+  }
+
+  static PosTagMatcher forSubstring(String substring) {
+    return getCached(substringMatchers, substring, tag -> tag.contains(substring));
+  }
+
+  static PosTagMatcher forPrefix(String prefix) {
+    return getCached(prefixMatchers, prefix, tag -> tag.startsWith(prefix));
+  }
+
+  private static PosTagMatcher getCached(Map<String, PosTagMatcher> cache, String key, Predicate<String> predicate) {
+    PosTagMatcher matcher = cache.get(key);
+    if (matcher == null) {
+      matcher = new PosTagMatcher(predicate);
+      if (cache.size() < MAX_CACHED_MATCHERS) {
+        cache.put(key, matcher);
+      }
+    }
+    return matcher;
+  }
+
+  /**
+   * @return whether the token has a POS tag that this matcher accepts
+   */
+  public boolean matches(AnalyzedToken token) {
+    String posTag = token.getPOSTag();
+    if (posTag == null) {
+      return false;
+    }
+    int id = token.getPosTagId();
+    if (id < 0) {
+      return predicate.test(posTag);
+    }
+    int page = id >>> PAGE_BITS;
+    int word = (id >>> 5) & ((1 << PAGE_BITS - 5) - 1);
+    int shift = (id & 31) << 1;
+    long[][] known = pages;
+    if (page < known.length && known[page] != null) {
+      long bits = known[page][word] >>> shift;
+      if ((bits & 1) != 0) {
+        return (bits & 2) != 0;
+      }
+    }
+    return compute(posTag, page, word, shift);
+  }
+
+  private synchronized boolean compute(String posTag, int page, int word, int shift) {
+    boolean result = predicate.test(posTag);
+    long[][] updated = Arrays.copyOf(pages, Math.max(pages.length, page + 1));
+    long[] pageBits = updated[page] == null ? new long[1 << PAGE_BITS - 5] : updated[page].clone();
+    pageBits[word] |= (result ? 3L : 1L) << shift;
+    updated[page] = pageBits;
+    pages = updated;
+    return result;
+  }
+
+}
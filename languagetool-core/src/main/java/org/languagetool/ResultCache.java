@@ -18,15 +18,33 @@
  */
 package org.languagetool;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -41,6 +59,12 @@ import java.util.concurrent.TimeUnit;
  */
 public class ResultCache {
 
+  private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+  private static final String PERSISTENT_TIER_FILE = "sentence-matches.ltcache";
+  // matches waiting to be written to the persistent tier or the second-level cache, more are dropped:
+  private static final int WRITER_QUEUE_SIZE = 10_000;
+
   /**
    * rules can fail individually, results can be partial ->
    * store list if success (can be empty), null -> failure/not checked
@@ -48,6 +72,21 @@ public class ResultCache {
   private final Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatchesCache;
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
+  // estimated memory use of each cache, only for caches created with withMemoryBudget():
+  private final Map<Cache<?, ?>, LongSupplier> weights = new IdentityHashMap<>();
+  // optional second tier for sentence matches, see enablePersistentTier():
+  private volatile PersistentMatchStore persistentTier;
+  private final AtomicLong persistentTierHits = new AtomicLong();
+  // optional cache shared with other processes, see enableSecondLevelCache():
+  private volatile SecondLevelResultCache secondLevelCache;
+  private byte[] secondLevelKeyPrefix;
+  private Semaphore secondLevelBudget;
+  private long secondLevelMaxWaitNanos;
+  // hashes of the keys that have been written to (or found in) the second-level cache:
+  private final Cache<HashCode, Boolean> writtenToSecondLevel = CacheBuilder.newBuilder().maximumSize(100_000).build();
+  private final SecondLevelStats secondLevelStats = new SecondLevelStats();
+  // writes to the persistent tier and the second-level cache in the background:
+  private ThreadPoolExecutor writer;
 
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
@@ -81,7 +120,80 @@ public class ResultCache {
             expireAfterAccess(expireAfter, timeUnit).
             build();
   }
-  
+
+  private ResultCache(Cache<InputSentence, List<RuleMatch>> matchesCache, LongSupplier matchesWeight,
+                      Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatchesCache, LongSupplier remoteMatchesWeight,
+                      Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache, LongSupplier sentencesWeight) {
+    this.matchesCache = matchesCache;
+    this.remoteMatchesCache = remoteMatchesCache;
+    this.sentenceCache = sentenceCache;
+    weights.put(matchesCache, matchesWeight);
+    weights.put(remoteMatchesCache, remoteMatchesWeight);
+    weights.put(sentenceCache, sentencesWeight);
+  }
+
+  /**
+   * Create a cache that is limited by the estimated memory use of its entries instead of their number.
+   * It uses the W-TinyLFU policy, which only admits a new entry if it's likely to be used more often
+   * than the entries it would evict, so texts that are checked only once don't push out sentences
+   * that are checked again and again.
+   * @param maxBytes the memory budget for all cached sentences and matches
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @since 6.3
+   */
+  public static ResultCache withMemoryBudget(long maxBytes, long expireAfter, TimeUnit timeUnit) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Result cache memory budget must be > 0: " + maxBytes);
+    }
+    LongAdder matchesWeight = new LongAdder();
+    LongAdder remoteMatchesWeight = new LongAdder();
+    LongAdder sentencesWeight = new LongAdder();
+    // analyzed sentences are much larger than their matches:
+    Cache<InputSentence, List<RuleMatch>> matches = buildCaffeineCache(maxBytes * 3 / 8,
+      (InputSentence k, List<RuleMatch> v) -> MemoryEstimator.toWeight(MemoryEstimator.estimate(k) + MemoryEstimator.estimate(v)),
+      matchesWeight, expireAfter, timeUnit);
+    // the map is still empty when it's added and filled later, so only the key is weighed
+    // (otherwise the weight of a removed entry would be larger than the weight it was added with):
+    Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatches = buildCaffeineCache(maxBytes / 8,
+      (InputSentence k, Map<String, List<RuleMatch>> v) -> MemoryEstimator.toWeight(MemoryEstimator.estimate(k)),
+      remoteMatchesWeight, expireAfter, timeUnit);
+    Cache<SimpleInputSentence, AnalyzedSentence> sentences = buildCaffeineCache(maxBytes / 2,
+      (SimpleInputSentence k, AnalyzedSentence v) -> MemoryEstimator.toWeight(MemoryEstimator.estimate(k) + MemoryEstimator.estimate(v)),
+      sentencesWeight, expireAfter, timeUnit);
+    return new ResultCache(matches, matchesWeight::sum, remoteMatches, remoteMatchesWeight::sum, sentences, sentencesWeight::sum);
+  }
+
+  /**
+   * The Guava interface of a Caffeine cache doesn't give access to Caffeine's weighted size,
+   * so {@code weight} keeps track of it. The weight of each entry is remembered, as Caffeine
+   * doesn't report a removal if a key is put again with the same value, and as weighing a removed
+   * value again may give another result (e.g. when the suggestions of its matches have been computed).
+   */
+  private static <K, V> Cache<K, V> buildCaffeineCache(long maxWeight, ToIntBiFunction<K, V> weigher, LongAdder weight,
+                                                      long expireAfter, TimeUnit timeUnit) {
+    Map<K, Integer> entryWeights = new ConcurrentHashMap<>();
+    return CaffeinatedGuava.build(Caffeine.newBuilder().
+            maximumWeight(maxWeight).
+            weigher((K k, V v) -> {
+              int entryWeight = weigher.applyAsInt(k, v);
+              Integer oldWeight = entryWeights.put(k, entryWeight);
+              weight.add(entryWeight - (oldWeight != null ? oldWeight : 0));
+              return entryWeight;
+            }).
+            removalListener((K k, V v, RemovalCause cause) -> {
+              // the weight of a replaced value has already been updated by the weigher:
+              if (k != null && cause != RemovalCause.REPLACED) {
+                Integer entryWeight = entryWeights.remove(k);
+                if (entryWeight != null) {
+                  weight.add(-entryWeight);
+                }
+              }
+            }).
+            executor(Runnable::run).
+            recordStats().
+            expireAfterAccess(expireAfter, timeUnit));
+  }
+
   static class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
     @Override
     public int weigh(InputSentence sentence, List<RuleMatch> matches) {
@@ -127,8 +239,84 @@ public class ResultCache {
     return sentenceCache.getIfPresent(key);
   }
 
+  /**
+   * Like {@link #getIfPresent(InputSentence)}, but if the persistent tier is enabled, also looks
+   * there and adds the matches found to the in-memory cache.
+   * @param sentence the sentence the matches will refer to
+   * @param rules returns the rule for a full rule id
+   */
+  @Nullable
+  List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, Function<String, Rule> rules) {
+    return getIfPresent(key, sentence, rules, null);
+  }
+
+  /**
+   * Like {@link #getIfPresent(InputSentence, AnalyzedSentence, Function)}, but if the second-level cache
+   * is enabled, also uses the result of {@code secondLevelLookup}.
+   * @param secondLevelLookup the lookup started for the key with {@link #lookUpInSecondLevel(List)}, or {@code null}
+   */
+  @Nullable
+  List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, Function<String, Rule> rules,
+                               @Nullable SecondLevelLookup secondLevelLookup) {
+    List<RuleMatch> matches = matchesCache.getIfPresent(key);
+    if (matches != null) {
+      return matches;
+    }
+    PersistentMatchStore store = persistentTier;
+    if (store != null) {
+      byte[] data = store.get(key.getLongHash(), key.getText());
+      matches = data != null ? decode(key, data, sentence, rules) : null;
+      if (matches != null) {
+        persistentTierHits.incrementAndGet();
+        matchesCache.put(key, matches);
+        return matches;
+      }
+    }
+    if (secondLevelLookup != null) {
+      byte[] value = secondLevelLookup.get(key);
+      if (value != null) {
+        matches = decodeSecondLevelValue(key, value, sentence, rules);
+        if (matches != null) {
+          secondLevelStats.hits.increment();
+          // no need to write it back:
+          writtenToSecondLevel.put(key.getLongHash(), Boolean.TRUE);
+          matchesCache.put(key, matches);
+        }
+      }
+    }
+    return matches;
+  }
+
   public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
     matchesCache.put(key, sentenceMatches);
+    PersistentMatchStore store = persistentTier;
+    SecondLevelResultCache secondLevel = secondLevelCache;
+    if (store == null && secondLevel == null) {
+      return;
+    }
+    writer.execute(() -> {
+      HashCode hash = key.getLongHash();
+      boolean toStore = store != null && !store.contains(hash);
+      boolean toSecondLevel = secondLevel != null && writtenToSecondLevel.getIfPresent(hash) == null;
+      if (!toStore && !toSecondLevel) {
+        return;
+      }
+      // null if lazy suggestions haven't been computed yet - it's tried again when the sentence is checked again
+      byte[] data = RuleMatchCodec.encode(sentenceMatches);
+      if (data == null) {
+        return;
+      }
+      if (toStore) {
+        try {
+          store.put(hash, key.getText(), data);
+        } catch (IOException e) {
+          logger.warn("Could not write to result cache file", e);
+        }
+      }
+      if (toSecondLevel) {
+        putInSecondLevel(secondLevel, key, hash, data);
+      }
+    });
   }
 
   public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
@@ -149,4 +337,330 @@ public class ResultCache {
   public Cache<SimpleInputSentence, AnalyzedSentence> getSentenceCache() {
     return sentenceCache;
   }
+
+  /**
+   * Also keep the matches of sentences in a memory-mapped file in {@code dir}, so that a new
+   * JVM can use them right after a restart instead of starting with an empty cache. Matches are
+   * written in the background. The file starts with the LanguageTool version, it's discarded if
+   * another version is started, so that outdated matches are not used. As for the in-memory cache,
+   * all {@link JLanguageTool} objects using it need to use the same rules. The directory must not be
+   * used by more than one process at the same time.
+   * @param maxBytes the maximum size of the file, it's compacted when it's full
+   * @since 6.3
+   */
+  public synchronized void enablePersistentTier(File dir, long maxBytes) throws IOException {
+    if (persistentTier != null) {
+      throw new IllegalStateException("Persistent tier has already been enabled");
+    }
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Could not create directory " + dir);
+    }
+    PersistentMatchStore store = new PersistentMatchStore(new File(dir, PERSISTENT_TIER_FILE), maxBytes, getVersion());
+    startWriter();
+    persistentTier = store;
+  }
+
+  /**
+   * Write pending matches to the persistent tier and close its file.
+   * Does nothing if the persistent tier isn't enabled.
+   * @since 6.3
+   */
+  public synchronized void closePersistentTier() throws IOException {
+    PersistentMatchStore store = persistentTier;
+    if (store == null) {
+      return;
+    }
+    persistentTier = null;
+    try {
+      // the writer runs tasks in order, so this waits for all pending writes:
+      writer.submit(() -> {}).get(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      logger.warn("Could not wait for pending writes to result cache file", e);
+    }
+    store.close();
+  }
+
+  /**
+   * @return the number of sentences whose matches were found in the persistent tier, but not in memory
+   * @since 6.3
+   */
+  public long getPersistentTierHitCount() {
+    return persistentTierHits.get();
+  }
+
+  /**
+   * Also look for matches in a cache shared with other processes and store matches there.
+   * Lookups for all sentences of a text are started together before the text is checked. A sentence
+   * whose lookup hasn't finished when the check gets to it is checked locally, so a slow second-level
+   * cache adds at most {@code maxWaitMillis} to a check. Lookups and writes that would exceed
+   * {@code maxInFlight} are skipped. As for the in-memory cache, all processes need to use the same rules.
+   * @param maxInFlight maximum number of lookups and writes that haven't completed yet
+   * @param maxWaitMillis maximum time a check waits for lookups that haven't completed yet
+   * @since 6.3
+   */
+  public synchronized void enableSecondLevelCache(SecondLevelResultCache cache, int maxInFlight, long maxWaitMillis) {
+    if (secondLevelCache != null) {
+      throw new IllegalStateException("Second-level cache has already been enabled");
+    }
+    if (maxInFlight <= 0 || maxWaitMillis < 0) {
+      throw new IllegalArgumentException("maxInFlight must be > 0 and maxWaitMillis >= 0: " + maxInFlight + ", " + maxWaitMillis);
+    }
+    secondLevelKeyPrefix = Hashing.murmur3_128().hashString(getVersion(), StandardCharsets.UTF_8).asBytes();
+    secondLevelBudget = new Semaphore(maxInFlight);
+    secondLevelMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    startWriter();
+    secondLevelCache = Objects.requireNonNull(cache);
+  }
+
+  /**
+   * Close the second-level cache. Does nothing if it isn't enabled.
+   * @since 6.3
+   */
+  public synchronized void closeSecondLevelCache() throws IOException {
+    SecondLevelResultCache secondLevel = secondLevelCache;
+    if (secondLevel != null) {
+      secondLevelCache = null;
+      secondLevel.close();
+    }
+  }
+
+  /**
+   * @since 6.3
+   */
+  public SecondLevelStats getSecondLevelStats() {
+    return secondLevelStats;
+  }
+
+  /**
+   * Start looking up the keys that aren't in the in-memory cache in the second-level cache.
+   * @return the lookup to pass to {@link #getIfPresent(InputSentence, AnalyzedSentence, Function, SecondLevelLookup)},
+   * or {@code null} if no second-level cache is enabled
+   */
+  @Nullable
+  SecondLevelLookup lookUpInSecondLevel(List<InputSentence> keys) {
+    SecondLevelResultCache secondLevel = secondLevelCache;
+    if (secondLevel == null) {
+      return null;
+    }
+    Map<InputSentence, CompletableFuture<byte[]>> futures = new HashMap<>();
+    for (InputSentence key : keys) {
+      if (futures.containsKey(key) || matchesCache.asMap().containsKey(key)) {
+        continue;
+      }
+      if (!secondLevelBudget.tryAcquire()) {
+        secondLevelStats.rejected.increment();
+        continue;
+      }
+      long startTime = System.nanoTime();
+      CompletableFuture<byte[]> future;
+      try {
+        future = secondLevel.get(getSecondLevelKey(key.getLongHash()));
+      } catch (RuntimeException e) {
+        future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+      }
+      futures.put(key, future.whenComplete((value, e) -> {
+        secondLevelBudget.release();
+        secondLevelStats.getNanos.add(System.nanoTime() - startTime);
+        secondLevelStats.gets.increment();
+        if (e != null) {
+          secondLevelStats.errors.increment();
+        } else if (value == null) {
+          secondLevelStats.misses.increment();
+        }
+      }));
+    }
+    return new SecondLevelLookup(futures, System.nanoTime() + secondLevelMaxWaitNanos, secondLevelStats);
+  }
+
+  private void putInSecondLevel(SecondLevelResultCache secondLevel, InputSentence key, HashCode hash, byte[] data) {
+    if (!secondLevelBudget.tryAcquire()) {
+      secondLevelStats.rejected.increment();
+      return;
+    }
+    writtenToSecondLevel.put(hash, Boolean.TRUE);
+    byte[] text = key.getText().getBytes(StandardCharsets.UTF_8);
+    // the text is stored to rule out hash collisions:
+    ByteBuffer value = ByteBuffer.allocate(4 + text.length + data.length);
+    value.putInt(text.length);
+    value.put(text);
+    value.put(data);
+    CompletableFuture<Void> future;
+    try {
+      future = secondLevel.put(getSecondLevelKey(hash), value.array());
+    } catch (RuntimeException e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    future.whenComplete((v, e) -> {
+      secondLevelBudget.release();
+      secondLevelStats.puts.increment();
+      if (e != null) {
+        secondLevelStats.errors.increment();
+        writtenToSecondLevel.invalidate(hash);
+      }
+    });
+  }
+
+  @Nullable
+  private List<RuleMatch> decodeSecondLevelValue(InputSentence key, byte[] value, AnalyzedSentence sentence, Function<String, Rule> rules) {
+    ByteBuffer buffer = ByteBuffer.wrap(value);
+    try {
+      byte[] text = new byte[buffer.getInt()];
+      buffer.get(text);
+      if (!key.getText().equals(new String(text, StandardCharsets.UTF_8))) {
+        return null;
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Invalid value in second-level result cache for '" + key.getText() + "'", e);
+      return null;
+    }
+    return decode(key, Arrays.copyOfRange(value, buffer.position(), value.length), sentence, rules);
+  }
+
+  @Nullable
+  private static List<RuleMatch> decode(InputSentence key, byte[] data, AnalyzedSentence sentence, Function<String, Rule> rules) {
+    try {
+      return RuleMatchCodec.decode(data, sentence, rules);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Could not decode cached matches of '" + key.getText() + "'", e);
+      return null;
+    }
+  }
+
+  private byte[] getSecondLevelKey(HashCode hash) {
+    return Hashing.murmur3_128().newHasher()
+      .putBytes(secondLevelKeyPrefix)
+      .putBytes(hash.asBytes())
+      .hash().asBytes();
+  }
+
+  private synchronized void startWriter() {
+    if (writer == null) {
+      writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(WRITER_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("lt-result-cache-writer-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.DiscardPolicy());
+    }
+  }
+
+  /**
+   * The version of LanguageTool and its rules, so that results of other versions are not used.
+   */
+  private static String getVersion() {
+    return JLanguageTool.VERSION + "/" + JLanguageTool.BUILD_DATE + "/" + JLanguageTool.GIT_SHORT_ID +
+      "/" + Premium.get().getVersion() + "/" + Premium.get().getShortGitId();
+  }
+
+  /**
+   * The lookups of the sentences of one check in the second-level cache.
+   */
+  static final class SecondLevelLookup {
+
+    private final Map<InputSentence, CompletableFuture<byte[]>> futures;
+    private final long deadline;
+    private final SecondLevelStats stats;
+
+    private SecondLevelLookup(Map<InputSentence, CompletableFuture<byte[]>> futures, long deadline, SecondLevelStats stats) {
+      this.futures = futures;
+      this.deadline = deadline;
+      this.stats = stats;
+    }
+
+    /**
+     * @return the value found for the key, or {@code null} if there's none or the lookup
+     * hasn't completed until the deadline of this check
+     */
+    @Nullable
+    byte[] get(InputSentence key) {
+      CompletableFuture<byte[]> future = futures.get(key);
+      if (future == null) {
+        return null;
+      }
+      try {
+        long waitNanos = deadline - System.nanoTime();
+        return future.isDone() || waitNanos <= 0 ? future.getNow(null) : future.get(waitNanos, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        return null;  // counted as late below
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (ExecutionException | CompletionException | CancellationException e) {
+        return null;  // counted as error when the future completed
+      } finally {
+        if (!future.isDone()) {
+          stats.late.increment();
+        }
+      }
+    }
+  }
+
+  /**
+   * Counters of the second-level cache, see {@link #enableSecondLevelCache(SecondLevelResultCache, int, long)}.
+   * @since 6.3
+   */
+  public static final class SecondLevelStats {
+
+    private final LongAdder gets = new LongAdder();
+    private final LongAdder getNanos = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /** Number of completed lookups. */
+    public long getGetCount() {
+      return gets.sum();
+    }
+
+    /** Total time of the completed lookups. */
+    public long getGetNanos() {
+      return getNanos.sum();
+    }
+
+    /** Number of lookups whose matches have been used. */
+    public long getHitCount() {
+      return hits.sum();
+    }
+
+    /** Number of lookups that didn't find anything. */
+    public long getMissCount() {
+      return misses.sum();
+    }
+
+    /** Number of lookups that didn't complete in time, so the sentence was checked locally. */
+    public long getLateCount() {
+      return late.sum();
+    }
+
+    /** Number of lookups and writes skipped because too many were in flight. */
+    public long getRejectedCount() {
+      return rejected.sum();
+    }
+
+    /** Number of completed writes. */
+    public long getPutCount() {
+      return puts.sum();
+    }
+
+    /** Number of failed lookups and writes. */
+    public long getErrorCount() {
+      return errors.sum();
+    }
+  }
+
+  /**
+   * @param cache one of the caches returned by this object's getters
+   * @return the estimated memory use of the cache's entries in bytes, or -1 if this cache
+   * has not been created with {@link #withMemoryBudget(long, long, TimeUnit)}
+   * @since 6.3
+   */
+  public long getWeightInBytes(Cache<?, ?> cache) {
+    LongSupplier weight = weights.get(cache);
+    return weight != null ? weight.getAsLong() : -1;
+  }
 }
@@ -0,0 +1,75 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.Rule;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The time rules needed per sentence in earlier checks, as a moving average per language and rule.
+ * Used by {@link MultiThreadedJLanguageTool} to start the most expensive rules first.
+ * @since 6.3
+ */
+class RuleCostHistory {
+
+  // weight of a new measurement in the moving average:
+  private static final double NEW_WEIGHT = 0.3;
+
+  private final Map<String, Map<String, Double>> nanosPerSentence = new ConcurrentHashMap<>();
+
+  /**
+   * @return the average time {@code rule} needed per sentence, or {@code defaultValue} if it hasn't been measured yet
+   */
+  double getNanosPerSentence(Language lang, Rule rule, double defaultValue) {
+    Map<String, Double> langCosts = nanosPerSentence.get(lang.getShortCodeWithCountryAndVariant());
+    if (langCosts == null) {
+      return defaultValue;
+    }
+    return langCosts.getOrDefault(rule.getFullId(), defaultValue);
+  }
+
+  /**
+   * @return the average time per sentence of all rules measured for the language, or {@code defaultValue} if there are none
+   */
+  double getAverageNanosPerSentence(Language lang, double defaultValue) {
+    Map<String, Double> langCosts = nanosPerSentence.get(lang.getShortCodeWithCountryAndVariant());
+    if (langCosts == null || langCosts.isEmpty()) {
+      return defaultValue;
+    }
+    double sum = 0;
+    int count = 0;
+    for (double value : langCosts.values()) {
+      sum += value;
+      count++;
+    }
+    return count > 0 ? sum / count : defaultValue;
+  }
+
+  void add(Language lang, Rule rule, int sentenceCount, long nanos) {
+    if (sentenceCount <= 0) {
+      return;
+    }
+    double value = nanos / (double) sentenceCount;
+    nanosPerSentence.computeIfAbsent(lang.getShortCodeWithCountryAndVariant(), k -> new ConcurrentHashMap<>())
+      .merge(rule.getFullId(), value, (oldValue, newValue) -> oldValue + NEW_WEIGHT * (newValue - oldValue));
+  }
+
+}
@@ -0,0 +1,222 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A compact binary format for the matches of one sentence, so they can be stored outside the heap.
+ * Rules are stored by their full id and looked up again when decoding, the sentence of
+ * the matches is given when decoding.
+ * @since 6.3
+ */
+final class RuleMatchCodec {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private RuleMatchCodec() {
+  }
+
+  /**
+   * @return the encoded matches, or {@code null} if they cannot be encoded because
+   * some match still has suggestions that haven't been computed
+   */
+  @Nullable
+  static byte[] encode(List<RuleMatch> matches) {
+    for (RuleMatch match : matches) {
+      if (match.hasLazySuggestedReplacements()) {
+        return null;
+      }
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + matches.size() * 128);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(FORMAT_VERSION);
+      out.writeInt(matches.size());
+      for (RuleMatch match : matches) {
+        writeMatch(out, match);
+      }
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e);  // can't happen with a ByteArrayOutputStream
+    }
+  }
+
+  /**
+   * @param rules returns the rule for a full rule id (see {@link Rule#getFullId()}) or {@code null}
+   * @return the decoded matches, or {@code null} if the data uses another format or refers to
+   * a rule that {@code rules} doesn't know
+   */
+  @Nullable
+  static List<RuleMatch> decode(byte[] data, AnalyzedSentence sentence, Function<String, Rule> rules) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    if (in.readByte() != FORMAT_VERSION) {
+      return null;
+    }
+    int size = in.readInt();
+    List<RuleMatch> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      RuleMatch match = readMatch(in, sentence, rules);
+      if (match == null) {
+        return null;
+      }
+      result.add(match);
+    }
+    return result;
+  }
+
+  private static void writeMatch(DataOutputStream out, RuleMatch match) throws IOException {
+    Rule rule = match.getRule();
+    writeString(out, rule.getFullId());
+    writeString(out, match.getMessage());
+    writeString(out, match.getShortMessage());
+    out.writeInt(match.getFromPos());
+    out.writeInt(match.getToPos());
+    out.writeInt(match.getPatternFromPos());
+    out.writeInt(match.getPatternToPos());
+    out.writeInt(match.getFromPosSentence());
+    out.writeInt(match.getToPosSentence());
+    out.writeInt(match.getLine());
+    out.writeInt(match.getEndLine());
+    out.writeInt(match.getColumn());
+    out.writeInt(match.getEndColumn());
+    List<SuggestedReplacement> suggestions = match.getSuggestedReplacementObjects();
+    out.writeInt(suggestions.size());
+    for (SuggestedReplacement suggestion : suggestions) {
+      writeString(out, suggestion.getReplacement());
+      writeString(out, suggestion.getShortDescription());
+      writeString(out, suggestion.getSuffix());
+      Float confidence = suggestion.getConfidence();
+      out.writeBoolean(confidence != null);
+      if (confidence != null) {
+        out.writeFloat(confidence);
+      }
+      out.writeByte(suggestion.getType().ordinal());
+      writeFeatures(out, suggestion.getFeatures());
+    }
+    writeString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+    out.writeByte(match.getType().ordinal());
+    writeFeatures(out, match.getFeatures());
+    out.writeBoolean(match.isAutoCorrect());
+    writeString(out, match.getErrorLimitLang());
+    String specificRuleId = match.getSpecificRuleId();
+    writeString(out, specificRuleId.equals(rule.getId()) ? null : specificRuleId);
+    writeString(out, match.getOriginalErrorStr());
+  }
+
+  @Nullable
+  private static RuleMatch readMatch(DataInputStream in, AnalyzedSentence sentence, Function<String, Rule> rules) throws IOException {
+    Rule rule = rules.apply(readString(in));
+    if (rule == null) {
+      return null;
+    }
+    String message = readString(in);
+    String shortMessage = readString(in);
+    int fromPos = in.readInt();
+    int toPos = in.readInt();
+    int patternFromPos = in.readInt();
+    int patternToPos = in.readInt();
+    // the message isn't parsed for suggestions, they are set below:
+    RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, patternFromPos, patternToPos, message, shortMessage,
+      false, false, null, false);
+    match.setSentencePosition(in.readInt(), in.readInt());
+    match.setLine(in.readInt());
+    match.setEndLine(in.readInt());
+    match.setColumn(in.readInt());
+    match.setEndColumn(in.readInt());
+    int suggestionCount = in.readInt();
+    List<SuggestedReplacement> suggestions = new ArrayList<>(suggestionCount);
+    for (int i = 0; i < suggestionCount; i++) {
+      SuggestedReplacement suggestion = new SuggestedReplacement(readString(in), readString(in), readString(in));
+      if (in.readBoolean()) {
+        suggestion.setConfidence(in.readFloat());
+      }
+      suggestion.setType(SuggestedReplacement.SuggestionType.values()[in.readByte()]);
+      suggestion.setFeatures(readFeatures(in));
+      suggestions.add(suggestion);
+    }
+    match.setSuggestedReplacementObjects(suggestions);
+    String url = readString(in);
+    if (url != null) {
+      match.setUrl(new URL(url));
+    }
+    match.setType(RuleMatch.Type.values()[in.readByte()]);
+    match.setFeatures(readFeatures(in));
+    match.setAutoCorrect(in.readBoolean());
+    match.setErrorLimitLang(readString(in));
+    String specificRuleId = readString(in);
+    if (specificRuleId != null) {
+      match.setSpecificRuleId(specificRuleId);
+    }
+    match.setOriginalErrorStr(readString(in));
+    return match;
+  }
+
+  private static void writeFeatures(DataOutputStream out, SortedMap<String, Float> features) throws IOException {
+    out.writeInt(features.size());
+    for (Map.Entry<String, Float> entry : features.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeFloat(entry.getValue());
+    }
+  }
+
+  private static SortedMap<String, Float> readFeatures(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size == 0) {
+      return Collections.emptySortedMap();
+    }
+    SortedMap<String, Float> features = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      features.put(readString(in), in.readFloat());
+    }
+    return features;
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,50 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A cache shared by several LanguageTool processes, e.g. all nodes of a server cluster, which
+ * {@link ResultCache} uses as a second level behind its own caches (see
+ * {@link ResultCache#enableSecondLevelCache(SecondLevelResultCache, int, long)}). Keys and values are
+ * opaque byte arrays: the keys include the LanguageTool version, the values are encoded rule matches.
+ * Implementations must not block in these methods, but complete the futures later.
+ * Implementations loaded by class name need a public constructor without arguments.
+ * @since 6.3
+ */
+public interface SecondLevelResultCache extends Closeable {
+
+  /**
+   * @return a future that's completed with the value, or with {@code null} if the key isn't known
+   */
+  CompletableFuture<byte[]> get(byte[] key);
+
+  /**
+   * @return a future that's completed when the value has been stored (or dropped)
+   */
+  CompletableFuture<Void> put(byte[] key, byte[] value);
+
+  @Override
+  default void close() throws IOException {
+  }
+
+}
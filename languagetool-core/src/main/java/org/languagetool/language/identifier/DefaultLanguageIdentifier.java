@@ -119,10 +119,14 @@ public class DefaultLanguageIdentifier extends LanguageIdentifier {
   }
 
   void enableFasttext(File fasttextBinary, File fasttextModel) {
+    enableFasttext(fasttextBinary, fasttextModel, 1);
+  }
+
+  void enableFasttext(File fasttextBinary, File fasttextModel, int fasttextProcesses) {
     if (fasttextBinary != null && fasttextModel != null) {
       try {
-        fastTextDetector = new FastTextDetector(fasttextModel, fasttextBinary);
-        logger.info("Started fasttext process for language identification: Binary {} with model @ {}", fasttextBinary, fasttextModel);
+        fastTextDetector = new FastTextDetector(fasttextModel, fasttextBinary, fasttextProcesses);
+        logger.info("Started {} fasttext process(es) for language identification: Binary {} with model @ {}", fasttextProcesses, fasttextBinary, fasttextModel);
       } catch (IOException e) {
         throw new RuntimeException("Could not start fasttext process for language identification @ " + fasttextBinary + " with model @ " + fasttextModel, e);
       }
@@ -228,6 +232,76 @@ public class DefaultLanguageIdentifier extends LanguageIdentifier {
   @Nullable
   @Override
   public DetectedLanguage detectLanguage(String cleanText, List<String> noopLangsTmp, List<String> preferredLangsTmp, boolean limitOnPreferredLangs) {
+    return detectLanguage(cleanText, noopLangsTmp, preferredLangsTmp, limitOnPreferredLangs, null);
+  }
+
+  /**
+   * Detect the language of several texts. If fastText is used, all texts long enough for it
+   * are sent to fastText in one batch instead of one round trip per text.
+   * @param cleanTexts texts as returned by {@link #cleanAndShortenText(String)}
+   * @return the detected languages, in the same order as {@code cleanTexts}; elements are
+   *         {@code null} if the language of that text could not be identified
+   * @since 6.3
+   */
+  public List<DetectedLanguage> detectLanguages(List<String> cleanTexts) {
+    return detectLanguages(cleanTexts, Collections.emptyList(), Collections.emptyList());
+  }
+
+  /**
+   * Like {@link #detectLanguages(List)}, with the same parameters as {@link #detectLanguage(String, List, List)}.
+   * @since 6.3
+   */
+  public List<DetectedLanguage> detectLanguages(List<String> cleanTexts, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
+    List<Map<String, Double>> fastTextScores = runFasttextBatch(cleanTexts, noopLangsTmp, preferredLangsTmp);
+    List<DetectedLanguage> result = new ArrayList<>(cleanTexts.size());
+    for (int i = 0; i < cleanTexts.size(); i++) {
+      result.add(detectLanguage(cleanTexts.get(i), noopLangsTmp, preferredLangsTmp, false, fastTextScores.get(i)));
+    }
+    return result;
+  }
+
+  /**
+   * @return fastText scores per text, {@code null} elements for texts that will be handled by
+   * the single-text code path (too short for fastText, or batch mode failed)
+   */
+  private List<Map<String, Double>> runFasttextBatch(List<String> cleanTexts, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
+    List<Map<String, Double>> scores = new ArrayList<>(Collections.nCopies(cleanTexts.size(), null));
+    if (fastTextDetector == null) {
+      return scores;
+    }
+    List<Integer> indexes = new ArrayList<>();
+    List<String> texts = new ArrayList<>();
+    List<List<String>> additionalLangs = new ArrayList<>();
+    for (int i = 0; i < cleanTexts.size(); i++) {
+      String text = cleanTexts.get(i);
+      if (text.length() <= SHORT_ALGO_THRESHOLD && ngram != null) {
+        continue;
+      }
+      ParsedLanguageLists parsedLanguageLists = prepareDetectLanguage(text, noopLangsTmp, preferredLangsTmp);
+      if (parsedLanguageLists != null) {
+        indexes.add(i);
+        texts.add(text);
+        additionalLangs.add(parsedLanguageLists.getAdditionalLangs());
+      }
+    }
+    if (texts.isEmpty()) {
+      return scores;
+    }
+    try {
+      List<Map<String, Double>> batchScores = fastTextDetector.runFasttext(texts, additionalLangs);
+      for (int i = 0; i < indexes.size(); i++) {
+        scores.set(indexes.get(i), batchScores.get(i));
+      }
+    } catch (Exception e) {
+      // the single-text path will run fastText again and take care of restarting it if needed
+      logger.warn("Fasttext batch detection failed for {} texts, falling back to one text at a time", texts.size(), e);
+    }
+    return scores;
+  }
+
+  @Nullable
+  private DetectedLanguage detectLanguage(String cleanText, List<String> noopLangsTmp, List<String> preferredLangsTmp, boolean limitOnPreferredLangs,
+                                          @Nullable Map<String, Double> fastTextScores) {
     String text = cleanText;
     ParsedLanguageLists parsedLanguageLists = prepareDetectLanguage(text, noopLangsTmp, preferredLangsTmp);
     if (parsedLanguageLists == null) {
@@ -243,7 +317,11 @@ public class DefaultLanguageIdentifier extends LanguageIdentifier {
       try {
         Map<String, Double> scores;
         boolean usingFastText = false;
-        if ((text.length() <= SHORT_ALGO_THRESHOLD || fastTextDetector == null) && ngram != null) {
+        if (fastTextScores != null) {
+          usingFastText = true;
+          scores = fastTextScores;
+          source += "fasttext";
+        } else if ((text.length() <= SHORT_ALGO_THRESHOLD || fastTextDetector == null) && ngram != null) {
           scores = ngram.detectLanguages(text.trim(), additionalLangs);
           source += "ngram";
         } else {
@@ -50,10 +50,23 @@ public enum LanguageIdentifierService {
                                                                       @Nullable File ngramLangIdentData,
                                                                       @Nullable File fasttextBinary,
                                                                       @Nullable File fasttextModel) {
+    return getDefaultLanguageIdentifier(maxLength, ngramLangIdentData, fasttextBinary, fasttextModel, 1);
+  }
+
+  /**
+   * Like {@link #getDefaultLanguageIdentifier(int, File, File, File)}, but with several fasttext processes.
+   * @param fasttextProcesses - the number of fasttext processes, requests are distributed round-robin among them.
+   * @since 6.3
+   */
+  public synchronized LanguageIdentifier getDefaultLanguageIdentifier(int maxLength,
+                                                                      @Nullable File ngramLangIdentData,
+                                                                      @Nullable File fasttextBinary,
+                                                                      @Nullable File fasttextModel,
+                                                                      int fasttextProcesses) {
     if (defaultIdentifier == null) {
       DefaultLanguageIdentifier defaultIdentifier = maxLength > 0 ? new DefaultLanguageIdentifier(maxLength) : new DefaultLanguageIdentifier();
       defaultIdentifier.enableNgrams(ngramLangIdentData);
-      defaultIdentifier.enableFasttext(fasttextBinary, fasttextModel);
+      defaultIdentifier.enableFasttext(fasttextBinary, fasttextModel, fasttextProcesses);
       this.defaultIdentifier = defaultIdentifier;
     }
     return this.defaultIdentifier;
@@ -26,8 +26,12 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Language detection via external fastText processes. Several processes can be used
+ * (see {@link #FastTextDetector(File, File, int)}), requests are then dispatched to
+ * them round-robin so that concurrent callers don't have to wait for each other.
  * @since 5.0
  */
 public class FastTextDetector {
@@ -35,11 +39,14 @@ public class FastTextDetector {
   private static final Logger logger = LoggerFactory.getLogger(FastTextDetector.class);
   private static final int K_HIGHEST_SCORES = 5;
   private static final int BUFFER_SIZE = 4096;
+  // number of lines written to a process before reading its answers in batch mode - small
+  // enough so that neither fastText's stdout nor our stdin pipe can fill up and block:
+  private static final int BATCH_CHUNK_SIZE = 32;
+  private static final String SELF_CHECK_TEXT = "This is a test text that should work.";
+
+  private final FastTextProcess[] processes;
+  private final AtomicInteger nextProcess = new AtomicInteger();
 
-  private Process fasttextProcess;
-  private Reader fasttextIn;
-  private Writer fasttextOut;
-  
   private File modelPath;
   private File binaryPath;
 
@@ -60,51 +67,93 @@ public class FastTextDetector {
   }
 
   public FastTextDetector(File modelPath, File binaryPath) throws IOException {
+    this(modelPath, binaryPath, 1);
+  }
+
+  /**
+   * @param processCount number of fastText processes to start, each one loads the model into memory
+   * @since 6.3
+   */
+  public FastTextDetector(File modelPath, File binaryPath, int processCount) throws IOException {
+    if (processCount < 1) {
+      throw new IllegalArgumentException("processCount must be >= 1: " + processCount);
+    }
     this.modelPath = modelPath;
     this.binaryPath = binaryPath;
-    init();
-  }
-  
-  private void init() throws IOException{
-    fasttextProcess = new ProcessBuilder(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES).start();
-    // avoid buffering, we want to flush/read all data immediately
-    // might cause mixup
-    fasttextIn = new InputStreamReader(fasttextProcess.getInputStream(), StandardCharsets.UTF_8);
-    fasttextOut = new OutputStreamWriter(fasttextProcess.getOutputStream(), StandardCharsets.UTF_8);
+    this.processes = new FastTextProcess[processCount];
+    try {
+      for (int i = 0; i < processCount; i++) {
+        processes[i] = new FastTextProcess();
+        processes[i].init();
+      }
+    } catch (IOException e) {
+      destroy();
+      throw e;
+    }
   }
 
   // for tests only
   FastTextDetector() {
-    fasttextProcess = null;
-    fasttextIn = null;
-    fasttextOut = null;
+    processes = new FastTextProcess[0];
+  }
+
+  /**
+   * @return the number of fastText processes used by this detector
+   * @since 6.3
+   */
+  public int getProcessCount() {
+    return processes.length;
   }
 
   public Map<String, Double> runFasttext(String text, List<String> additionalLanguageCodes) throws IOException {
-    String joined = text.replace("\n", " ").toLowerCase(Locale.ROOT);
-    char[] cbuf = new char[BUFFER_SIZE];
-    synchronized (this) {
-      fasttextOut.write(joined + System.lineSeparator());
-      fasttextOut.flush();
-      long read = fasttextIn.read(cbuf);
-      if (read <= 0) {
-        // hack to see if this helps us debug the rare case of readLine() returning null:
-        try {
-          logger.warn("fasttextIn.read() returned no data, trying again after short delay");
-          Thread.sleep(10);
-          read = fasttextIn.read(cbuf);
-          if (read == -1) {
-            logger.warn("fasttextIn.read() returned no data again");
-          }
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-      }
-      if (fasttextIn.ready()) {
-        logger.warn("More input to read from Fasttext, this should not happen; language detection results might be mixed up");
+    FastTextProcess process = nextProcess();
+    try {
+      String buffer = process.predict(toFasttextInput(text));
+      return parseBuffer(buffer, additionalLanguageCodes);
+    } catch (IOException | RuntimeException e) {
+      process.failed = true;
+      throw e;
+    }
+  }
+
+  /**
+   * Like {@link #runFasttext(String, List)}, but for several texts at once. The texts are
+   * sent to the same process in chunks, which saves a round trip per text.
+   * @param additionalLanguageCodesPerText the additional language codes for each text, same size as {@code texts}
+   * @return the scores, in the same order as {@code texts}
+   * @since 6.3
+   */
+  public List<Map<String, Double>> runFasttext(List<String> texts, List<List<String>> additionalLanguageCodesPerText) throws IOException {
+    if (texts.size() != additionalLanguageCodesPerText.size()) {
+      throw new IllegalArgumentException("Got " + texts.size() + " texts but " + additionalLanguageCodesPerText.size() + " lists of language codes");
+    }
+    List<String> input = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      input.add(toFasttextInput(text));
+    }
+    FastTextProcess process = nextProcess();
+    try {
+      List<String> lines = process.predict(input);
+      List<Map<String, Double>> result = new ArrayList<>(lines.size());
+      for (int i = 0; i < lines.size(); i++) {
+        result.add(parseBuffer(lines.get(i), additionalLanguageCodesPerText.get(i)));
       }
+      return result;
+    } catch (IOException | RuntimeException e) {
+      process.failed = true;
+      throw e;
     }
-    return parseBuffer(new String(cbuf), additionalLanguageCodes);
+  }
+
+  private static String toFasttextInput(String text) {
+    return text.replace("\n", " ").toLowerCase(Locale.ROOT);
+  }
+
+  private FastTextProcess nextProcess() {
+    if (processes.length == 0) {
+      throw new FastTextException("No fastText process available", true);
+    }
+    return processes[Math.floorMod(nextProcess.getAndIncrement(), processes.length)];
   }
 
   @NotNull
@@ -132,23 +181,136 @@ public class FastTextDetector {
     return probabilities;
   }
 
-  public synchronized boolean restartProcess() throws IOException {
-    try {
-      runFasttext("This is a test text that should work.", Collections.emptyList());
-    } catch (IOException | FastTextException e) {
-      if (fasttextProcess != null && fasttextIn != null && fasttextOut != null) {
-        this.fasttextProcess.destroy();
-        this.fasttextIn.close();
-        this.fasttextOut.close();
+  /**
+   * Restart the processes that failed a call to {@code runFasttext} since they were started. If no
+   * failure was recorded, all processes are checked and the ones that don't work are restarted.
+   * Only the restarting processes are locked, the others keep serving requests.
+   * @return {@code true} if at least one process was restarted
+   */
+  public boolean restartProcess() throws IOException {
+    boolean restarted = false;
+    boolean failureRecorded = false;
+    for (FastTextProcess process : processes) {
+      if (process.failed) {
+        failureRecorded = true;
+        restarted |= process.restartIfFailed();
       }
-      init();
-      return true;
     }
-    return false;
+    if (!failureRecorded) {
+      for (FastTextProcess process : processes) {
+        restarted |= process.restartIfBroken();
+      }
+    }
+    return restarted;
   }
 
   void destroy() {
-    fasttextProcess.destroy();
+    for (FastTextProcess process : processes) {
+      if (process != null) {
+        process.destroy();
+      }
+    }
+  }
+
+  /**
+   * One external fastText process. Not thread-safe by itself, all access is synchronized on the instance.
+   */
+  private class FastTextProcess {
+
+    private Process process;
+    private BufferedReader in;
+    private Writer out;
+    // set when a call to this process failed, reset when it's (re)started:
+    private volatile boolean failed;
+
+    private synchronized void init() throws IOException {
+      failed = false;
+      process = new ProcessBuilder(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES).start();
+      // avoid buffering, we want to flush/read all data immediately
+      // might cause mixup
+      in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+      out = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    private synchronized String predict(String line) throws IOException {
+      char[] cbuf = new char[BUFFER_SIZE];
+      out.write(line + System.lineSeparator());
+      out.flush();
+      long read = in.read(cbuf);
+      if (read <= 0) {
+        // hack to see if this helps us debug the rare case of readLine() returning null:
+        try {
+          logger.warn("fasttextIn.read() returned no data, trying again after short delay");
+          Thread.sleep(10);
+          read = in.read(cbuf);
+          if (read == -1) {
+            logger.warn("fasttextIn.read() returned no data again");
+          }
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      if (in.ready()) {
+        logger.warn("More input to read from Fasttext, this should not happen; language detection results might be mixed up");
+      }
+      return new String(cbuf);
+    }
+
+    private synchronized List<String> predict(List<String> lines) throws IOException {
+      List<String> result = new ArrayList<>(lines.size());
+      for (int chunkStart = 0; chunkStart < lines.size(); chunkStart += BATCH_CHUNK_SIZE) {
+        int chunkEnd = Math.min(chunkStart + BATCH_CHUNK_SIZE, lines.size());
+        for (int i = chunkStart; i < chunkEnd; i++) {
+          out.write(lines.get(i) + System.lineSeparator());
+        }
+        out.flush();
+        for (int i = chunkStart; i < chunkEnd; i++) {
+          String answer = in.readLine();
+          if (answer == null) {
+            throw new FastTextException("fastText process closed its output after " + result.size() + " of " + lines.size() + " lines", true);
+          }
+          result.add(answer);
+        }
+      }
+      return result;
+    }
+
+    private synchronized boolean restartIfBroken() throws IOException {
+      try {
+        if (process.isAlive() && predict(SELF_CHECK_TEXT).startsWith("__label__")) {
+          return false;
+        }
+      } catch (IOException e) {
+        logger.debug("fastText self check failed", e);
+      }
+      restart();
+      return true;
+    }
+
+    private synchronized boolean restartIfFailed() throws IOException {
+      if (!failed) {
+        return false;  // another caller has restarted it already
+      }
+      restart();
+      return true;
+    }
+
+    private synchronized void restart() throws IOException {
+      destroy();
+      init();
+    }
+
+    private synchronized void destroy() {
+      if (process != null) {
+        process.destroy();
+        try {
+          in.close();
+          out.close();
+        } catch (IOException e) {
+          logger.warn("Could not close fastText streams", e);
+        }
+      }
+    }
   }
 
 }
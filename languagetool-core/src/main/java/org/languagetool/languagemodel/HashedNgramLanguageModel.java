@@ -0,0 +1,201 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Information about ngram occurrences, taken from a read-only hash table that is memory-mapped
+ * from the file {@value #FILE_NAME}. Compared to {@link LuceneLanguageModel}, a lookup is only
+ * a hash computation and (usually) one or two memory accesses. The table can be created from the
+ * Lucene indexes with {@code org.languagetool.dev.bigdata.LuceneToHashedNgrams}.
+ *
+ * <p>The ngrams themselves are not stored, only a 48 bit fingerprint of their hash, so there's a
+ * tiny probability that an ngram that's not in the data gets the count of another one. The counts
+ * are quantized to 16 bits: counts below {@value #EXACT_COUNTS} are exact, the relative error of
+ * larger ones is at most 1/4096.
+ * @since 6.3
+ */
+public class HashedNgramLanguageModel extends BaseLanguageModel {
+
+  public static final String FILE_NAME = "ngrams.lthash";
+
+  static final int MAGIC = 0x4c54_4e47;  // "LTNG"
+  static final int VERSION = 1;
+  // magic, version, max ngram size, unused, slot count, total token count:
+  static final int HEADER_SIZE = 32;
+  static final int SLOT_SIZE = Long.BYTES;
+  // each buffer maps 1GB, as a buffer can't be larger than 2GB:
+  static final int SLOTS_PER_BUFFER_BITS = 27;
+  static final int EXACT_COUNTS = 4096;
+  static final long COUNT_MASK = 0xffff;
+
+  private static final int MANTISSA_VALUES = 2048;
+  private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+  private final File file;
+  private final MappedByteBuffer[] buffers;
+  private final long slotMask;
+  private final int maxNgram;
+  private final long totalTokenCount;
+
+  /**
+   * @return whether {@code topIndexDir} contains a hash table for this class
+   */
+  public static boolean isHashedNgramDirectory(File topIndexDir) {
+    return new File(topIndexDir, FILE_NAME).isFile();
+  }
+
+  /**
+   * @param topIndexDir a directory with a file {@value #FILE_NAME}
+   */
+  public HashedNgramLanguageModel(File topIndexDir) {
+    file = new File(topIndexDir, FILE_NAME);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+         FileChannel channel = raf.getChannel()) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt(0) != MAGIC) {
+        throw new RuntimeException("Not an ngram hash table, or it has not been written completely: " + file);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new RuntimeException("Unsupported version " + header.getInt(4) + ", expected " + VERSION + ": " + file);
+      }
+      maxNgram = header.getInt(8);
+      long slotCount = header.getLong(16);
+      totalTokenCount = header.getLong(24);
+      if (Long.bitCount(slotCount) != 1 || channel.size() != HEADER_SIZE + slotCount * SLOT_SIZE) {
+        throw new RuntimeException("Unexpected size of ngram hash table with " + slotCount + " slots: " + file);
+      }
+      slotMask = slotCount - 1;
+      buffers = mapSlots(channel, slotCount, FileChannel.MapMode.READ_ONLY);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not load ngram hash table " + file, e);
+    }
+  }
+
+  static MappedByteBuffer[] mapSlots(FileChannel channel, long slotCount, FileChannel.MapMode mode) throws IOException {
+    long slotsPerBuffer = 1L << SLOTS_PER_BUFFER_BITS;
+    MappedByteBuffer[] result = new MappedByteBuffer[(int) ((slotCount + slotsPerBuffer - 1) / slotsPerBuffer)];
+    for (int i = 0; i < result.length; i++) {
+      long slots = Math.min(slotsPerBuffer, slotCount - i * slotsPerBuffer);
+      result[i] = channel.map(mode, HEADER_SIZE + i * slotsPerBuffer * SLOT_SIZE, slots * SLOT_SIZE);
+    }
+    return result;
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    if (tokens.size() > maxNgram) {
+      throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
+    }
+    HashCode hash = hash(String.join(" ", tokens));
+    long fingerprint = fingerprint(hash);
+    for (long slot = hash.asLong() & slotMask; ; slot = (slot + 1) & slotMask) {
+      long value = getSlot(buffers, slot);
+      if (value == 0) {
+        return 0;
+      }
+      if ((value & ~COUNT_MASK) == fingerprint) {
+        return decodeCount((int) (value & COUNT_MASK));
+      }
+    }
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return getCount(Arrays.asList(token1));
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    return totalTokenCount;
+  }
+
+  static HashCode hash(String ngram) {
+    return hashFunction.hashString(ngram, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The upper 48 bits of the slot value, taken from the half of the hash that's not used for the slot index.
+   */
+  static long fingerprint(HashCode hash) {
+    byte[] bytes = hash.asBytes();
+    long result = 0;
+    for (int i = 8; i < 14; i++) {
+      result = (result << 8) | (bytes[i] & 0xff);
+    }
+    return result << 16;
+  }
+
+  static long getSlot(MappedByteBuffer[] buffers, long slot) {
+    return buffers[(int) (slot >>> SLOTS_PER_BUFFER_BITS)].getLong((int) (slot & ((1 << SLOTS_PER_BUFFER_BITS) - 1)) * SLOT_SIZE);
+  }
+
+  /**
+   * @return a value between 1 and 65535 (inclusive) that approximates {@code count}
+   */
+  static int encodeCount(long count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Count must be positive: " + count);
+    }
+    if (count < EXACT_COUNTS) {
+      return (int) count;
+    }
+    // keep the 12 most significant bits, the first of which is always 1:
+    int exponent = 63 - Long.numberOfLeadingZeros(count) - 11;
+    long code = EXACT_COUNTS + (long) (exponent - 1) * MANTISSA_VALUES + ((count >>> exponent) - MANTISSA_VALUES);
+    return (int) Math.min(code, COUNT_MASK);
+  }
+
+  static long decodeCount(int code) {
+    if (code < EXACT_COUNTS) {
+      return code;
+    }
+    int exponent = (code - EXACT_COUNTS) / MANTISSA_VALUES + 1;
+    long mantissa = (code - EXACT_COUNTS) % MANTISSA_VALUES + MANTISSA_VALUES;
+    // the middle of the range of counts with this code:
+    return (mantissa << exponent) + (1L << (exponent - 1));
+  }
+
+  @Override
+  public void close() {
+    // the buffers are unmapped when they are garbage collected
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+
+}
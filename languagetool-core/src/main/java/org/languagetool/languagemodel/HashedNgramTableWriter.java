@@ -0,0 +1,133 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.hash.HashCode;
+import org.languagetool.Experimental;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.languagetool.languagemodel.HashedNgramLanguageModel.*;
+
+/**
+ * Creates the hash table file used by {@link HashedNgramLanguageModel}. The header
+ * is written by {@link #close()}, so an incomplete file cannot be loaded.
+ * @since 6.3
+ */
+@Experimental
+public class HashedNgramTableWriter implements Closeable {
+
+  // keep the probe sequences short:
+  private static final double MAX_LOAD_FACTOR = 0.6;
+
+  private final File file;
+  private final RandomAccessFile raf;
+  private final MappedByteBuffer[] buffers;
+  private final long slotCount;
+  private final int maxNgram;
+  private final long totalTokenCount;
+  private long size;
+
+  /**
+   * @param topIndexDir the directory in which the file {@value HashedNgramLanguageModel#FILE_NAME} is created
+   * @param maxNgrams an upper limit for the number of different ngrams that will be added
+   * @param maxNgram the size of the largest ngrams that will be added, e.g. {@code 3} for 3grams
+   * @param totalTokenCount see {@link BaseLanguageModel#getTotalTokenCount()}
+   */
+  public HashedNgramTableWriter(File topIndexDir, long maxNgrams, int maxNgram, long totalTokenCount) throws IOException {
+    this.file = new File(topIndexDir, FILE_NAME);
+    this.slotCount = Math.max(16, Long.highestOneBit((long) Math.ceil(maxNgrams / MAX_LOAD_FACTOR) * 2 - 1));
+    this.maxNgram = maxNgram;
+    this.totalTokenCount = totalTokenCount;
+    raf = new RandomAccessFile(file, "rw");
+    raf.setLength(0);
+    raf.setLength(HEADER_SIZE + slotCount * SLOT_SIZE);
+    buffers = mapSlots(raf.getChannel(), slotCount, FileChannel.MapMode.READ_WRITE);
+  }
+
+  /**
+   * Adds an ngram (with the tokens separated by a space) and its count. If the ngram has been added
+   * before, the counts are summed up.
+   */
+  public void add(String ngram, long count) {
+    if (count <= 0) {
+      return;  // never looked up, as 0 is the result for ngrams that aren't in the table anyway
+    }
+    HashCode hash = hash(ngram);
+    long fingerprint = fingerprint(hash);
+    long slotMask = slotCount - 1;
+    for (long slot = hash.asLong() & slotMask; ; slot = (slot + 1) & slotMask) {
+      long value = getSlot(buffers, slot);
+      if (value == 0) {
+        if (size + 1 > slotCount * MAX_LOAD_FACTOR) {
+          throw new IllegalStateException("More ngrams than expected, table with " + slotCount + " slots is full: " + file);
+        }
+        setSlot(slot, fingerprint | encodeCount(count));
+        size++;
+        return;
+      }
+      if ((value & ~COUNT_MASK) == fingerprint) {
+        setSlot(slot, fingerprint | encodeCount(decodeCount((int) (value & COUNT_MASK)) + count));
+        return;
+      }
+    }
+  }
+
+  private void setSlot(long slot, long value) {
+    buffers[(int) (slot >>> SLOTS_PER_BUFFER_BITS)].putLong((int) (slot & ((1 << SLOTS_PER_BUFFER_BITS) - 1)) * SLOT_SIZE, value);
+  }
+
+  /**
+   * @return the number of different ngrams added so far
+   */
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      for (MappedByteBuffer buffer : buffers) {
+        buffer.force();
+      }
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(0, MAGIC);
+      header.putInt(4, VERSION);
+      header.putInt(8, maxNgram);
+      header.putLong(16, slotCount);
+      header.putLong(24, totalTokenCount);
+      raf.getChannel().write(header, 0);
+      raf.getChannel().force(true);
+    } finally {
+      raf.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return file + ", " + size + " ngrams in " + slotCount + " slots";
+  }
+
+}
@@ -129,27 +129,23 @@ public class AnnotatedTextBuilder {
   public AnnotatedText build() {
     int plainTextPosition = 0;
     int totalPosition = 0;
-    Map<Integer, MappingValue> mapping = new HashMap<>();
+    TextPositionMapping.Builder mapping = new TextPositionMapping.Builder();
     for (int i = 0; i < parts.size(); i++) {
       TextPart part = parts.get(i);
       if (part.getType() == TextPart.Type.TEXT) {
         plainTextPosition += part.getPart().length();
         totalPosition += part.getPart().length();
-        MappingValue mappingValue = new MappingValue(totalPosition);
-        mapping.put(plainTextPosition, mappingValue);
+        mapping.put(plainTextPosition, totalPosition);
       } else if (part.getType() == TextPart.Type.MARKUP) {
         totalPosition += part.getPart().length();
         if (hasFakeContent(i, parts)) {
           plainTextPosition += parts.get(i + 1).getPart().length();
           i++;
-          if (mapping.get(plainTextPosition) == null) {
-            MappingValue mappingValue = new MappingValue(totalPosition, part.getPart().length());
-            mapping.put(plainTextPosition, mappingValue);
-          }
+          mapping.putIfAbsent(plainTextPosition, totalPosition, part.getPart().length());
         }
       }
     }
-    return new AnnotatedText(parts, mapping, metaData, customMetaData);
+    return new AnnotatedText(parts, mapping.build(), metaData, customMetaData);
   }
 
   private boolean hasFakeContent(int i, List<TextPart> parts) {
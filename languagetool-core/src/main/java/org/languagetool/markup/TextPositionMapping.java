@@ -0,0 +1,149 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.markup;
+
+import java.util.Arrays;
+
+/**
+ * Maps positions in the plain text to positions in the original text (with markup).
+ * The entries are kept in parallel arrays sorted by plain text position, so that
+ * a lookup is a binary search instead of a scan over all markup parts.
+ * Use {@link Builder} to create objects of this type.
+ * @since 6.3
+ */
+final class TextPositionMapping {
+
+  private final int[] plainTextPositions;
+  private final int[] totalPositions;
+  private final int[] fakeMarkupLengths;
+  private final int size;
+
+  private TextPositionMapping(int[] plainTextPositions, int[] totalPositions, int[] fakeMarkupLengths, int size) {
+    this.plainTextPositions = plainTextPositions;
+    this.totalPositions = totalPositions;
+    this.fakeMarkupLengths = fakeMarkupLengths;
+    this.size = size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the index of the entry with the smallest plain text position that is greater
+   * than {@code plainTextPosition}, or {@code -1} if there is no such entry
+   */
+  int closestHigherIndex(int plainTextPosition) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (plainTextPositions[mid] <= plainTextPosition) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low < size ? low : -1;
+  }
+
+  int getPlainTextPosition(int index) {
+    return plainTextPositions[index];
+  }
+
+  int getTotalPosition(int index) {
+    return totalPositions[index];
+  }
+
+  int getFakeMarkupLength(int index) {
+    return fakeMarkupLengths[index];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(plainTextPositions[i]).append("=totalPos:").append(totalPositions[i])
+        .append(",fakeMarkupLen=").append(fakeMarkupLengths[i]);
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Collects the mapping entries. Entries must be added in order of non-decreasing
+   * plain text position, as {@link AnnotatedTextBuilder#build()} does.
+   */
+  static class Builder {
+
+    private int[] plainTextPositions = new int[16];
+    private int[] totalPositions = new int[16];
+    private int[] fakeMarkupLengths = new int[16];
+    private int size;
+
+    /**
+     * Add an entry for a text part, replacing an existing entry at the same plain text position.
+     */
+    void put(int plainTextPosition, int totalPosition) {
+      if (size > 0 && plainTextPositions[size - 1] == plainTextPosition) {
+        totalPositions[size - 1] = totalPosition;
+        fakeMarkupLengths[size - 1] = 0;
+      } else {
+        append(plainTextPosition, totalPosition, 0);
+      }
+    }
+
+    /**
+     * Add an entry for fake markup, unless there's already an entry at the same plain text position.
+     */
+    void putIfAbsent(int plainTextPosition, int totalPosition, int fakeMarkupLength) {
+      if (size == 0 || plainTextPositions[size - 1] != plainTextPosition) {
+        append(plainTextPosition, totalPosition, fakeMarkupLength);
+      }
+    }
+
+    private void append(int plainTextPosition, int totalPosition, int fakeMarkupLength) {
+      if (size > 0 && plainTextPosition < plainTextPositions[size - 1]) {
+        throw new IllegalArgumentException("Positions must be added in order: " + plainTextPosition + " < " + plainTextPositions[size - 1]);
+      }
+      if (size == plainTextPositions.length) {
+        int newLength = size * 2;
+        plainTextPositions = Arrays.copyOf(plainTextPositions, newLength);
+        totalPositions = Arrays.copyOf(totalPositions, newLength);
+        fakeMarkupLengths = Arrays.copyOf(fakeMarkupLengths, newLength);
+      }
+      plainTextPositions[size] = plainTextPosition;
+      totalPositions[size] = totalPosition;
+      fakeMarkupLengths[size] = fakeMarkupLength;
+      size++;
+    }
+
+    TextPositionMapping build() {
+      return new TextPositionMapping(Arrays.copyOf(plainTextPositions, size), Arrays.copyOf(totalPositions, size),
+        Arrays.copyOf(fakeMarkupLengths, size), size);
+    }
+  }
+
+}
@@ -119,6 +119,10 @@ public abstract class AbstractCompoundRule extends Rule {
       } else if (token.isImmunized()) {
         continue;
       }
+      if (!mayMatch(prevTokens)) {
+        addToQueue(token, prevTokens);
+        continue;
+      }
 
       AnalyzedTokenReadings firstMatchToken = prevTokens.peek();
       List<String> stringsToCheck = new ArrayList<>();      // no hyphens spelling
@@ -232,6 +236,37 @@ public abstract class AbstractCompoundRule extends Rule {
     return stringToToken;
   }
 
+  /**
+   * Whether a compound can be found in the current window. After normalization, all strings checked
+   * for a window are prefixes of the longest one, so if no compound is a prefix of that string, there's
+   * nothing to find. Strings with digits are always checked, as they can match the {@code \d+} entries.
+   */
+  private boolean mayMatch(Queue<AnalyzedTokenReadings> prevTokens) {
+    StringBuilder sb = new StringBuilder();
+    boolean isFirstSentStart = false;
+    boolean first = true;
+    for (AnalyzedTokenReadings atr : prevTokens) {
+      if (atr.isWhitespaceBefore()) {
+        sb.append(' ');
+      }
+      sb.append(atr.getToken());
+      if (first) {
+        isFirstSentStart = atr.hasPosTag(JLanguageTool.SENTENCE_START_TAGNAME);
+        first = false;
+      }
+    }
+    String longest = normalize(sb.toString());
+    if (sentenceStartsWithUpperCase && isFirstSentStart) {
+      longest = StringUtils.uncapitalize(longest);
+    }
+    for (int i = 0; i < longest.length(); i++) {
+      if (Character.isDigit(longest.charAt(i))) {
+        return true;
+      }
+    }
+    return getCompoundRuleData().getIncorrectCompoundsTrie().hasPrefixOf(longest);
+  }
+
   private String normalize(String inStr) {
     String str = inStr.trim();
     str = str.replace(" - ", " ");
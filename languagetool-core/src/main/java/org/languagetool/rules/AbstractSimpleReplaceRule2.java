@@ -34,7 +34,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -84,17 +83,17 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
    */
   public abstract Locale getLocale();
 
-  private static final LoadingCache<PathsAndLanguage, List<Map<String, SuggestionWithMessage>>> cache = CacheBuilder.newBuilder()
+  private static final LoadingCache<PathsAndLanguage, WrongWords> cache = CacheBuilder.newBuilder()
           .expireAfterWrite(30, TimeUnit.MINUTES)
-          .build(new CacheLoader<PathsAndLanguage, List<Map<String, SuggestionWithMessage>>>() {
+          .build(new CacheLoader<PathsAndLanguage, WrongWords>() {
             @Override
-            public List<Map<String, SuggestionWithMessage>> load(@NotNull PathsAndLanguage lap) throws IOException {
+            public WrongWords load(@NotNull PathsAndLanguage lap) throws IOException {
               List<Map<String, SuggestionWithMessage>> maps = new ArrayList<>();
               for (String path : lap.paths) {
                 List<Map<String, SuggestionWithMessage>> l = loadWords(path, lap.lang, lap.caseSensitive, lap.checkingCase);
                 maps.addAll(l);
               }
-              return maps;
+              return new WrongWords(Collections.unmodifiableList(maps));
             }
           });
 
@@ -120,6 +119,10 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
    * @return the list of wrong words for which this rule can suggest corrections. The list cannot be modified.
    */
   public List<Map<String, SuggestionWithMessage>> getWrongWords(boolean checkingCase) {
+    return getCachedWrongWords(checkingCase).maps;
+  }
+
+  private WrongWords getCachedWrongWords(boolean checkingCase) {
     try {
       boolean caseSen = getCaseSensitivy() == CaseSensitivy.CS || getCaseSensitivy() == CaseSensitivy.CSExceptAtSentenceStart;
       return cache.get(new PathsAndLanguage(getFileNames(), language, caseSen, checkingCase));
@@ -231,93 +234,101 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
     List<RuleMatch> ruleMatches = new ArrayList<>();
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
 
-    List<Map<String, SuggestionWithMessage>> wrongWords = getWrongWords(false);
-    if (wrongWords.size() == 0) {
+    WrongWords wrongWords = getCachedWrongWords(false);
+    int maxWordCount = wrongWords.maps.size();
+    if (maxWordCount == 0) {
       return toRuleMatchArray(ruleMatches);
     }
-    Queue<AnalyzedTokenReadings> prevTokens = new ArrayBlockingQueue<>(wrongWords.size());
+    PhraseTrie<SuggestionWithMessage[]> trie = wrongWords.trie;
+    CaseSensitivy caseSensitivy = getCaseSensitivy();
+    boolean caseSen = caseSensitivy == CaseSensitivy.CS || caseSensitivy == CaseSensitivy.CSExceptAtSentenceStart;
+
+    // for each token, the longest phrase that ends at it - found by walking the trie from each token:
+    int[] matchStarts = new int[tokens.length];
+    SuggestionWithMessage[] matchesAtEnd = new SuggestionWithMessage[tokens.length];
+    for (int start = 1; start < tokens.length; start++) {
+      // at sentence start, words can be uppercase:
+      boolean lowercase = !caseSen || (caseSensitivy == CaseSensitivy.CSExceptAtSentenceStart && start == 1);
+      int node = PhraseTrie.ROOT;
+      for (int end = start; end < tokens.length && end - start < maxWordCount; end++) {
+        if (end > start && tokens[end].isWhitespaceBefore()) {
+          node = trie.next(node, ' ');
+        }
+        String token = tokens[end].getToken();
+        node = trie.next(node, lowercase ? token.toLowerCase(getLocale()) : token);
+        if (node == PhraseTrie.NONE) {
+          break;
+        }
+        SuggestionWithMessage[] suggestions = trie.getValue(node);
+        int wordCount = end - start + 1;
+        if (suggestions != null && suggestions[wordCount - 1] != null && matchesAtEnd[end] == null) {
+          matchStarts[end] = start;
+          matchesAtEnd[end] = suggestions[wordCount - 1];
+        }
+      }
+    }
 
     for (int i = 1; i < tokens.length; i++) {
-      addToQueue(tokens[i], prevTokens);
+      SuggestionWithMessage crtMatch = matchesAtEnd[i];
+      if (crtMatch == null || isTokenException(tokens[i])) {
+        continue;
+      }
       StringBuilder sb = new StringBuilder();
-      List<String> variants = new ArrayList<>();
-      List<AnalyzedTokenReadings> prevTokensList =
-              Arrays.asList(prevTokens.toArray(new AnalyzedTokenReadings[0]));
-      for (int j = prevTokensList.size() - 1; j >= 0; j--) {
-        if (j != prevTokensList.size() - 1 && prevTokensList.get(j + 1).isWhitespaceBefore()) {
-          sb.insert(0, " ");
+      for (int j = matchStarts[i]; j <= i; j++) {
+        if (j > matchStarts[i] && tokens[j].isWhitespaceBefore()) {
+          sb.append(' ');
         }
-        sb.insert(0, prevTokensList.get(j).getToken());
-        variants.add(0, sb.toString());
+        sb.append(tokens[j].getToken());
       }
-      if (isTokenException(tokens[i])) {
-        continue;
+      String crt = sb.toString();
+      List<String> replacements = Arrays.asList(crtMatch.getSuggestion().split("\\|"));
+      String msgSuggestions = "";
+      for (int k = 0; k < replacements.size(); k++) {
+        if (k > 0) {
+          msgSuggestions += (k == replacements.size() - 1 ? getSuggestionsSeparator(): ", ");
+        }
+        msgSuggestions += "<suggestion>" + replacements.get(k) + "</suggestion>";
       }
-      int len = variants.size(); // prevTokensList and variants have now the same length
-      for (int j = 0; j < len; j++) { // longest words first
-        String crt = variants.get(j);
-        int crtWordCount = len - j;
-        SuggestionWithMessage crtMatch;
-        if (getCaseSensitivy() == CaseSensitivy.CSExceptAtSentenceStart && i - crtWordCount == 0) {  // at sentence start, words can be uppercase
-          crtMatch = wrongWords.get(crtWordCount - 1).get(crt.toLowerCase(getLocale()));
-        } else {
-          boolean caseSen = getCaseSensitivy() == CaseSensitivy.CS || getCaseSensitivy() == CaseSensitivy.CSExceptAtSentenceStart;
-          crtMatch = caseSen ?
-            wrongWords.get(crtWordCount - 1).get(crt) :
-            wrongWords.get(crtWordCount - 1).get(crt.toLowerCase(getLocale()));
+      String msg = getMessage().replaceFirst("\\$match", crt).replaceFirst("\\$suggestions", msgSuggestions);
+      if (crtMatch.getMessage() != null) {
+        if (!crtMatch.getMessage().startsWith("http://") && !crtMatch.getMessage().startsWith("https://")) {
+          msg = crtMatch.getMessage();
         }
-        if (crtMatch != null) {
-          List<String> replacements = Arrays.asList(crtMatch.getSuggestion().split("\\|"));
-          String msgSuggestions = "";
-          for (int k = 0; k < replacements.size(); k++) {
-            if (k > 0) {
-              msgSuggestions += (k == replacements.size() - 1 ? getSuggestionsSeparator(): ", ");
-            }
-            msgSuggestions += "<suggestion>" + replacements.get(k) + "</suggestion>";
-          }
-          String msg = getMessage().replaceFirst("\\$match", crt).replaceFirst("\\$suggestions", msgSuggestions);
-          if (crtMatch.getMessage() != null) {
-            if (!crtMatch.getMessage().startsWith("http://") && !crtMatch.getMessage().startsWith("https://")) {
-              msg = crtMatch.getMessage();
-            }
-          }
-          int startPos = prevTokensList.get(len - crtWordCount).getStartPos();
-          int endPos = prevTokensList.get(len - 1).getEndPos();
-          RuleMatch ruleMatch = new RuleMatch(this, sentence, startPos, endPos, msg, getShort());
-          if (subRuleSpecificIds) {
-            String id = StringTools.toId(getId() + "_" + crt, language);
-            String desc = getDescription().replace("$match", crt);
-            SpecificIdRule specificIdRule = new SpecificIdRule(id, desc, isPremium(), getCategory(), getLocQualityIssueType(), getTags());
-            ruleMatch = new RuleMatch(specificIdRule, sentence, startPos, endPos, msg, getShort());
-          }
-          if (crtMatch.getMessage() != null && (crtMatch.getMessage().startsWith("http://") || crtMatch.getMessage().startsWith("https://"))) {
-            ruleMatch.setUrl(Tools.getUrl(crtMatch.getMessage()));
-          }
-          if ((getCaseSensitivy() != CaseSensitivy.CS || getCaseSensitivy() == CaseSensitivy.CSExceptAtSentenceStart)
-               && StringTools.startsWithUppercase(crt)) {
-            //String covered = sentence.getText().substring(startPos, endPos);
-            for (int k = 0; k < replacements.size(); k++) {
-              String repl = StringTools.uppercaseFirstChar(replacements.get(k));
-              replacements.set(k, repl);
-              //if (covered.equals(repl)) {
-              //  System.err.println("suggestion == original text for '" + covered + "' in AbstractSimpleReplaceRule2");
-              //}
-            }
-          }
-          ruleMatch.setSuggestedReplacements(replacements);
-          if (!isException(sentence.getText().substring(startPos, endPos))) {
-            //keep only the longest match
-            if (ruleMatches.size() > 0) {
-              RuleMatch lastRuleMatch = ruleMatches.get(ruleMatches.size() - 1);
-              if (lastRuleMatch.getFromPos() == ruleMatch.getFromPos()
-                  && lastRuleMatch.getToPos() < ruleMatch.getToPos()) {
-                ruleMatches.remove(ruleMatches.size() - 1);
-              }
-            }
-            ruleMatches.add(ruleMatch);
+      }
+      int startPos = tokens[matchStarts[i]].getStartPos();
+      int endPos = tokens[i].getEndPos();
+      RuleMatch ruleMatch = new RuleMatch(this, sentence, startPos, endPos, msg, getShort());
+      if (subRuleSpecificIds) {
+        String id = StringTools.toId(getId() + "_" + crt, language);
+        String desc = getDescription().replace("$match", crt);
+        SpecificIdRule specificIdRule = new SpecificIdRule(id, desc, isPremium(), getCategory(), getLocQualityIssueType(), getTags());
+        ruleMatch = new RuleMatch(specificIdRule, sentence, startPos, endPos, msg, getShort());
+      }
+      if (crtMatch.getMessage() != null && (crtMatch.getMessage().startsWith("http://") || crtMatch.getMessage().startsWith("https://"))) {
+        ruleMatch.setUrl(Tools.getUrl(crtMatch.getMessage()));
+      }
+      if ((getCaseSensitivy() != CaseSensitivy.CS || getCaseSensitivy() == CaseSensitivy.CSExceptAtSentenceStart)
+           && StringTools.startsWithUppercase(crt)) {
+        //String covered = sentence.getText().substring(startPos, endPos);
+        for (int k = 0; k < replacements.size(); k++) {
+          String repl = StringTools.uppercaseFirstChar(replacements.get(k));
+          replacements.set(k, repl);
+          //if (covered.equals(repl)) {
+          //  System.err.println("suggestion == original text for '" + covered + "' in AbstractSimpleReplaceRule2");
+          //}
+        }
+      }
+      ruleMatch.setSuggestedReplacements(replacements);
+      if (!isException(sentence.getText().substring(startPos, endPos))) {
+        //keep only the longest match
+        if (ruleMatches.size() > 0) {
+          RuleMatch lastRuleMatch = ruleMatches.get(ruleMatches.size() - 1);
+          if (lastRuleMatch.getFromPos() == ruleMatch.getFromPos()
+              && lastRuleMatch.getToPos() < ruleMatch.getToPos()) {
+            ruleMatches.remove(ruleMatches.size() - 1);
           }
-          break;
         }
+        ruleMatches.add(ruleMatch);
       }
     }
     return toRuleMatchArray(ruleMatches);
@@ -349,6 +360,30 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
     return false;
   }
 
+  /**
+   * The loaded phrases, as maps per word count and as a trie whose values are indexed by word count - 1.
+   */
+  private static class WrongWords {
+    final List<Map<String, SuggestionWithMessage>> maps;
+    final PhraseTrie<SuggestionWithMessage[]> trie;
+
+    WrongWords(List<Map<String, SuggestionWithMessage>> maps) {
+      this.maps = maps;
+      PhraseTrie.Builder<SuggestionWithMessage[]> builder = new PhraseTrie.Builder<>();
+      for (int i = 0; i < maps.size(); i++) {
+        for (Map.Entry<String, SuggestionWithMessage> entry : maps.get(i).entrySet()) {
+          SuggestionWithMessage[] suggestions = builder.get(entry.getKey());
+          if (suggestions == null) {
+            suggestions = new SuggestionWithMessage[maps.size()];
+            builder.put(entry.getKey(), suggestions);
+          }
+          suggestions[i] = entry.getValue();
+        }
+      }
+      this.trie = builder.build();
+    }
+  }
+
   static class PathsAndLanguage {
     final List<String> paths;
     final Language lang;
@@ -0,0 +1,54 @@
+/*
+ *  LanguageTool, a natural language style checker
+ *  * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *  *
+ *  * This library is free software; you can redistribute it and/or
+ *  * modify it under the terms of the GNU Lesser General Public
+ *  * License as published by the Free Software Foundation; either
+ *  * version 2.1 of the License, or (at your option) any later version.
+ *  *
+ *  * This library is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  * Lesser General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU Lesser General Public
+ *  * License along with this library; if not, write to the Free Software
+ *  * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ *  * USA
+ *
+ */
+
+package org.languagetool.rules;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.Language;
+
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * A remote rule whose service can check sentences from several texts in one request. Sentences of
+ * concurrent requests are then combined into one request if the option {@code batchWindowMilliseconds}
+ * is set (see {@link RemoteRuleConfig#getOptions()}).
+ * @since 6.3
+ */
+public abstract class BatchableRemoteRule extends RemoteRule {
+
+  public BatchableRemoteRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging, @Nullable String ruleId) {
+    super(language, messages, config, inputLogging, ruleId);
+  }
+
+  public BatchableRemoteRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging) {
+    super(language, messages, config, inputLogging);
+  }
+
+  /**
+   * Like {@link #prepareRequest(List, Long)}, but for sentences from several texts.
+   * @param textSessionIds session ID of the text each sentence is from, all {@code null} or all not {@code null}
+   * @return parameter for executeRequest/fallbackResults
+   */
+  protected abstract RemoteRequest prepareRequest(List<AnalyzedSentence> sentences, List<Long> textSessionIds);
+
+}
@@ -36,6 +36,7 @@ public class CompoundRuleData {
   private final Set<String> joinedLowerCaseSuggestion = new THashSet<>();
   private final Set<String> dashSuggestion = new THashSet<>();
   private final LineExpander expander;
+  private final PhraseTrie<Boolean> incorrectCompoundsTrie;
 
   public CompoundRuleData(String path) {
     this(new String[] {path});
@@ -54,12 +55,25 @@ public class CompoundRuleData {
         throw new RuntimeException("Could not load compound data from " + path, e);
       }
     }
+    PhraseTrie.Builder<Boolean> builder = new PhraseTrie.Builder<>();
+    for (String compound : incorrectCompounds) {
+      builder.put(compound, Boolean.TRUE);
+    }
+    incorrectCompoundsTrie = builder.build();
   }
 
   public Set<String> getIncorrectCompounds() {
     return Collections.unmodifiableSet(incorrectCompounds);
   }
 
+  /**
+   * The same entries as {@link #getIncorrectCompounds()}, as a trie.
+   * @since 6.3
+   */
+  PhraseTrie<Boolean> getIncorrectCompoundsTrie() {
+    return incorrectCompoundsTrie;
+  }
+
   public Set<String> getJoinedSuggestion() {
     return Collections.unmodifiableSet(joinedSuggestion);
   }
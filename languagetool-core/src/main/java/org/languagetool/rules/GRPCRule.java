@@ -85,7 +85,7 @@ import io.grpc.netty.shaded.io.netty.handler.ssl.SslContextBuilder;
    }
   </pre>
  */
-public abstract class GRPCRule extends RemoteRule {
+public abstract class GRPCRule extends BatchableRemoteRule {
   public static final String CONFIG_TYPE = "grpc";
 
 
@@ -244,7 +244,20 @@ public abstract class GRPCRule extends RemoteRule {
     if (textSessionId != null) {
       ids = Collections.nCopies(sentences.size(), textSessionId);
     }
+    return prepareRequest(sentences, ids, textSessionId);
+  }
+
+  @Override
+  protected RemoteRule.RemoteRequest prepareRequest(List<AnalyzedSentence> sentences, List<Long> textSessionIds) {
+    List<Long> ids = textSessionIds.contains(null) ? Collections.emptyList() : textSessionIds;
+    return prepareRequest(sentences, ids, null);
+  }
 
+  /**
+   * @param ids session ID for each sentence, or empty
+   * @param textSessionId the session ID if all sentences come from the same text, else {@code null}
+   */
+  private RemoteRule.RemoteRequest prepareRequest(List<AnalyzedSentence> sentences, List<Long> ids, @Nullable Long textSessionId) {
     if (sendAnalyzedData) {
       List<MLServerProto.AnalyzedMatchRequest> requests = new ArrayList<>();
 
@@ -254,7 +267,7 @@ public abstract class GRPCRule extends RemoteRule {
             .subList(offset, Math.min(sentences.size(), offset + batchSize))
             .stream().map(GRPCUtils::toGRPC).collect(Collectors.toList()))
           .setInputLogging(inputLogging)
-          .addAllTextSessionID(textSessionId != null ?
+          .addAllTextSessionID(!ids.isEmpty() ?
             ids.subList(offset, Math.min(sentences.size(), offset + batchSize))
             : Collections.emptyList())
           .build();
@@ -276,7 +289,7 @@ public abstract class GRPCRule extends RemoteRule {
         MLServerProto.MatchRequest req = MLServerProto.MatchRequest.newBuilder()
           .addAllSentences(text.subList(offset, Math.min(text.size(), offset + batchSize)))
           .setInputLogging(inputLogging)
-          .addAllTextSessionID(textSessionId != null ?
+          .addAllTextSessionID(!ids.isEmpty() ?
                               ids.subList(offset, Math.min(text.size(), offset + batchSize))
                               : Collections.emptyList())
           .build();
@@ -0,0 +1,194 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable character trie of phrases, used to find phrases by walking over the tokens
+ * of a sentence instead of building and looking up a string for every possible phrase.
+ * A walk starts at {@link #ROOT} and is continued with {@link #next(int, String)} for each
+ * token (and the space between tokens) until it returns {@link #NONE}. Nodes that
+ * end a phrase have a value.
+ * @since 6.3
+ */
+final class PhraseTrie<V> {
+
+  static final int ROOT = 0;
+  static final int NONE = -1;
+
+  // children of node n are at childStart[n] (inclusive) to childStart[n+1] (exclusive), sorted by char:
+  private final int[] childStart;
+  private final char[] childChars;
+  private final int[] childNodes;
+  private final Object[] values;
+
+  private PhraseTrie(int[] childStart, char[] childChars, int[] childNodes, Object[] values) {
+    this.childStart = childStart;
+    this.childChars = childChars;
+    this.childNodes = childNodes;
+    this.values = values;
+  }
+
+  /**
+   * @return the node reached from {@code node} by {@code c}, or {@link #NONE}
+   */
+  int next(int node, char c) {
+    if (node == NONE) {
+      return NONE;
+    }
+    int low = childStart[node];
+    int high = childStart[node + 1] - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char midChar = childChars[mid];
+      if (midChar < c) {
+        low = mid + 1;
+      } else if (midChar > c) {
+        high = mid - 1;
+      } else {
+        return childNodes[mid];
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * @return the node reached from {@code node} by all characters of {@code s}, or {@link #NONE}
+   */
+  int next(int node, String s) {
+    for (int i = 0; i < s.length() && node != NONE; i++) {
+      node = next(node, s.charAt(i));
+    }
+    return node;
+  }
+
+  /**
+   * @return the value of the phrase that ends at {@code node}, or {@code null}
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  V getValue(int node) {
+    return node == NONE ? null : (V) values[node];
+  }
+
+  /**
+   * @return the value of {@code phrase}, or {@code null} if it's not in the trie
+   */
+  @Nullable
+  V get(String phrase) {
+    return getValue(next(ROOT, phrase));
+  }
+
+  /**
+   * @return true if some phrase is a prefix of {@code s} (or equal to it)
+   */
+  boolean hasPrefixOf(String s) {
+    int node = ROOT;
+    for (int i = 0; i < s.length(); i++) {
+      if (values[node] != null) {
+        return true;
+      }
+      node = next(node, s.charAt(i));
+      if (node == NONE) {
+        return false;
+      }
+    }
+    return values[node] != null;
+  }
+
+  int getNodeCount() {
+    return values.length;
+  }
+
+  static class Builder<V> {
+
+    private final BuilderNode<V> root = new BuilderNode<>();
+    private int nodeCount = 1;
+    private int edgeCount = 0;
+
+    /**
+     * @return the value stored for {@code phrase} so far, or {@code null}
+     */
+    @Nullable
+    V get(String phrase) {
+      BuilderNode<V> node = root;
+      for (int i = 0; i < phrase.length() && node != null; i++) {
+        node = node.children.get(phrase.charAt(i));
+      }
+      return node != null ? node.value : null;
+    }
+
+    /**
+     * Set the value of {@code phrase}, replacing any previous value.
+     */
+    Builder<V> put(String phrase, V value) {
+      Objects.requireNonNull(value);
+      BuilderNode<V> node = root;
+      for (int i = 0; i < phrase.length(); i++) {
+        char c = phrase.charAt(i);
+        BuilderNode<V> child = node.children.get(c);
+        if (child == null) {
+          child = new BuilderNode<>();
+          node.children.put(c, child);
+          nodeCount++;
+          edgeCount++;
+        }
+        node = child;
+      }
+      node.value = value;
+      return this;
+    }
+
+    PhraseTrie<V> build() {
+      int[] childStart = new int[nodeCount + 1];
+      char[] childChars = new char[edgeCount];
+      int[] childNodes = new int[edgeCount];
+      Object[] values = new Object[nodeCount];
+      // number the nodes breadth-first, so the children of each node get consecutive edges:
+      ArrayDeque<BuilderNode<V>> queue = new ArrayDeque<>();
+      queue.add(root);
+      int nodeId = 0;
+      int nextNodeId = 1;
+      int edge = 0;
+      while (!queue.isEmpty()) {
+        BuilderNode<V> node = queue.poll();
+        values[nodeId] = node.value;
+        childStart[nodeId] = edge;
+        for (Map.Entry<Character, BuilderNode<V>> entry : node.children.entrySet()) {
+          childChars[edge] = entry.getKey();
+          childNodes[edge] = nextNodeId++;
+          edge++;
+          queue.add(entry.getValue());
+        }
+        nodeId++;
+      }
+      childStart[nodeCount] = edge;
+      return new PhraseTrie<>(childStart, childChars, childNodes, values);
+    }
+  }
+
+  private static class BuilderNode<V> {
+    private final TreeMap<Character, BuilderNode<V>> children = new TreeMap<>();
+    private V value;
+  }
+
+}
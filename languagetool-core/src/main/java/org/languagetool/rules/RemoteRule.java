@@ -53,6 +53,9 @@ public abstract class RemoteRule extends Rule {
 
   protected static final List<Runnable> shutdownRoutines = new LinkedList<>();
   protected static final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+  // shared by all instances of a rule, so that requests from different pipelines are combined:
+  private static final ConcurrentMap<String, RemoteRuleBatcher> batchers = new ConcurrentHashMap<>();
+  private static final int DEFAULT_BATCH_MAX_SENTENCES = 64;
 
   protected final RemoteRuleConfig serviceConfiguration;
   protected final boolean premium;
@@ -64,6 +67,8 @@ public abstract class RemoteRule extends Rule {
   protected final JLanguageTool lt;
   protected final Pattern suppressMisspelledMatch;
   protected final Pattern suppressMisspelledSuggestions;
+  protected final long batchWindowMilliseconds;
+  protected final int batchMaxSentences;
   
   public RemoteRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging, @Nullable String ruleId) {
     super(messages);
@@ -78,6 +83,9 @@ public abstract class RemoteRule extends Rule {
     whitespaceNormalisation = Boolean.parseBoolean(serviceConfiguration.getOptions().getOrDefault("whitespaceNormalisation", "true"));
     fixOffsets = Boolean.parseBoolean(serviceConfiguration.getOptions().getOrDefault("fixOffsets", "true"));
     premium = Boolean.parseBoolean(serviceConfiguration.getOptions().getOrDefault("premium", "false"));
+    batchWindowMilliseconds = Long.parseLong(serviceConfiguration.getOptions().getOrDefault("batchWindowMilliseconds", "0"));
+    batchMaxSentences = Integer.parseInt(serviceConfiguration.getOptions().getOrDefault("batchMaxSentences",
+      String.valueOf(DEFAULT_BATCH_MAX_SENTENCES)));
     try {
       if (serviceConfiguration.getOptions().containsKey("suppressMisspelledMatch")) {
         suppressMisspelledMatch = Pattern.compile(serviceConfiguration.getOptions().get("suppressMisspelledMatch"));
@@ -183,10 +191,16 @@ public abstract class RemoteRule extends Rule {
       }
       long characters = sentences.stream().mapToInt(sentence -> sentence.getText().length()).sum();
       long timeout = getTimeout(characters);
-      RemoteRequest req = prepareRequest(sentences, textSessionId);
       RemoteRuleResult result;
-
-      result = executeRequest(req, timeout).call();
+      RemoteRuleBatcher batcher = getBatcher(textSessionId);
+      if (batcher != null) {
+        BatchableRemoteRule batchableRule = (BatchableRemoteRule) this;
+        result = batcher.execute(sentences, textSessionId, timeout,
+          (batch, textSessionIds, batchTimeout) -> executeRequest(batchableRule.prepareRequest(batch, textSessionIds), batchTimeout).call());
+      } else {
+        RemoteRequest req = prepareRequest(sentences, textSessionId);
+        result = executeRequest(req, timeout).call();
+      }
 
       if (fixOffsets) {
         for (AnalyzedSentence sentence : sentences) {
@@ -233,6 +247,17 @@ public abstract class RemoteRule extends Rule {
     return getTimeout(serviceConfiguration, characters);
   }
 
+  @Nullable
+  private RemoteRuleBatcher getBatcher(@Nullable Long textSessionId) {
+    // negative session IDs have special meanings (e.g. option no-regression in GRPCRule), keep them separate:
+    if (batchWindowMilliseconds <= 0 || !(this instanceof BatchableRemoteRule) || textSessionId != null && textSessionId < 0) {
+      return null;
+    }
+    // requests with and without session ID are not combined, so a batch has IDs for all sentences or none:
+    String key = getId() + "/" + ruleLanguage.getShortCodeWithCountryAndVariant() + (textSessionId != null ? "/session" : "");
+    return batchers.computeIfAbsent(key, k -> new RemoteRuleBatcher(getId(), batchWindowMilliseconds, batchMaxSentences));
+  }
+
   public CircuitBreaker circuitBreaker() {
     return circuitBreakers.computeIfAbsent(getId(), this::createCircuitBreaker);
   }
@@ -286,7 +311,7 @@ public abstract class RemoteRule extends Rule {
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     FutureTask<RemoteRuleResult> task = run(Collections.singletonList(sentence));
-    Optional<ThreadPoolExecutor> executor = LtThreadPoolFactory.getFixedThreadPoolExecutor(LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL);
+    Optional<ExecutorService> executor = LtThreadPoolFactory.getExecutorService(LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL);
     try {
       long timeout = getTimeout(sentence.getText().length());
       if (executor.isPresent()) {
@@ -0,0 +1,209 @@
+/*
+ *  LanguageTool, a natural language style checker
+ *  * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *  *
+ *  * This library is free software; you can redistribute it and/or
+ *  * modify it under the terms of the GNU Lesser General Public
+ *  * License as published by the Free Software Foundation; either
+ *  * version 2.1 of the License, or (at your option) any later version.
+ *  *
+ *  * This library is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  * Lesser General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU Lesser General Public
+ *  * License along with this library; if not, write to the Free Software
+ *  * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ *  * USA
+ *
+ */
+
+package org.languagetool.rules;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Collects the sentences of concurrent requests for a remote rule, so that they are sent in one
+ * request instead of many small ones. The first request of a batch waits for up to the batch window,
+ * or until the batch has enough sentences, then sends the batch and hands out the results to the other
+ * requests. Each request still waits only until its own deadline, so a request can time out while
+ * others in the same batch succeed. Sentences that are in more than one request of a batch are only sent once.
+ * @since 6.3
+ */
+final class RemoteRuleBatcher {
+
+  /**
+   * Sends the sentences of a batch to the remote rule.
+   */
+  interface BatchCall {
+    /**
+     * @param textSessionIds the session ID of the request each sentence is from
+     * @param timeoutMilliseconds timeout for the request, &lt;=0 -&gt; unlimited
+     */
+    RemoteRuleResult call(List<AnalyzedSentence> sentences, List<Long> textSessionIds, long timeoutMilliseconds) throws Exception;
+  }
+
+  private final String ruleId;
+  private final long windowNanos;
+  private final int maxSentences;
+
+  // the batch that new requests are added to, null if there's none:
+  private Batch current;
+
+  RemoteRuleBatcher(String ruleId, long windowMilliseconds, int maxSentences) {
+    if (windowMilliseconds <= 0 || maxSentences <= 0) {
+      throw new IllegalArgumentException("windowMilliseconds and maxSentences must be > 0: " + windowMilliseconds + ", " + maxSentences);
+    }
+    this.ruleId = ruleId;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMilliseconds);
+    this.maxSentences = maxSentences;
+  }
+
+  /**
+   * Add the sentences to a batch and wait for its result.
+   * @param timeoutMilliseconds timeout for this request, &lt;=0 -&gt; unlimited
+   * @param call sends the batch, used if this request is the first of its batch
+   * @return the result for {@code sentences} only
+   * @throws TimeoutException if the result isn't available within the timeout
+   */
+  RemoteRuleResult execute(List<AnalyzedSentence> sentences, @Nullable Long textSessionId, long timeoutMilliseconds, BatchCall call) throws Exception {
+    long startTime = System.nanoTime();
+    Request request = new Request(sentences, textSessionId,
+      timeoutMilliseconds > 0 ? startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds) : 0);
+    Batch batch;
+    boolean first;
+    synchronized (this) {
+      first = current == null;
+      if (first) {
+        current = new Batch();
+      }
+      batch = current;
+      batch.requests.add(request);
+      batch.sentenceCount += sentences.size();
+      if (batch.sentenceCount >= maxSentences) {
+        current = null;
+        notifyAll();
+      }
+    }
+    if (first) {
+      awaitBatch(batch, startTime + windowNanos);
+      // the other requests of the batch depend on this thread, so the batch is sent even if
+      // this request has been cancelled in the meantime:
+      boolean interrupted = Thread.interrupted();
+      try {
+        send(batch, call);
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+    try {
+      if (request.deadline == 0) {
+        return request.result.get();
+      }
+      return request.result.get(Math.max(0, request.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Wait until the batch is full or the window has passed, then close it.
+   */
+  private synchronized void awaitBatch(Batch batch, long windowEnd) {
+    boolean interrupted = false;
+    long remaining;
+    while (current == batch && (remaining = windowEnd - System.nanoTime()) > 0) {
+      try {
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (current == batch) {
+      current = null;
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void send(Batch batch, BatchCall call) {
+    Set<AnalyzedSentence> distinctSentences = new LinkedHashSet<>();
+    List<Long> textSessionIds = new ArrayList<>();
+    long timeout = 0;
+    boolean unlimited = false;
+    long now = System.nanoTime();
+    for (Request request : batch.requests) {
+      for (AnalyzedSentence sentence : request.sentences) {
+        if (distinctSentences.add(sentence)) {
+          textSessionIds.add(request.textSessionId);
+        }
+      }
+      if (request.deadline == 0) {
+        unlimited = true;
+      } else {
+        timeout = Math.max(timeout, TimeUnit.NANOSECONDS.toMillis(request.deadline - now));
+      }
+    }
+    List<AnalyzedSentence> sentences = new ArrayList<>(distinctSentences);
+    RemoteRuleMetrics.batch(ruleId, batch.requests.size(), sentences.size());
+    RemoteRuleResult result;
+    try {
+      // the request takes as long as the request of the batch with the latest deadline:
+      result = call.call(sentences, textSessionIds, unlimited ? 0 : Math.max(1, timeout));
+    } catch (Throwable t) {
+      for (Request request : batch.requests) {
+        request.result.completeExceptionally(t);
+      }
+      return;
+    }
+    for (Request request : batch.requests) {
+      request.result.complete(resultFor(result, request.sentences));
+    }
+  }
+
+  private static RemoteRuleResult resultFor(RemoteRuleResult batchResult, List<AnalyzedSentence> sentences) {
+    List<RuleMatch> matches = new ArrayList<>();
+    List<AnalyzedSentence> processedSentences = new ArrayList<>();
+    for (AnalyzedSentence sentence : sentences) {
+      List<RuleMatch> sentenceMatches = batchResult.matchesForSentence(sentence);
+      if (sentenceMatches != null) {
+        processedSentences.add(sentence);
+        // copies, as each request adjusts the positions of its matches:
+        for (RuleMatch match : sentenceMatches) {
+          matches.add(new RuleMatch(match));
+        }
+      }
+    }
+    return new RemoteRuleResult(batchResult.isRemote(), batchResult.isSuccess(), matches, processedSentences);
+  }
+
+  private static class Batch {
+    private final List<Request> requests = new ArrayList<>();
+    private int sentenceCount;
+  }
+
+  private static class Request {
+    private final List<AnalyzedSentence> sentences;
+    private final Long textSessionId;
+    private final long deadline;  // System.nanoTime(), 0 -> unlimited
+    private final CompletableFuture<RemoteRuleResult> result = new CompletableFuture<>();
+
+    Request(List<AnalyzedSentence> sentences, @Nullable Long textSessionId, long deadline) {
+      this.sentences = sentences;
+      this.textSessionId = textSessionId;
+      this.deadline = deadline;
+    }
+  }
+
+}
@@ -168,6 +168,9 @@ public class RemoteRuleConfig {
    *  filterMatches: boolean - enable anti-patterns from remote-rule-filters.xml
    *  suppressMisspelledMatch: regex - filter out matches with matching rule IDs that have misspelled suggestions
    *  suppressMisspelledSuggestions: regex - filter out misspelled suggestions from matches with matching rule IDs
+   *  batchWindowMilliseconds: long - combine the sentences of concurrent requests that arrive within this time
+   *    into one request, for rules that extend BatchableRemoteRule (default: 0, i.e. disabled)
+   *  batchMaxSentences: int - send a batch without waiting for the window once it has this many sentences (default: 64)
    *  */
   public Map<String, String> getOptions() {
     return options;
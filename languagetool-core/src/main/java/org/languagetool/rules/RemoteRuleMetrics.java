@@ -66,6 +66,10 @@ public final class RemoteRuleMetrics {
   };
 
 
+  private static final double[] BATCH_BUCKETS = {
+    1, 2, 4, 8, 16, 32, 64, 128, 256
+  };
+
   private static final Histogram wait = Histogram
     .build("languagetool_remote_rule_wait_seconds", "Time spent waiting on remote rule results/timeouts")
     .labelNames("language")
@@ -84,6 +88,18 @@ public final class RemoteRuleMetrics {
     .buckets(SIZE_BUCKETS)
     .register();
 
+  private static final Histogram batchRequests = Histogram
+    .build("languagetool_remote_rule_batch_requests", "Number of requests combined in one batch")
+    .labelNames("rule_id")
+    .buckets(BATCH_BUCKETS)
+    .register();
+
+  private static final Histogram batchSentences = Histogram
+    .build("languagetool_remote_rule_batch_sentences", "Number of distinct sentences sent in one batch")
+    .labelNames("rule_id")
+    .buckets(BATCH_BUCKETS)
+    .register();
+
   public static void request(String rule, long startNanos, long characters, RequestResult result) {
     long delta = System.nanoTime() - startNanos;
     requestLatency.labels(rule, result.name().toLowerCase()).observe((double) delta / 1e9);
@@ -94,6 +110,14 @@ public final class RemoteRuleMetrics {
     wait.labels(langCode).observe(milliseconds / 1000.0);
   }
 
+  /**
+   * @since 6.3
+   */
+  public static void batch(String rule, int requests, int sentences) {
+    batchRequests.labels(rule).observe(requests);
+    batchSentences.labels(rule).observe(sentences);
+  }
+
   @ApiStatus.Internal
   @Nullable
   public static <T> T inCircuitBreaker(long deadlineStartNanos, CircuitBreaker circuitBreaker, String ruleKey, long chars, Callable<T> fetchResults) throws InterruptedException {
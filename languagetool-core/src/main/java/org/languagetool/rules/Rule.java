@@ -19,10 +19,12 @@
 package org.languagetool.rules;
 
 import com.google.common.base.Suppliers;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
 import org.languagetool.rules.patterns.PatternToken;
+import org.languagetool.rules.patterns.RuleSet;
 import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
 
 import java.io.IOException;
@@ -74,6 +76,7 @@ public abstract class Rule {
   private boolean officeDefaultOff = false;
   private int minPrevMatches = 0; // minimum number of previous matches to show the rule
   private int distanceTokens = -1; // distance (number of tokens) between matches to consider a repetition
+  private volatile AntiPatternIndex antiPatternIndex;
 
   public Rule() {
     this(null);
@@ -220,19 +223,43 @@ public abstract class Rule {
    * @since 3.1
    */
   protected AnalyzedSentence getSentenceWithImmunization(AnalyzedSentence sentence) {
-    if (!getAntiPatterns().isEmpty()) {
-      //we need a copy of the sentence, not reference to the old one
-      AnalyzedSentence immunizedSentence = sentence.copy(sentence);
-      for (DisambiguationPatternRule patternRule : getAntiPatterns()) {
-        try {
+    return applyAntiPatterns(sentence);
+  }
+
+  /**
+   * The implementation of {@link #getSentenceWithImmunization}, public so profilers can
+   * measure the time spent on the anti-patterns separately from {@link #match(AnalyzedSentence)}.
+   * Only the anti-patterns whose token hints occur in the sentence are applied, and the sentence
+   * is only copied if one of them immunizes a token.
+   * @since 6.3
+   */
+  @ApiStatus.Internal
+  public final AnalyzedSentence applyAntiPatterns(AnalyzedSentence sentence) {
+    List<DisambiguationPatternRule> antiPatterns = getAntiPatterns();
+    if (antiPatterns.isEmpty()) {
+      return sentence;
+    }
+    AntiPatternIndex index = antiPatternIndex;
+    if (index == null || index.antiPatterns != antiPatterns) {
+      antiPatternIndex = index = new AntiPatternIndex(antiPatterns);
+    }
+    try {
+      AnalyzedSentence immunizedSentence = sentence;
+      if (index.onlyImmunize) {
+        for (Rule antiPattern : index.hinted.rulesForSentence(sentence)) {
+          immunizedSentence = ((DisambiguationPatternRule) antiPattern).immunizeCopyOnWrite(immunizedSentence);
+        }
+      } else {
+        //we need a copy of the sentence, not reference to the old one
+        immunizedSentence = sentence.copy(sentence);
+        for (DisambiguationPatternRule patternRule : antiPatterns) {
           immunizedSentence = patternRule.replace(immunizedSentence);
-        } catch (IOException e) {
-          throw new RuntimeException(e);
         }
       }
       return immunizedSentence;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     }
-    return sentence;
   }
 
   /**
@@ -620,4 +647,21 @@ public abstract class Rule {
   public void setGoalSpecific(boolean goalSpecific) {
     isGoalSpecific = goalSpecific;
   }
+
+  /**
+   * The anti-patterns of a rule, indexed by their token hints. Anti-patterns that do anything
+   * but immunizing may add readings and thus lemmas, so those are always applied in full.
+   */
+  private static class AntiPatternIndex {
+    private final List<DisambiguationPatternRule> antiPatterns;
+    private final boolean onlyImmunize;
+    private final RuleSet hinted;
+
+    AntiPatternIndex(List<DisambiguationPatternRule> antiPatterns) {
+      this.antiPatterns = antiPatterns;
+      onlyImmunize = antiPatterns.stream().allMatch(r -> r.getAction() == DisambiguationPatternRule.DisambiguatorAction.IMMUNIZE);
+      hinted = onlyImmunize ? RuleSet.textLemmaHinted(antiPatterns) : null;
+    }
+  }
+
 }
@@ -64,7 +64,7 @@ public class RuleMatch implements Comparable<RuleMatch> {
   private Supplier<List<SuggestedReplacement>> suggestedReplacements;
   // track if more work needs to be done to compute suggestions;
   // allows enforcement of timeouts to return partial results without spending more time
-  private boolean suggestionsComputed = true;
+  private volatile boolean suggestionsComputed = true;
   private URL url;
   private Type type = Type.Other;
   private SortedMap<String, Float> features = Collections.emptySortedMap();
@@ -495,7 +495,11 @@ public class RuleMatch implements Comparable<RuleMatch> {
    */
   public void setLazySuggestedReplacements(@NotNull Supplier<List<SuggestedReplacement>> replacements) {
     Objects.requireNonNull(replacements, "replacements may not be null");
-    suggestedReplacements = Suppliers.memoize(replacements::get);
+    suggestedReplacements = Suppliers.memoize(() -> {
+      List<SuggestedReplacement> result = replacements.get();
+      suggestionsComputed = true;
+      return result;
+    });
     suggestionsComputed = false;
   }
 
@@ -508,6 +512,15 @@ public class RuleMatch implements Comparable<RuleMatch> {
     suggestionsComputed = true;
   }
 
+  /**
+   * @return true if suggestions have been set with {@link #setLazySuggestedReplacements}
+   * and haven't been computed yet
+   * @since 6.3
+   */
+  public boolean hasLazySuggestedReplacements() {
+    return !suggestionsComputed;
+  }
+
   /**
    * Discard lazy suggested replacements, but keep other suggestions
    * Useful to enforce time limits on result computation
@@ -23,6 +23,7 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.CheckDeadline;
 import org.languagetool.chunking.ChunkTag;
 
 import java.io.IOException;
@@ -68,8 +69,13 @@ public abstract class AbstractPatternRulePerformer {
 
     int[] tokenPositions = new int[patternTokenMatchers.size()];
     int limit = rule.isSentStart() ? 1 : Math.max(0, tokens.length - patternSize + 1) + minOccurCorrection;
+    // the caller notices the expired deadline and reports the rule as skipped:
+    CheckDeadline deadline = CheckDeadline.current();
     if (anchorIndices != null) {
       for (Integer anchorIndex : anchorIndices) {
+        if (deadline.isExpired()) {
+          return;
+        }
         int i = anchorIndex - anchor.tokenIndex;
         if (i >= 0 && i < limit) {
           matchFrom(i, tokens, consumer, tokenPositions);
@@ -77,6 +83,9 @@ public abstract class AbstractPatternRulePerformer {
       }
     } else {
       for (int i = 0; i < limit; i++) {
+        if (deadline.isExpired()) {
+          return;
+        }
         matchFrom(i, tokens, consumer, tokenPositions);
       }
     }
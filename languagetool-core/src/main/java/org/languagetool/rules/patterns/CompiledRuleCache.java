@@ -0,0 +1,235 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import com.google.common.io.ByteStreams;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.RuleEntityResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * A cache of pattern and disambiguation rules in a binary format, so that the XML rule files
+ * don't need to be parsed and validated again on every start. The cache is disabled unless a
+ * directory is set with {@link #setCacheDir(File)} or the system property {@value #CACHE_DIR_PROPERTY}.
+ * If enabled, the first load of a rule file parses the XML and stores the result, later loads
+ * (also in other JVMs) read the stored rules instead, as long as the XML file, the external entities
+ * it includes and the LanguageTool version are unchanged (checked with a SHA-256 checksum).
+ * Corrupt cache files are detected with a CRC32 checksum and rebuilt.
+ * @since 6.3
+ */
+@ApiStatus.Internal
+public final class CompiledRuleCache {
+
+  public static final String CACHE_DIR_PROPERTY = "languagetool.ruleCacheDir";
+
+  private static final Logger logger = LoggerFactory.getLogger(CompiledRuleCache.class);
+
+  private static final int MAGIC = 0x4C545243;  // "LTRC"
+  private static final int FORMAT_VERSION = 2;
+  private static final String FILE_EXTENSION = ".ltrules";
+  private static final Pattern EXTERNAL_ENTITY = Pattern.compile("<!ENTITY\\s+%?\\s*\\S+\\s+SYSTEM\\s+[\"']([^\"']+)[\"']");
+
+  private static volatile File cacheDir = initCacheDir();
+
+  private CompiledRuleCache() {
+  }
+
+  @FunctionalInterface
+  public interface XmlRuleParser<T> {
+    List<T> parse(InputStream xml) throws Exception;
+  }
+
+  @Nullable
+  private static File initCacheDir() {
+    String dir = System.getProperty(CACHE_DIR_PROPERTY);
+    return dir != null && !dir.trim().isEmpty() ? new File(dir) : null;
+  }
+
+  /**
+   * @param dir directory for the cache files, will be created if it doesn't exist, or {@code null} to disable the cache
+   */
+  public static void setCacheDir(@Nullable File dir) {
+    cacheDir = dir;
+  }
+
+  @Nullable
+  public static File getCacheDir() {
+    return cacheDir;
+  }
+
+  public static boolean isEnabled() {
+    return cacheDir != null;
+  }
+
+  /**
+   * Get the rules for an XML rule file from the cache, or parse them with {@code parser} and add them to the cache.
+   * @param xml the XML rule file
+   * @param filename the name of the XML file, used as part of the cache key
+   * @param unifierConfiguration the configuration the parser adds the file's unification equivalences to
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends AbstractPatternRule> List<T> getRules(InputStream xml, String filename, Language lang,
+                                                                 UnifierConfiguration unifierConfiguration, XmlRuleParser<T> parser) throws Exception {
+    File dir = cacheDir;
+    if (dir == null) {
+      return parser.parse(xml);
+    }
+    byte[] xmlBytes = ByteStreams.toByteArray(xml);
+    byte[] checksum = getChecksum(xmlBytes, filename, lang);
+    File cacheFile = new File(dir, getCacheFileName(filename, lang));
+    if (cacheFile.exists()) {
+      try {
+        List<AbstractPatternRule> rules = read(cacheFile, checksum, lang, unifierConfiguration);
+        if (rules != null) {
+          return (List<T>) rules;
+        }
+        logger.info("Rule cache " + cacheFile + " is outdated, loading rules from " + filename);
+      } catch (Exception e) {
+        logger.warn("Could not read rule cache " + cacheFile + ", loading rules from " + filename, e);
+      }
+    }
+    Set<EquivalenceTypeLocator> knownEquivalences = new HashSet<>(unifierConfiguration.getEquivalenceTypes().keySet());
+    List<T> rules = parser.parse(new ByteArrayInputStream(xmlBytes));
+    try {
+      write(cacheFile, checksum, rules, unifierConfiguration, knownEquivalences);
+    } catch (UnsupportedOperationException e) {
+      logger.info("Rules from " + filename + " cannot be cached: " + e.getMessage());
+    } catch (Exception e) {
+      logger.warn("Could not write rule cache " + cacheFile, e);
+    }
+    return rules;
+  }
+
+  static String getCacheFileName(String filename, Language lang) {
+    String name = filename.replaceFirst("^.*?/rules/", "").replaceFirst("^.*?/resource/", "");
+    return lang.getShortCodeWithCountryAndVariant() + "-" + name.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_EXTENSION;
+  }
+
+  /**
+   * The checksum of everything the parsed rules depend on: the XML, the external entity files
+   * it includes, the language, and the LanguageTool version that parsed them.
+   */
+  private static byte[] getChecksum(byte[] xmlBytes, String filename, Language lang) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(getSoftwareId().getBytes(StandardCharsets.UTF_8));
+    digest.update((lang.getShortCodeWithCountryAndVariant() + '\u0000' + filename + '\u0000').getBytes(StandardCharsets.UTF_8));
+    digest.update(xmlBytes);
+    Matcher m = EXTERNAL_ENTITY.matcher(new String(xmlBytes, StandardCharsets.UTF_8));
+    RuleEntityResolver entityResolver = new RuleEntityResolver();
+    while (m.find()) {
+      try (InputStream entityStream = entityResolver.getInputStreamLTEntities(m.group(1))) {
+        if (entityStream != null) {
+          digest.update(ByteStreams.toByteArray(entityStream));
+        }
+      }
+    }
+    return digest.digest();
+  }
+
+  private static String getSoftwareId() {
+    return JLanguageTool.VERSION + "/" + JLanguageTool.BUILD_DATE + "/" + JLanguageTool.GIT_SHORT_ID;
+  }
+
+  /**
+   * @return the cached rules, or {@code null} if the cache file is outdated
+   */
+  @Nullable
+  private static List<AbstractPatternRule> read(File cacheFile, byte[] checksum, Language lang, UnifierConfiguration unifierConfiguration) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a rule cache file");
+      }
+      if (in.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+      byte[] fileChecksum = new byte[checksum.length];
+      in.readFully(fileChecksum);
+      if (!Arrays.equals(checksum, fileChecksum)) {
+        return null;
+      }
+      byte[] payload = new byte[in.readInt()];
+      in.readFully(payload);
+      CRC32 crc = new CRC32();
+      crc.update(payload);
+      if (crc.getValue() != in.readLong()) {
+        throw new IOException("Checksum error, file is corrupt");
+      }
+      CompiledRuleCodec.Decoder decoder = new CompiledRuleCodec.Decoder(new ByteArrayInputStream(payload), lang);
+      List<CompiledRuleCodec.Equivalence> equivalences = decoder.readUnifierConfiguration();
+      List<AbstractPatternRule> rules = decoder.readRules();
+      // only modify the configuration when everything could be read:
+      for (CompiledRuleCodec.Equivalence equivalence : equivalences) {
+        unifierConfiguration.setEquivalence(equivalence.feature, equivalence.type, equivalence.token);
+      }
+      return rules;
+    }
+  }
+
+  private static void write(File cacheFile, byte[] checksum, List<? extends AbstractPatternRule> rules,
+                            UnifierConfiguration unifierConfiguration, Set<EquivalenceTypeLocator> knownEquivalences) throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    CompiledRuleCodec.Encoder encoder = new CompiledRuleCodec.Encoder(payload);
+    encoder.writeUnifierConfiguration(unifierConfiguration, knownEquivalences);
+    encoder.writeRules(new ArrayList<>(rules));
+    CRC32 crc = new CRC32();
+    crc.update(payload.toByteArray());
+    File dir = cacheFile.getParentFile();
+    Files.createDirectories(dir.toPath());
+    // write to a temporary file first, so other processes never see an incomplete file:
+    File tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", dir);
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.write(checksum);
+        out.writeInt(payload.size());
+        payload.writeTo(out);
+        out.writeLong(crc.getValue());
+      }
+      try {
+        Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmpFile.toPath());
+    }
+  }
+
+}
@@ -0,0 +1,791 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.Language;
+import org.languagetool.Tag;
+import org.languagetool.ToneTag;
+import org.languagetool.chunking.ChunkTag;
+import org.languagetool.rules.*;
+import org.languagetool.tagging.disambiguation.rules.DisambiguatedExample;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The binary format of {@link CompiledRuleCache}: the rules as created by the XML rule handlers,
+ * plus the unification equivalences the handlers registered in the language's {@link UnifierConfiguration}.
+ * Strings are written once and then referenced by number. Objects that the handlers share between
+ * rules (pattern tokens, antipatterns, categories, ...) are written once and referenced afterwards,
+ * so the decoded rules share them, too.
+ * @since 6.3
+ */
+final class CompiledRuleCodec {
+
+  private static final int PATTERN_RULE = 1;
+  private static final int REGEX_PATTERN_RULE = 2;
+  private static final int DISAMBIGUATION_PATTERN_RULE = 3;
+
+  private CompiledRuleCodec() {
+  }
+
+  static class Encoder {
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<Object, Integer> objects = new IdentityHashMap<>();
+
+    Encoder(OutputStream out) {
+      this.out = new DataOutputStream(out);
+    }
+
+    /**
+     * @param skip equivalences that were already known before the rules were parsed
+     */
+    void writeUnifierConfiguration(UnifierConfiguration config, Set<EquivalenceTypeLocator> skip) throws IOException {
+      List<String[]> featureTypes = new ArrayList<>();
+      for (Map.Entry<String, List<String>> entry : config.getEquivalenceFeatures().entrySet()) {
+        for (String type : entry.getValue()) {
+          if (!skip.contains(new EquivalenceTypeLocator(entry.getKey(), type))) {
+            featureTypes.add(new String[]{entry.getKey(), type});
+          }
+        }
+      }
+      writeVarInt(featureTypes.size());
+      for (String[] featureType : featureTypes) {
+        writeString(featureType[0]);
+        writeString(featureType[1]);
+        writePatternToken(config.getEquivalenceTypes().get(new EquivalenceTypeLocator(featureType[0], featureType[1])));
+      }
+    }
+
+    void writeRules(List<? extends AbstractPatternRule> rules) throws IOException {
+      writeVarInt(rules.size());
+      for (AbstractPatternRule rule : rules) {
+        writeRule(rule);
+      }
+      out.flush();
+    }
+
+    private void writeRule(AbstractPatternRule rule) throws IOException {
+      if (!writeRef(rule)) {
+        return;
+      }
+      // check exact classes, subclasses may have state we don't know about:
+      if (rule.getClass() == PatternRule.class) {
+        PatternRule patternRule = (PatternRule) rule;
+        writeVarInt(PATTERN_RULE);
+        writeString(rule.getId());
+        writeString(rule.getDescription());
+        writePatternTokens(rule.getPatternTokens());
+        writeString(rule.getMessage());
+        writeString(patternRule.getShortMessage());
+        writeString(rule.getSuggestionsOutMsg());
+        out.writeBoolean(patternRule.isWithComplexPhrase());
+        out.writeBoolean(patternRule.isInterpretPosTagsPreDisambiguation());
+        writeClassName(rule.getFilter());
+      } else if (rule.getClass() == RegexPatternRule.class) {
+        RegexPatternRule regexRule = (RegexPatternRule) rule;
+        writeVarInt(REGEX_PATTERN_RULE);
+        writeString(rule.getId());
+        writeString(rule.getDescription());
+        writeString(rule.getMessage());
+        writeString(regexRule.getShortMessage());
+        writeString(rule.getSuggestionsOutMsg());
+        writeString(regexRule.getPattern().pattern());
+        writeVarInt(regexRule.getPattern().flags());
+        writeVarInt(regexRule.getMarkGroup());
+        writeClassName(regexRule.getRegexFilter());
+      } else if (rule.getClass() == DisambiguationPatternRule.class) {
+        DisambiguationPatternRule disambRule = (DisambiguationPatternRule) rule;
+        writeVarInt(DISAMBIGUATION_PATTERN_RULE);
+        writeString(rule.getId());
+        writeString(rule.getDescription());
+        writePatternTokens(rule.getPatternTokens());
+        writeString(disambRule.getDisambiguatedPOS());
+        writeMatch(disambRule.getMatchElement());
+        writeEnum(disambRule.getAction());
+        writeString(rule.getMessage());
+        AnalyzedToken[] newReadings = disambRule.getNewTokenReadings();
+        writeVarInt(newReadings == null ? 0 : newReadings.length + 1);
+        if (newReadings != null) {
+          for (AnalyzedToken reading : newReadings) {
+            writeString(reading.getToken());
+            writeString(reading.getPOSTag());
+            writeString(reading.getLemma());
+          }
+        }
+        writeVarInt(disambRule.getExamples().size());
+        for (DisambiguatedExample example : disambRule.getExamples()) {
+          writeString(example.getExample());
+          writeString(example.getAmbiguous());
+          writeString(example.getDisambiguated());
+        }
+        writeStrings(disambRule.getUntouchedExamples());
+        writeClassName(rule.getFilter());
+      } else {
+        throw new UnsupportedOperationException("Rules of type " + rule.getClass().getName() + " cannot be cached: " + rule.getFullId());
+      }
+      writeString(rule.getSubId());
+      writeInt(rule.getStartPositionCorrection());
+      writeInt(rule.getEndPositionCorrection());
+      writeMatches(rule.suggestionMatches);
+      writeMatches(rule.suggestionMatchesOutMsg);
+      List<DisambiguationPatternRule> antiPatterns = rule.getAntiPatterns();
+      writeVarInt(antiPatterns.size());
+      for (DisambiguationPatternRule antiPattern : antiPatterns) {
+        writeRule(antiPattern);
+      }
+      writeString(rule.getFilterArguments());
+      writeString(rule.getSourceFile());
+      writeEnum(rule.type);
+      writeInt(rule.getXmlLineNumber());
+      out.writeBoolean(rule.isAdjustSuggestionCase());
+      writeRuleProperties(rule);
+    }
+
+    private void writeRuleProperties(Rule rule) throws IOException {
+      writeVarInt(rule.getTags().size());
+      for (Tag tag : rule.getTags()) {
+        writeEnum(tag);
+      }
+      writeVarInt(rule.getToneTags().size());
+      for (ToneTag toneTag : rule.getToneTags()) {
+        writeEnum(toneTag);
+      }
+      writeVarInt(rule.getCorrectExamples().size());
+      for (CorrectExample example : rule.getCorrectExamples()) {
+        writeString(example.getExample());
+      }
+      writeVarInt(rule.getIncorrectExamples().size());
+      for (IncorrectExample example : rule.getIncorrectExamples()) {
+        writeString(example.getExample());
+        writeStrings(example.getCorrections());
+      }
+      writeVarInt(rule.getErrorTriggeringExamples().size());
+      for (ErrorTriggeringExample example : rule.getErrorTriggeringExamples()) {
+        writeString(example.getExample());
+      }
+      writeEnum(rule.getLocQualityIssueType());
+      writeCategory(rule.getCategory());
+      URL url = rule.getUrl();
+      if (writeRef(url)) {
+        writeString(url.toString());
+      }
+      out.writeBoolean(rule.isGoalSpecific());
+      out.writeBoolean(rule.isPremium());
+      out.writeBoolean(rule.isDefaultOff());
+      out.writeBoolean(rule.isDefaultTempOff());
+      out.writeBoolean(rule.isOfficeDefaultOn());
+      out.writeBoolean(rule.isOfficeDefaultOff());
+      writeInt(rule.getMinPrevMatches());
+      writeInt(rule.getDistanceTokens());
+    }
+
+    private void writeCategory(@Nullable Category category) throws IOException {
+      if (writeRef(category)) {
+        writeString(category.getId().toString());
+        writeString(category.getName());
+        writeEnum(category.getLocation());
+        out.writeBoolean(category.isDefaultOff());
+        writeString(category.getTabName());
+      }
+    }
+
+    private void writePatternTokens(List<PatternToken> tokens) throws IOException {
+      writeVarInt(tokens.size());
+      for (PatternToken token : tokens) {
+        writePatternToken(token);
+      }
+    }
+
+    private void writePatternToken(PatternToken token) throws IOException {
+      if (!writeRef(token)) {
+        return;
+      }
+      writeStringMatcher(token.getTextMatcher());
+      writeVarInt(token.getFlags() & 0xFFFF);
+      writeInt(token.getSkipNext());
+      writeInt(token.getMaxOccurrence());
+      // exceptions always have a PosToken, even without a POS tag:
+      boolean hasPosToken = token.getPosToken() != null;
+      out.writeBoolean(hasPosToken);
+      if (hasPosToken) {
+        writeString(token.getPOStag());
+        out.writeBoolean(token.getPOSNegation());
+        out.writeBoolean(token.isPOStagRegularExpression());
+      }
+      ChunkTag chunkTag = token.getChunkTag();
+      out.writeBoolean(chunkTag != null);
+      if (chunkTag != null) {
+        writeString(chunkTag.getChunkTag());
+        out.writeBoolean(chunkTag.isRegexp());
+      }
+      writeString(token.getPhraseName());
+      writeMatch(token.getMatch());
+      Map<String, List<String>> uniFeatures = token.getUniFeatures();
+      writeVarInt(uniFeatures == null ? 0 : uniFeatures.size() + 1);
+      if (uniFeatures != null) {
+        for (Map.Entry<String, List<String>> entry : uniFeatures.entrySet()) {
+          writeString(entry.getKey());
+          writeStrings(entry.getValue());
+        }
+      }
+      writePatternTokens(token.getExceptionList());
+      writePatternTokens(token.getPreviousExceptionList());
+      writePatternTokens(token.getAndGroup());
+      writePatternTokens(token.getOrGroup());
+    }
+
+    private void writeStringMatcher(StringMatcher matcher) throws IOException {
+      if (matcher.isRegExp) {
+        // a regex matcher may have been simplified to its only possible value, make sure that
+        // creating it again from its pattern results in the same matcher:
+        StringMatcher recreated = StringMatcher.create(matcher.pattern, true, matcher.caseSensitive);
+        if (!recreated.pattern.equals(matcher.pattern) || !Objects.equals(recreated.getPossibleValues(), matcher.getPossibleValues())) {
+          throw new UnsupportedOperationException("Regular expression cannot be cached: " + matcher.pattern);
+        }
+      }
+      writeString(matcher.pattern);
+      out.writeBoolean(matcher.isRegExp);
+      out.writeBoolean(matcher.caseSensitive);
+    }
+
+    private void writeMatches(@Nullable List<Match> matches) throws IOException {
+      writeVarInt(matches == null ? 0 : matches.size());
+      if (matches != null) {
+        for (Match match : matches) {
+          writeMatch(match);
+        }
+      }
+    }
+
+    private void writeMatch(@Nullable Match match) throws IOException {
+      if (!writeRef(match)) {
+        return;
+      }
+      writeString(match.getPosTag());
+      writeString(match.getPosTagReplace());
+      out.writeBoolean(match.isPostagRegexp());
+      writeString(match.getRegexMatch() != null ? match.getRegexMatch().pattern() : null);
+      writeString(match.getRegexReplace());
+      writeEnum(match.getCaseConversionType());
+      out.writeBoolean(match.setsPos());
+      out.writeBoolean(match.checksSpelling());
+      writeEnum(match.getIncludeSkipped());
+      writeInt(match.getTokenRef());
+      out.writeBoolean(match.isInMessageOnly());
+      writeString(match.isStaticLemma() ? match.getLemma() : null);
+    }
+
+    private void writeClassName(@Nullable Object o) throws IOException {
+      writeString(o != null ? o.getClass().getName() : null);
+    }
+
+    private void writeEnum(@Nullable Enum<?> value) throws IOException {
+      writeString(value != null ? value.name() : null);
+    }
+
+    private void writeStrings(List<String> list) throws IOException {
+      writeVarInt(list.size());
+      for (String s : list) {
+        writeString(s);
+      }
+    }
+
+    /**
+     * Writes 0 for {@code null}, the number of an object that has been written before,
+     * or the next free number, which means that the object itself has to be written next.
+     * @return true if the object itself has to be written
+     */
+    private boolean writeRef(@Nullable Object o) throws IOException {
+      if (o == null) {
+        writeVarInt(0);
+        return false;
+      }
+      Integer known = objects.get(o);
+      if (known != null) {
+        writeVarInt(known);
+        return false;
+      }
+      int number = objects.size() + 1;
+      objects.put(o, number);
+      writeVarInt(number);
+      return true;
+    }
+
+    private void writeString(@Nullable String s) throws IOException {
+      if (s == null) {
+        writeVarInt(0);
+        return;
+      }
+      Integer known = strings.get(s);
+      if (known != null) {
+        writeVarInt(known);
+        return;
+      }
+      int number = strings.size() + 1;
+      strings.put(s, number);
+      writeVarInt(number);
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      out.write(bytes);
+    }
+
+    private void writeInt(int i) throws IOException {
+      writeVarInt((i << 1) ^ (i >> 31));  // zigzag, so that small negative numbers stay short
+    }
+
+    private void writeVarInt(int i) throws IOException {
+      while ((i & ~0x7F) != 0) {
+        out.writeByte((i & 0x7F) | 0x80);
+        i >>>= 7;
+      }
+      out.writeByte(i);
+    }
+  }
+
+  static class Decoder {
+
+    private final DataInputStream in;
+    private final Language language;
+    private final List<String> strings = new ArrayList<>();
+    private final List<Object> objects = new ArrayList<>();
+    private final Map<String, StringMatcher> matchers = new HashMap<>();
+    private final Map<String, PatternToken.PosToken> posTokens = new HashMap<>();
+
+    Decoder(InputStream in, Language language) {
+      this.in = new DataInputStream(in);
+      this.language = language;
+    }
+
+    /**
+     * @return the equivalences to be registered with {@link UnifierConfiguration#setEquivalence}, in order
+     */
+    List<Equivalence> readUnifierConfiguration() throws IOException {
+      int count = readVarInt();
+      List<Equivalence> result = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        result.add(new Equivalence(readString(), readString(), readPatternToken()));
+      }
+      return result;
+    }
+
+    List<AbstractPatternRule> readRules() throws IOException {
+      int count = readVarInt();
+      List<AbstractPatternRule> rules = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        rules.add(readRule());
+      }
+      return rules;
+    }
+
+    private AbstractPatternRule readRule() throws IOException {
+      int ref = readRef();
+      if (ref != NEW) {
+        return (AbstractPatternRule) (ref == NULL ? null : objects.get(ref));
+      }
+      int slot = objects.size() - 1;
+      int ruleType = readVarInt();
+      AbstractPatternRule rule;
+      if (ruleType == PATTERN_RULE) {
+        String id = readString();
+        String description = readString();
+        List<PatternToken> tokens = readPatternTokens();
+        String message = readString();
+        String shortMessage = readString();
+        String suggestionsOutMsg = readString();
+        boolean isMember = in.readBoolean();
+        boolean interpretPosTagsPreDisambiguation = in.readBoolean();
+        rule = new PatternRule(id, language, tokens, description, message, shortMessage, suggestionsOutMsg, isMember, interpretPosTagsPreDisambiguation);
+        String filterClassName = readString();
+        if (filterClassName != null) {
+          rule.setFilter(new RuleFilterCreator().getFilter(filterClassName));
+        }
+      } else if (ruleType == REGEX_PATTERN_RULE) {
+        String id = readString();
+        String description = readString();
+        String message = readString();
+        String shortMessage = readString();
+        String suggestionsOutMsg = readString();
+        Pattern pattern = Pattern.compile(readString(), readVarInt());
+        RegexPatternRule regexRule = new RegexPatternRule(id, description, message, shortMessage, suggestionsOutMsg, language, pattern, readVarInt());
+        String filterClassName = readString();
+        if (filterClassName != null) {
+          regexRule.setRegexFilter(new RegexRuleFilterCreator().getFilter(filterClassName));
+        }
+        rule = regexRule;
+      } else if (ruleType == DISAMBIGUATION_PATTERN_RULE) {
+        String id = readString();
+        String description = readString();
+        List<PatternToken> tokens = readPatternTokens();
+        String disambiguatedPOS = readString();
+        Match posSelect = readMatch();
+        DisambiguationPatternRule.DisambiguatorAction action = readEnum(DisambiguationPatternRule.DisambiguatorAction.class);
+        DisambiguationPatternRule disambRule = new DisambiguationPatternRule(id, description, language, tokens, disambiguatedPOS, posSelect, action);
+        disambRule.setMessage(readString());
+        int newReadingsCount = readVarInt();
+        if (newReadingsCount > 0) {
+          AnalyzedToken[] newReadings = new AnalyzedToken[newReadingsCount - 1];
+          for (int i = 0; i < newReadings.length; i++) {
+            newReadings[i] = new AnalyzedToken(readString(), readString(), readString());
+          }
+          disambRule.setNewInterpretations(newReadings);
+        }
+        int exampleCount = readVarInt();
+        if (exampleCount > 0) {
+          List<DisambiguatedExample> examples = new ArrayList<>(exampleCount);
+          for (int i = 0; i < exampleCount; i++) {
+            examples.add(new DisambiguatedExample(readString(), readString(), readString()));
+          }
+          disambRule.setExamples(examples);
+        }
+        List<String> untouchedExamples = readStrings();
+        if (!untouchedExamples.isEmpty()) {
+          disambRule.setUntouchedExamples(untouchedExamples);
+        }
+        String filterClassName = readString();
+        if (filterClassName != null) {
+          disambRule.setFilter(new RuleFilterCreator().getFilter(filterClassName));
+        }
+        rule = disambRule;
+      } else {
+        throw new IOException("Unknown rule type " + ruleType);
+      }
+      rule.setSubId(readString());
+      rule.setStartPositionCorrection(readInt());
+      rule.setEndPositionCorrection(readInt());
+      int suggestionMatchCount = readVarInt();
+      for (int i = 0; i < suggestionMatchCount; i++) {
+        rule.addSuggestionMatch(readMatch());
+      }
+      int suggestionMatchOutMsgCount = readVarInt();
+      for (int i = 0; i < suggestionMatchOutMsgCount; i++) {
+        rule.addSuggestionMatchOutMsg(readMatch());
+      }
+      int antiPatternCount = readVarInt();
+      if (antiPatternCount > 0) {
+        List<DisambiguationPatternRule> antiPatterns = new ArrayList<>(antiPatternCount);
+        for (int i = 0; i < antiPatternCount; i++) {
+          antiPatterns.add((DisambiguationPatternRule) readRule());
+        }
+        rule.setAntiPatterns(antiPatterns);
+      }
+      rule.setFilterArguments(readString());
+      rule.setSourceFile(readString());
+      rule.setType(readEnum(RuleMatch.Type.class));
+      rule.setXmlLineNumber(readInt());
+      rule.setAdjustSuggestionCase(in.readBoolean());
+      readRuleProperties(rule);
+      objects.set(slot, rule);
+      return rule;
+    }
+
+    private void readRuleProperties(Rule rule) throws IOException {
+      int tagCount = readVarInt();
+      if (tagCount > 0) {
+        List<Tag> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+          tags.add(readEnum(Tag.class));
+        }
+        rule.setTags(tags);
+      }
+      int toneTagCount = readVarInt();
+      if (toneTagCount > 0) {
+        List<ToneTag> toneTags = new ArrayList<>(toneTagCount);
+        for (int i = 0; i < toneTagCount; i++) {
+          toneTags.add(readEnum(ToneTag.class));
+        }
+        rule.setToneTags(toneTags);
+      }
+      int correctCount = readVarInt();
+      if (correctCount > 0) {
+        List<CorrectExample> examples = new ArrayList<>(correctCount);
+        for (int i = 0; i < correctCount; i++) {
+          examples.add(new CorrectExample(readString()));
+        }
+        rule.setCorrectExamples(examples);
+      }
+      int incorrectCount = readVarInt();
+      if (incorrectCount > 0) {
+        List<IncorrectExample> examples = new ArrayList<>(incorrectCount);
+        for (int i = 0; i < incorrectCount; i++) {
+          examples.add(new IncorrectExample(readString(), readStrings()));
+        }
+        rule.setIncorrectExamples(examples);
+      }
+      int errorTriggeringCount = readVarInt();
+      if (errorTriggeringCount > 0) {
+        List<ErrorTriggeringExample> examples = new ArrayList<>(errorTriggeringCount);
+        for (int i = 0; i < errorTriggeringCount; i++) {
+          examples.add(new ErrorTriggeringExample(readString()));
+        }
+        rule.setErrorTriggeringExamples(examples);
+      }
+      rule.setLocQualityIssueType(readEnum(ITSIssueType.class));
+      Category category = readCategory();
+      if (category != null) {
+        rule.setCategory(category);
+      }
+      rule.setUrl(readUrl());
+      rule.setGoalSpecific(in.readBoolean());
+      rule.setPremium(in.readBoolean());
+      boolean defaultOff = in.readBoolean();
+      boolean defaultTempOff = in.readBoolean();
+      if (defaultTempOff) {
+        rule.setDefaultTempOff();
+      } else if (defaultOff) {
+        rule.setDefaultOff();
+      }
+      if (in.readBoolean()) {
+        rule.setOfficeDefaultOn();
+      }
+      if (in.readBoolean()) {
+        rule.setOfficeDefaultOff();
+      }
+      rule.setMinPrevMatches(readInt());
+      rule.setDistanceTokens(readInt());
+    }
+
+    @Nullable
+    private Category readCategory() throws IOException {
+      int ref = readRef();
+      if (ref != NEW) {
+        return (Category) (ref == NULL ? null : objects.get(ref));
+      }
+      int slot = objects.size() - 1;
+      CategoryId id = new CategoryId(readString());
+      String name = readString();
+      Category.Location location = readEnum(Category.Location.class);
+      boolean onByDefault = !in.readBoolean();
+      Category category = new Category(id, name, location, onByDefault, readString());
+      objects.set(slot, category);
+      return category;
+    }
+
+    @Nullable
+    private URL readUrl() throws IOException {
+      int ref = readRef();
+      if (ref != NEW) {
+        return (URL) (ref == NULL ? null : objects.get(ref));
+      }
+      int slot = objects.size() - 1;
+      URL url = new URL(readString());
+      objects.set(slot, url);
+      return url;
+    }
+
+    private List<PatternToken> readPatternTokens() throws IOException {
+      int count = readVarInt();
+      List<PatternToken> tokens = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        tokens.add(readPatternToken());
+      }
+      return tokens;
+    }
+
+    private PatternToken readPatternToken() throws IOException {
+      int ref = readRef();
+      if (ref != NEW) {
+        return (PatternToken) (ref == NULL ? null : objects.get(ref));
+      }
+      int slot = objects.size() - 1;
+      StringMatcher textMatcher = readStringMatcher();
+      short flags = (short) readVarInt();
+      PatternToken token = new PatternToken(false, textMatcher);
+      token.setSkipNext(readInt());
+      token.setMaxOccurrence(readInt());
+      if (in.readBoolean()) {
+        String posTag = readString();
+        boolean negation = in.readBoolean();
+        boolean regExp = in.readBoolean();
+        // XML can't contain NUL characters, so the key of a PosToken without a POS tag can't be the one of a tag:
+        token.setPosToken(posTokens.computeIfAbsent((posTag == null ? "\u0000" : posTag) + '\u0000' + negation + '\u0000' + regExp,
+          k -> new PatternToken.PosToken(posTag, negation, regExp ? getMatcher(posTag, true, true) : null)));
+      }
+      if (in.readBoolean()) {
+        token.setChunkTag(new ChunkTag(readString(), in.readBoolean()));
+      }
+      String phraseName = readString();
+      if (phraseName != null) {
+        token.setPhraseName(phraseName);
+      }
+      Match match = readMatch();
+      if (match != null) {
+        token.setMatch(match);
+      }
+      int uniFeatureCount = readVarInt();
+      if (uniFeatureCount > 0) {
+        Map<String, List<String>> uniFeatures = new LinkedHashMap<>();
+        for (int i = 0; i < uniFeatureCount - 1; i++) {
+          uniFeatures.put(readString(), readStrings());
+        }
+        token.setUnification(uniFeatures);
+      }
+      for (PatternToken exception : readPatternTokens()) {
+        token.addException(exception.hasNextException(), false, exception);
+      }
+      for (PatternToken exception : readPatternTokens()) {
+        token.addException(exception.hasNextException(), true, exception);
+      }
+      for (PatternToken andToken : readPatternTokens()) {
+        token.setAndGroupElement(andToken);
+      }
+      for (PatternToken orToken : readPatternTokens()) {
+        token.setOrGroupElement(orToken);
+      }
+      // restore the flags last, the setters above may have changed some of them:
+      token.setFlags(flags);
+      objects.set(slot, token);
+      return token;
+    }
+
+    private StringMatcher readStringMatcher() throws IOException {
+      String pattern = readString();
+      boolean regExp = in.readBoolean();
+      boolean caseSensitive = in.readBoolean();
+      return getMatcher(pattern, regExp, caseSensitive);
+    }
+
+    private StringMatcher getMatcher(String pattern, boolean regExp, boolean caseSensitive) {
+      // share matchers like XMLRuleHandler does:
+      return matchers.computeIfAbsent((regExp ? 'r' : 's') + (caseSensitive ? "c" : "i") + pattern,
+        k -> StringMatcher.create(pattern, regExp, caseSensitive));
+    }
+
+    @Nullable
+    private Match readMatch() throws IOException {
+      int ref = readRef();
+      if (ref != NEW) {
+        return (Match) (ref == NULL ? null : objects.get(ref));
+      }
+      int slot = objects.size() - 1;
+      String posTag = readString();
+      String posTagReplace = readString();
+      boolean postagRegexp = in.readBoolean();
+      String regexMatch = readString();
+      String regexReplace = readString();
+      Match.CaseConversion caseConversion = readEnum(Match.CaseConversion.class);
+      boolean setPos = in.readBoolean();
+      boolean suppressMisspelled = in.readBoolean();
+      Match.IncludeRange includeSkipped = readEnum(Match.IncludeRange.class);
+      Match match = new Match(posTag, posTagReplace, postagRegexp, regexMatch, regexReplace, caseConversion, setPos, suppressMisspelled, includeSkipped);
+      match.setTokenRef(readInt());
+      match.setInMessageOnly(in.readBoolean());
+      String lemma = readString();
+      if (lemma != null) {
+        match.setLemmaString(lemma);
+      }
+      objects.set(slot, match);
+      return match;
+    }
+
+    @Nullable
+    private <E extends Enum<E>> E readEnum(Class<E> type) throws IOException {
+      String name = readString();
+      return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    private List<String> readStrings() throws IOException {
+      int count = readVarInt();
+      List<String> result = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        result.add(readString());
+      }
+      return result;
+    }
+
+    private static final int NULL = -1;
+    private static final int NEW = -2;
+
+    /**
+     * @return the index of an object read before, {@link #NULL}, or {@link #NEW} if the object
+     * follows - in that case a slot has been reserved for it in {@link #objects}
+     */
+    private int readRef() throws IOException {
+      int number = readVarInt();
+      if (number == 0) {
+        return NULL;
+      }
+      if (number <= objects.size()) {
+        return number - 1;
+      }
+      if (number != objects.size() + 1) {
+        throw new IOException("Invalid object reference " + number + ", only " + objects.size() + " objects known");
+      }
+      objects.add(null);
+      return NEW;
+    }
+
+    @Nullable
+    private String readString() throws IOException {
+      int number = readVarInt();
+      if (number == 0) {
+        return null;
+      }
+      if (number <= strings.size()) {
+        return strings.get(number - 1);
+      }
+      if (number != strings.size() + 1) {
+        throw new IOException("Invalid string reference " + number + ", only " + strings.size() + " strings known");
+      }
+      byte[] bytes = new byte[readVarInt()];
+      in.readFully(bytes);
+      String s = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(s);
+      return s;
+    }
+
+    private int readInt() throws IOException {
+      int i = readVarInt();
+      return (i >>> 1) ^ -(i & 1);
+    }
+
+    private int readVarInt() throws IOException {
+      int result = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        byte b = in.readByte();
+        result |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+      throw new IOException("Malformed number");
+    }
+  }
+
+  static class Equivalence {
+    final String feature;
+    final String type;
+    final PatternToken token;
+
+    Equivalence(String feature, String type, PatternToken token) {
+      this.feature = feature;
+      this.type = type;
+      this.token = token;
+    }
+  }
+
+}
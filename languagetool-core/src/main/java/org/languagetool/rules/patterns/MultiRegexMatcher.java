@@ -0,0 +1,121 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A list of regular expressions with a value each, e.g. a function that creates spelling suggestions
+ * for the words matching the regex. {@link #getFirstMatch} returns the value of the first regex
+ * (in the order they were added) that matches the whole string. Instead of trying the regexes one
+ * after the other, the supported ones (see {@code RegexAutomaton}) are combined into one automaton
+ * that is built when the first string is matched, so matching takes about as long as for a single regex.
+ * @since 6.3
+ */
+public final class MultiRegexMatcher<T> {
+
+  // for comparing the performance with trying the regexes one by one:
+  private static final boolean useRegexAutomaton = System.getProperty("disableRegexAutomaton") == null;
+
+  private final boolean caseSensitive;
+  private final List<String> regexes = new ArrayList<>();
+  private final List<Pattern> patterns = new ArrayList<>();
+  private final List<T> values = new ArrayList<>();
+  private volatile Compiled compiled;
+
+  public MultiRegexMatcher(boolean caseSensitive) {
+    this.caseSensitive = caseSensitive;
+  }
+
+  /**
+   * Adds a regex, which is checked to be well-formed right away.
+   */
+  public synchronized void add(String regex, T value) {
+    patterns.add(Pattern.compile(regex, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+    regexes.add(regex);
+    values.add(value);
+    compiled = null;
+  }
+
+  public synchronized int size() {
+    return regexes.size();
+  }
+
+  /**
+   * @return the value of the first regex that matches the whole string, or {@code null} if none does
+   */
+  @Nullable
+  public T getFirstMatch(String s) {
+    if (s.length() > StringMatcher.MAX_MATCH_LENGTH) {
+      return null;
+    }
+    int index = getCompiled().firstMatch(s);
+    return index < 0 ? null : values.get(index);
+  }
+
+  private Compiled getCompiled() {
+    Compiled result = compiled;
+    if (result == null) {
+      synchronized (this) {
+        result = compiled;
+        if (result == null) {
+          compiled = result = new Compiled();
+        }
+      }
+    }
+    return result;
+  }
+
+  private final class Compiled {
+    @Nullable
+    private final RegexAutomaton automaton;
+    // the regexes that aren't part of the automaton:
+    private final int[] others;
+    private final StringMatcher[] otherMatchers;
+
+    Compiled() {
+      BitSet supported = new BitSet();
+      automaton = useRegexAutomaton ? RegexAutomaton.create(regexes, patterns, caseSensitive, supported) : null;
+      BitSet unsupported = new BitSet();
+      unsupported.set(0, regexes.size());
+      unsupported.andNot(supported);
+      others = unsupported.stream().toArray();
+      otherMatchers = new StringMatcher[others.length];
+      for (int i = 0; i < others.length; i++) {
+        otherMatchers[i] = StringMatcher.create(regexes.get(others[i]), true, caseSensitive);
+      }
+    }
+
+    int firstMatch(String s) {
+      int result = automaton == null ? -1 : automaton.firstMatch(s);
+      for (int i = 0; i < others.length && (result < 0 || others[i] < result); i++) {
+        if (otherMatchers[i].matches(s)) {
+          return others[i];
+        }
+      }
+      return result;
+    }
+  }
+
+}
@@ -20,6 +20,7 @@ package org.languagetool.rules.patterns;
 
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.Languages;
 import org.languagetool.tools.Tools;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -65,20 +66,30 @@ public class PatternRuleLoader extends DefaultHandler {
    */
   public final List<AbstractPatternRule> getRules(InputStream is, String filename, Language lang) throws IOException {
     try {
-      PatternRuleHandler handler = new PatternRuleHandler(filename, lang);
-      handler.setRelaxedMode(relaxedMode);
-      SAXParserFactory factory = SAXParserFactory.newInstance();
-      SAXParser saxParser = factory.newSAXParser();
-      if (JLanguageTool.isCustomPasswordAuthenticatorUsed()) {
-        Tools.setPasswordAuthenticator();
+      if (!relaxedMode && lang != null && CompiledRuleCache.isEnabled()) {
+        // the handler creates the rules for the registered instance of the language and adds the equivalences to its
+        // configuration, so the cache has to use the same instance:
+        Language ruleLang = Languages.getLanguageForShortCode(lang.getShortCodeWithCountryAndVariant());
+        return CompiledRuleCache.getRules(is, filename, ruleLang, ruleLang.getUnifierConfiguration(), xml -> parse(xml, filename, lang));
       }
-      saxParser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-      saxParser.parse(is, handler);
-      return handler.getRules();
+      return parse(is, filename, lang);
     } catch (Exception e) {
       throw new IOException("Cannot load or parse input stream of '" + filename + "'", e);
     }
   }
 
+  private List<AbstractPatternRule> parse(InputStream is, String filename, Language lang) throws Exception {
+    PatternRuleHandler handler = new PatternRuleHandler(filename, lang);
+    handler.setRelaxedMode(relaxedMode);
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    SAXParser saxParser = factory.newSAXParser();
+    if (JLanguageTool.isCustomPasswordAuthenticatorUsed()) {
+      Tools.setPasswordAuthenticator();
+    }
+    saxParser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    saxParser.parse(is, handler);
+    return handler.getRules();
+  }
+
 }
 
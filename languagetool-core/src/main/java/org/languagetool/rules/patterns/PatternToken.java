@@ -25,6 +25,7 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
+import org.languagetool.PosTagMatcher;
 import org.languagetool.chunking.ChunkTag;
 import org.languagetool.synthesis.Synthesizer;
 import org.languagetool.tools.StringTools;
@@ -121,6 +122,15 @@ public class PatternToken implements Cloneable {
     return (flags & mask) != 0;
   }
 
+  /** All boolean properties as a bit set, used by {@link CompiledRuleCodec}. */
+  short getFlags() {
+    return flags;
+  }
+
+  void setFlags(short flags) {
+    this.flags = flags;
+  }
+
   private void setFlag(int mask, boolean value) {
     if (value) {
       flags |= mask;
@@ -284,6 +294,14 @@ public class PatternToken implements Cloneable {
     this.posToken = posToken;
   }
 
+  /**
+   * @return the POS token, also if it has no POS tag (like the ones of exceptions), or {@code null}
+   */
+  @Nullable
+  PosToken getPosToken() {
+    return posToken;
+  }
+
   /** @since 2.9 */
   public void setChunkTag(ChunkTag chunkTag) {
     initRareFields().chunkTag = chunkTag;
@@ -297,6 +315,10 @@ public class PatternToken implements Cloneable {
     setTextMatcher(StringMatcher.create(normalizeTextPattern(token), isRegularExpression(), isCaseSensitive()));
   }
 
+  StringMatcher getTextMatcher() {
+    return textMatcher;
+  }
+
   void setTextMatcher(@NotNull StringMatcher matcher) {
     textMatcher = matcher;
     setFlag(TEST_STRING_MASK, !StringTools.isEmpty(matcher.pattern));
@@ -354,11 +376,7 @@ public class PatternToken implements Cloneable {
     if (pos == null || pos.posTag == null || pos.posUnknown && token.hasNoTag()) {
       return true;
     }
-    String tokenPos = token.getPOSTag();
-    if (tokenPos == null) {
-      return false;
-    }
-    return pos.posPattern != null ? pos.posPattern.matches(tokenPos) : pos.posTag.equals(tokenPos);
+    return pos.posMatcher.matches(token);
   }
 
   private String getTestToken(AnalyzedToken token) {
@@ -692,6 +710,12 @@ public class PatternToken implements Cloneable {
     return array.length == 0 ? Collections.emptyList() : Arrays.asList(array);
   }
 
+  @NotNull
+  List<PatternToken> getPreviousExceptionList() {
+    PatternToken[] array = rareFields == null ? EMPTY_ARRAY : rareFields.previousExceptions;
+    return array.length == 0 ? Collections.emptyList() : Arrays.asList(array);
+  }
+
   @ApiStatus.Internal
   public boolean hasCurrentOrNextExceptions() {
     return rareFields != null && rareFields.currentAndNextExceptions.length > 0;
@@ -797,6 +821,7 @@ public class PatternToken implements Cloneable {
     private final boolean negation;
     private final StringMatcher posPattern;
     private final boolean posUnknown;
+    private final PosTagMatcher posMatcher;
 
     public PosToken(String posTag, boolean regExp, boolean negation) {
       this(posTag, negation, regExp ? StringMatcher.regexp(posTag) : null);
@@ -807,6 +832,7 @@ public class PatternToken implements Cloneable {
       this.negation = negation;
       posPattern = matcher;
       posUnknown = posPattern != null ? posPattern.matches(UNKNOWN_TAG) : UNKNOWN_TAG.equals(posTag);
+      posMatcher = posTag == null ? null : new PosTagMatcher(posPattern != null ? posPattern::matches : posTag::equals);
     }
 
     @Override
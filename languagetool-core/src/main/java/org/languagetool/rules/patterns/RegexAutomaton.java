@@ -0,0 +1,735 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.tools.InterruptibleCharSequence;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Matches a whole string against a regular expression in linear time, without backtracking.
+ * Supports the subset of {@link Pattern} syntax that's common in rule XML: alternatives, groups,
+ * character classes, {@code .}, {@code \d\w\s} and their negations, and the quantifiers {@code * + ? {n,m}}
+ * (greedy or reluctant), with or without {@link Pattern#CASE_INSENSITIVE} | {@link Pattern#UNICODE_CASE}.
+ * Matching is meant to give exactly the same results as {@link Pattern}, so other constructs
+ * (anchors other than a leading {@code ^} or trailing {@code $}, back references, look-around,
+ * inline flags, Unicode properties etc.) aren't supported, and {@link #create} returns {@code null}.
+ * <p>
+ * The regex is compiled to an NFA, and the states of the equivalent DFA are built on demand
+ * while matching, so only the part of the DFA that the matched strings need is ever built.
+ * <p>
+ * An automaton can also be built for several regexes at once (see {@link #create(List, List, boolean, BitSet)}),
+ * and then tells which of them is the first to match.
+ */
+final class RegexAutomaton {
+
+  // per regex:
+  private static final int MAX_NFA_STATES = 1000;
+  private static final int MAX_DFA_STATES = 500;
+  private static final int MAX_DFA_STATES_MULTI = 2000;
+  // Latin-1 characters whose case variants are outside Latin-1 (or special), see java.util.regex.Pattern#bitsOrSingle:
+  private static final String NO_BIT_CLASS_CHARS = "\u00ff\u00b5IiSsKk\u00c5\u00e5";
+
+  // NFA: state i consumes a char matching predicates[i] and goes to targets[i][0], or, if predicates[i]
+  // is null, goes to all targets[i] without consuming a char; an accepting state has no targets and
+  // acceptedRegex[i] is the index of its regex (-1 for all other states)
+  private final IntPredicate[] predicates;
+  private final int[][] targets;
+  private final int[] acceptedRegex;
+  // indexed like the regexes, null for those not in the automaton:
+  private final Pattern[] fallbacks;
+  private final int maxDfaStates;
+  private final Map<BitSet, State> states = new HashMap<>();
+  private final State dead;
+  private final State start;
+
+  private RegexAutomaton(NfaBuilder nfa, int[] startStates, Pattern[] fallbacks, int maxDfaStates) {
+    predicates = nfa.predicates.toArray(new IntPredicate[0]);
+    targets = nfa.targets.toArray(new int[0][]);
+    acceptedRegex = nfa.acceptedRegex.stream().mapToInt(Integer::intValue).toArray();
+    this.fallbacks = fallbacks;
+    this.maxDfaStates = maxDfaStates;
+    dead = getState(new BitSet());
+    BitSet start = new BitSet();
+    for (int startState : startStates) {
+      addClosure(start, startState);
+    }
+    this.start = getState(start);
+  }
+
+  /**
+   * @param compiled the regex compiled by {@link Pattern}, used for strings with surrogate pairs
+   * @return the automaton, or {@code null} if the regex uses constructs not supported here
+   */
+  @Nullable
+  static RegexAutomaton create(String regex, Pattern compiled, boolean caseSensitive) {
+    try {
+      Node node = new Parser(regex, !caseSensitive).parse();
+      NfaBuilder nfa = new NfaBuilder();
+      int startState = node.compile(nfa, nfa.addAccept(0));
+      return new RegexAutomaton(nfa, new int[]{startState}, new Pattern[]{compiled}, MAX_DFA_STATES);
+    } catch (UnsupportedRegex e) {
+      return null;
+    }
+  }
+
+  /**
+   * Builds one automaton for all the given regexes that are supported, for {@link #firstMatch}.
+   * @param compiled the regexes compiled by {@link Pattern}, used for strings with surrogate pairs
+   * @param supported gets the indices of the regexes that are part of the automaton
+   */
+  static RegexAutomaton create(List<String> regexes, List<Pattern> compiled, boolean caseSensitive, BitSet supported) {
+    NfaBuilder nfa = new NfaBuilder();
+    List<Integer> startStates = new ArrayList<>();
+    Pattern[] fallbacks = new Pattern[regexes.size()];
+    for (int i = 0; i < regexes.size(); i++) {
+      int size = nfa.predicates.size();
+      try {
+        Node node = new Parser(regexes.get(i), !caseSensitive).parse();
+        nfa.maxSize = size + MAX_NFA_STATES;
+        startStates.add(node.compile(nfa, nfa.addAccept(i)));
+        fallbacks[i] = compiled.get(i);
+        supported.set(i);
+      } catch (UnsupportedRegex e) {
+        nfa.truncate(size);
+      }
+    }
+    return new RegexAutomaton(nfa, startStates.stream().mapToInt(Integer::intValue).toArray(), fallbacks, MAX_DFA_STATES_MULTI);
+  }
+
+  /**
+   * @return whether the regex matches the whole string
+   */
+  boolean matches(String s) {
+    return firstMatch(s) >= 0;
+  }
+
+  /**
+   * @return the lowest index of the regexes that match the whole string, or -1 if none does
+   */
+  int firstMatch(String s) {
+    State state = start;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (Character.isSurrogate(c)) {
+        // Pattern matches code points, not chars:
+        return fallbackFirstMatch(s);
+      }
+      State next = state.getTransition(c);
+      if (next == null) {
+        next = computeTransition(state, c);
+      }
+      if (next == dead) {
+        return -1;
+      }
+      state = next;
+    }
+    return state.acceptedRegex;
+  }
+
+  private int fallbackFirstMatch(String s) {
+    for (int i = 0; i < fallbacks.length; i++) {
+      if (fallbacks[i] != null && fallbacks[i].matcher(new InterruptibleCharSequence(s)).matches()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private synchronized State computeTransition(State state, char c) {
+    BitSet nextStates = new BitSet();
+    for (int nfaState : state.nfaStates) {
+      if (predicates[nfaState].test(c)) {
+        addClosure(nextStates, targets[nfaState][0]);
+      }
+    }
+    State next = states.get(nextStates);
+    if (next == null) {
+      if (states.size() >= maxDfaStates) {
+        // don't let rarely used strings fill the memory, just match them a bit slower:
+        return newState(nextStates);
+      }
+      next = getState(nextStates);
+    }
+    state.setTransition(c, next);
+    return next;
+  }
+
+  private State getState(BitSet nfaStates) {
+    return states.computeIfAbsent(nfaStates, this::newState);
+  }
+
+  private State newState(BitSet nfaStates) {
+    int[] consuming = nfaStates.stream().filter(q -> predicates[q] != null).toArray();
+    // regexes are added in order, so the first accepting state belongs to the first matching regex:
+    int accepting = nfaStates.stream().filter(q -> acceptedRegex[q] >= 0).findFirst().orElse(-1);
+    return new State(consuming, accepting < 0 ? -1 : acceptedRegex[accepting]);
+  }
+
+  private void addClosure(BitSet result, int nfaState) {
+    Deque<Integer> todo = new ArrayDeque<>();
+    BitSet visited = new BitSet();
+    todo.push(nfaState);
+    while (!todo.isEmpty()) {
+      int q = todo.pop();
+      if (visited.get(q)) {
+        continue;
+      }
+      visited.set(q);
+      if (acceptedRegex[q] >= 0 || predicates[q] != null) {
+        result.set(q);
+      } else {
+        for (int target : targets[q]) {
+          todo.push(target);
+        }
+      }
+    }
+  }
+
+  /**
+   * A DFA state, i.e. a set of NFA states, with the transitions found so far. Transitions are
+   * read without locking, a missing one is computed (again) under the automaton's lock.
+   */
+  private static final class State {
+    final int[] nfaStates;  // the char-consuming ones
+    final int acceptedRegex;  // the first regex that matches when the string ends here, or -1
+    private final State[] asciiTransitions = new State[128];
+    private volatile Map<Character, State> otherTransitions;
+
+    State(int[] nfaStates, int acceptedRegex) {
+      this.nfaStates = nfaStates;
+      this.acceptedRegex = acceptedRegex;
+    }
+
+    @Nullable
+    State getTransition(char c) {
+      if (c < 128) {
+        return asciiTransitions[c];
+      }
+      Map<Character, State> map = otherTransitions;
+      return map == null ? null : map.get(c);
+    }
+
+    void setTransition(char c, State next) {
+      if (c < 128) {
+        asciiTransitions[c] = next;
+      } else {
+        if (otherTransitions == null) {
+          otherTransitions = new ConcurrentHashMap<>();
+        }
+        otherTransitions.put(c, next);
+      }
+    }
+  }
+
+  private static class NfaBuilder {
+    final List<IntPredicate> predicates = new ArrayList<>();
+    final List<int[]> targets = new ArrayList<>();
+    final List<Integer> acceptedRegex = new ArrayList<>();
+    int maxSize = MAX_NFA_STATES;
+
+    int addAccept(int regex) {
+      int state = add(null, new int[0]);
+      acceptedRegex.set(state, regex);
+      return state;
+    }
+
+    int add(@Nullable IntPredicate predicate, int[] stateTargets) {
+      if (predicates.size() >= maxSize) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      predicates.add(predicate);
+      targets.add(stateTargets);
+      acceptedRegex.add(-1);
+      return predicates.size() - 1;
+    }
+
+    void truncate(int size) {
+      predicates.subList(size, predicates.size()).clear();
+      targets.subList(size, targets.size()).clear();
+      acceptedRegex.subList(size, acceptedRegex.size()).clear();
+    }
+  }
+
+  /**
+   * A part of the regex that can add the NFA states for itself.
+   */
+  private interface Node {
+    /**
+     * @param next the state to go to after this part has matched
+     * @return the start state of this part
+     */
+    int compile(NfaBuilder nfa, int next);
+  }
+
+  private static Node charNode(IntPredicate predicate) {
+    return (nfa, next) -> nfa.add(predicate, new int[]{next});
+  }
+
+  private static Node concatenation(List<Node> nodes) {
+    return (nfa, next) -> {
+      int state = next;
+      for (int i = nodes.size() - 1; i >= 0; i--) {
+        state = nodes.get(i).compile(nfa, state);
+      }
+      return state;
+    };
+  }
+
+  private static Node alternatives(List<Node> nodes) {
+    return (nfa, next) -> nfa.add(null, nodes.stream().mapToInt(node -> node.compile(nfa, next)).toArray());
+  }
+
+  /**
+   * @param max maximum number of repetitions, -1 for unlimited
+   */
+  private static Node repetition(Node node, int min, int max) {
+    return (nfa, next) -> {
+      int state;
+      if (max < 0) {
+        int loop = nfa.add(null, new int[2]);
+        int[] loopTargets = nfa.targets.get(loop);
+        loopTargets[0] = node.compile(nfa, loop);
+        loopTargets[1] = next;
+        state = loop;
+      } else {
+        state = next;
+        for (int i = min; i < max; i++) {
+          state = nfa.add(null, new int[]{node.compile(nfa, state), next});
+        }
+      }
+      for (int i = 0; i < min; i++) {
+        state = node.compile(nfa, state);
+      }
+      return state;
+    };
+  }
+
+  /**
+   * Parses the regex like {@link Pattern} does, including the way case-insensitive matching
+   * depends on whether a char is part of a longer literal or a character class.
+   */
+  private static class Parser {
+    private static final String NON_LITERAL = "\\[(){.*+?^$|";
+
+    private final String regex;
+    private final boolean caseInsensitive;
+    private int pos;
+
+    Parser(String regex, boolean caseInsensitive) {
+      this.regex = regex;
+      this.caseInsensitive = caseInsensitive;
+    }
+
+    Node parse() {
+      if (regex.startsWith("^")) {
+        pos++;  // the start of a whole-string match, nothing to do
+      }
+      Node node = alternation();
+      if (pos < regex.length()) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      return node;
+    }
+
+    private Node alternation() {
+      List<Node> nodes = new ArrayList<>();
+      nodes.add(sequence());
+      while (pos < regex.length() && regex.charAt(pos) == '|') {
+        pos++;
+        nodes.add(sequence());
+      }
+      return nodes.size() == 1 ? nodes.get(0) : alternatives(nodes);
+    }
+
+    private Node sequence() {
+      List<Node> nodes = new ArrayList<>();
+      while (pos < regex.length()) {
+        char c = regex.charAt(pos);
+        if (c == '|' || c == ')') {
+          break;
+        }
+        if (c == '$' && pos == regex.length() - 1) {
+          pos++;  // the end of a whole-string match, nothing to do
+          break;
+        }
+        List<Character> literal = literal();
+        if (literal.size() > 1) {
+          // like Pattern's "slice" nodes:
+          for (char ch : literal) {
+            nodes.add(charNode(sliceChar(ch)));
+          }
+        } else {
+          Node atom = literal.size() == 1 ? charNode(singleChar(literal.get(0))) : atom();
+          nodes.add(quantified(atom));
+        }
+      }
+      return nodes.size() == 1 ? nodes.get(0) : concatenation(nodes);
+    }
+
+    /**
+     * Reads the longest sequence of literal chars, but not the last one if it's quantified,
+     * like Pattern does.
+     */
+    private List<Character> literal() {
+      List<Character> result = new ArrayList<>();
+      int lastStart = pos;
+      while (pos < regex.length()) {
+        int start = pos;
+        int c = literalChar();
+        if (c < 0) {
+          break;
+        }
+        result.add((char) c);
+        lastStart = start;
+      }
+      if (result.size() > 1 && pos < regex.length() && "*+?{".indexOf(regex.charAt(pos)) >= 0) {
+        result.remove(result.size() - 1);
+        pos = lastStart;
+      }
+      return result;
+    }
+
+    /**
+     * @return the literal char at the current position, or -1 if there's none (the position is unchanged then)
+     */
+    private int literalChar() {
+      char c = regex.charAt(pos);
+      if (c == '\\') {
+        pos++;
+        int escaped = escapedChar();
+        if (escaped < 0) {
+          pos--;
+        }
+        return escaped;
+      }
+      if (NON_LITERAL.indexOf(c) >= 0) {
+        return -1;
+      }
+      if (Character.isSurrogate(c)) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      pos++;
+      return c;
+    }
+
+    private Node atom() {
+      switch (peek()) {
+        case '(':
+          pos++;
+          if (peek() == '?') {
+            if (!regex.startsWith("?:", pos)) {
+              throw UnsupportedRegex.INSTANCE;  // look-around, inline flags, named groups etc.
+            }
+            pos += 2;
+          }
+          Node group = alternation();
+          expect(')');
+          return group;
+        case '[':
+          return charNode(characterClass());
+        case '.':
+          pos++;
+          return charNode(ch -> ch != '\n' && ch != '\r' && (ch | 1) != '\u2029' && ch != '\u0085');
+        case '\\':
+          pos++;
+          IntPredicate predefined = predefinedClass();
+          if (predefined == null) {
+            throw UnsupportedRegex.INSTANCE;
+          }
+          return charNode(predefined);
+        default:
+          throw UnsupportedRegex.INSTANCE;
+      }
+    }
+
+    private Node quantified(Node node) {
+      if (pos >= regex.length()) {
+        return node;
+      }
+      int min;
+      int max;
+      switch (regex.charAt(pos)) {
+        case '*': min = 0; max = -1; pos++; break;
+        case '+': min = 1; max = -1; pos++; break;
+        case '?': min = 0; max = 1; pos++; break;
+        case '{':
+          pos++;
+          min = number();
+          if (peek() == ',') {
+            pos++;
+            max = peek() == '}' ? -1 : number();
+          } else {
+            max = min;
+          }
+          expect('}');
+          if (max >= 0 && max < min) {
+            throw UnsupportedRegex.INSTANCE;
+          }
+          break;
+        default:
+          return node;
+      }
+      if (pos < regex.length()) {
+        if (regex.charAt(pos) == '?') {
+          pos++;  // reluctant, which doesn't make a difference for whole-string matches
+        } else if (regex.charAt(pos) == '+') {
+          throw UnsupportedRegex.INSTANCE;  // possessive
+        }
+      }
+      return repetition(node, min, max);
+    }
+
+    private int number() {
+      int start = pos;
+      while (pos < regex.length() && pos - start < 4 && Character.isDigit(regex.charAt(pos))) {
+        pos++;
+      }
+      if (start == pos) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      return Integer.parseInt(regex.substring(start, pos));
+    }
+
+    private IntPredicate characterClass() {
+      pos++;
+      boolean negated = false;
+      if (peek() == '^') {
+        negated = true;
+        pos++;
+      }
+      List<IntPredicate> members = new ArrayList<>();
+      while (true) {
+        char c = peek();
+        if (c == ']') {
+          if (members.isEmpty()) {
+            throw UnsupportedRegex.INSTANCE;  // ']' as a literal, Java versions differ here
+          }
+          pos++;
+          break;
+        }
+        if (c == '[' || regex.startsWith("&&", pos)) {
+          throw UnsupportedRegex.INSTANCE;  // union and intersection
+        }
+        if (c == '\\') {
+          pos++;
+          IntPredicate predefined = predefinedClass();
+          if (predefined != null) {
+            members.add(predefined);
+            continue;
+          }
+          pos--;
+        }
+        int from = classChar();
+        if (pos + 1 < regex.length() && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+          pos++;
+          if (peek() == '[') {
+            throw UnsupportedRegex.INSTANCE;
+          }
+          int to = classChar();
+          if (to < from) {
+            throw UnsupportedRegex.INSTANCE;
+          }
+          members.add(classRange(from, to));
+        } else {
+          members.add(classSingleChar((char) from));
+        }
+      }
+      IntPredicate[] predicates = members.toArray(new IntPredicate[0]);
+      IntPredicate union = ch -> {
+        for (IntPredicate predicate : predicates) {
+          if (predicate.test(ch)) {
+            return true;
+          }
+        }
+        return false;
+      };
+      return negated ? union.negate() : union;
+    }
+
+    /**
+     * A plain or escaped char in a character class.
+     */
+    private int classChar() {
+      char c = peek();
+      pos++;
+      if (c == '\\') {
+        int escaped = escapedChar();
+        if (escaped < 0) {
+          throw UnsupportedRegex.INSTANCE;
+        }
+        return escaped;
+      }
+      if (Character.isSurrogate(c)) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      return c;
+    }
+
+    /**
+     * The position is after the backslash.
+     * @return the escaped char, or -1 for an escape that's not a literal char (the position is unchanged then)
+     */
+    private int escapedChar() {
+      char c = peek();
+      switch (c) {
+        case 't': pos++; return '\t';
+        case 'n': pos++; return '\n';
+        case 'r': pos++; return '\r';
+        case 'f': pos++; return '\f';
+        case 'a': pos++; return '\u0007';
+        case 'e': pos++; return '\u001B';
+        case 'x': return hexChar(2);
+        case 'u': return hexChar(4);
+        case 'd': case 'D': case 'w': case 'W': case 's': case 'S':
+          return -1;
+        default:
+          if (Character.isLetterOrDigit(c) || Character.isSurrogate(c)) {
+            throw UnsupportedRegex.INSTANCE;  // word boundaries, back references, Unicode properties etc.
+          }
+          pos++;
+          return c;
+      }
+    }
+
+    private int hexChar(int digits) {
+      if (pos + 1 + digits > regex.length()) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      String hex = regex.substring(pos + 1, pos + 1 + digits);
+      for (int i = 0; i < hex.length(); i++) {
+        if (Character.digit(hex.charAt(i), 16) < 0) {
+          throw UnsupportedRegex.INSTANCE;
+        }
+      }
+      char c = (char) Integer.parseInt(hex, 16);
+      if (Character.isSurrogate(c)) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      pos += 1 + digits;
+      return c;
+    }
+
+    /**
+     * The position is after the backslash.
+     * @return the class for escapes like {@code \d}, or {@code null} (the position is unchanged then)
+     */
+    @Nullable
+    private IntPredicate predefinedClass() {
+      IntPredicate result;
+      switch (peek()) {
+        case 'd': result = RegexAutomaton::isDigit; break;
+        case 'D': result = ch -> !isDigit(ch); break;
+        case 'w': result = RegexAutomaton::isWordChar; break;
+        case 'W': result = ch -> !isWordChar(ch); break;
+        case 's': result = RegexAutomaton::isSpace; break;
+        case 'S': result = ch -> !isSpace(ch); break;
+        default: return null;
+      }
+      pos++;
+      return result;
+    }
+
+    private char peek() {
+      if (pos >= regex.length()) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      return regex.charAt(pos);
+    }
+
+    private void expect(char c) {
+      if (peek() != c) {
+        throw UnsupportedRegex.INSTANCE;
+      }
+      pos++;
+    }
+
+    // the predicates below follow java.util.regex.Pattern's case-insensitive matching with UNICODE_CASE:
+
+    private IntPredicate singleChar(char c) {
+      if (caseInsensitive) {
+        int upper = Character.toUpperCase(c);
+        int lower = Character.toLowerCase(upper);
+        if (upper != lower) {
+          return ch -> ch == lower || Character.toLowerCase(Character.toUpperCase(ch)) == lower;
+        }
+      }
+      return ch -> ch == c;
+    }
+
+    private IntPredicate sliceChar(char c) {
+      if (caseInsensitive) {
+        int folded = Character.toLowerCase(Character.toUpperCase(c));
+        return ch -> ch == folded || Character.toLowerCase(Character.toUpperCase(ch)) == folded;
+      }
+      return ch -> ch == c;
+    }
+
+    private IntPredicate classSingleChar(char c) {
+      if (c < 256 && !(caseInsensitive && NO_BIT_CLASS_CHARS.indexOf(c) >= 0)) {
+        if (caseInsensitive) {
+          char lower = Character.toLowerCase(c);
+          char upper = Character.toUpperCase(c);
+          return ch -> ch == c || ch == lower || ch == upper;
+        }
+        return ch -> ch == c;
+      }
+      return singleChar(c);
+    }
+
+    private IntPredicate classRange(int from, int to) {
+      if (caseInsensitive) {
+        return ch -> {
+          if (ch >= from && ch <= to) {
+            return true;
+          }
+          int upper = Character.toUpperCase(ch);
+          int lower = Character.toLowerCase(upper);
+          return upper >= from && upper <= to || lower >= from && lower <= to;
+        };
+      }
+      return ch -> ch >= from && ch <= to;
+    }
+  }
+
+  private static boolean isDigit(int ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static boolean isWordChar(int ch) {
+    return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || isDigit(ch) || ch == '_';
+  }
+
+  private static boolean isSpace(int ch) {
+    return ch == ' ' || ch >= '\t' && ch <= '\r';
+  }
+
+  private static class UnsupportedRegex extends RuntimeException {
+    private static final UnsupportedRegex INSTANCE = new UnsupportedRegex();
+
+    private UnsupportedRegex() {
+      super(null, null, false, false);
+    }
+  }
+
+}
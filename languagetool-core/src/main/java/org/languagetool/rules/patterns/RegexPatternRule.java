@@ -76,6 +76,15 @@ public class RegexPatternRule extends AbstractPatternRule implements RuleMatcher
     regexFilter = filter;
   }
 
+  @Nullable
+  RegexRuleFilter getRegexFilter() {
+    return regexFilter;
+  }
+
+  int getMarkGroup() {
+    return markGroup;
+  }
+
   @Override
   public RuleMatch[] match(AnalyzedSentence sentenceObj) throws IOException {
     String text = sentenceObj.getText();
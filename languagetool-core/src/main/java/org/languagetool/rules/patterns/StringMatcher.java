@@ -43,6 +43,9 @@ public abstract class StringMatcher {
   
   public final static int MAX_MATCH_LENGTH = 250;
 
+  // for comparing the performance of the two engines:
+  private static final boolean useRegexAutomaton = System.getProperty("disableRegexAutomaton") == null;
+
   private StringMatcher(String pattern, boolean isRegExp, boolean caseSensitive) {
     this.pattern = pattern;
     this.caseSensitive = caseSensitive;
@@ -125,6 +128,7 @@ public abstract class StringMatcher {
     Substrings exhaustive = required == null ? null : required.checkCanReplaceRegex(pattern);
     boolean substringsAreSufficient = exhaustive != null;
     Substrings substrings = substringsAreSufficient ? exhaustive : required;
+    RegexAutomaton automaton = substringsAreSufficient || !useRegexAutomaton ? null : RegexAutomaton.create(pattern, compiled, caseSensitive);
 
     return new StringMatcher(pattern, true, caseSensitive) {
       @Nullable
@@ -140,6 +144,7 @@ public abstract class StringMatcher {
         }
         if (substrings != null && !substrings.matches(s, caseSensitive)) return false;
         if (substringsAreSufficient) return true;
+        if (automaton != null) return automaton.matches(s);
         return compiled.matcher(new InterruptibleCharSequence(s)).matches();
       }
     };
@@ -19,6 +19,7 @@
 package org.languagetool.rules.spelling.morfologik;
 
 import com.google.common.cache.*;
+import io.prometheus.client.Counter;
 import morfologik.speller.Speller;
 import morfologik.stemming.Dictionary;
 import org.jetbrains.annotations.NotNull;
@@ -33,14 +34,28 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Morfologik-based spell checker.
+ * Morfologik-based spell checker. Morfologik's {@link Speller} is not thread-safe, so by default
+ * every thread gets its own {@link Speller} over the shared {@link Dictionary}. Set the system
+ * property {@code morfologikSynchronizedSpeller} to use a single synchronized {@link Speller}
+ * per instance instead; the time spent waiting for its lock is published as
+ * {@code languagetool_morfologik_speller_lock_wait_seconds_total}.
  */
 public class MorfologikSpeller {
-  
+
+  private static final boolean synchronizedSpeller = System.getProperty("morfologikSynchronizedSpeller") != null;
+
+  private static final Counter lockWait = Counter
+    .build("languagetool_morfologik_speller_lock_wait_seconds_total", "Time spent waiting for the lock of a synchronized Morfologik speller")
+    .register();
+  private static final Counter lockAcquisitions = Counter
+    .build("languagetool_morfologik_speller_lock_acquisitions_total", "Number of lock acquisitions of synchronized Morfologik spellers")
+    .register();
+
   // Speed up the server use case, where rules get initialized for every call.
   // See https://github.com/morfologik/morfologik-stemming/issues/69 for confirmation that
   // Dictionary is thread-safe:
@@ -60,8 +75,9 @@ public class MorfologikSpeller {
       });
 
   private final Dictionary dictionary;
-  private final Speller speller;
   private final int maxEditDistance;
+  private final Speller speller;  // only used if synchronizedSpeller is set
+  private final ThreadLocal<Speller> threadSpeller;  // null if synchronizedSpeller is set
 
   /**
    * Creates a speller with the given maximum edit distance.
@@ -86,7 +102,13 @@ public class MorfologikSpeller {
     }
     this.dictionary = dictionary;
     this.maxEditDistance = maxEditDistance;
-    speller = new Speller(dictionary, maxEditDistance);
+    if (synchronizedSpeller) {
+      speller = new Speller(dictionary, maxEditDistance);
+      threadSpeller = null;
+    } else {
+      speller = null;
+      threadSpeller = ThreadLocal.withInitial(() -> new Speller(dictionary, maxEditDistance));
+    }
   }
 
   /**
@@ -101,17 +123,15 @@ public class MorfologikSpeller {
     if (word.isEmpty() || SpellingCheckRule.LANGUAGETOOL.equals(word) || SpellingCheckRule.LANGUAGETOOLER.equals(word)) {
       return false;
     }
-    synchronized (this) {
-      return speller.isMisspelled(word);
-    }
+    return withSpeller(speller -> speller.isMisspelled(word));
   }
 
-  public synchronized List<String> findReplacements(String word) {
-    return speller.findReplacements(word);
+  public List<String> findReplacements(String word) {
+    return withSpeller(speller -> speller.findReplacements(word));
   }
-  
-  public synchronized List<String> findSimilarWords(String word) {
-    return speller.findSimilarWords(word);
+
+  public List<String> findSimilarWords(String word) {
+    return withSpeller(speller -> speller.findSimilarWords(word));
   }
 
   /**
@@ -119,7 +139,19 @@ public class MorfologikSpeller {
    */
   @Deprecated
   public Speller getSpeller() {
-    return speller;
+    return threadSpeller != null ? threadSpeller.get() : speller;
+  }
+
+  private <T> T withSpeller(Function<Speller, T> function) {
+    if (threadSpeller != null) {
+      return function.apply(threadSpeller.get());
+    }
+    long waitStart = System.nanoTime();
+    synchronized (this) {
+      lockWait.inc((System.nanoTime() - waitStart) / 1e9);
+      lockAcquisitions.inc();
+      return function.apply(speller);
+    }
   }
 
   public List<WeightedSuggestion> getSuggestions(String word) {
@@ -206,7 +238,7 @@ public class MorfologikSpeller {
    * @since 2.5
    */
   public boolean convertsCase() {
-    return speller.convertsCase();
+    return dictionary.metadata.isConvertingCase();
   }
 
   @Override
@@ -214,11 +246,13 @@ public class MorfologikSpeller {
     return "dist=" + maxEditDistance;
   }
 
-  public synchronized int getFrequency(String word) {
-    int freq = speller.getFrequency(word);
-    if (freq == 0 && !word.equals(word.toLowerCase())) {
-      freq = speller.getFrequency(word.toLowerCase());
-    }
-    return freq;
+  public int getFrequency(String word) {
+    return withSpeller(speller -> {
+      int freq = speller.getFrequency(word);
+      if (freq == 0 && !word.equals(word.toLowerCase())) {
+        freq = speller.getFrequency(word.toLowerCase());
+      }
+      return freq;
+    });
   }
 }
@@ -18,6 +18,10 @@
  */
 package org.languagetool.synthesis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.prometheus.client.Counter;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
@@ -34,13 +38,22 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 public class BaseSynthesizer implements Synthesizer {
 
+  private static final int SYNTHESIS_CACHE_SIZE = 10_000;
+
+  private static final Counter synthesisCacheRequests = Counter
+    .build("languagetool_synthesis_cache_requests_total", "Lookups in the synthesis cache by language and result")
+    .labelNames("language", "result")
+    .register();
+
   public final String SPELLNUMBER_TAG = "_spell_number_";
   public final String SPELLNUMBER_FEMININE_TAG = "_spell_number_:feminine";
   public final String SPELLNUMBER_ROMAN_TAG = "_spell_number_:Roman";
@@ -49,7 +62,14 @@ public class BaseSynthesizer implements Synthesizer {
 
   private final String tagFileName;
   private final String resourceFileName;
-  private final IStemmer stemmer;
+  private final String langShortCode;
+  // the stemmer is not thread-safe, so every thread gets its own one:
+  private final ThreadLocal<IStemmer> stemmer = ThreadLocal.withInitial(this::createStemmer);
+  // forms by (lemma, POS tag regex), shared by all users of this synthesizer:
+  private final Cache<SynthesisCacheKey, List<String>> synthesisCache = CacheBuilder.newBuilder()
+    .maximumSize(SYNTHESIS_CACHE_SIZE)
+    .recordStats()
+    .build();
   private final ManualSynthesizer manualSynthesizer;
   private final ManualSynthesizer removalSynthesizer;
   private final ManualSynthesizer removalSynthesizer2;
@@ -76,7 +96,7 @@ public class BaseSynthesizer implements Synthesizer {
   public BaseSynthesizer(String sorosFileName, String resourceFileName, String tagFileName, String langShortCode) {
     this.resourceFileName = resourceFileName;
     this.tagFileName = tagFileName;
-    this.stemmer = createStemmer();
+    this.langShortCode = langShortCode;
     this.sorosFileName = sorosFileName;
     this.numberSpeller = createNumberSpeller(langShortCode);
     this.romanNumberer = createRomanNumberer();
@@ -196,11 +216,9 @@ public class BaseSynthesizer implements Synthesizer {
    */
   protected List<String> lookup(String lemma, String posTag) {
     List<String> results = new ArrayList<>();
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
-      }
+    List<WordData> wordForms = stemmer.get().lookup(lemma + "|" + posTag);
+    for (WordData wd : wordForms) {
+      results.add(wd.getStem().toString());
     }
     if (manualSynthesizer != null) {
       List<String> manualForms = manualSynthesizer.lookup(lemma, posTag);
@@ -223,6 +241,45 @@ public class BaseSynthesizer implements Synthesizer {
     return results;
   }
 
+  /**
+   * Lookup the inflected forms of a lemma for all POS tags matching a regular expression.
+   * The results are cached, so repeated lookups of the same lemma and regex from any
+   * thread don't need to run the regex against all possible tags again.
+   * @param lemma the lemma to be inflected.
+   * @param posTagRegex the regular expression the part-of-speech tags need to match
+   * @return an unmodifiable list of the inflected forms
+   * @throws PatternSyntaxException if {@code posTagRegex} is not a valid regular expression
+   * @since 6.3
+   */
+  protected List<String> lookupForPosTagRegex(String lemma, String posTagRegex) throws IOException {
+    SynthesisCacheKey key = new SynthesisCacheKey(lemma, posTagRegex);
+    List<String> forms = synthesisCache.getIfPresent(key);
+    if (forms != null) {
+      synthesisCacheRequests.labels(langShortCode, "hit").inc();
+      return forms;
+    }
+    synthesisCacheRequests.labels(langShortCode, "miss").inc();
+    Pattern p = Pattern.compile(posTagRegex);
+    initPossibleTags();
+    List<String> results = new ArrayList<>();
+    for (String tag : possibleTags) {
+      if (p.matcher(tag).matches()) {
+        results.addAll(lookup(lemma, tag));
+      }
+    }
+    forms = Collections.unmodifiableList(results);
+    synthesisCache.put(key, forms);
+    return forms;
+  }
+
+  /**
+   * @return hit and miss statistics of the cache used by {@link #lookupForPosTagRegex(String, String)}
+   * @since 6.3
+   */
+  public CacheStats getSynthesisCacheStats() {
+    return synthesisCache.stats();
+  }
+
   /**
    * Get a form of a given AnalyzedToken, where the form is defined by a
    * part-of-speech tag.
@@ -249,8 +306,7 @@ public class BaseSynthesizer implements Synthesizer {
   public String[] synthesize(AnalyzedToken token, String posTag, boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
       try {
-        Pattern p = Pattern.compile(posTag);
-        return synthesizeForPosTags(token.getLemma(), tag -> p.matcher(tag).matches());
+        return removeExceptions(lookupForPosTagRegex(token.getLemma(), posTag).toArray(new String[0]));
       } catch (PatternSyntaxException e) {
         throw new RuntimeException("Error trying to synthesize POS tag " + posTag +
                 " (posTagRegExp: true) from token " + token.getToken(), e);
@@ -281,10 +337,10 @@ public class BaseSynthesizer implements Synthesizer {
 
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used by the current thread.
    */
   public IStemmer getStemmer() {
-    return stemmer;
+    return stemmer.get();
   }
 
   protected void initPossibleTags() throws IOException {
@@ -350,4 +406,27 @@ public class BaseSynthesizer implements Synthesizer {
     return posTags.get(posTags.size() - 1);
   }
 
+  private static final class SynthesisCacheKey {
+    private final String lemma;
+    private final String posTagRegex;
+
+    SynthesisCacheKey(String lemma, String posTagRegex) {
+      this.lemma = lemma;
+      this.posTagRegex = posTagRegex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      SynthesisCacheKey that = (SynthesisCacheKey) o;
+      return Objects.equals(lemma, that.lemma) && posTagRegex.equals(that.posTagRegex);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hashCode(lemma) + posTagRegex.hashCode();
+    }
+  }
+
 }
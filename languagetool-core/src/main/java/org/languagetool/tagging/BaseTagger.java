@@ -86,7 +86,9 @@ public abstract class BaseTagger implements Tagger {
     this.locale = locale;
     this.tagLowercaseWithUppercase = tagLowercaseWithUppercase;
     this.dictionary = MorfologikSpeller.getDictionaryWithCaching(filename);
-    this.wordTagger = initWordTagger(internTags);
+    // the lookups only depend on these, so all pipelines of a language can share the cache:
+    String cacheKey = getClass().getName() + ":" + filename + ":" + getManualAdditionsFileNames() + ":" + getManualRemovalsFileNames();
+    this.wordTagger = new CachingWordTagger(initWordTagger(internTags), cacheKey);
   }
 
   /**
@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.languagetool.tools.CacheStatsRegistry;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the results of another {@link WordTagger}. The cache is shared by all taggers
+ * with the same key, i.e. by all pipelines of a language, and keeps the most frequent words:
+ * it uses the W-TinyLFU policy, which only admits a new word if it's likely to be looked up
+ * more often than the word it would evict.
+ * @since 6.3
+ */
+public final class CachingWordTagger implements WordTagger {
+
+  private static final int MAX_WORDS_PER_CACHE = 20_000;
+  private static final int MAX_WORD_LENGTH = 50;
+  private static final Map<String, Cache<String, List<TaggedWord>>> caches = new ConcurrentHashMap<>();
+
+  private final WordTagger wordTagger;
+  private final Cache<String, List<TaggedWord>> cache;
+
+  /**
+   * @param cacheKey identifies the configuration of {@code wordTagger}: all taggers created
+   *                 with the same key must return the same results
+   */
+  public CachingWordTagger(WordTagger wordTagger, String cacheKey) {
+    this.wordTagger = Objects.requireNonNull(wordTagger);
+    this.cache = caches.computeIfAbsent(cacheKey, k -> {
+      Cache<String, List<TaggedWord>> newCache = Caffeine.newBuilder()
+        .maximumSize(MAX_WORDS_PER_CACHE)
+        .recordStats()
+        .build();
+      CacheStatsRegistry.register("wordTagger:" + k, newCache);
+      return newCache;
+    });
+  }
+
+  /**
+   * @return the tagger whose results are cached
+   */
+  public WordTagger getWordTagger() {
+    return wordTagger;
+  }
+
+  @Override
+  public List<TaggedWord> tag(String word) {
+    if (word.length() > MAX_WORD_LENGTH) {
+      return wordTagger.tag(word);
+    }
+    List<TaggedWord> result = cache.get(word, w -> Collections.unmodifiableList(new ArrayList<>(wordTagger.tag(w))));
+    // callers may add to the result:
+    return new ArrayList<>(result);
+  }
+
+  /**
+   * @return the hit statistics of each cache, by cache key
+   */
+  public static Map<String, CacheStats> getStats() {
+    Map<String, CacheStats> result = new TreeMap<>();
+    caches.forEach((key, cache) -> result.put(key, cache.stats()));
+    return result;
+  }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.languagetool.tagging.disambiguation.rules;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
@@ -99,7 +100,20 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
    * @return {@link AnalyzedSentence} Disambiguated sentence (might be unchanged).
    */
   public final AnalyzedSentence replace(AnalyzedSentence sentence) throws IOException {
-    return canBeIgnoredFor(sentence) ? sentence : new DisambiguationPatternRuleReplacer(this).replace(sentence);
+    return canBeIgnoredFor(sentence) ? sentence : new DisambiguationPatternRuleReplacer(this, false).replace(sentence);
+  }
+
+  /**
+   * Like {@link #replace}, but leaves the tokens of the given sentence untouched: tokens are
+   * copied before they get immunized. Only for rules with {@link DisambiguatorAction#IMMUNIZE}.
+   * @since 6.3
+   */
+  @ApiStatus.Internal
+  public final AnalyzedSentence immunizeCopyOnWrite(AnalyzedSentence sentence) throws IOException {
+    if (disAction != DisambiguatorAction.IMMUNIZE) {
+      throw new IllegalStateException("Rule " + getFullId() + " has action " + disAction + ", not " + DisambiguatorAction.IMMUNIZE);
+    }
+    return canBeIgnoredFor(sentence) ? sentence : new DisambiguationPatternRuleReplacer(this, true).replace(sentence);
   }
 
   public void setExamples(List<DisambiguatedExample> examples) {
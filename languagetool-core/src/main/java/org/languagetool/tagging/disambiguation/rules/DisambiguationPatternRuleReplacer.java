@@ -41,9 +41,13 @@ import java.util.stream.IntStream;
  */
 class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
 
-  DisambiguationPatternRuleReplacer(DisambiguationPatternRule rule) {
+  // whether tokens are copied before they get immunized, so the input sentence isn't modified:
+  private final boolean copyOnWrite;
+
+  DisambiguationPatternRuleReplacer(DisambiguationPatternRule rule, boolean copyOnWrite) {
     // The disambiguation Unifier is always in the default language variant
     super(rule, rule.getLanguage().getDefaultLanguageVariant().getDisambiguationUnifier());
+    this.copyOnWrite = copyOnWrite;
   }
 
   AnalyzedSentence replace(AnalyzedSentence sentence) throws IOException {
@@ -258,7 +262,11 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
       break;
     case IMMUNIZE:
       for (int i = 0; i < matchingTokensWithCorrection - startPositionCorrection + endPositionCorrection; i++) {
-        whTokens[sentence.getOriginalPosition(firstMatchToken + correctedStPos + i)].immunize(rule.getXmlLineNumber());
+        int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos + i);
+        if (copyOnWrite) {
+          whTokens[position] = new AnalyzedTokenReadings(whTokens[position], whTokens[position].getReadings(), "");
+        }
+        whTokens[position].immunize(rule.getXmlLineNumber());
       }
       break;
     case IGNORE_SPELLING:
@@ -20,6 +20,8 @@ package org.languagetool.tagging.disambiguation.rules;
 
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.patterns.CompiledRuleCache;
 import org.languagetool.tools.Tools;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -41,6 +43,23 @@ public class DisambiguationRuleLoader extends DefaultHandler {
 
   public final List<DisambiguationPatternRule> getRules(InputStream stream, Language language, String xmlPath)
       throws ParserConfigurationException, SAXException, IOException {
+    if (!CompiledRuleCache.isEnabled()) {
+      return parse(stream, language, xmlPath);
+    }
+    try {
+      // like the handler, use the registered instance of the language:
+      Language ruleLang = Languages.getLanguageForShortCode(language.getShortCodeWithCountryAndVariant());
+      return CompiledRuleCache.getRules(stream, xmlPath, ruleLang,
+        ruleLang.getDefaultLanguageVariant().getDisambiguationUnifierConfiguration(), xml -> parse(xml, language, xmlPath));
+    } catch (ParserConfigurationException | SAXException | IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException("Cannot load disambiguation rules from '" + xmlPath + "'", e);
+    }
+  }
+
+  private List<DisambiguationPatternRule> parse(InputStream stream, Language language, String xmlPath)
+      throws ParserConfigurationException, SAXException, IOException {
     DisambiguationRuleHandler handler = new DisambiguationRuleHandler(language, xmlPath);
     SAXParserFactory factory = SAXParserFactory.newInstance();
     SAXParser saxParser = factory.newSAXParser();
@@ -0,0 +1,57 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches that live as long as the JVM, e.g. in language modules, register here so that
+ * their statistics can be logged or monitored without knowing about the modules.
+ * @since 6.3
+ */
+public final class CacheStatsRegistry {
+
+  private static final Map<String, Cache<?, ?>> caches = new ConcurrentHashMap<>();
+
+  private CacheStatsRegistry() {
+  }
+
+  /**
+   * @param name a unique name, a cache registered with the same name before is replaced
+   * @param cache a cache built with {@code recordStats()}
+   */
+  public static void register(String name, Cache<?, ?> cache) {
+    caches.put(name, cache);
+  }
+
+  /**
+   * @return the statistics of all registered caches, by name
+   */
+  public static Map<String, CacheStats> getStats() {
+    Map<String, CacheStats> result = new TreeMap<>();
+    caches.forEach((name, cache) -> result.put(name, cache.stats()));
+    return result;
+  }
+
+}
@@ -40,7 +40,18 @@ public final class LtThreadPoolFactory {
   public static final int REMOTE_RULE_POOL_SIZE_FACTOR = 4;
   // we need more maximum threads for timed out requests that haven't been interrupted/cancelled (or reacted to that) yet
 
-  private static final ConcurrentMap<String, ThreadPoolExecutor> executorServices = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, ExecutorService> executorServices = new ConcurrentHashMap<>();
+
+  /**
+   * The kind of threads used by a pool, see {@link #createExecutorService}.
+   * @since 6.3
+   */
+  public enum ThreadMode {
+    /** a pool of reused platform threads */
+    PLATFORM,
+    /** a new virtual thread for every task, requires Java 21 or later */
+    VIRTUAL
+  }
 
   private static final Counter rejectedTasks = Counter.build("languagetool_threadpool_rejected_tasks",
     "Rejected tasks by threadpool").labelNames("pool").register();
@@ -61,6 +72,7 @@ public final class LtThreadPoolFactory {
   static {
     Timer timer = new Timer("LtThreadPoolMonitor", true);
     TimerTask timedAction = new TimerTask() {
+      // note: virtual threads (ThreadMode.VIRTUAL) are not returned by Thread.getAllStackTraces()
       final String[] poolNames = new String[]{SERVER_POOL, TEXT_CHECKER_POOL, REMOTE_RULE_EXECUTING_POOL};
 
       @Override
@@ -85,6 +97,19 @@ public final class LtThreadPoolFactory {
     timer.scheduleAtFixedRate(timedAction, 0, 1000);
   }
 
+  /**
+   * @return true if the JVM supports virtual threads (Java 21 or later)
+   * @since 6.3
+   */
+  public static boolean isVirtualThreadSupported() {
+    try {
+      createVirtualThreadFactory("lt-virtual-thread-check", (thread, throwable) -> {});
+      return true;
+    } catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
   /**
    * @param identifier       Name of the thread-pool, will be used as name of the threads in the threadPool
    * @param maxThreads       Number of parallel threads running in this pool
@@ -111,11 +136,49 @@ public final class LtThreadPoolFactory {
    * @return a Fixed ThreadPoolExecutor
    */
   public static ThreadPoolExecutor createFixedThreadPoolExecutor(@NotNull String identifier, int corePool, int maxThreads, int maxTaskInQueue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler, boolean reuse) {
+    return (ThreadPoolExecutor) createExecutorService(identifier, corePool, maxThreads, maxTaskInQueue, keepAliveTimeSeconds, isDaemon, exceptionHandler, reuse, ThreadMode.PLATFORM);
+  }
+
+  /**
+   * Like {@link #createFixedThreadPoolExecutor(String, int, int, int, long, boolean, Thread.UncaughtExceptionHandler, boolean)},
+   * but with the kind of threads as a parameter. With {@link ThreadMode#VIRTUAL}, every task runs in a new virtual thread,
+   * {@code maxThreads} then limits the number of tasks running at the same time, further tasks wait in the queue.
+   * {@code corePool}, {@code keepAliveTimeSeconds} and {@code isDaemon} are ignored in that mode.
+   * Use this for pools whose tasks mostly wait (for requests, futures, remote services), not for CPU-bound work like rule matching.
+   * @param threadMode the kind of threads to use
+   * @throws IllegalStateException if virtual threads are requested but not supported by the JVM
+   * @since 6.3
+   */
+  public static ExecutorService createExecutorService(@NotNull String identifier, int corePool, int maxThreads, int maxTaskInQueue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler, boolean reuse, @NotNull ThreadMode threadMode) {
     if (reuse) {
-      return executorServices.computeIfAbsent(identifier, id -> getNewThreadPoolExecutor(identifier, corePool, maxThreads, maxTaskInQueue, keepAliveTimeSeconds, isDaemon, exceptionHandler));
+      ExecutorService executorService = executorServices.computeIfAbsent(identifier, id -> getNewExecutorService(identifier, corePool, maxThreads, maxTaskInQueue, keepAliveTimeSeconds, isDaemon, exceptionHandler, threadMode));
+      if ((executorService instanceof VirtualThreadPerTaskExecutor) != (threadMode == ThreadMode.VIRTUAL)) {
+        throw new IllegalStateException("Pool '" + identifier + "' already exists with a thread mode other than " + threadMode);
+      }
+      return executorService;
     } else {
-      return getNewThreadPoolExecutor(identifier, corePool, maxThreads, maxTaskInQueue, keepAliveTimeSeconds, isDaemon, exceptionHandler);
+      return getNewExecutorService(identifier, corePool, maxThreads, maxTaskInQueue, keepAliveTimeSeconds, isDaemon, exceptionHandler, threadMode);
+    }
+  }
+
+  /**
+   * @return the queue of tasks waiting for a thread (or, in {@link ThreadMode#VIRTUAL}, for a permit to run) in
+   * a pool created by this factory
+   * @since 6.3
+   */
+  public static BlockingQueue<Runnable> getQueue(@NotNull ExecutorService executorService) {
+    if (executorService instanceof ThreadPoolExecutor) {
+      return ((ThreadPoolExecutor) executorService).getQueue();
+    } else if (executorService instanceof VirtualThreadPerTaskExecutor) {
+      return ((VirtualThreadPerTaskExecutor) executorService).getQueue();
     }
+    throw new IllegalArgumentException("Not created by LtThreadPoolFactory: " + executorService);
+  }
+
+  static RejectedExecutionException rejected(String pool) {
+    rejectedTasks.labels(pool).inc();
+    log.warn(LoggingTools.SYSTEM, "Task rejected from pool '{}' (queue full, all threads exhausted)", pool);
+    return new RejectedExecutionException("Task rejected from pool '" + pool + "'");
   }
 
   private static class LtRejectedExecutionHandler extends ThreadPoolExecutor.AbortPolicy {
@@ -132,7 +195,12 @@ public final class LtThreadPoolFactory {
   private static final LtRejectedExecutionHandler handler = new LtRejectedExecutionHandler();
 
   @NotNull
-  private static ThreadPoolExecutor getNewThreadPoolExecutor(@NotNull String identifier, int corePool, int maxThreads, int maxTaskInQueue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
+  private static ExecutorService getNewExecutorService(@NotNull String identifier, int corePool, int maxThreads, int maxTaskInQueue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler, @NotNull ThreadMode threadMode) {
+    if (threadMode == ThreadMode.VIRTUAL) {
+      log.debug(LoggingTools.SYSTEM, String.format("Create new virtual thread executor with maxThreads: %d maxTaskInQueue: %d identifier: %s exceptionHandler: %s", maxThreads, maxTaskInQueue, identifier, exceptionHandler));
+      // virtual threads are always daemon threads:
+      return new VirtualThreadPerTaskExecutor(identifier, createVirtualThreadFactory(identifier + "-", exceptionHandler), maxThreads, maxTaskInQueue);
+    }
     log.debug(LoggingTools.SYSTEM, String.format("Create new threadPool with corePool: %d maxThreads: %d maxTaskInQueue: %d identifier: %s daemon: %s exceptionHandler: %s", corePool, maxThreads, maxTaskInQueue, identifier, isDaemon, exceptionHandler));
     BlockingQueue<Runnable> queue;
     if (maxTaskInQueue == 0) {
@@ -152,12 +220,40 @@ public final class LtThreadPoolFactory {
     return newThreadPoolExecutor;
   }
 
+  // Thread.ofVirtual() is only available since Java 21, but we compile for Java 8, so use reflection:
+  private static ThreadFactory createVirtualThreadFactory(String namePrefix, Thread.UncaughtExceptionHandler exceptionHandler) {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+      builder = builderClass.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(builder, exceptionHandler);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new IllegalStateException("Virtual threads require Java 21 or later, running on Java " + System.getProperty("java.version"), e);
+    }
+  }
+
   /**
    * @param identifier Name of an already created tread-pool
    * @return An optional of ThreadPoolExecutor (Null or Object)
    */
   public static Optional<ThreadPoolExecutor> getFixedThreadPoolExecutor(@NotNull String identifier) {
-    ThreadPoolExecutor value = executorServices.get(identifier);
+    ExecutorService value = executorServices.get(identifier);
+    if (value instanceof ThreadPoolExecutor) {
+      return Optional.of((ThreadPoolExecutor) value);
+    } else {
+      log.debug(LoggingTools.SYSTEM, "Request: " + identifier + " not found or not a ThreadPoolExecutor, returning default pool");
+      return Optional.of(defaultPool);
+    }
+  }
+
+  /**
+   * Like {@link #getFixedThreadPoolExecutor(String)}, but also returns pools created with {@link ThreadMode#VIRTUAL}.
+   * @param identifier Name of an already created pool
+   * @since 6.3
+   */
+  public static Optional<ExecutorService> getExecutorService(@NotNull String identifier) {
+    ExecutorService value = executorServices.get(identifier);
     if (value == null) {
       log.debug(LoggingTools.SYSTEM, "Request: " + identifier + " not found, returning default pool");
       return Optional.of(defaultPool);
@@ -0,0 +1,185 @@
+/*
+ * LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts a new (virtual) thread for every task instead of reusing pooled threads. A {@link Semaphore}
+ * limits the number of tasks running at the same time, tasks that don't get a permit wait in a queue,
+ * like in a {@link ThreadPoolExecutor} with a fixed number of threads.
+ * @since 6.3
+ */
+class VirtualThreadPerTaskExecutor extends AbstractExecutorService {
+
+  @Getter
+  private final String name;
+  private final ThreadFactory threadFactory;
+  private final Semaphore permits;
+  // null: tasks are never queued, they are rejected if no permit is free (like a SynchronousQueue)
+  @Nullable
+  private final BlockingQueue<Runnable> queue;
+  private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger activeTasks = new AtomicInteger();
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  private volatile boolean shutdown;
+  private volatile boolean stopped;
+
+  /**
+   * @param maxRunningTasks maximum number of tasks running in parallel
+   * @param maxTaskInQueue  maximum number of waiting tasks, {@code 0} for no limit, negative to not queue any tasks
+   */
+  VirtualThreadPerTaskExecutor(String name, ThreadFactory threadFactory, int maxRunningTasks, int maxTaskInQueue) {
+    if (maxRunningTasks < 1) {
+      throw new IllegalArgumentException("maxRunningTasks must be >= 1: " + maxRunningTasks);
+    }
+    this.name = name;
+    this.threadFactory = threadFactory;
+    this.permits = new Semaphore(maxRunningTasks);
+    if (maxTaskInQueue == 0) {
+      queue = new LinkedBlockingQueue<>();
+    } else if (maxTaskInQueue < 0) {
+      queue = null;
+    } else {
+      queue = new LinkedBlockingQueue<>(maxTaskInQueue);
+    }
+  }
+
+  /**
+   * @return the tasks waiting for a permit
+   */
+  BlockingQueue<Runnable> getQueue() {
+    return queue != null ? queue : new SynchronousQueue<>();
+  }
+
+  /**
+   * @return the number of tasks that are currently running
+   */
+  int getActiveCount() {
+    return activeTasks.get();
+  }
+
+  @Override
+  public void execute(@NotNull Runnable command) {
+    if (shutdown) {
+      throw LtThreadPoolFactory.rejected(name);
+    }
+    if (queue == null) {
+      if (permits.tryAcquire()) {
+        start(command);
+      } else {
+        throw LtThreadPoolFactory.rejected(name);
+      }
+      return;
+    }
+    if (!queue.offer(command)) {
+      throw LtThreadPoolFactory.rejected(name);
+    }
+    startQueuedTasks();
+  }
+
+  // called after a task has been queued and after a permit has been released, so no task is left waiting
+  private void startQueuedTasks() {
+    while (queue != null && !queue.isEmpty() && permits.tryAcquire()) {
+      Runnable next = queue.poll();
+      if (next == null) {
+        permits.release();
+      } else {
+        start(next);
+      }
+    }
+  }
+
+  private void start(Runnable command) {
+    activeTasks.incrementAndGet();
+    Thread thread = threadFactory.newThread(() -> {
+      Thread current = Thread.currentThread();
+      runningThreads.add(current);
+      if (stopped) {
+        current.interrupt();
+      }
+      try {
+        command.run();
+      } catch (OutOfMemoryError e) {
+        // same as LtThreadPoolExecutor: we prefer to stop instead of being in an unstable state
+        //noinspection CallToPrintStackTrace
+        e.printStackTrace();
+        System.exit(1);
+      } finally {
+        runningThreads.remove(current);
+        activeTasks.decrementAndGet();
+        permits.release();
+        startQueuedTasks();
+        tryTerminate();
+      }
+    });
+    thread.start();
+  }
+
+  private void tryTerminate() {
+    if (shutdown && activeTasks.get() == 0 && (queue == null || queue.isEmpty())) {
+      terminated.countDown();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    tryTerminate();
+  }
+
+  @NotNull
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    stopped = true;
+    List<Runnable> notStarted = new ArrayList<>();
+    if (queue != null) {
+      queue.drainTo(notStarted);
+    }
+    runningThreads.forEach(Thread::interrupt);
+    tryTerminate();
+    return notStarted;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+}
@@ -0,0 +1,64 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.CategoryId;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ConfigFingerprintTest {
+
+  private final Language lang = Languages.getLanguageForShortCode("xx-XX");
+
+  @Test
+  public void testFingerprint() {
+    UserConfig userConfig = new UserConfig(Arrays.asList("foo1", "foo2"));
+    ConfigFingerprint fp1 = ConfigFingerprint.of(lang, null, new LinkedHashSet<>(Arrays.asList("ID1", "ID2")),
+      Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), userConfig, null);
+    ConfigFingerprint fp2 = ConfigFingerprint.of(lang, null, new LinkedHashSet<>(Arrays.asList("ID2", "ID1")),
+      Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), new UserConfig(Arrays.asList("foo1", "foo2")), null);
+    assertEquals(fp1, fp2);
+    assertEquals(fp1.hashCode(), fp2.hashCode());
+    // the same id as a rule id or a category id:
+    ConfigFingerprint fp3 = ConfigFingerprint.of(lang, null, new HashSet<>(Arrays.asList("ID1")),
+      new HashSet<>(Arrays.asList(new CategoryId("ID2"))), Collections.emptySet(), Collections.emptySet(), userConfig, null);
+    assertNotEquals(fp1, fp3);
+    ConfigFingerprint fp4 = ConfigFingerprint.of(lang, null, new LinkedHashSet<>(Arrays.asList("ID1", "ID2")),
+      Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), new UserConfig(Arrays.asList("foo1")), null);
+    assertNotEquals(fp1, fp4);
+  }
+
+  @Test
+  public void testCheckSettings() {
+    ConfigFingerprint fp = ConfigFingerprint.of(lang, null, Collections.emptySet(),
+      Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), new UserConfig(), null);
+    JLanguageTool.Mode mode = JLanguageTool.Mode.ALL;
+    JLanguageTool.Level level = JLanguageTool.Level.DEFAULT;
+    assertEquals(fp.withCheckSettings(mode, level, null, null), fp.withCheckSettings(mode, level, null, Collections.emptySet()));
+    assertNotEquals(fp, fp.withCheckSettings(mode, level, null, null));
+    assertNotEquals(fp.withCheckSettings(mode, level, null, null), fp.withCheckSettings(mode, JLanguageTool.Level.PICKY, null, null));
+    assertNotEquals(fp.withCheckSettings(mode, level, null, null), fp.withCheckSettings(mode, level, 1L, null));
+    assertNotEquals(fp.withCheckSettings(mode, level, null, null),
+      fp.withCheckSettings(mode, level, null, EnumSet.of(ToneTag.formal)));
+  }
+
+}
@@ -19,6 +19,7 @@
 package org.languagetool;
 
 import org.junit.Test;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.PatternRule;
@@ -30,6 +31,7 @@ import java.util.*;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public class JLanguageToolTest {
 
@@ -52,4 +54,23 @@ public class JLanguageToolTest {
     assertThat(matches2.size(), is(1));
   }
 
+  @Test
+  public void testExpiredDeadline() throws IOException {
+    Language lang = Languages.getLanguageForShortCode("xx");
+    JLanguageTool lt = new JLanguageTool(lang);
+    lt.getAllActiveRules().forEach(rule -> lt.disableRule(rule.getId()));
+    lt.addRule(new PatternRule("MY_TEST", lang, Arrays.asList(PatternRuleBuilderHelper.token("my"), PatternRuleBuilderHelper.token("test")),
+      "test rule desc", "my test rule", "my test rule"));
+    CheckResults complete = lt.check2(new AnnotatedTextBuilder().addText("This is my test").build(), true,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, Collections.emptySet(), null, CheckDeadline.after(60_000));
+    assertThat(complete.getRuleMatches().size(), is(1));
+    assertTrue(complete.getSkippedRuleIds().isEmpty());
+
+    CheckResults incomplete = lt.check2(new AnnotatedTextBuilder().addText("This is my test").build(), true,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, Collections.emptySet(), null, CheckDeadline.after(0));
+    assertThat(incomplete.getRuleMatches().size(), is(0));
+    assertThat(incomplete.getSkippedRuleIds(), is(Collections.singleton("MY_TEST")));
+    assertThat(CheckDeadline.current(), is(CheckDeadline.NONE));
+  }
+
 }
@@ -20,6 +20,8 @@ package org.languagetool;
 
 import org.junit.Test;
 import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.MultipleWhitespaceRule;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
@@ -33,6 +35,7 @@ import java.util.concurrent.RejectedExecutionException;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @SuppressWarnings("ResultOfObjectAllocationIgnored")
@@ -82,6 +85,64 @@ public class MultiThreadedJLanguageToolTest {
     lt.shutdown();
   }
 
+  @Test
+  public void testExpensiveRuleIsSplit() throws IOException {
+    Demo lang = new Demo();
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(lang, 4);
+    lt1.setCleanOverlappingMatches(false);
+    String input = String.join(" ", Collections.nCopies(30, "A small toast. No error here. Foo go bar. First goes last there, please!"));
+    lt1.check(input);  // fill the cost history
+    Rule expensiveRule = lt1.getAllActiveRules().get(0);
+    MultiThreadedJLanguageTool.costHistory.add(lang, expensiveRule, 1, 1_000_000_000L);
+
+    Rule otherRule = lt1.getAllActiveRules().get(1);
+    List<Rule> rules = Arrays.asList(expensiveRule, otherRule);
+    BitSet sentences = new BitSet();
+    sentences.set(0, 120);
+    Map<Rule, BitSet> applicable = new HashMap<>();
+    applicable.put(rules.get(0), sentences);
+    applicable.put(rules.get(1), sentences);
+    List<MultiThreadedJLanguageTool.RuleTask> tasks = lt1.createTasks(rules, applicable);
+    assertEquals(5, tasks.size());
+    assertEquals(expensiveRule, tasks.get(0).rule);
+    assertEquals(30, tasks.get(0).sentences.cardinality());
+
+    List<String> matches1 = getRuleMatches(lt1, input);
+    lt1.shutdown();
+    JLanguageTool lt2 = new JLanguageTool(lang);
+    lt2.setCleanOverlappingMatches(false);
+    assertEquals(getRuleMatches(lt2, input), matches1);
+  }
+
+  @Test
+  public void testNoCostHistoryForExpiredDeadline() throws IOException {
+    Demo lang = new Demo();
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(lang, 2);
+    Rule rule = new MultipleWhitespaceRule(TestTools.getEnglishMessages(), lang) {
+      @Override
+      public String getId() {
+        return "TEST_COST_HISTORY_RULE";
+      }
+    };
+    lt.addRule(rule);
+    AnnotatedText text = new AnnotatedTextBuilder().addText("A small toast. No error here.").build();
+    lt.check2(text, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT,
+      Collections.emptySet(), null, CheckDeadline.after(0));
+    assertEquals(-1, MultiThreadedJLanguageTool.costHistory.getNanosPerSentence(lang, rule, -1), 0);
+    lt.check2(text, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT,
+      Collections.emptySet(), null, CheckDeadline.after(60_000));
+    assertTrue(MultiThreadedJLanguageTool.costHistory.getNanosPerSentence(lang, rule, -1) >= 0);
+    lt.shutdown();
+  }
+
+  private List<String> getRuleMatches(JLanguageTool lt, String input) throws IOException {
+    List<String> result = new ArrayList<>();
+    for (RuleMatch match : lt.check(input)) {
+      result.add(match.getRule().getId() + ":" + match.getFromPos() + "-" + match.getToPos());
+    }
+    return result;
+  }
+
   private List<String> getRuleMatchIds(JLanguageTool lt) throws IOException {
     String input = "A small toast. No error here. Foo go bar. First goes last there, please!";
     List<RuleMatch> matches = lt.check(input);
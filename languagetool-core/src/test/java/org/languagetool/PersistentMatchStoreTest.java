@@ -0,0 +1,144 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class PersistentMatchStoreTest {
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("lt-match-store-test", ".ltcache");
+    Files.delete(file.toPath());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+    Files.deleteIfExists(new File(file.getPath() + ".tmp").toPath());
+  }
+
+  @Test
+  public void testPutAndReopen() throws IOException {
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 100_000, "1.0")) {
+      store.put(key("foo"), "foo", new byte[] {1, 2, 3});
+      store.put(key("bar"), "bar", new byte[0]);
+      assertArrayEquals(new byte[] {1, 2, 3}, store.get(key("foo"), "foo"));
+      assertArrayEquals(new byte[0], store.get(key("bar"), "bar"));
+      assertNull(store.get(key("foo"), "other text"));
+      assertNull(store.get(key("blah"), "blah"));
+    }
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 100_000, "1.0")) {
+      assertEquals(2, store.size());
+      assertArrayEquals(new byte[] {1, 2, 3}, store.get(key("foo"), "foo"));
+      store.put(key("blah"), "blah", new byte[] {4});
+    }
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 100_000, "1.0")) {
+      assertEquals(3, store.size());
+      assertArrayEquals(new byte[] {4}, store.get(key("blah"), "blah"));
+    }
+    // another version discards the file:
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 100_000, "1.1")) {
+      assertEquals(0, store.size());
+      assertNull(store.get(key("foo"), "foo"));
+    }
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    byte[] data = new byte[1000];
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 20_000, "1.0")) {
+      for (int i = 0; i < 100; i++) {
+        store.put(key("s" + i), "s" + i, data);
+      }
+      assertTrue(store.size() < 20);
+      // the newest entries are kept:
+      assertNotNull(store.get(key("s99"), "s99"));
+      assertNull(store.get(key("s0"), "s0"));
+    }
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 20_000, "1.0")) {
+      assertNotNull(store.get(key("s99"), "s99"));
+    }
+  }
+
+  @Test
+  public void testFailedCompaction() throws IOException {
+    File tmpFile = new File(file.getPath() + ".tmp");
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 20_000, "1.0")) {
+      for (int i = 0; i < 10; i++) {
+        store.put(key("s" + i), "s" + i, new byte[] {(byte) i});
+      }
+      // a non-empty directory can't be replaced by the compacted file:
+      Files.delete(file.toPath());
+      assertTrue(new File(file, "blocker").mkdirs());
+      try {
+        for (int i = 10; i < 100; i++) {
+          store.put(key("s" + i), "s" + i, new byte[1000]);
+        }
+        fail();
+      } catch (IOException expected) {
+      }
+      assertFalse(tmpFile.exists());
+      // the index still refers to the old file:
+      for (int i = 0; i < 10; i++) {
+        assertArrayEquals(new byte[] {(byte) i}, store.get(key("s" + i), "s" + i));
+      }
+    } finally {
+      Files.deleteIfExists(new File(file, "blocker").toPath());
+    }
+  }
+
+  @Test
+  public void testCompactionUnmapsOldFile() throws IOException {
+    File maps = new File("/proc/self/maps");
+    assumeTrue("needs Linux to look at the mapped files", maps.canRead());
+    byte[] data = new byte[1000];
+    try (PersistentMatchStore store = new PersistentMatchStore(file, 20_000, "1.0")) {
+      for (int i = 0; i < 100; i++) {
+        store.put(key("s" + i), "s" + i, data);
+      }
+      // only the current file is mapped, not the ones replaced by the compactions:
+      assertEquals(1, countMappings(maps));
+    }
+    assertEquals(0, countMappings(maps));
+  }
+
+  private long countMappings(File maps) throws IOException {
+    return Files.readAllLines(maps.toPath()).stream().filter(line -> line.contains(file.getName())).count();
+  }
+
+  private static HashCode key(String text) {
+    return Hashing.murmur3_128().hashString(text, StandardCharsets.UTF_8);
+  }
+
+}
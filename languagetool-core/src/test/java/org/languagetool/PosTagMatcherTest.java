@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PosTagMatcherTest {
+
+  @Test
+  public void testResultIsComputedOncePerTag() {
+    AtomicInteger calls = new AtomicInteger();
+    PosTagMatcher matcher = new PosTagMatcher(tag -> {
+      calls.incrementAndGet();
+      return tag.startsWith("SUB:");
+    });
+    for (int i = 0; i < 3; i++) {
+      assertTrue(matcher.matches(new AnalyzedToken("Haus", "SUB:NOM:SIN:NEU", "Haus")));
+      assertFalse(matcher.matches(new AnalyzedToken("gehen", "VER:INF:NON", "gehen")));
+      assertFalse(matcher.matches(new AnalyzedToken("xyz", null, null)));
+    }
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void testManyTags() {
+    PosTagMatcher matcher = PosTagMatcher.forRegex("TAG[0-9]*7");
+    List<AnalyzedToken> tokens = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      tokens.add(new AnalyzedToken("word", "TAG" + i, null));
+    }
+    for (int round = 0; round < 2; round++) {
+      for (AnalyzedToken token : tokens) {
+        assertEquals(token.getPOSTag(), token.getPOSTag().endsWith("7"), matcher.matches(token));
+      }
+    }
+  }
+
+  @Test
+  public void testReadings() {
+    AnalyzedTokenReadings readings = new AnalyzedTokenReadings(new AnalyzedToken("word", "POS:FOO:BAR", "lemma"));
+    assertTrue(readings.hasPosTagStartingWith("POS:F"));
+    assertFalse(readings.hasPosTagStartingWith("FOO"));
+    assertTrue(readings.hasPosTagMatching(PosTagMatcher.forRegex("POS:.*")));
+    assertNotNull(readings.readingWithTagRegex("POS:FOO:.*"));
+    assertNull(readings.readingWithTagRegex("POS:BAR:.*"));
+  }
+
+}
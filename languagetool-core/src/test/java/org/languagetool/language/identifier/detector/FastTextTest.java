@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -35,7 +36,9 @@ import java.util.Map;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 public class FastTextTest {
 
@@ -147,4 +150,51 @@ public class FastTextTest {
     assertThat(res5.get("de"), is(0.9));
   }
 
+  @Test
+  public void testInvalidProcessCount() throws IOException {
+    try {
+      new FastTextDetector(MODEL_PATH, BINARY_PATH, 0);
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+
+  @Test
+  public void testRestartOnlyFailedProcess() throws Exception {
+    assumeTrue(new File("/bin/sh").canExecute());
+    // stands in for the fastText binary: answers every line, but quits on "exit"
+    File binary = File.createTempFile("fasttext", ".sh");
+    binary.deleteOnExit();
+    Files.write(binary.toPath(), Arrays.asList("#!/bin/sh",
+      "while read line; do",
+      "  if [ \"$line\" = \"exit\" ]; then exit 0; fi",
+      "  echo \"__label__en 0.9\"",
+      "done"));
+    assertTrue(binary.setExecutable(true));
+    FastTextDetector ft = new FastTextDetector(binary, binary, 2);
+    try {
+      assertThat(ft.restartProcess(), is(false));
+      try {
+        ft.runFasttext("exit", Collections.emptyList());
+        fail();
+      } catch (FastTextDetector.FastTextException expected) {}
+      // the next process in round-robin order still works, but the failed one must be restarted anyway:
+      assertThat(ft.restartProcess(), is(true));
+      assertThat(ft.restartProcess(), is(false));
+      for (int i = 0; i < ft.getProcessCount(); i++) {
+        assertThat(ft.runFasttext("This is a test", Collections.emptyList()).get("en"), is(0.9));
+      }
+    } finally {
+      ft.destroy();
+    }
+  }
+
+  @Test
+  public void testBatchRequiresLanguageCodesPerText() throws IOException {
+    FastTextDetector ft = new FastTextDetector();
+    try {
+      ft.runFasttext(Arrays.asList("foo", "bar"), Arrays.asList(Arrays.asList("en")));
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+
 }
@@ -0,0 +1,90 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.*;
+
+public class HashedNgramLanguageModelTest {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("lt-hashed-ngram-test").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    new File(dir, HashedNgramLanguageModel.FILE_NAME).delete();
+    dir.delete();
+  }
+
+  @Test
+  public void testLanguageModel() throws Exception {
+    assertFalse(HashedNgramLanguageModel.isHashedNgramDirectory(dir));
+    try (HashedNgramTableWriter writer = new HashedNgramTableWriter(dir, 5, 3, 3)) {
+      writer.add("the", 50);
+      writer.add("the nice", 3);
+      writer.add("the nice building", 1);
+      writer.add("frequent", 1_000_000_000L);
+      writer.add("the", 5);
+      writer.add("zero", 0);
+      assertThat(writer.size(), is(4L));
+    }
+    assertTrue(HashedNgramLanguageModel.isHashedNgramDirectory(dir));
+    try (HashedNgramLanguageModel model = new HashedNgramLanguageModel(dir)) {
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getCount("zero"), is(0L));
+      assertEquals(1_000_000_000L, model.getCount("frequent"), 1_000_000_000L / 4096);
+      assertThat(model.getTotalTokenCount(), is(3L));
+      try {
+        model.getCount(Arrays.asList("the", "nice", "building", "here"));
+        fail();
+      } catch (RuntimeException expected) {}
+    }
+  }
+
+  @Test
+  public void testCountQuantization() {
+    for (long count = 1; count < Long.MAX_VALUE / 3; count = count * 3 + 1) {
+      int code = HashedNgramLanguageModel.encodeCount(count);
+      assertTrue(code >= 1 && code <= 0xffff);
+      if (count < 1L << 42) {
+        long decoded = HashedNgramLanguageModel.decodeCount(code);
+        assertTrue(count + " -> " + decoded, Math.abs(decoded - count) <= count / 4096);
+      }
+    }
+    assertThat(HashedNgramLanguageModel.decodeCount(HashedNgramLanguageModel.encodeCount(4095)), is(4095L));
+  }
+
+}
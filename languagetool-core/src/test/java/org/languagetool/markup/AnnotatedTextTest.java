@@ -71,4 +71,32 @@ public class AnnotatedTextTest {
     assertThat(contextTools.getContext(14, 18, text.getTextWithMarkup()), is("hello <p>more #xxxx# text!"));
   }
 
+  @Test
+  public void testPositionsWithManyMarkupParts() {
+    AnnotatedTextBuilder builder = new AnnotatedTextBuilder();
+    for (int i = 0; i < 1000; i++) {
+      builder.addText("word" + i + " ");
+      if (i % 3 == 0) {
+        builder.addMarkup("<br/>", "\n");
+      } else {
+        builder.addMarkup("<i>");
+      }
+    }
+    AnnotatedText text = builder.build();
+    String plainText = text.getPlainText();
+    String textWithMarkup = text.getTextWithMarkup();
+    int fromPos = plainText.indexOf("word500");
+    int toPos = fromPos + "word500".length();
+    int origFromPos = text.getOriginalTextPositionFor(fromPos, false);
+    int origToPos = text.getOriginalTextPositionFor(toPos - 1, true) + 1;
+    assertThat(textWithMarkup.substring(origFromPos, origToPos), is("word500"));
+    assertThat(text.getOriginalTextPositionFor(0, false), is(0));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testPositionAfterEnd() {
+    AnnotatedText text = new AnnotatedTextBuilder().addText("hello ").addMarkup("<b>").addText("user!").build();
+    text.getOriginalTextPositionFor(text.getPlainText().length(), false);
+  }
+
 }
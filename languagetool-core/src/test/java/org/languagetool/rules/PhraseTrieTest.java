@@ -0,0 +1,62 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhraseTrieTest {
+
+  @Test
+  public void testTrie() {
+    PhraseTrie<String> trie = new PhraseTrie.Builder<String>()
+      .put("a propos", "1")
+      .put("a pro", "2")
+      .put("über alles", "3")
+      .build();
+    assertEquals("1", trie.get("a propos"));
+    assertEquals("2", trie.get("a pro"));
+    assertEquals("3", trie.get("über alles"));
+    assertNull(trie.get("a p"));
+    assertNull(trie.get("a proposal"));
+    assertNull(trie.get(""));
+
+    int node = trie.next(PhraseTrie.ROOT, "a");
+    node = trie.next(node, ' ');
+    node = trie.next(node, "propos");
+    assertEquals("1", trie.getValue(node));
+    assertEquals(PhraseTrie.NONE, trie.next(node, 'x'));
+    assertEquals(PhraseTrie.NONE, trie.next(PhraseTrie.NONE, 'a'));
+    assertNull(trie.getValue(PhraseTrie.NONE));
+  }
+
+  @Test
+  public void testHasPrefixOf() {
+    PhraseTrie<Boolean> trie = new PhraseTrie.Builder<Boolean>()
+      .put("foo bar", true)
+      .build();
+    assertTrue(trie.hasPrefixOf("foo bar"));
+    assertTrue(trie.hasPrefixOf("foo bar blah"));
+    assertFalse(trie.hasPrefixOf("foo ba"));
+    assertFalse(trie.hasPrefixOf("bar foo bar"));
+    assertFalse(trie.hasPrefixOf(""));
+  }
+
+}
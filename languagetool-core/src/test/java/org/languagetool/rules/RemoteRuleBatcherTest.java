@@ -0,0 +1,123 @@
+/*
+ *  LanguageTool, a natural language style checker
+ *  * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *  *
+ *  * This library is free software; you can redistribute it and/or
+ *  * modify it under the terms of the GNU Lesser General Public
+ *  * License as published by the Free Software Foundation; either
+ *  * version 2.1 of the License, or (at your option) any later version.
+ *  *
+ *  * This library is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  * Lesser General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU Lesser General Public
+ *  * License along with this library; if not, write to the Free Software
+ *  * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ *  * USA
+ *
+ */
+
+package org.languagetool.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class RemoteRuleBatcherTest {
+
+  private final Rule rule = new RemoteRuleTimeoutTest.TestRemoteRule();
+
+  @Test
+  public void testBatching() throws Exception {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    // the window is much longer than the test, so the batch is only sent once it has all four sentences:
+    RemoteRuleBatcher batcher = new RemoteRuleBatcher("TEST_BATCH", 60_000, 4);
+    List<Map<String, Long>> batches = Collections.synchronizedList(new ArrayList<>());
+    RemoteRuleBatcher.BatchCall call = (sentences, ids, timeout) -> {
+      Map<String, Long> batch = new HashMap<>();
+      for (int i = 0; i < sentences.size(); i++) {
+        batch.put(sentences.get(i).getText().trim(), ids.get(i));
+      }
+      batches.add(batch);
+      List<RuleMatch> matches = sentences.stream()
+        .map(s -> new RuleMatch(rule, s, 0, 1, "Match for " + s.getText().trim()))
+        .collect(Collectors.toList());
+      return new RemoteRuleResult(true, true, matches, sentences);
+    };
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<RemoteRuleResult>> results = new ArrayList<>();
+      List<AnalyzedSentence> sentences = new ArrayList<>();
+      Map<String, Long> expectedBatch = new HashMap<>();
+      for (int i = 0; i < 4; i++) {
+        AnalyzedSentence sentence = lt.getAnalyzedSentence("Sentence " + i);
+        long textSessionId = 100 + i;
+        sentences.add(sentence);
+        expectedBatch.put("Sentence " + i, textSessionId);
+        results.add(pool.submit(() -> batcher.execute(Collections.singletonList(sentence), textSessionId, 10_000, call)));
+      }
+      for (int i = 0; i < 4; i++) {
+        RemoteRuleResult result = results.get(i).get();
+        assertThat(result.getMatches().size(), is(1));
+        assertThat(result.getMatches().get(0).getMessage(), is("Match for Sentence " + i));
+        assertThat(result.processedSentences(), is(Collections.singleton(sentences.get(i))));
+      }
+      assertThat(batches, is(Collections.singletonList(expectedBatch)));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    RemoteRuleBatcher batcher = new RemoteRuleBatcher("TEST_BATCH", 1, 4);
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("A sentence");
+    try {
+      batcher.execute(Collections.singletonList(sentence), null, 1000, (sentences, ids, timeout) -> {
+        throw new TimeoutException("test");
+      });
+      fail();
+    } catch (TimeoutException expected) {
+    }
+  }
+
+  @Test
+  public void testDeadline() throws Exception {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    RemoteRuleBatcher batcher = new RemoteRuleBatcher("TEST_BATCH", 200, 4);
+    RemoteRuleBatcher.BatchCall slowCall = (sentences, ids, timeout) -> {
+      // the request with the latest deadline determines the timeout of the batch:
+      assertTrue("Unexpected timeout " + timeout, timeout > 1000);
+      Thread.sleep(500);
+      return new RemoteRuleResult(true, true, Collections.emptyList(), sentences);
+    };
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      AnalyzedSentence sentence1 = lt.getAnalyzedSentence("First sentence");
+      AnalyzedSentence sentence2 = lt.getAnalyzedSentence("Second sentence");
+      Future<RemoteRuleResult> slow = pool.submit(() -> batcher.execute(Collections.singletonList(sentence1), null, 10_000, slowCall));
+      Thread.sleep(20);
+      Future<RemoteRuleResult> fast = pool.submit(() -> batcher.execute(Collections.singletonList(sentence2), null, 50, slowCall));
+      try {
+        fast.get();
+        fail("Request should have timed out");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof TimeoutException);
+      }
+      assertTrue(slow.get().isSuccess());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
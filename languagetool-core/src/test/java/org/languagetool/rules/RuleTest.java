@@ -0,0 +1,72 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+import org.languagetool.*;
+import org.languagetool.rules.patterns.PatternToken;
+import org.languagetool.rules.patterns.PatternTokenBuilder;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class RuleTest {
+
+  @Test
+  public void testApplyAntiPatterns() throws IOException {
+    Language language = new FakeLanguage();
+    List<DisambiguationPatternRule> antiPatterns = Rule.makeAntiPatterns(Arrays.asList(
+      tokens("foo", "bar"),
+      tokens("xyz")
+    ), language);
+    Rule rule = new FakeRule() {
+      @Override
+      public List<DisambiguationPatternRule> getAntiPatterns() {
+        return antiPatterns;
+      }
+    };
+    JLanguageTool lt = new JLanguageTool(language);
+
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("A foo bar here.");
+    AnalyzedSentence immunized = rule.applyAntiPatterns(sentence);
+    assertNotSame(sentence, immunized);
+    AnalyzedTokenReadings[] tokens = immunized.getTokensWithoutWhitespace();
+    assertEquals("foo", tokens[2].getToken());
+    assertFalse(tokens[1].isImmunized());
+    assertTrue(tokens[2].isImmunized());
+    assertTrue(tokens[3].isImmunized());
+    assertFalse(tokens[4].isImmunized());
+    for (AnalyzedTokenReadings token : sentence.getTokens()) {
+      assertFalse("The original sentence must not be modified: " + token, token.isImmunized());
+    }
+
+    AnalyzedSentence untouched = lt.getAnalyzedSentence("A bar foo here.");
+    assertSame(untouched, rule.applyAntiPatterns(untouched));
+  }
+
+  private static List<PatternToken> tokens(String... tokens) {
+    return Arrays.stream(tokens).map(t -> new PatternTokenBuilder().token(t).build()).collect(Collectors.toList());
+  }
+
+}
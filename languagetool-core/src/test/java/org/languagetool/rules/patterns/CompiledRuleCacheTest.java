@@ -0,0 +1,149 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.TestTools;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationRuleLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompiledRuleCacheTest {
+
+  private static final String RULE_FILE = "/xx/grammar.xml";
+  private static final String DISAMBIGUATION_FILE = "xx/disambiguation.xml";
+
+  private final Language lang = TestTools.getDemoLanguage();
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = Files.createTempDirectory("lt-rule-cache-test").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    CompiledRuleCache.setCacheDir(null);
+    File[] files = cacheDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    cacheDir.delete();
+  }
+
+  @Test
+  public void testPatternRules() throws Exception {
+    List<AbstractPatternRule> xmlRules = loadPatternRules();
+    CompiledRuleCache.setCacheDir(cacheDir);
+    List<AbstractPatternRule> rules1 = loadPatternRules();
+    File cacheFile = new File(cacheDir, CompiledRuleCache.getCacheFileName(RULE_FILE, lang));
+    assertTrue(cacheFile.exists());
+    List<AbstractPatternRule> cachedRules = loadPatternRules();
+    assertEquals(describe(xmlRules), describe(rules1));
+    assertEquals(describe(xmlRules), describe(cachedRules));
+    assertNotSame(rules1.get(0), cachedRules.get(0));
+
+    JLanguageTool lt = new JLanguageTool(lang);
+    for (String text : new String[] {"This is foo bar.", "This is a test sentence.", "A car is here.", "He goes there."}) {
+      AnalyzedSentence sentence = lt.getAnalyzedSentence(text);
+      assertEquals(text, getMatches(xmlRules, sentence), getMatches(cachedRules, sentence));
+    }
+  }
+
+  @Test
+  public void testDisambiguationRules() throws Exception {
+    List<DisambiguationPatternRule> xmlRules = loadDisambiguationRules();
+    CompiledRuleCache.setCacheDir(cacheDir);
+    loadDisambiguationRules();
+    assertTrue(new File(cacheDir, CompiledRuleCache.getCacheFileName(DISAMBIGUATION_FILE, lang)).exists());
+    List<DisambiguationPatternRule> cachedRules = loadDisambiguationRules();
+    assertEquals(describe(xmlRules), describe(cachedRules));
+  }
+
+  @Test
+  public void testCorruptCacheFile() throws Exception {
+    List<AbstractPatternRule> xmlRules = loadPatternRules();
+    CompiledRuleCache.setCacheDir(cacheDir);
+    loadPatternRules();
+    File cacheFile = new File(cacheDir, CompiledRuleCache.getCacheFileName(RULE_FILE, lang));
+    try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+      long pos = file.length() / 2;
+      file.seek(pos);
+      int b = file.read();
+      file.seek(pos);
+      file.write(b ^ 0xFF);
+    }
+    // falls back to the XML and writes a new cache file:
+    assertEquals(describe(xmlRules), describe(loadPatternRules()));
+    assertEquals(describe(xmlRules), describe(loadPatternRules()));
+  }
+
+  private List<AbstractPatternRule> loadPatternRules() throws IOException {
+    try (InputStream is = JLanguageTool.getDataBroker().getFromRulesDirAsStream(RULE_FILE)) {
+      return new PatternRuleLoader().getRules(is, RULE_FILE, lang);
+    }
+  }
+
+  private List<DisambiguationPatternRule> loadDisambiguationRules() throws Exception {
+    try (InputStream is = JLanguageTool.getDataBroker().getFromResourceDirAsStream(DISAMBIGUATION_FILE)) {
+      return new DisambiguationRuleLoader().getRules(is, lang, DISAMBIGUATION_FILE);
+    }
+  }
+
+  private static List<String> describe(List<? extends AbstractPatternRule> rules) {
+    List<String> result = new ArrayList<>();
+    for (AbstractPatternRule rule : rules) {
+      result.add(rule.getFullId() + " " + rule + " " + rule.getMessage() + " " + rule.getSuggestionsOutMsg() +
+        " " + rule.getCategory().getId() + "/" + rule.getCategory().getName() + " " + rule.getUrl() +
+        " " + rule.getLocQualityIssueType() + " " + rule.getTags() + " " + rule.isDefaultOff() +
+        " " + rule.getCorrectExamples() + " " + rule.getIncorrectExamples() + " " + rule.getAntiPatterns() +
+        " " + (rule.getFilter() != null ? rule.getFilter().getClass().getName() : null) + " " + rule.getFilterArguments());
+    }
+    return result;
+  }
+
+  private static List<String> getMatches(List<AbstractPatternRule> rules, AnalyzedSentence sentence) throws IOException {
+    List<String> result = new ArrayList<>();
+    for (AbstractPatternRule rule : rules) {
+      for (RuleMatch match : rule.match(sentence)) {
+        result.add(rule.getFullId() + ":" + match.getFromPos() + "-" + match.getToPos() + " " +
+          match.getMessage() + " " + match.getSuggestedReplacements());
+      }
+    }
+    return result;
+  }
+
+}
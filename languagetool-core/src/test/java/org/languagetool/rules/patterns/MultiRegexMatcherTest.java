@@ -0,0 +1,59 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MultiRegexMatcherTest {
+
+  @Test
+  public void testFirstMatchInOrder() {
+    MultiRegexMatcher<String> matcher = new MultiRegexMatcher<>(true);
+    matcher.add("wieder(steh|sprech)en", "wider");
+    matcher.add("\\bfoo.*", "unsupported by the automaton");
+    matcher.add("[Ww]i", "wie");
+    matcher.add(".*en", "verb");
+    matcher.add("x(?=y).*", "unsupported, after the automaton's regexes");
+    assertEquals("wider", matcher.getFirstMatch("wiedersprechen"));
+    assertEquals("verb", matcher.getFirstMatch("gehen"));
+    assertEquals("wie", matcher.getFirstMatch("Wi"));
+    assertEquals("unsupported by the automaton", matcher.getFirstMatch("fooen"));
+    assertEquals("unsupported, after the automaton's regexes", matcher.getFirstMatch("xyz"));
+    assertEquals("verb", matcher.getFirstMatch("a😀en"));
+    assertNull(matcher.getFirstMatch("wI"));
+    assertNull(matcher.getFirstMatch(""));
+
+    matcher.add("wI", "added later");
+    assertEquals("added later", matcher.getFirstMatch("wI"));
+    assertEquals(6, matcher.size());
+  }
+
+  @Test
+  public void testCaseInsensitive() {
+    MultiRegexMatcher<Integer> matcher = new MultiRegexMatcher<>(false);
+    matcher.add(".*(or|our)", 1);
+    matcher.add("strasse", 2);
+    assertEquals(Integer.valueOf(1), matcher.getFirstMatch("COLOUR"));
+    assertEquals(Integer.valueOf(2), matcher.getFirstMatch("STRASSE"));
+    assertNull(matcher.getFirstMatch("colours"));
+  }
+
+}
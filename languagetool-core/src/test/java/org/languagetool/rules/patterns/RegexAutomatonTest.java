@@ -0,0 +1,75 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class RegexAutomatonTest {
+
+  private static final String ALPHABET = "abcdikstKSIİıßẞüÜäöABZ09 .-_:\nµΜÿŸÅåſΩ\t";
+
+  @Test
+  public void testConsistentWithPattern() {
+    String[] regexes = {
+      "a.*b", "[a-z]+", "[^a-z]+ung", "(un)?ge.*t", "\\d{1,3}(\\.\\d{3})*", "[A-ZÄÖÜ][a-zäöüß]+", "(?:der|die|das)",
+      "x{2,}", "a|b|", ".*(ion|ung)s?", "[\\w-]+", "\\W+", "[^\\s]+", "ab?c*d+", "(a|ab)(c|bcd)(d*)", "(ab){1,3}?",
+      "stra(ss|ß)e", "[ß-ü]+", "[k]", "k", "ks", "ii", "[i-k]+", "İ", "ı.+", "[\\.\\-]", "\\u00e4+", "\\x41b", "(a*)*",
+      "(|a)+b", "^a$", "^(foo|bar)+$", "[-a]", "[a-]", "N.*|V.*:PRP", "(?:V|N)[A-Z]*:[A-Z]+", "µ", "[µ]", "ÿ", "[ÿ]",
+      "Å", "[Å]", "ſ", "[ſ]", "ẞ", "ß", "[ß]", "Ω+"
+    };
+    Random random = new Random(42);
+    for (String regex : regexes) {
+      for (boolean caseSensitive : new boolean[]{true, false}) {
+        Pattern pattern = Pattern.compile(regex, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        RegexAutomaton automaton = RegexAutomaton.create(regex, pattern, caseSensitive);
+        assertNotNull("Expected " + regex + " to be supported", automaton);
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+          StringBuilder sb = new StringBuilder();
+          int length = random.nextInt(8);
+          for (int j = 0; j < length; j++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+          }
+          inputs.add(sb.toString());
+        }
+        for (char c = 0; c < 0x3000; c++) {
+          inputs.add(String.valueOf(c));
+        }
+        inputs.addAll(Arrays.asList("strasse", "STRAßE", "123.456", "Häuser", "abcbcdd", "Bildungs", "foobar", "a\n", "a😀b"));
+        for (String input : inputs) {
+          assertEquals("'" + regex + "' (case-sensitive: " + caseSensitive + ") on '" + input + "'",
+            pattern.matcher(input).matches(), automaton.matches(input));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testUnsupported() {
+    for (String regex : new String[]{"\\bfoo", "a(?=b)", "(?i)a", "\\p{Lu}", "(a)\\1", "a*+", "[a&&b]", "[[a]]", "\\Qa\\E", "a^b", "a$b", "\\h"}) {
+      assertNull(regex, RegexAutomaton.create(regex, Pattern.compile(regex), true));
+    }
+  }
+
+}
@@ -21,6 +21,11 @@ package org.languagetool.rules.spelling.morfologik;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -59,4 +64,22 @@ public class MorfologikSpellerTest {
 
     assertThat(spellerDist2.getSuggestions("wordoxix").toString(), is("[]"));
   }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    MorfologikSpeller speller = new MorfologikSpeller("/xx/spelling/test.dict", 2);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        results.add(executor.submit(() ->
+          speller.isMisspelled("wordonix") + " " + speller.getSuggestions("wordonix")));
+      }
+      for (Future<String> result : results) {
+        assertThat(result.get(), is("true [wordone/77]"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
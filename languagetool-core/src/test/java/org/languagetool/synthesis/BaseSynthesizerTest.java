@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.synthesis;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.language.Demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class BaseSynthesizerTest {
+
+  private static final String TEST_DATA =
+    "inflectedform11\tlemma1\tPOS1\n" +
+    "inflectedform121\tlemma1\tPOS2\n" +
+    "inflectedform122\tlemma1\tPOS2\n" +
+    "inflectedform2\tlemma2\tPOS1\n";
+
+  @Test
+  public void testSynthesisCache() throws IOException {
+    ManualSynthesizer manualSynthesizer = new ManualSynthesizer(new ByteArrayInputStream(TEST_DATA.getBytes(StandardCharsets.UTF_8)));
+    BaseSynthesizer synthesizer = new ManualSynthesizerAdapter(manualSynthesizer, new Demo());
+    AnalyzedToken token = new AnalyzedToken("inflectedform11", "POS1", "lemma1");
+    String expected = "[inflectedform121, inflectedform122]";
+    assertEquals(expected, Arrays.toString(synthesizer.synthesize(token, "POS[2-9]", true)));
+    assertEquals(0, synthesizer.getSynthesisCacheStats().hitCount());
+    assertEquals(1, synthesizer.getSynthesisCacheStats().missCount());
+    assertEquals(expected, Arrays.toString(synthesizer.synthesize(token, "POS[2-9]", true)));
+    assertEquals(1, synthesizer.getSynthesisCacheStats().hitCount());
+    assertEquals("[inflectedform11]", Arrays.toString(synthesizer.synthesize(token, "POS1", true)));
+    assertEquals(2, synthesizer.getSynthesisCacheStats().missCount());
+  }
+
+}
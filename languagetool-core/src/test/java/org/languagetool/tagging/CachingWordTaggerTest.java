@@ -0,0 +1,54 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.junit.Test;
+import org.languagetool.tools.CacheStatsRegistry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingWordTaggerTest {
+
+  @Test
+  public void testCacheIsShared() {
+    AtomicInteger calls = new AtomicInteger();
+    WordTagger tagger = word -> {
+      calls.incrementAndGet();
+      return Collections.singletonList(new TaggedWord(word.toLowerCase(), "TAG"));
+    };
+    String key = CachingWordTaggerTest.class.getName() + ":" + System.nanoTime();
+    CachingWordTagger tagger1 = new CachingWordTagger(tagger, key);
+    CachingWordTagger tagger2 = new CachingWordTagger(tagger, key);
+    assertEquals("foo", tagger1.tag("Foo").get(0).getLemma());
+    assertEquals("foo", tagger2.tag("Foo").get(0).getLemma());
+    assertEquals(1, calls.get());
+    assertEquals(1, CachingWordTagger.getStats().get(key).hitCount());
+    assertEquals(1, CacheStatsRegistry.getStats().get("wordTagger:" + key).hitCount());
+
+    List<TaggedWord> result = tagger1.tag("Foo");
+    result.add(new TaggedWord("bar", "TAG"));
+    assertEquals("callers may modify the result without affecting the cache", 1, tagger2.tag("Foo").size());
+    assertSame(tagger, tagger1.getWordTagger());
+  }
+
+}
@@ -24,6 +24,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -64,6 +65,41 @@ public class LtThreadPoolFactoryTest {
     assertEquals(LtThreadPoolFactory.defaultPool, LtThreadPoolFactory.getFixedThreadPoolExecutor("Test-Pool-notCached").get());
   }
 
+  @Test
+  public void virtualThreadModeTest() throws Exception {
+    if (!LtThreadPoolFactory.isVirtualThreadSupported()) {
+      try {
+        LtThreadPoolFactory.createExecutorService("Test-Pool-virtual", 2, 2, 0, 60, false, (thread, throwable) -> {}, false,
+          LtThreadPoolFactory.ThreadMode.VIRTUAL);
+        fail();
+      } catch (IllegalStateException expected) {}
+      return;
+    }
+    ExecutorService virtualPool = LtThreadPoolFactory.createExecutorService("Test-Pool-virtual",
+      2, 2, 0, 60, false, (thread, throwable) -> {}, false, LtThreadPoolFactory.ThreadMode.VIRTUAL);
+    ExecutorService platformPool = LtThreadPoolFactory.createExecutorService("Test-Pool-platform",
+      2, 2, 0, 60, false, (thread, throwable) -> {}, false, LtThreadPoolFactory.ThreadMode.PLATFORM);
+    assertTrue(virtualPool.submit(LtThreadPoolFactoryTest::isVirtual).get());
+    assertFalse(platformPool.submit(LtThreadPoolFactoryTest::isVirtual).get());
+    virtualPool.shutdown();
+    platformPool.shutdown();
+  }
+
+  @Test
+  public void threadModeOfReusedPoolTest() {
+    LtThreadPoolFactory.createExecutorService("Test-Pool-mode", 2, 2, 0, 60, false, (thread, throwable) -> {}, true,
+      LtThreadPoolFactory.ThreadMode.PLATFORM);
+    try {
+      LtThreadPoolFactory.createExecutorService("Test-Pool-mode", 2, 2, 0, 60, false, (thread, throwable) -> {}, true,
+        LtThreadPoolFactory.ThreadMode.VIRTUAL);
+      fail();
+    } catch (IllegalStateException expected) {}
+  }
+
+  private static boolean isVirtual() throws Exception {
+    return (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+  }
+
   @Test
   @Ignore //Could fail if CI is to slow and will slow down the CI build; test local
   public void stressedQueueTest() {
@@ -18,14 +18,22 @@
  */
 package org.languagetool.tools;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.junit.Test;
 import org.languagetool.*;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -85,6 +93,36 @@ public class RuleMatchesAsJsonSerializerTest {
     assertContains("\"tags\":[\"picky\"]", json);
   }
 
+  @Test
+  public void testStreamingJsonEqualsStringJson() throws IOException {
+    DetectedLanguage lang = new DetectedLanguage(Languages.getLanguageForShortCode("xx-XX"), Languages.getLanguageForShortCode("xx-XX")) ;
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text.").build();
+    List<CheckResults> res = Collections.singletonList(new CheckResults(matches2, Collections.emptyList()));
+    String json = serializer.ruleMatchesToJson2(res, matches, text, 5, lang, "timeout", true, JLanguageTool.Mode.ALL);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.ruleMatchesToJson2(out, res, matches, text, 5, lang, "timeout", true, JLanguageTool.Mode.ALL);
+    assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testBatchJson() throws IOException {
+    DetectedLanguage lang = new DetectedLanguage(Languages.getLanguageForShortCode("xx-XX"), Languages.getLanguageForShortCode("xx-XX")) ;
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text.").build();
+    List<CheckResults> res = Collections.singletonList(new CheckResults(matches2, Collections.emptyList()));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonGenerator g = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      serializer.writeBatchStart(g, false);
+      serializer.writeBatchItem(g, 1, res, text, 5, lang);
+      serializer.writeBatchItemError(g, 0, "timeout");
+      serializer.writeBatchEnd(g);
+    }
+    String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertContains("\"software\":{", json);
+    assertContains("\"results\":[{\"index\":1,\"language\":{", json);
+    assertContains("\"matches\":[{\"message\":\"My Message, use \\\"foo\\\" instead\"", json);
+    assertContains("{\"index\":0,\"error\":\"timeout\"}]}", json);
+  }
+
   private void assertContains(String expectedSubstring, String json) {
     assertTrue("Did not find expected string '" + expectedSubstring + "' in JSON:\n" + json, json.contains(expectedSubstring));
   }
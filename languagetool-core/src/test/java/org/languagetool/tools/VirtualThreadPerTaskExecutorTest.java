@@ -0,0 +1,103 @@
+/*
+ * LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadPerTaskExecutorTest {
+
+  // the scheduling doesn't depend on the kind of threads, so platform threads work on every JVM:
+  private final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+  @Test
+  public void testLimitsRunningTasks() throws Exception {
+    VirtualThreadPerTaskExecutor executor = new VirtualThreadPerTaskExecutor("Test-virtual-limit", threadFactory, 2, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(2);
+    Callable<Boolean> blocking = () -> {
+      started.countDown();
+      return release.await(10, TimeUnit.SECONDS);
+    };
+    Future<Boolean> first = executor.submit(blocking);
+    Future<Boolean> second = executor.submit(blocking);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    Future<Boolean> queued = executor.submit(() -> true);
+    assertEquals(2, executor.getActiveCount());
+    assertEquals(1, executor.getQueue().size());
+    try {
+      executor.submit(() -> true);
+      fail();
+    } catch (RejectedExecutionException expected) {}
+    release.countDown();
+    assertTrue(first.get());
+    assertTrue(second.get());
+    assertTrue(queued.get(10, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testNoQueue() throws Exception {
+    VirtualThreadPerTaskExecutor executor = new VirtualThreadPerTaskExecutor("Test-virtual-no-queue", threadFactory, 1, -1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<Boolean> running = executor.submit(() -> release.await(10, TimeUnit.SECONDS));
+    try {
+      executor.submit(() -> true);
+      fail();
+    } catch (RejectedExecutionException expected) {}
+    release.countDown();
+    assertTrue(running.get());
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testShutdownNow() throws Exception {
+    VirtualThreadPerTaskExecutor executor = new VirtualThreadPerTaskExecutor("Test-virtual-shutdown", threadFactory, 1, 0);
+    CountDownLatch started = new CountDownLatch(1);
+    Future<?> running = executor.submit(() -> {
+      started.countDown();
+      Thread.sleep(10_000);
+      return null;
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    executor.submit(() -> true);
+    List<Runnable> notStarted = executor.shutdownNow();
+    assertEquals(1, notStarted.size());
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(executor.isTerminated());
+    try {
+      running.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof InterruptedException);
+    }
+    try {
+      executor.submit(() -> true);
+      fail();
+    } catch (RejectedExecutionException expected) {}
+  }
+
+}
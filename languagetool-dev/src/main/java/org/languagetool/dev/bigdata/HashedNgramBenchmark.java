@@ -0,0 +1,110 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.languagetool.languagemodel.BaseLanguageModel;
+import org.languagetool.languagemodel.HashedNgramLanguageModel;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.tokenizers.WordTokenizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the lookup latency and memory usage of {@link LuceneLanguageModel} and
+ * {@link HashedNgramLanguageModel} by looking up the ngrams of a text. Run it once per
+ * implementation, so the resident set size (RSS, Linux only) of one doesn't affect the other.
+ * The checksum of the counts should be (almost, as {@link HashedNgramLanguageModel} quantizes
+ * large counts) the same for both.
+ * @since 6.3
+ */
+final class HashedNgramBenchmark {
+
+  private static final int ROUNDS = 3;
+
+  private HashedNgramBenchmark() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3 || args.length > 4 || !Arrays.asList("lucene", "hashed").contains(args[0])) {
+      System.out.println("Usage: " + HashedNgramBenchmark.class.getSimpleName() + " <lucene|hashed> <topIndexDir> <textFile> [ngramSize]");
+      System.out.println("  <topIndexDir> is the directory of a language, e.g. 'en', with the ngram data");
+      System.out.println("  [ngramSize] is the size of the ngrams to look up, 3 by default");
+      System.exit(1);
+    }
+    File topIndexDir = new File(args[1]);
+    int ngramSize = args.length == 4 ? Integer.parseInt(args[3]) : 3;
+    List<List<String>> ngrams = getNgrams(new String(Files.readAllBytes(Paths.get(args[2])), StandardCharsets.UTF_8), ngramSize);
+    System.out.println(ngrams.size() + " " + ngramSize + "grams, RSS before loading: " + getRss());
+    long startTime = System.nanoTime();
+    try (BaseLanguageModel lm = args[0].equals("lucene") ? new LuceneLanguageModel(topIndexDir) : new HashedNgramLanguageModel(topIndexDir)) {
+      System.out.println("Loaded " + lm + " in " + (System.nanoTime() - startTime) / 1_000_000 + "ms, RSS: " + getRss());
+      for (int round = 1; round <= ROUNDS; round++) {
+        long[] nanos = new long[ngrams.size()];
+        long checksum = 0;
+        for (int i = 0; i < ngrams.size(); i++) {
+          long lookupStart = System.nanoTime();
+          checksum += lm.getCount(ngrams.get(i));
+          nanos[i] = System.nanoTime() - lookupStart;
+        }
+        Arrays.sort(nanos);
+        long totalNanos = Arrays.stream(nanos).sum();
+        System.out.printf("Round %d: avg %.1fµs, median %.1fµs, p99 %.1fµs per lookup, checksum %d, RSS: %s%n", round,
+          totalNanos / 1000.0 / nanos.length, nanos[nanos.length / 2] / 1000.0, nanos[(int) (nanos.length * 0.99)] / 1000.0,
+          checksum, getRss());
+      }
+    }
+  }
+
+  private static List<List<String>> getNgrams(String text, int ngramSize) {
+    List<String> words = new ArrayList<>();
+    for (String token : new WordTokenizer().tokenize(text)) {
+      if (!token.trim().isEmpty()) {
+        words.add(token);
+      }
+    }
+    List<List<String>> result = new ArrayList<>();
+    for (int i = 0; i + ngramSize <= words.size(); i++) {
+      result.add(words.subList(i, i + ngramSize));
+    }
+    if (result.isEmpty()) {
+      throw new IllegalArgumentException("Text has fewer than " + ngramSize + " words");
+    }
+    return result;
+  }
+
+  private static String getRss() throws IOException {
+    File status = new File("/proc/self/status");
+    if (status.exists()) {
+      for (String line : Files.readAllLines(status.toPath())) {
+        if (line.startsWith("VmRSS:")) {
+          return line.substring("VmRSS:".length()).trim();
+        }
+      }
+    }
+    return "n/a";
+  }
+
+}
@@ -0,0 +1,130 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.HashedNgramLanguageModel;
+import org.languagetool.languagemodel.HashedNgramTableWriter;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Converts the ngram Lucene indexes used by {@link LuceneLanguageModel} to the
+ * hash table used by {@link HashedNgramLanguageModel}.
+ * @since 6.3
+ */
+final class LuceneToHashedNgrams {
+
+  private static final int MAX_DOCS_PER_NGRAM = 2000;
+
+  private LuceneToHashedNgrams() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      System.out.println("Usage: " + LuceneToHashedNgrams.class.getSimpleName() + " <topIndexDir> [outputDir]");
+      System.out.println("  <topIndexDir> is a directory with sub directories '1grams' etc., or 'index-1' etc. that contain those");
+      System.out.println("  [outputDir] is where " + HashedNgramLanguageModel.FILE_NAME + " gets written, <topIndexDir> by default");
+      System.exit(1);
+    }
+    File topIndexDir = new File(args[0]);
+    File outputDir = args.length == 2 ? new File(args[1]) : topIndexDir;
+    long totalTokenCount;
+    try (LuceneLanguageModel lm = new LuceneLanguageModel(topIndexDir)) {
+      totalTokenCount = lm.getTotalTokenCount();
+    }
+    List<File> ngramDirs = new ArrayList<>();
+    long maxNgrams = 0;
+    int maxNgram = 0;
+    for (File indexDir : getIndexDirs(topIndexDir)) {
+      for (int ngramSize = 1; ngramSize <= 4; ngramSize++) {
+        File ngramDir = new File(indexDir, ngramSize + "grams");
+        if (ngramDir.isDirectory()) {
+          ngramDirs.add(ngramDir);
+          maxNgram = Math.max(maxNgram, ngramSize);
+          try (FSDirectory directory = FSDirectory.open(ngramDir.getCanonicalFile().toPath());
+               IndexReader reader = DirectoryReader.open(directory)) {
+            maxNgrams += reader.maxDoc();
+          }
+        }
+      }
+    }
+    System.out.println("Converting " + ngramDirs + " with up to " + maxNgrams + " ngrams, total token count " + totalTokenCount);
+    long startTime = System.currentTimeMillis();
+    try (HashedNgramTableWriter writer = new HashedNgramTableWriter(outputDir, maxNgrams, maxNgram, totalTokenCount)) {
+      for (File ngramDir : ngramDirs) {
+        addNgrams(ngramDir, writer);
+      }
+      System.out.println("Done: " + writer + ", " + (System.currentTimeMillis() - startTime) / 1000 + "s");
+    }
+  }
+
+  private static List<File> getIndexDirs(File topIndexDir) {
+    File[] subDirs = topIndexDir.listFiles((file, name) -> name.matches("index-\\d+"));
+    if (subDirs != null && subDirs.length > 0) {
+      return Arrays.asList(subDirs);
+    }
+    return Arrays.asList(topIndexDir);
+  }
+
+  private static void addNgrams(File ngramDir, HashedNgramTableWriter writer) throws IOException {
+    // symlinks are not supported by Lucene, see LuceneSingleIndexLanguageModel:
+    try (FSDirectory directory = FSDirectory.open(ngramDir.getCanonicalFile().toPath());
+         IndexReader reader = DirectoryReader.open(directory)) {
+      IndexSearcher searcher = new IndexSearcher(reader);
+      Terms terms = MultiFields.getTerms(reader, "ngram");
+      if (terms == null) {
+        System.out.println("No 'ngram' field in " + ngramDir + ", skipping");
+        return;
+      }
+      TermsEnum termsEnum = terms.iterator();
+      BytesRef next;
+      long ngramCount = 0;
+      while ((next = termsEnum.next()) != null) {
+        String ngram = next.utf8ToString();
+        // the ngram field is usually not stored, so we look up the documents of each term:
+        TopDocs docs = searcher.search(new TermQuery(new Term("ngram", ngram)), MAX_DOCS_PER_NGRAM);
+        if (docs.totalHits > MAX_DOCS_PER_NGRAM) {
+          System.out.println("More than " + MAX_DOCS_PER_NGRAM + " documents for '" + ngram + "', only using the first ones");
+        }
+        long count = 0;
+        for (ScoreDoc scoreDoc : docs.scoreDocs) {
+          count += Long.parseLong(reader.document(scoreDoc.doc).get("count"));
+        }
+        writer.add(ngram, count);
+        if (++ngramCount % 1_000_000 == 0) {
+          System.out.println(ngramDir + ": " + ngramCount + " ngrams...");
+        }
+      }
+      System.out.println(ngramDir + ": " + ngramCount + " ngrams");
+    }
+  }
+
+}
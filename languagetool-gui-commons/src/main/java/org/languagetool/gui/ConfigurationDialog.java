@@ -24,6 +24,7 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
+import org.languagetool.languagemodel.HashedNgramLanguageModel;
 import org.languagetool.languagemodel.LuceneLanguageModel;
 import org.languagetool.rules.Rule;
 
@@ -1514,7 +1515,9 @@ public class ConfigurationDialog implements ActionListener {
         try {
           if (config.getLanguage() != null) {  // may happen in office context
             File checkDir = new File(newDir, config.getLanguage().getShortCode());
-            LuceneLanguageModel.validateDirectory(checkDir);
+            if (!HashedNgramLanguageModel.isHashedNgramDirectory(checkDir)) {
+              LuceneLanguageModel.validateDirectory(checkDir);
+            }
           }
           config.setNgramDirectory(newDir);
           ngramDirButton.setText(StringUtils.abbreviate(newDir.getAbsolutePath(), maxDirDisplayLength));
@@ -31,7 +31,7 @@ import org.languagetool.rules.Example;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.SuggestedReplacement;
 import org.languagetool.rules.ngrams.Probability;
-import org.languagetool.rules.patterns.StringMatcher;
+import org.languagetool.rules.patterns.MultiRegexMatcher;
 import org.languagetool.rules.spelling.CommonFileTypes;
 import org.languagetool.rules.spelling.hunspell.CompoundAwareHunspellRule;
 import org.languagetool.rules.spelling.morfologik.MorfologikMultiSpeller;
@@ -92,7 +92,7 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
   private final Set<String> wordsToBeIgnoredInCompounds = new HashSet<>();
   private final Set<String> wordStartsToBeProhibited    = new HashSet<>();
   private final Set<String> wordEndingsToBeProhibited   = new HashSet<>();
-  private static final Map<StringMatcher, Function<String,List<String>>> ADDITIONAL_SUGGESTIONS = new HashMap<>();
+  private static final MultiRegexMatcher<Function<String,List<String>>> ADDITIONAL_SUGGESTIONS = new MultiRegexMatcher<>(true);
   static {
     put("lieder", w -> Arrays.asList("leider", "Lieder"));
     put("frägst", "fragst");
@@ -1592,15 +1592,15 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
   }
 
   private static void putRepl(String wordPattern, String pattern, String replacement) {
-    ADDITIONAL_SUGGESTIONS.put(StringMatcher.regexp(wordPattern), w -> singletonList(w.replaceFirst(pattern, replacement)));
+    ADDITIONAL_SUGGESTIONS.add(wordPattern, w -> singletonList(w.replaceFirst(pattern, replacement)));
   }
 
   private static void put(String pattern, String replacement) {
-    ADDITIONAL_SUGGESTIONS.put(StringMatcher.regexp(pattern), w -> singletonList(replacement));
+    ADDITIONAL_SUGGESTIONS.add(pattern, w -> singletonList(replacement));
   }
 
   private static void put(String pattern, Function<String, List<String>> f) {
-    ADDITIONAL_SUGGESTIONS.put(StringMatcher.regexp(pattern), f);
+    ADDITIONAL_SUGGESTIONS.add(pattern, f);
   }
 
   private static final GermanWordSplitter splitter = getSplitter();
@@ -2438,10 +2438,9 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
     } else if (word.equals("ch")) {
       return singletonList("ich");
     } else {
-      for (Map.Entry<StringMatcher, Function<String, List<String>>> entry : ADDITIONAL_SUGGESTIONS.entrySet()) {
-        if (entry.getKey().matches(word)) {
-          return entry.getValue().apply(word);
-        }
+      Function<String, List<String>> suggest = ADDITIONAL_SUGGESTIONS.getFirstMatch(word);
+      if (suggest != null) {
+        return suggest.apply(word);
       }
     }
     if (!startsWithUppercase(word)) {
@@ -28,6 +28,7 @@ import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.rules.spelling.CachingWordListLoader;
 import org.languagetool.synthesis.GermanSynthesizer;
 import org.languagetool.tagging.BaseTagger;
+import org.languagetool.tagging.CachingWordTagger;
 import org.languagetool.tagging.CombiningTagger;
 import org.languagetool.tagging.ManualTagger;
 import org.languagetool.tagging.TaggedWord;
@@ -110,7 +111,7 @@ public class GermanTagger extends BaseTagger {
 
   public GermanTagger() {
     super("/de/german.dict", Locale.GERMAN);
-    removalTagger = (ManualTagger) ((CombiningTagger) getWordTagger()).getRemovalTagger();
+    removalTagger = (ManualTagger) ((CombiningTagger) ((CachingWordTagger) getWordTagger()).getWordTagger()).getRemovalTagger();
   }
 
   private static ExpansionInfos initExpansionInfos() {
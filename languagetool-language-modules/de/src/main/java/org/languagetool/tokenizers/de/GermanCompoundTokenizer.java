@@ -18,20 +18,27 @@
  */
 package org.languagetool.tokenizers.de;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.common.base.Suppliers;
 import de.danielnaber.jwordsplitter.EmbeddedGermanDictionary;
 import de.danielnaber.jwordsplitter.GermanWordSplitter;
 import de.danielnaber.jwordsplitter.InputTooLongException;
 import gnu.trove.THashSet;
 import org.languagetool.tokenizers.Tokenizer;
+import org.languagetool.tools.CacheStatsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Supplier;
 
 import static java.util.Arrays.asList;
@@ -42,6 +49,20 @@ import static java.util.Arrays.asList;
  * @author Daniel Naber
  */
 public class GermanCompoundTokenizer implements Tokenizer {
+
+  private static final Logger logger = LoggerFactory.getLogger(GermanCompoundTokenizer.class);
+
+  // longer words aren't cached, so the offsets fit into a byte:
+  private static final int MAX_CACHED_WORD_LENGTH = 120;
+  private static final int MAX_CACHED_WORDS = 100_000;
+  // the value for words that aren't split (also if the word is too long for jWordSplitter):
+  private static final byte[] UNSPLIT = new byte[0];
+
+  // The splits of each mode, shared by all instances. The values are the start and end offsets
+  // of the parts, or (if the parts aren't substrings of the word) an unmodifiable list of the parts:
+  private static final Cache<String, Object> strictCache = newCache("germanCompoundSplits:strict");
+  private static final Cache<String, Object> nonStrictCache = newCache("germanCompoundSplits:nonStrict");
+
   private static final Supplier<GermanCompoundTokenizer> strictInstance = Suppliers.memoize(() -> {
     try {
       return new GermanCompoundTokenizer(true);
@@ -58,6 +79,7 @@ public class GermanCompoundTokenizer implements Tokenizer {
   });
 
   private final ExtendedGermanWordSplitter wordSplitter;
+  private final Cache<String, Object> cache;
   
   public GermanCompoundTokenizer() throws IOException {
     this(true);
@@ -119,10 +141,25 @@ public class GermanCompoundTokenizer implements Tokenizer {
     wordSplitter.addException("Kreuzbergs", asList("Kreuzbergs"));
     wordSplitter.setStrictMode(strictMode);
     wordSplitter.setMinimumWordLength(3);
+    cache = strictMode ? strictCache : nonStrictCache;
+  }
+
+  private static Cache<String, Object> newCache(String name) {
+    Cache<String, Object> cache = Caffeine.newBuilder().maximumSize(MAX_CACHED_WORDS).recordStats().build();
+    CacheStatsRegistry.register(name, cache);
+    return cache;
   }
 
   @Override
   public List<String> tokenize(String word) {
+    if (word.length() > MAX_CACHED_WORD_LENGTH) {
+      return split(word);
+    }
+    Object split = cache.get(word, w -> encode(w, split(w)));
+    return decode(word, split);
+  }
+
+  private List<String> split(String word) {
     try {
       return wordSplitter.splitWord(word);
     } catch (InputTooLongException e) {
@@ -130,6 +167,79 @@ public class GermanCompoundTokenizer implements Tokenizer {
     }
   }
 
+  private static Object encode(String word, List<String> parts) {
+    if (parts.size() == 1 && parts.get(0).equals(word)) {
+      return UNSPLIT;
+    }
+    byte[] offsets = new byte[parts.size() * 2];
+    int pos = 0;
+    for (int i = 0; i < parts.size(); i++) {
+      String part = parts.get(i);
+      int start = word.startsWith(part, pos) ? pos : word.indexOf(part, pos);
+      if (start < 0) {
+        // e.g. an exception with a different case than the word:
+        return Collections.unmodifiableList(new ArrayList<>(parts));
+      }
+      pos = start + part.length();
+      offsets[i * 2] = (byte) start;
+      offsets[i * 2 + 1] = (byte) pos;
+    }
+    return offsets;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> decode(String word, Object split) {
+    if (split == UNSPLIT) {
+      return new ArrayList<>(Collections.singletonList(word));
+    }
+    if (split instanceof List) {
+      return new ArrayList<>((List<String>) split);
+    }
+    byte[] offsets = (byte[]) split;
+    List<String> parts = new ArrayList<>(offsets.length / 2);
+    for (int i = 0; i < offsets.length; i += 2) {
+      parts.add(word.substring(offsets[i], offsets[i + 1]));
+    }
+    return parts;
+  }
+
+  /**
+   * Splits the words of a frequency list, so they are in the cache when the first texts are checked.
+   * @param frequencyList a file with one word per line, most frequent first, optionally followed by
+   *                      whitespace and its count; lines starting with {@code #} are ignored
+   * @param maxWords the maximum number of words to split
+   * @return the number of words that have been split
+   * @since 6.3
+   */
+  public int warmUp(Path frequencyList, int maxWords) throws IOException {
+    int count = 0;
+    try (BufferedReader reader = Files.newBufferedReader(frequencyList, StandardCharsets.UTF_8)) {
+      String line;
+      while (count < Math.min(maxWords, MAX_CACHED_WORDS) && (line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        tokenize(line.split("\\s+", 2)[0]);
+        count++;
+      }
+    }
+    logger.info("Warmed up the compound split cache with " + count + " words from " + frequencyList);
+    return count;
+  }
+
+  /**
+   * @return the hit statistics of the split caches, by mode ({@code strict} and {@code nonStrict}),
+   * which are also available from {@link CacheStatsRegistry}
+   * @since 6.3
+   */
+  public static Map<String, CacheStats> getCacheStats() {
+    Map<String, CacheStats> result = new TreeMap<>();
+    result.put("strict", strictCache.stats());
+    result.put("nonStrict", nonStrictCache.stats());
+    return result;
+  }
+
   public static GermanCompoundTokenizer getStrictInstance() {
     return strictInstance.get();
   }
@@ -22,9 +22,14 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 public class GermanCompoundTokenizerTest {
@@ -38,6 +43,36 @@ public class GermanCompoundTokenizerTest {
     assertThat(tokenizer.tokenize("Firefox-Add-on").toString(), is("[Firefox, , Add-on]"));  // why the space?
   }
 
+  @Test
+  public void testCachedSplits() throws IOException {
+    GermanCompoundTokenizer tokenizer = new GermanCompoundTokenizer(true);
+    for (int i = 0; i < 2; i++) {
+      assertThat(tokenizer.tokenize("Bahnhofsuhr").toString(), is("[Bahnhofs, uhr]"));
+      assertThat(tokenizer.tokenize("Firefox-Add-on").toString(), is("[Firefox, , Add-on]"));
+      assertThat(tokenizer.tokenize("Haus").toString(), is("[Haus]"));
+      assertThat(tokenizer.tokenize("Reinigungstab").toString(), is("[Reinigungs, tab]"));
+    }
+    List<String> parts = tokenizer.tokenize("Bahnhofsuhr");
+    parts.add("modified");
+    assertThat(tokenizer.tokenize("Bahnhofsuhr").toString(), is("[Bahnhofs, uhr]"));
+  }
+
+  @Test
+  public void testWarmUp() throws IOException {
+    Path file = Files.createTempFile("lt-compound-warmup", ".txt");
+    try {
+      Files.write(file, Arrays.asList("# word count", "Bahnhofsuhr 100", "", "Haustür\t20"), StandardCharsets.UTF_8);
+      GermanCompoundTokenizer tokenizer = new GermanCompoundTokenizer(false);
+      assertEquals(2, tokenizer.warmUp(file, 10));
+      assertEquals(1, tokenizer.warmUp(file, 1));
+      long hits = GermanCompoundTokenizer.getCacheStats().get("nonStrict").hitCount();
+      tokenizer.tokenize("Haustür");
+      assertEquals(hits + 1, GermanCompoundTokenizer.getCacheStats().get("nonStrict").hitCount());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
   @Test
   @Ignore("for interactive use only")
   public void testInteractively() throws IOException {
@@ -27,8 +27,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * English word form synthesizer.
@@ -116,14 +114,11 @@ public class EnglishSynthesizer extends BaseSynthesizer {
         det = "the ";
       }
 
-      initPossibleTags();
-      Pattern p = Pattern.compile(myPosTag);
       List<String> results = new ArrayList<>();
-
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches() && token.getLemma() != null) {
-          lookup(token.getLemma(), tag, results, det);
+      if (token.getLemma() != null) {
+        for (String form : lookupForPosTagRegex(token.getLemma(), myPosTag)) {
+          //results.add(det + StringTools.lowercaseFirstCharIfCapitalized(form)); //why lowercase?
+          results.add(det + form);
         }
       }
       return removeExceptions(results.toArray(new String[0]));
@@ -131,13 +126,6 @@ public class EnglishSynthesizer extends BaseSynthesizer {
     return removeExceptions(synthesize(token, posTag));
   }
 
-  private void lookup(String lemma, String posTag, List<String> results, String determiner) {
-    List<String> lookup = super.lookup(lemma, posTag);
-    for (String result : lookup) {
-      //results.add(determiner + StringTools.lowercaseFirstCharIfCapitalized(result)); //why lowercase?
-      results.add(determiner + result);
-    }
-  }
   
   @Override
   protected boolean isException(String w) {
@@ -89,22 +89,14 @@ public class SpanishSynthesizer extends BaseSynthesizer {
           toAddAfter = mLemmaSpace.group(2);
         }
       }
-      initPossibleTags();
-      Pattern p;
+      List<String> results;
       try {
-        p = Pattern.compile(posTag);
+        results = lookupForPosTagRegex(lemma, posTag);
       } catch (PatternSyntaxException e) {
         System.err.println("WARNING: Error trying to synthesize POS tag " + posTag + " from token " + token.getToken()
             + ": " + e.getMessage());
         return null;
       }
-      List<String> results = new ArrayList<>();
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          results.addAll(lookup(lemma, tag));
-        }
-      }
       return addWordsAfter(results, toAddAfter).toArray(new String[0]);
     }
     return synthesize(token, posTag);
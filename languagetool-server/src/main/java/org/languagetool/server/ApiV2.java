@@ -84,6 +84,8 @@ class ApiV2 {
       TelemetryProvider.INSTANCE.createSpan(spanName, Attributes.empty(), () -> handleSoftwareInfoRequest(httpExchange));
     } else if (path.equals("check")) {
       TelemetryProvider.INSTANCE.createSpan(spanName, Attributes.empty(), () -> handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress, config));
+    } else if (path.equals("check/batch")) {
+      TelemetryProvider.INSTANCE.createSpan(spanName, Attributes.empty(), () -> handleCheckBatchRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress));
     } else if (path.equals("words")) {
       TelemetryProvider.INSTANCE.createSpan(spanName, Attributes.empty(), () -> handleWordsRequest(httpExchange, parameters, config));
     } else if (path.equals("words/add")) {
@@ -176,6 +178,39 @@ class ApiV2 {
     textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
   }
 
+  private void handleCheckBatchRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
+    // Expected format, all texts share the other parameters (language, rules, ...):
+    // data: {texts: ['text', {text: 'text', metaData: {...}}, {annotation: [...]}]}
+    if (!parameters.containsKey("data")) {
+      throw new BadRequestException("Missing 'data' parameter");
+    }
+    JsonNode data;
+    try {
+      data = new ObjectMapper().readTree(parameters.get("data"));
+    } catch (JsonProcessingException e) {
+      throw new BadRequestException("Could not parse JSON from 'data' parameter", e);
+    }
+    JsonNode texts = data.get("texts");
+    if (texts == null || !texts.isArray()) {
+      throw new BadRequestException("'data' key in JSON requires a 'texts' array");
+    }
+    List<AnnotatedText> aTexts = new ArrayList<>();
+    for (JsonNode node : texts) {
+      if (node.isTextual()) {
+        aTexts.add(new AnnotatedTextBuilder().addText(node.asText()).build());
+      } else if (node.get("text") != null && node.get("annotation") != null) {
+        throw new BadRequestException("Objects in 'texts' require either 'text' or 'annotation' key, not both");
+      } else if (node.get("text") != null) {
+        aTexts.add(getAnnotatedTextFromString(node, node.get("text").asText()));
+      } else if (node.get("annotation") != null) {
+        aTexts.add(getAnnotatedTextFromJson(node));
+      } else {
+        throw new BadRequestException("Elements of 'texts' must be strings or objects with 'text' or 'annotation' key");
+      }
+    }
+    textChecker.checkTexts(aTexts, httpExchange, parameters, errorRequestLimiter, remoteAddress);
+  }
+
   private void handleIpLogMatch(HttpExchange httpExchange, String remoteAddress) {
     Logger logger = LoggerFactory.getLogger(ApiV2.class);
     InetSocketAddress localAddress = httpExchange.getLocalAddress();
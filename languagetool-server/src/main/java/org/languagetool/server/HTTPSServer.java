@@ -22,6 +22,7 @@ import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsParameters;
 import com.sun.net.httpserver.HttpsServer;
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.LtThreadPoolFactory;
 import org.languagetool.tools.Tools;
 
 import javax.net.ssl.KeyManagerFactory;
@@ -47,7 +48,7 @@ import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
  */
 public class HTTPSServer extends Server {
 
-  private final ThreadPoolExecutor executorService;
+  private final ExecutorService executorService;
 
   /**
    * Prepare a server on the given host and port - use run() to start it.
@@ -71,7 +72,7 @@ public class HTTPSServer extends Server {
       RequestLimiter limiter = getRequestLimiterOrNull(config);
       ErrorRequestLimiter errorLimiter = getErrorRequestLimiterOrNull(config);
       executorService = getExecutorService(config);
-      BlockingQueue<Runnable> workQueue = executorService.getQueue();
+      BlockingQueue<Runnable> workQueue = LtThreadPoolFactory.getQueue(executorService);
       httpHandler = new LanguageToolHttpHandler(config, allowedIps, runInternally, limiter, errorLimiter, workQueue, this);
       server.createContext("/", httpHandler);
       server.setExecutor(executorService);
@@ -21,6 +21,7 @@ package org.languagetool.server;
 import com.sun.net.httpserver.HttpServer;
 import lombok.extern.slf4j.Slf4j;
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.LtThreadPoolFactory;
 import org.languagetool.tools.Tools;
 
 import javax.management.ObjectName;
@@ -31,7 +32,7 @@ import java.net.ServerSocket;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 
 import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
 
@@ -46,7 +47,7 @@ import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
 @Slf4j
 public class HTTPServer extends Server {
 
-  private final ThreadPoolExecutor executorService;
+  private final ExecutorService executorService;
 
   /**
    * Prepare a server on the given port - use run() to start it. Accepts
@@ -106,7 +107,7 @@ public class HTTPServer extends Server {
       RequestLimiter limiter = getRequestLimiterOrNull(config);
       ErrorRequestLimiter errorLimiter = getErrorRequestLimiterOrNull(config);
       executorService = getExecutorService(config);
-      BlockingQueue<Runnable> workQueue = executorService.getQueue();
+      BlockingQueue<Runnable> workQueue = LtThreadPoolFactory.getQueue(executorService);
       httpHandler = new LanguageToolHttpHandler(config, allowedIps, runInternally, limiter, errorLimiter, workQueue, this);
       //check if port is 0 for get random port from range
       if (port == 0) {
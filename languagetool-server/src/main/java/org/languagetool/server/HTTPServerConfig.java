@@ -23,6 +23,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
+import org.languagetool.tools.LtThreadPoolFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,13 @@ public class HTTPServerConfig {
 
   enum Mode { LanguageTool }
 
+  /**
+   * How the result cache evicts entries: {@code GUAVA} limits it by number of sentences with LRU eviction,
+   * {@code TINYLFU} limits it by estimated memory use with frequency-aware admission.
+   * @since 6.3
+   */
+  enum CacheBackend { GUAVA, TINYLFU }
+
   public static final String DEFAULT_HOST = "localhost";
 
   /** The default port on which the server is running (8081). */
@@ -80,6 +88,10 @@ public class HTTPServerConfig {
   protected int pipelineExpireTime;
   protected File fasttextModel = null;
   protected File fasttextBinary = null;
+  protected int fasttextProcesses = 1;
+  protected boolean gzipResponses = false;
+  protected int maxCheckBatchSize = 100;
+  protected LtThreadPoolFactory.ThreadMode threadMode = LtThreadPoolFactory.ThreadMode.PLATFORM;
   protected int requestLimit;
   protected int requestLimitInBytes;
   protected int timeoutRequestLimit;
@@ -92,6 +104,13 @@ public class HTTPServerConfig {
   protected File rulesConfigFile = null;
   protected File remoteRulesConfigFile = null;
   protected int cacheSize = 0;
+  protected int cacheSizeMB = 0;
+  protected CacheBackend cacheBackend = CacheBackend.GUAVA;
+  protected File cacheDiskDir = null;
+  protected int cacheDiskSizeMB = 1024;
+  protected String cacheL2Class = null;
+  protected int cacheL2MaxInFlight = 64;
+  protected long cacheL2MaxWaitMillis = 20;
   protected long cacheTTLSeconds = 300;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
@@ -185,9 +204,10 @@ public class HTTPServerConfig {
   
   
   private static final List<String> KNOWN_OPTION_KEYS = Arrays.asList("abTest", "abTestClients", "abTestRollout",
-    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds",
-    "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "grammalectePassword",
-    "grammalecteServer", "grammalecteUser", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxTextCheckerThreads", "textCheckerQueueSize", "maxCheckTimeMillis",
+    "beolingusFile", "blockedReferrers", "cacheBackend", "cacheDiskDir", "cacheDiskSizeMB", "cacheL2Class", "cacheL2MaxInFlight", "cacheL2MaxWaitMillis",
+    "cacheSize", "cacheSizeMB", "cacheTTLSeconds",
+    "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "fasttextProcesses", "grammalectePassword", "gzipResponses",
+    "grammalecteServer", "grammalecteUser", "ipFingerprintFactor", "languageModel", "maxCheckBatchSize", "maxCheckThreads", "maxTextCheckerThreads", "textCheckerQueueSize", "threadMode", "maxCheckTimeMillis",
     "maxCheckTimeWithApiKeyMillis", "maxErrorsPerWordRate", "maxPipelinePoolSize", "maxSpellingSuggestions", "maxTextHardLength",
     "maxTextLength", "maxTextLengthWithApiKey", "maxWorkQueueSize", "pipelineCaching",
     "pipelineExpireTimeInSeconds", "pipelinePrewarming", "prometheusMonitoring", "prometheusPort", "remoteRulesFile",
@@ -346,6 +366,15 @@ public class HTTPServerConfig {
         if (fasttextBinary != null && fasttextModel != null) {
           setFasttextPaths(fasttextModel, fasttextBinary);
         }
+        fasttextProcesses = Integer.parseInt(getOptionalProperty(props, "fasttextProcesses", "1"));
+        if (fasttextProcesses < 1) {
+          throw new IllegalArgumentException("Invalid value for fasttextProcesses, must be >= 1: " + fasttextProcesses);
+        }
+        gzipResponses = Boolean.parseBoolean(getOptionalProperty(props, "gzipResponses", "false"));
+        maxCheckBatchSize = Integer.parseInt(getOptionalProperty(props, "maxCheckBatchSize", "100"));
+        if (maxCheckBatchSize < 1) {
+          throw new IllegalArgumentException("Invalid value for maxCheckBatchSize, must be >= 1: " + maxCheckBatchSize);
+        }
         maxCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxCheckThreads", "10"));
         if (maxCheckThreads < 1) {
           throw new IllegalArgumentException("Invalid value for maxCheckThreads, must be >= 1: " + maxCheckThreads);
@@ -359,6 +388,12 @@ public class HTTPServerConfig {
         if (textCheckerQueueSize < 0) {
           throw new IllegalArgumentException("Invalid value for textCheckerQueueSize, must be >= 1: " + textCheckerQueueSize);
         }
+        String threadModeStr = getOptionalProperty(props, "threadMode", "platform");
+        try {
+          threadMode = LtThreadPoolFactory.ThreadMode.valueOf(threadModeStr.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Invalid value for threadMode, must be 'platform' or 'virtual': " + threadModeStr);
+        }
 
         boolean atdMode = getOptionalProperty(props, "mode", "LanguageTool").equalsIgnoreCase("AfterTheDeadline");
         if (atdMode) {
@@ -382,8 +417,47 @@ public class HTTPServerConfig {
         if (cacheSize < 0) {
           throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize + ", use 0 to deactivate cache");
         }
-        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize")) {
-          throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize has no effect.");
+        cacheSizeMB = Integer.parseInt(getOptionalProperty(props, "cacheSizeMB", "0"));
+        if (cacheSizeMB < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheSizeMB: " + cacheSizeMB + ", use 0 to deactivate cache");
+        }
+        String cacheBackendStr = getOptionalProperty(props, "cacheBackend", "guava");
+        try {
+          cacheBackend = CacheBackend.valueOf(cacheBackendStr.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Invalid value for cacheBackend, must be 'guava' or 'tinylfu': " + cacheBackendStr);
+        }
+        if (cacheBackend == CacheBackend.GUAVA && props.containsKey("cacheSizeMB")) {
+          throw new IllegalArgumentException("cacheSizeMB is only supported with cacheBackend=tinylfu, use cacheSize instead");
+        }
+        if (cacheBackend == CacheBackend.TINYLFU && props.containsKey("cacheSize")) {
+          throw new IllegalArgumentException("cacheSize is not supported with cacheBackend=tinylfu, use cacheSizeMB instead");
+        }
+        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize") && !props.containsKey("cacheSizeMB")) {
+          throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize or cacheSizeMB has no effect.");
+        }
+        String cacheDiskDirPath = getOptionalProperty(props, "cacheDiskDir", null);
+        if (cacheDiskDirPath != null) {
+          if (!props.containsKey("cacheSize") && !props.containsKey("cacheSizeMB")) {
+            throw new IllegalArgumentException("Use of cacheDiskDir without also setting cacheSize or cacheSizeMB has no effect.");
+          }
+          cacheDiskDir = new File(cacheDiskDirPath);
+        }
+        cacheDiskSizeMB = Integer.parseInt(getOptionalProperty(props, "cacheDiskSizeMB", "1024"));
+        if (cacheDiskSizeMB < 1 || cacheDiskSizeMB > 2047) {
+          throw new IllegalArgumentException("Invalid value for cacheDiskSizeMB, must be between 1 and 2047: " + cacheDiskSizeMB);
+        }
+        cacheL2Class = getOptionalProperty(props, "cacheL2Class", null);
+        if (cacheL2Class != null && !props.containsKey("cacheSize") && !props.containsKey("cacheSizeMB")) {
+          throw new IllegalArgumentException("Use of cacheL2Class without also setting cacheSize or cacheSizeMB has no effect.");
+        }
+        cacheL2MaxInFlight = Integer.parseInt(getOptionalProperty(props, "cacheL2MaxInFlight", "64"));
+        if (cacheL2MaxInFlight < 1) {
+          throw new IllegalArgumentException("Invalid value for cacheL2MaxInFlight, must be >= 1: " + cacheL2MaxInFlight);
+        }
+        cacheL2MaxWaitMillis = Long.parseLong(getOptionalProperty(props, "cacheL2MaxWaitMillis", "20"));
+        if (cacheL2MaxWaitMillis < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheL2MaxWaitMillis, must be >= 0: " + cacheL2MaxWaitMillis);
         }
         cacheTTLSeconds = Integer.parseInt(getOptionalProperty(props, "cacheTTLSeconds", "300"));
         maxErrorsPerWordRate = Float.parseFloat(getOptionalProperty(props, "maxErrorsPerWordRate", "0"));
@@ -823,6 +897,67 @@ public class HTTPServerConfig {
     fasttextBinary = Objects.requireNonNull(binary);
   }
 
+  /**
+   * Get the number of fasttext processes used for language detection
+   * @since 6.3
+   */
+  public int getFasttextProcesses() {
+    return fasttextProcesses;
+  }
+
+  /**
+   * Set the number of fasttext processes used for language detection
+   * @since 6.3
+   */
+  public void setFasttextProcesses(int fasttextProcesses) {
+    this.fasttextProcesses = fasttextProcesses;
+  }
+
+  /**
+   * Whether check results are sent gzip-compressed to clients that accept it
+   * @since 6.3
+   */
+  public boolean isGzipResponses() {
+    return gzipResponses;
+  }
+
+  /**
+   * @since 6.3
+   */
+  public void setGzipResponses(boolean gzipResponses) {
+    this.gzipResponses = gzipResponses;
+  }
+
+  /**
+   * Maximum number of texts in one request to {@code /v2/check/batch}
+   * @since 6.3
+   */
+  public int getMaxCheckBatchSize() {
+    return maxCheckBatchSize;
+  }
+
+  /**
+   * @since 6.3
+   */
+  public void setMaxCheckBatchSize(int maxCheckBatchSize) {
+    this.maxCheckBatchSize = maxCheckBatchSize;
+  }
+
+  /**
+   * Whether request handling and remote rules run on platform or virtual threads
+   * @since 6.3
+   */
+  public LtThreadPoolFactory.ThreadMode getThreadMode() {
+    return threadMode;
+  }
+
+  /**
+   * @since 6.3
+   */
+  public void setThreadMode(LtThreadPoolFactory.ThreadMode threadMode) {
+    this.threadMode = Objects.requireNonNull(threadMode);
+  }
+
   /** @since 2.7 */
   Mode getMode() {
     return mode;
@@ -957,6 +1092,112 @@ public class HTTPServerConfig {
     this.cacheSize = sentenceCacheSize;
   }
 
+  /**
+   * Cache size as memory budget in megabytes, used with {@link CacheBackend#TINYLFU}.
+   * @since 6.3
+   */
+  int getCacheSizeMB() {
+    return cacheSizeMB;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheSizeMB(int cacheSizeMB) {
+    this.cacheSizeMB = cacheSizeMB;
+  }
+
+  /**
+   * Directory for a file that keeps cached matches across restarts, or {@code null}.
+   * @since 6.3
+   */
+  @Nullable
+  File getCacheDiskDir() {
+    return cacheDiskDir;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheDiskDir(@Nullable File cacheDiskDir) {
+    this.cacheDiskDir = cacheDiskDir;
+  }
+
+  /**
+   * Maximum size of the file in {@link #getCacheDiskDir()} in megabytes.
+   * @since 6.3
+   */
+  int getCacheDiskSizeMB() {
+    return cacheDiskSizeMB;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheDiskSizeMB(int cacheDiskSizeMB) {
+    this.cacheDiskSizeMB = cacheDiskSizeMB;
+  }
+
+  /**
+   * Class name of a {@link org.languagetool.SecondLevelResultCache} shared with other servers, or {@code null}.
+   * @since 6.3
+   */
+  @Nullable
+  String getCacheL2Class() {
+    return cacheL2Class;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheL2Class(@Nullable String cacheL2Class) {
+    this.cacheL2Class = cacheL2Class;
+  }
+
+  /**
+   * Maximum number of lookups and writes in the second-level cache that haven't completed yet.
+   * @since 6.3
+   */
+  int getCacheL2MaxInFlight() {
+    return cacheL2MaxInFlight;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheL2MaxInFlight(int cacheL2MaxInFlight) {
+    this.cacheL2MaxInFlight = cacheL2MaxInFlight;
+  }
+
+  /**
+   * Maximum time a check waits for lookups in the second-level cache.
+   * @since 6.3
+   */
+  long getCacheL2MaxWaitMillis() {
+    return cacheL2MaxWaitMillis;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheL2MaxWaitMillis(long cacheL2MaxWaitMillis) {
+    this.cacheL2MaxWaitMillis = cacheL2MaxWaitMillis;
+  }
+
+  /**
+   * @since 6.3
+   */
+  CacheBackend getCacheBackend() {
+    return cacheBackend;
+  }
+
+  /**
+   * @since 6.3
+   */
+  void setCacheBackend(CacheBackend cacheBackend) {
+    this.cacheBackend = Objects.requireNonNull(cacheBackend);
+  }
+
   /**
    * Cache entry TTL; refreshed on access; in seconds
    * @since 4.6
@@ -21,19 +21,26 @@ package org.languagetool.server;
 import org.languagetool.JLanguageTool;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Requests are counted per IP and per IP plus fingerprint in lock-free sliding
+ * windows (see {@link SlidingWindowCounter}), so checking a request is O(1).
  */
 class RequestLimiter {
 
-  // TODO: this only works if the period covered is larger than requestLimitPeriodInSeconds -
-  // we should add a sanity check that warns if that's not the case
-  static final int REQUEST_QUEUE_SIZE = 1000;
+  // remove counters of clients that have been inactive for a whole period every this many requests:
+  private static final int CLEANUP_INTERVAL = 10_000;
+  // request sizes are stored in tenths of a byte, as text-level checks only count a tenth:
+  private static final int SIZE_UNITS_PER_BYTE = 10;
+
+  private final ConcurrentMap<String, SlidingWindowCounter> ipCounters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SlidingWindowCounter> fingerprintCounters = new ConcurrentHashMap<>();
+  private final AtomicLong requestsSinceCleanup = new AtomicLong();
 
-  final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
-  
   private final int ipFingerprintFactor;
   private final List<String> whitelistUsers;
   private final int whitelistLimit;
@@ -117,13 +124,45 @@ class RequestLimiter {
       return;
     }
     int reqSize = getRequestSize(params);
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), reqSize, computeFingerprint(httpHeader, params), ServerTools.getMode(params)));
+    logRequest(ipAddress, computeFingerprint(httpHeader, params), reqSize, ServerTools.getMode(params));
     checkLimit(ipAddress, params, httpHeader);
   }
 
+  void logRequest(String ipAddress, String fingerprint, int sizeInBytes, JLanguageTool.Mode mode) {
+    long now = System.currentTimeMillis();
+    // text level rules cause much less load, so count them accordingly
+    long size = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? sizeInBytes : (long) sizeInBytes * SIZE_UNITS_PER_BYTE;
+    getCounter(ipCounters, ipAddress).add(now, size);
+    getCounter(fingerprintCounters, fingerprintKey(ipAddress, fingerprint)).add(now, size);
+    if (requestsSinceCleanup.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+      // a request for a client that is just being removed might not be counted, that's acceptable:
+      ipCounters.values().removeIf(counter -> counter.isExpired(now));
+      fingerprintCounters.values().removeIf(counter -> counter.isExpired(now));
+    }
+  }
+
+  private SlidingWindowCounter getCounter(ConcurrentMap<String, SlidingWindowCounter> counters, String key) {
+    SlidingWindowCounter counter = counters.get(key);
+    if (counter == null) {
+      counter = counters.computeIfAbsent(key, k -> new SlidingWindowCounter(requestLimitPeriodInSeconds * 1000L));
+    }
+    return counter;
+  }
+
+  private static String fingerprintKey(String ipAddress, String fingerprint) {
+    return ipAddress + '\u0000' + fingerprint;
+  }
+
+  private static long count(ConcurrentMap<String, SlidingWindowCounter> counters, String key, long now) {
+    SlidingWindowCounter counter = counters.get(key);
+    return counter != null ? counter.getCount(now) : 0;
+  }
+
+  private static long size(ConcurrentMap<String, SlidingWindowCounter> counters, String key, long now) {
+    SlidingWindowCounter counter = counters.get(key);
+    return counter != null ? counter.getSize(now) / SIZE_UNITS_PER_BYTE : 0;
+  }
+
   private int getRequestSize(Map<String, String> params) {
     String text = params.get("text");
     if (text != null) {
@@ -183,97 +222,39 @@ class RequestLimiter {
   }
 
   void checkLimit(String ipAddress, Map<String, String> parameters, Map<String, List<String>> httpHeader) {
-    int requestsByIp = 0;
-    int requestSizeByIp = 0;
-    int requestsByFingerprint = 0;
-    int requestSizeByFingerprint = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000L);
+    long now = System.currentTimeMillis();
     String fingerprint = computeFingerprint(httpHeader, parameters);
-    String referer = getReferer(httpHeader);
-    String userAgent = getUserAgent(httpHeader);
-    Long clientId = getClientId(parameters);
+    String fingerprintKey = fingerprintKey(ipAddress, fingerprint);
+    long requestsByIp = count(ipCounters, ipAddress, now);
     String user = parameters.get("username");
     boolean whitelistedUser = user != null && whitelistUsers.contains(user);
-    for (RequestEvent event : requestEvents) {
-      if (event.ip.equals(ipAddress) && event.date.after(thresholdDate)) {
-        // text level rules cause much less load, so count them accordingly
-        float modeFactor = event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? 0.1f : 1f;
-        requestsByIp++;
-        requestSizeByIp += event.getSizeInBytes() * modeFactor;
-        if (whitelistedUser) {
-          if (whitelistLimit <= 0 || requestsByIp < whitelistLimit) {
-            continue;
-          } else {
-            String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
-        if (event.fingerprint.equals(fingerprint)) {
-          requestsByFingerprint++;
-          requestSizeByFingerprint += event.getSizeInBytes() * modeFactor;
-        }
-        if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
-          String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded"); }
-        if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
-          String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded");
-        }
-        if (event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-        } else {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
+    if (whitelistedUser) {
+      if (whitelistLimit > 0 && requestsByIp >= whitelistLimit) {
+        throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
+          requestLimitPeriodInSeconds + " seconds exceeded");
       }
+      return;
     }
-  }
-  
-  protected static class RequestEvent {
-
-    private final String ip;
-    private final Date date;
-    private final int sizeInBytes;
-    private final String fingerprint;
-    private final JLanguageTool.Mode mode;
-
-    RequestEvent(String ip, Date date, int sizeInBytes, String fingerprint, JLanguageTool.Mode mode) {
-      this.ip = ip;
-      this.date = new Date(date.getTime());
-      this.sizeInBytes = sizeInBytes;
-      this.fingerprint = fingerprint;
-      this.mode = mode;
+    long requestsByFingerprint = count(fingerprintCounters, fingerprintKey, now);
+    if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
+      throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
     }
-
-    protected Date getDate() {
-      return date;
+    if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
+      throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
     }
-    
-    int getSizeInBytes() {
-      return sizeInBytes;
+    if (requestLimitInBytes > 0) {
+      String modeSuffix = ServerTools.getMode(parameters) == JLanguageTool.Mode.TEXTLEVEL_ONLY ? " in text-level checks" : "";
+      if (ipFingerprintFactor > 0 && size(fingerprintCounters, fingerprintKey, now) > requestLimitInBytes) {
+        throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
+          requestLimitPeriodInSeconds + " seconds exceeded" + modeSuffix);
+      }
+      if (size(ipCounters, ipAddress, now) > ipRequestLimitInBytes) {
+        throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
+          requestLimitPeriodInSeconds + " seconds exceeded" + modeSuffix);
+      }
     }
-
   }
 
 }
@@ -28,7 +28,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 
 import static org.languagetool.server.HTTPServerConfig.DEFAULT_PORT;
 
@@ -127,8 +127,20 @@ abstract class Server {
     System.out.println("                 'maxSpellingSuggestions' - only this many spelling errors will have suggestions for performance reasons (optional,\n" +
                        "                                            affects Hunspell-based languages only)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
+    System.out.println("                 'threadMode' - 'platform' (default) or 'virtual': use virtual threads for request handling and remote rules,");
+    System.out.println("                                rule matching still runs on a pool of 'maxTextCheckerThreads' platform threads (optional, requires Java 21)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
-    System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' is set)");
+    System.out.println("                 'cacheBackend' - 'guava' (default) or 'tinylfu': limit the cache by memory ('cacheSizeMB') instead of sentences,");
+    System.out.println("                                  and only admit sentences that are likely to be checked again (optional)");
+    System.out.println("                 'cacheSizeMB' - memory budget of internal cache in MB, requires cacheBackend=tinylfu (optional, default: 0)");
+    System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' or 'cacheSizeMB' is set)");
+    System.out.println("                 'cacheDiskDir' - directory for a file that keeps cached matches across restarts, discarded when the");
+    System.out.println("                                  LanguageTool version changes (optional, requires 'cacheSize' or 'cacheSizeMB')");
+    System.out.println("                 'cacheDiskSizeMB' - maximum size of the file in 'cacheDiskDir' in MB (optional, default: 1024)");
+    System.out.println("                 'cacheL2Class' - class name of an org.languagetool.SecondLevelResultCache implementation, to share");
+    System.out.println("                                  cached matches with other servers (optional, requires 'cacheSize' or 'cacheSizeMB')");
+    System.out.println("                 'cacheL2MaxInFlight' - maximum number of pending requests to 'cacheL2Class', more are skipped (optional, default: 64)");
+    System.out.println("                 'cacheL2MaxWaitMillis' - maximum time a check waits for 'cacheL2Class' (optional, default: 20)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -139,7 +151,10 @@ abstract class Server {
     System.out.println("                                   https://fasttext.cc/docs/en/language-identification.html");
     System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional), see");
     System.out.println("                                    https://fasttext.cc/docs/en/support.html");
+    System.out.println("                 'fasttextProcesses' - number of fasttext processes to start, requests are distributed among them (optional, default: 1)");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
+    System.out.println("                 'gzipResponses' - send check results gzip-compressed if the client accepts it (optional, default: false)");
+    System.out.println("                 'maxCheckBatchSize' - maximum number of texts in one request to /v2/check/batch (optional, default: 100)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
     System.out.println("                 'blockedReferrers' - a comma-separated list of HTTP referrers (and 'Origin' headers) that are blocked and will not be served (optional)");
     System.out.println("                 'premiumOnly' - activate only the premium rules (optional)");
@@ -179,13 +194,14 @@ abstract class Server {
     }
   }
   
-  protected ThreadPoolExecutor getExecutorService(HTTPServerConfig config) {
+  protected ExecutorService getExecutorService(HTTPServerConfig config) {
     int threadPoolSize = config.getMaxCheckThreads();
-    ServerTools.print("Setting up thread pool with " + threadPoolSize + " threads");
+    ServerTools.print("Setting up thread pool with " + threadPoolSize + " threads (thread mode: " + config.getThreadMode() + ")");
 
     // reuse = false -> this should only be called once in production, needs to be false for tests
-    return LtThreadPoolFactory.createFixedThreadPoolExecutor(LtThreadPoolFactory.SERVER_POOL,
+    return LtThreadPoolFactory.createExecutorService(LtThreadPoolFactory.SERVER_POOL,
       threadPoolSize, threadPoolSize, 0,0L, false,
-      (thread, throwable) -> log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage()), false);
+      (thread, throwable) -> log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage()), false,
+      config.getThreadMode());
   }
 }
@@ -29,9 +29,11 @@ import io.prometheus.client.hotspot.DefaultExports;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Premium;
+import org.languagetool.ResultCache;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.function.LongSupplier;
 
 public class ServerMetricsCollector {
 
@@ -114,6 +116,18 @@ public class ServerMetricsCollector {
 
   private final CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
 
+  private final Gauge cacheHitRatio = Gauge
+    .build("languagetool_cache_hit_ratio", "Hit ratio of caches since server start").labelNames("cache").register();
+
+  private final Gauge cacheWeight = Gauge
+    .build("languagetool_cache_weight_bytes", "Estimated memory use of cache entries").labelNames("cache").register();
+
+  private final Gauge secondLevelCacheRequests = Gauge
+    .build("languagetool_cache_l2_requests_total", "Requests to the second-level result cache by result").labelNames("result").register();
+
+  private final Gauge secondLevelCacheGetSeconds = Gauge
+    .build("languagetool_cache_l2_get_seconds_total", "Total time of completed lookups in the second-level result cache").register();
+
 
   public static void init(HTTPServerConfig config) throws IOException {
     DefaultExports.initialize();
@@ -126,6 +140,7 @@ public class ServerMetricsCollector {
     c.labels("maxCheckThreads").set(config.getMaxCheckThreads());
     c.labels("maxWorkQueueSize").set(config.getMaxWorkQueueSize());
     c.labels("cacheSize").set(config.getCacheSize());
+    c.labels("cacheSizeMB").set(config.getCacheSizeMB());
     c.labels("cacheTTLSeconds").set(config.getCacheTTLSeconds());
     c.labels("maxCheckTimeMillisAnonymous").set(config.getMaxCheckTimeMillisAnonymous());
     c.labels("maxCheckTimeMillisLoggedIn").set(config.getMaxCheckTimeMillisLoggedIn());
@@ -158,6 +173,57 @@ public class ServerMetricsCollector {
 
   public void monitorCache(String name, Cache cache) {
     cacheMetrics.addCache(name, cache);
+    cacheHitRatio.setChild(new Gauge.Child() {
+      @Override
+      public double get() {
+        return cache.stats().hitRate();
+      }
+    }, name);
+  }
+
+  /**
+   * Like {@link #monitorCache(String, Cache)}, but also publishes the memory use of a cache
+   * that is limited by a memory budget.
+   * @param weightInBytes supplies the estimated memory use of the cache entries
+   * @since 6.3
+   */
+  public void monitorCache(String name, Cache cache, LongSupplier weightInBytes) {
+    monitorCache(name, cache);
+    cacheWeight.setChild(new Gauge.Child() {
+      @Override
+      public double get() {
+        return weightInBytes.getAsLong();
+      }
+    }, name);
+  }
+
+  /**
+   * Publish the counters of a second-level result cache.
+   * @since 6.3
+   */
+  public void monitorSecondLevelCache(ResultCache.SecondLevelStats stats) {
+    monitorSecondLevelCache("get", stats::getGetCount);
+    monitorSecondLevelCache("hit", stats::getHitCount);
+    monitorSecondLevelCache("miss", stats::getMissCount);
+    monitorSecondLevelCache("late", stats::getLateCount);
+    monitorSecondLevelCache("rejected", stats::getRejectedCount);
+    monitorSecondLevelCache("put", stats::getPutCount);
+    monitorSecondLevelCache("error", stats::getErrorCount);
+    secondLevelCacheGetSeconds.setChild(new Gauge.Child() {
+      @Override
+      public double get() {
+        return stats.getGetNanos() / 1e9;
+      }
+    });
+  }
+
+  private void monitorSecondLevelCache(String result, LongSupplier count) {
+    secondLevelCacheRequests.setChild(new Gauge.Child() {
+      @Override
+      public double get() {
+        return count.getAsLong();
+      }
+    }, result);
   }
 
   public void logCheck(Language language, long milliseconds, int textSize, int matchCount,
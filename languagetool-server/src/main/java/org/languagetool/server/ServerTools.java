@@ -128,6 +128,26 @@ final class ServerTools {
     setAllowOrigin(httpExchange, allowOriginUrl);
   }
 
+  /**
+   * @return true if the client sent an {@code Accept-Encoding} header that allows gzip
+   * @since 6.3
+   */
+  static boolean acceptsGzip(HttpExchange httpExchange) {
+    List<String> values = httpExchange.getRequestHeaders().get("Accept-Encoding");
+    if (values == null) {
+      return false;
+    }
+    for (String value : values) {
+      for (String encoding : value.split(",")) {
+        String trimmed = encoding.trim().toLowerCase(Locale.ROOT);
+        if ((trimmed.equals("gzip") || trimmed.startsWith("gzip;")) && !trimmed.replace(" ", "").endsWith(";q=0")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   static void setAllowOrigin(HttpExchange httpExchange, String allowOriginUrl) {
     if (allowOriginUrl != null) {
       httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", allowOriginUrl);
@@ -0,0 +1,111 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events (requests and their weighted size) over a sliding time window.
+ * The window is split into {@link #BUCKETS} buckets, each updated with a CAS loop,
+ * so recording and summing are lock-free and O(1). Old events are forgotten with a
+ * granularity of one bucket, i.e. a tenth of the window.
+ * @since 6.3
+ */
+class SlidingWindowCounter {
+
+  static final int BUCKETS = 10;
+
+  // each bucket value is packed into a long: the bucket's epoch (truncated) in the upper
+  // bits and the value in the lower bits, so that rolling a bucket over to a new epoch
+  // and adding to it is a single CAS:
+  private static final int VALUE_BITS = 40;
+  private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+  private static final long EPOCH_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+  private final long bucketMillis;
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLongArray sizes = new AtomicLongArray(BUCKETS);
+
+  /**
+   * @param windowMillis the length of the window, in milliseconds
+   */
+  SlidingWindowCounter(long windowMillis) {
+    this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+  }
+
+  void add(long timeMillis, long size) {
+    long epoch = epoch(timeMillis);
+    int bucket = (int) (epoch % BUCKETS);
+    add(counts, bucket, epoch, 1);
+    add(sizes, bucket, epoch, size);
+  }
+
+  /**
+   * @return the number of events in the window that ends at {@code timeMillis}
+   */
+  long getCount(long timeMillis) {
+    return sum(counts, epoch(timeMillis));
+  }
+
+  /**
+   * @return the sum of the sizes of the events in the window that ends at {@code timeMillis}
+   */
+  long getSize(long timeMillis) {
+    return sum(sizes, epoch(timeMillis));
+  }
+
+  /**
+   * @return true if no event in the window that ends at {@code timeMillis} was recorded
+   */
+  boolean isExpired(long timeMillis) {
+    return getCount(timeMillis) == 0;
+  }
+
+  private long epoch(long timeMillis) {
+    return (timeMillis / bucketMillis) & EPOCH_MASK;
+  }
+
+  private static void add(AtomicLongArray buckets, int bucket, long epoch, long delta) {
+    while (true) {
+      long current = buckets.get(bucket);
+      long updated;
+      if (current >>> VALUE_BITS == epoch) {
+        updated = current + Math.min(delta, VALUE_MASK - (current & VALUE_MASK));
+      } else {
+        updated = (epoch << VALUE_BITS) | Math.min(delta, VALUE_MASK);
+      }
+      if (buckets.compareAndSet(bucket, current, updated)) {
+        return;
+      }
+    }
+  }
+
+  private static long sum(AtomicLongArray buckets, long epoch) {
+    long sum = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      long value = buckets.get(i);
+      long age = (epoch - (value >>> VALUE_BITS)) & EPOCH_MASK;
+      if (age < BUCKETS) {
+        sum += value & VALUE_MASK;
+      }
+    }
+    return sum;
+  }
+
+}
@@ -18,6 +18,10 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.cache.Cache;
 import com.sun.net.httpserver.HttpExchange;
 import io.opentelemetry.api.common.Attributes;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +33,7 @@ import org.apache.ibatis.session.RowBounds;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
+import org.languagetool.language.identifier.DefaultLanguageIdentifier;
 import org.languagetool.language.identifier.LanguageIdentifier;
 import org.languagetool.language.identifier.LanguageIdentifierService;
 import org.languagetool.markup.AnnotatedText;
@@ -36,13 +41,16 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.*;
 import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
+import org.languagetool.tools.CacheStatsRegistry;
 import org.languagetool.tools.TelemetryProvider;
 import org.languagetool.tools.LtThreadPoolFactory;
+import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 import org.languagetool.tools.Tools;
 import org.slf4j.MDC;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -51,6 +59,7 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.languagetool.server.ServerTools.getHttpReferrer;
 import static org.languagetool.server.ServerTools.getHttpUserAgent;
@@ -64,14 +73,37 @@ abstract class TextChecker {
   private static final int PINGS_CLEAN_MILLIS = 60 * 1000;  // internal pings database will be cleaned this often
   private static final int PINGS_MAX_SIZE = 5000;
   private static final String SPAN_NAME_PREFIX = "/v2/check-";
+  private static final int GZIP_BUFFER_SIZE = 8192;
 
   protected abstract void setHeaders(HttpExchange httpExchange);
   protected abstract String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
                                         List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode);
+
+  /**
+   * Write the response to {@code out}. The default implementation writes the result of
+   * {@link #getResponse}, subclasses can override this to stream the response instead.
+   */
+  protected void writeResponse(OutputStream out, AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
+                               List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException {
+    out.write(getResponse(text, language, lang, motherTongue, matches, hiddenMatches, incompleteResultReason, compactMode, showPremiumHint, mode).getBytes(ENCODING));
+  }
+
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants,
                                                   List<String> additionalDetectLangs, List<String> preferredLangs, boolean testMode);
+  /**
+   * Like {@link #getLanguage(String, Map, List, List, List, boolean)}, for all texts of a batch.
+   * @since 6.3
+   */
+  protected List<DetectedLanguage> getLanguages(List<String> texts, Map<String, String> parameters, List<String> preferredVariants,
+                                                List<String> additionalDetectLangs, List<String> preferredLangs, boolean testMode) {
+    List<DetectedLanguage> result = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      result.add(getLanguage(text, parameters, preferredVariants, additionalDetectLangs, preferredLangs, testMode));
+    }
+    return result;
+  }
   protected abstract boolean getLanguageAutoDetect(Map<String, String> parameters);
   @NotNull
   protected abstract List<String> getEnabledRuleIds(Map<String, String> parameters);
@@ -85,6 +117,9 @@ abstract class TextChecker {
 
   private static final String ENCODING = "UTF-8";
   private static final int CACHE_STATS_PRINT = 500; // print cache stats every n cache requests
+  // with allowIncompleteResults, the local rules stop after this share of the max check time, so the
+  // results found so far can be returned before the check is cancelled:
+  private static final double LOCAL_CHECK_TIME_SHARE = 0.9;
   
   private final Map<String,Integer> languageCheckCounts = new HashMap<>();
   private final Queue<Runnable> workQueue;
@@ -111,7 +146,8 @@ abstract class TextChecker {
               0,
               config.getNgramLangIdentData(),
               config.getFasttextBinary(),
-              config.getFasttextModel());
+              config.getFasttextModel(),
+              config.getFasttextProcesses());
     }
     this.executorService = LtThreadPoolFactory.createFixedThreadPoolExecutor(
       LtThreadPoolFactory.TEXT_CHECKER_POOL,
@@ -133,7 +169,7 @@ abstract class TextChecker {
       }
     }
     if (remoteRuleCount > 0) {
-      LtThreadPoolFactory.createFixedThreadPoolExecutor(
+      LtThreadPoolFactory.createExecutorService(
         LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL,
         config.getMaxCheckThreads(),
         config.getMaxCheckThreads() * remoteRuleCount * LtThreadPoolFactory.REMOTE_RULE_POOL_SIZE_FACTOR,
@@ -141,12 +177,12 @@ abstract class TextChecker {
         5L, true, (thread, throwable) -> {
           log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage());
         },
-        true
+        true,
+        config.getThreadMode()
       );
     }
 
-    this.cache = config.getCacheSize() > 0 ? new ResultCache(
-      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    this.cache = createCache(config);
     this.databaseLogger = DatabaseLogger.getInstance();
     if (databaseLogger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -155,10 +191,12 @@ abstract class TextChecker {
     }
 
         if (cache != null && !config.isLocalApiMode()) {
-      ServerMetricsCollector.getInstance().monitorCache("languagetool_matches_cache", cache.getMatchesCache());
-      ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
-      ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
-      ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
+      monitorCache("languagetool_matches_cache", cache.getMatchesCache());
+      monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
+      monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
+      if (config.getCacheL2Class() != null) {
+        ServerMetricsCollector.getInstance().monitorSecondLevelCache(cache.getSecondLevelStats());
+      }
     }
 
     pipelinePool = new PipelinePool(config, cache, internalServer);
@@ -184,6 +222,43 @@ abstract class TextChecker {
     }
   }
 
+  @Nullable
+  private static ResultCache createCache(HTTPServerConfig config) {
+    ResultCache cache;
+    if (config.getCacheBackend() == HTTPServerConfig.CacheBackend.TINYLFU) {
+      cache = config.getCacheSizeMB() > 0 ? ResultCache.withMemoryBudget(
+        config.getCacheSizeMB() * 1024L * 1024L, config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    } else {
+      cache = config.getCacheSize() > 0 ? new ResultCache(
+        config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    }
+    if (cache != null && config.getCacheDiskDir() != null) {
+      try {
+        cache.enablePersistentTier(config.getCacheDiskDir(), config.getCacheDiskSizeMB() * 1024L * 1024L);
+      } catch (IOException e) {
+        log.warn("Could not enable result cache in " + config.getCacheDiskDir() + ", continuing without it", e);
+      }
+    }
+    if (cache != null && config.getCacheL2Class() != null) {
+      try {
+        SecondLevelResultCache secondLevel = (SecondLevelResultCache) JLanguageTool.getClassBroker()
+          .forName(config.getCacheL2Class()).getConstructor().newInstance();
+        cache.enableSecondLevelCache(secondLevel, config.getCacheL2MaxInFlight(), config.getCacheL2MaxWaitMillis());
+      } catch (ReflectiveOperationException | ClassCastException e) {
+        throw new IllegalArgumentException("Could not create second-level cache " + config.getCacheL2Class(), e);
+      }
+    }
+    return cache;
+  }
+
+  private void monitorCache(String name, Cache<?, ?> c) {
+    if (cache.getWeightInBytes(c) >= 0) {
+      ServerMetricsCollector.getInstance().monitorCache(name, c, () -> cache.getWeightInBytes(c));
+    } else {
+      ServerMetricsCollector.getInstance().monitorCache(name, c);
+    }
+  }
+
   private void prewarmPipelinePool() {
     // setting + number of pipelines
     // typical addon settings at the moment (2018-11-05)
@@ -243,6 +318,18 @@ abstract class TextChecker {
   void shutdownNow() {
     executorService.shutdownNow();
     RemoteRule.shutdown();
+    if (cache != null) {
+      try {
+        cache.closePersistentTier();
+      } catch (IOException e) {
+        log.warn("Could not close result cache file", e);
+      }
+      try {
+        cache.closeSecondLevelCache();
+      } catch (IOException e) {
+        log.warn("Could not close second-level result cache", e);
+      }
+    }
   }
 
   void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> params, ErrorRequestLimiter errorRequestLimiter,
@@ -321,66 +408,8 @@ abstract class TextChecker {
 
     boolean filterDictionaryMatches = "true".equals(params.getOrDefault("filterDictionaryMatches", "true"));
 
-    Long textSessionId = null;
-    try {
-      if (params.containsKey("textSessionId")) {
-        String textSessionIdStr = params.get("textSessionId");
-        if (textSessionIdStr.startsWith("user:")) {
-          int sepPos = textSessionIdStr.indexOf(':');
-          String sessionId = textSessionIdStr.substring(sepPos + 1);
-          textSessionId = Long.valueOf(sessionId);
-        } else if (textSessionIdStr.contains(":")) { // transitioning to new format used in chrome addon
-          // format: "{random number in 0..99999}:{unix time}"
-          long random, timestamp;
-          int sepPos = textSessionIdStr.indexOf(':');
-          random = Long.parseLong(textSessionIdStr.substring(0, sepPos));
-          timestamp = Long.parseLong(textSessionIdStr.substring(sepPos + 1));
-          // use random number to choose a slice in possible range of values
-          // then choose position in slice by timestamp
-          long maxRandom = 100000;
-          long randomSegmentSize = (Long.MAX_VALUE - maxRandom) / maxRandom;
-          long segmentOffset = random * randomSegmentSize;
-          if (timestamp > randomSegmentSize) {
-            log.warn(String.format("Could not transform textSessionId '%s'", textSessionIdStr));
-          }
-          textSessionId = segmentOffset + timestamp;
-        } else {
-          textSessionId = Long.valueOf(textSessionIdStr);
-        }
-      }
-    } catch (NumberFormatException ex) {
-      log.info("Could not parse textSessionId '" + params.get("textSessionId") + "' as long: " + ex.getMessage() +
-        ", user agent: " + params.get("useragent") + ", version: " + params.get("v") +
-        ", HTTP user agent: " + getHttpUserAgent(httpExchange) + ", referrer: " + getHttpReferrer(httpExchange));
-    }
-
-    List<String> abTest = null;
-    if (agent != null && config.getAbTestClients() != null && config.getAbTestClients().matcher(agent).matches()) {
-      //TODO: it is not possible to have individual AbTestClients per AbTest
-      boolean testRolledOut;
-      // partial rollout; deterministic if textSessionId given to make testing easier
-      if (textSessionId != null) {
-        testRolledOut = textSessionId % 100 < config.getAbTestRollout();
-      } else {
-        testRolledOut = random.nextInt(100) < config.getAbTestRollout();
-      }
-      if (testRolledOut) {
-        abTest = Collections.unmodifiableList(config.getAbTest());
-      }
-    }
-    String paramActivatedAbTest = params.get("abtest");
-    if (paramActivatedAbTest != null) {
-      String[] abParams = paramActivatedAbTest.trim().split(",");
-      List<String> tmpAb = new ArrayList<>();
-      for (String abParam : abParams) {
-        if (config.getAbTest().contains(abParam)) {
-          tmpAb.add(abParam.trim());
-        }
-      }
-      if (!tmpAb.isEmpty()) {
-        abTest = Collections.unmodifiableList(tmpAb);
-      }
-    }
+    Long textSessionId = getTextSessionId(params, httpExchange);
+    List<String> abTest = getAbTest(params, agent, textSessionId);
 
     boolean enableHiddenRules = "true".equals(params.get("enableHiddenRules"));
     if (limits.hasPremium()) {
@@ -443,78 +472,20 @@ abstract class TextChecker {
     //print("Starting check: " + aText.getPlainText().length() + " chars, #" + count);
     String motherTongueParam = params.get("motherTongue");
     Language motherTongue = motherTongueParam != null ? parseLanguage(motherTongueParam) : null;
-    boolean useEnabledOnly = "yes".equals(params.get("enabledOnly")) || "true".equals(params.get("enabledOnly"));
-    List<Language> altLanguages = new ArrayList<>();
-    if (params.get("altLanguages") != null) {
-      String[] altLangParams = params.get("altLanguages").split(",\\s*");
-      for (String langCode : altLangParams) {
-        Language altLang = parseLanguage(langCode);
-        altLanguages.add(altLang);
-        if (altLang.hasVariant() && !altLang.isVariant()) {
-          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-          throw new BadRequestException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
-        }
-      }
-    }
-    List<String> enabledRules = getEnabledRuleIds(params);
-
-    List<String> disabledRules = getDisabledRuleIds(params);
-    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", params);
-    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", params);
-
-    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
-      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-      throw new BadRequestException("You cannot specify disabled rules or categories using enabledOnly=true");
-    }
-    if (enabledRules.isEmpty() && enabledCategories.isEmpty() && useEnabledOnly) {
-      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-      throw new BadRequestException("You must specify enabled rules or categories when using enabledOnly=true");
-    }
-
-    boolean enableTempOffRules = "true".equals(params.get("enableTempOffRules"));
-    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
-            enabledCategories.size() > 0 || disabledCategories.size() > 0 || enableTempOffRules;
-    boolean allowIncompleteResults = "true".equals(params.get("allowIncompleteResults"));
-    JLanguageTool.Mode mode = ServerTools.getMode(params);
-    JLanguageTool.Level level = ServerTools.getLevel(params);
-    String[] toneTagNames = params.get("toneTags") != null ? params.get("toneTags").split(",") : null;
-    Set<ToneTag> toneTags = new HashSet<>(ToneTag.values().length);
-    if (toneTagNames != null) {
-      if (toneTagNames.length == 1 && toneTagNames[0].isEmpty()) { //&toneTags=
-        toneTags.add(ToneTag.ALL_WITHOUT_GOAL_SPECIFIC);
-      } else {
-        for (String toneTagName : toneTagNames) {
-          if (toneTagNames.length > 1 && (toneTagName.equals("NO_TONE_RULE") || toneTagName.equals("ALL_TONE_RULES"))) { //&toneTags=ALL_TONE_RULES or //&toneTags=NO_TONE_RULE
-            log.warn("NO_TONE_RULE and ALL_TONE_RULES will be ignored if more than one toneTag is in params.");
-            continue;
-          }
-          try {
-            toneTags.add(ToneTag.valueOf(toneTagName));
-          } catch (IllegalArgumentException ex) {
-            //just ignore unsupported toneTags
-            log.warn("Unsupported toneTag found in params: {}", toneTagName);
-          }
-        }
-      }
-    } else {
-      toneTags.add(ToneTag.ALL_WITHOUT_GOAL_SPECIFIC); //No toneTags param in request
-    }
-    String callback = params.get("callback");
-    // allowed to log input on errors?
-    boolean inputLogging = !params.getOrDefault("inputLogging", "").equals("no");
-    QueryParams qParams = new QueryParams(altLanguages, enabledRules, disabledRules,
-      enabledCategories, disabledCategories, useEnabledOnly,
-      useQuerySettings, allowIncompleteResults, enableHiddenRules, limits.getPremiumUid() != null && limits.hasPremium(), enableTempOffRules, mode, level, toneTags, callback, inputLogging);
+    QueryParams qParams = getQueryParams(params, limits, enableHiddenRules);
+    JLanguageTool.Mode mode = qParams.mode;
 
     int textSize = length;
     List<CheckResults> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
+    CheckDeadline deadline = qParams.allowIncompleteResults && limits.getMaxCheckTimeMillis() > 0 ?
+      CheckDeadline.after((long) (limits.getMaxCheckTimeMillis() * LOCAL_CHECK_TIME_SHARE)) : CheckDeadline.NONE;
     Future<List<CheckResults>> future;
     try {
       future = executorService.submit(() -> {
         try (MDC.MDCCloseable c = MDC.putCloseable("rID", LanguageToolHttpHandler.getRequestId(httpExchange))) {
           log.debug("Starting text check on {} chars; params: {}", length, qParams);
           long time = System.currentTimeMillis();
-          List<CheckResults> results = getRuleMatches(aText, lang, motherTongue, params, qParams, userConfig, f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())));
+          List<CheckResults> results = getRuleMatches(aText, lang, motherTongue, params, qParams, userConfig, deadline, f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())));
           log.debug("Finished text check in {}ms. Starting suggestion generation.", System.currentTimeMillis() - time);
           time = System.currentTimeMillis();
           // generate suggestions, otherwise this is not part of the timeout logic and not properly measured in the metrics
@@ -593,6 +564,16 @@ abstract class TextChecker {
       });
     res = resAndReason.getKey();
     incompleteResultReason = resAndReason.getValue();
+    if (incompleteResultReason == null) {
+      Set<String> skippedRuleIds = new TreeSet<>();
+      res.forEach(checkResults -> skippedRuleIds.addAll(checkResults.getSkippedRuleIds()));
+      if (!skippedRuleIds.isEmpty()) {
+        log.info("Text checking deadline expired (lang: " + lang.getShortCodeWithCountryAndVariant() + ", " + length +
+          " characters of text, requestId: " + requestId + ") - returning matches found so far, skipped " + skippedRuleIds.size() + " rules");
+        incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " +
+          String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis() / 1000.0) + " seconds";
+      }
+    }
 
     // no lazy computation at later points (outside of timeout enforcement)
     // e.g. ruleMatchesSoFar can have matches without computeLazySuggestedReplacements called yet
@@ -659,18 +640,30 @@ abstract class TextChecker {
     //### End multiLangPart
 
     int compactMode = Integer.parseInt(params.getOrDefault("c", "0"));
-    String response = getResponse(aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
-      limits.getPremiumUid() == null, qParams.mode);
-    if (qParams.callback != null) {
-      // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
-      // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
-      response = qParams.callback + "(" + response + ");";
-    }
     String messageSent = "sent";
     String languageMessage = lang.getShortCodeWithCountryAndVariant();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      // the response is streamed with chunked transfer encoding instead of being built in memory first:
+      boolean gzip = config.isGzipResponses() && ServerTools.acceptsGzip(httpExchange);
+      if (gzip) {
+        httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      }
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      OutputStream out = gzip ? new GZIPOutputStream(httpExchange.getResponseBody(), GZIP_BUFFER_SIZE) : httpExchange.getResponseBody();
+      if (qParams.callback != null) {
+        // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
+        // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
+        out.write((qParams.callback + "(").getBytes(ENCODING));
+      }
+      writeResponse(out, aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
+        limits.getPremiumUid() == null, qParams.mode);
+      if (qParams.callback != null) {
+        out.write(");".getBytes(ENCODING));
+      }
+      if (gzip) {
+        ((GZIPOutputStream) out).finish();
+      }
+      out.flush();
       ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
     } catch (IOException exception) {
       // the client is disconnected
@@ -757,6 +750,352 @@ abstract class TextChecker {
 
   }
 
+  @Nullable
+  private Long getTextSessionId(Map<String, String> params, HttpExchange httpExchange) {
+    Long textSessionId = null;
+    try {
+      if (params.containsKey("textSessionId")) {
+        String textSessionIdStr = params.get("textSessionId");
+        if (textSessionIdStr.startsWith("user:")) {
+          int sepPos = textSessionIdStr.indexOf(':');
+          String sessionId = textSessionIdStr.substring(sepPos + 1);
+          textSessionId = Long.valueOf(sessionId);
+        } else if (textSessionIdStr.contains(":")) { // transitioning to new format used in chrome addon
+          // format: "{random number in 0..99999}:{unix time}"
+          long random, timestamp;
+          int sepPos = textSessionIdStr.indexOf(':');
+          random = Long.parseLong(textSessionIdStr.substring(0, sepPos));
+          timestamp = Long.parseLong(textSessionIdStr.substring(sepPos + 1));
+          // use random number to choose a slice in possible range of values
+          // then choose position in slice by timestamp
+          long maxRandom = 100000;
+          long randomSegmentSize = (Long.MAX_VALUE - maxRandom) / maxRandom;
+          long segmentOffset = random * randomSegmentSize;
+          if (timestamp > randomSegmentSize) {
+            log.warn(String.format("Could not transform textSessionId '%s'", textSessionIdStr));
+          }
+          textSessionId = segmentOffset + timestamp;
+        } else {
+          textSessionId = Long.valueOf(textSessionIdStr);
+        }
+      }
+    } catch (NumberFormatException ex) {
+      log.info("Could not parse textSessionId '" + params.get("textSessionId") + "' as long: " + ex.getMessage() +
+        ", user agent: " + params.get("useragent") + ", version: " + params.get("v") +
+        ", HTTP user agent: " + getHttpUserAgent(httpExchange) + ", referrer: " + getHttpReferrer(httpExchange));
+    }
+    return textSessionId;
+  }
+
+  @Nullable
+  private List<String> getAbTest(Map<String, String> params, String agent, @Nullable Long textSessionId) {
+    List<String> abTest = null;
+    if (agent != null && config.getAbTestClients() != null && config.getAbTestClients().matcher(agent).matches()) {
+      //TODO: it is not possible to have individual AbTestClients per AbTest
+      boolean testRolledOut;
+      // partial rollout; deterministic if textSessionId given to make testing easier
+      if (textSessionId != null) {
+        testRolledOut = textSessionId % 100 < config.getAbTestRollout();
+      } else {
+        testRolledOut = random.nextInt(100) < config.getAbTestRollout();
+      }
+      if (testRolledOut) {
+        abTest = Collections.unmodifiableList(config.getAbTest());
+      }
+    }
+    String paramActivatedAbTest = params.get("abtest");
+    if (paramActivatedAbTest != null) {
+      String[] abParams = paramActivatedAbTest.trim().split(",");
+      List<String> tmpAb = new ArrayList<>();
+      for (String abParam : abParams) {
+        if (config.getAbTest().contains(abParam)) {
+          tmpAb.add(abParam.trim());
+        }
+      }
+      if (!tmpAb.isEmpty()) {
+        abTest = Collections.unmodifiableList(tmpAb);
+      }
+    }
+    return abTest;
+  }
+
+  private QueryParams getQueryParams(Map<String, String> params, UserLimits limits, boolean enableHiddenRules) {
+    boolean useEnabledOnly = "yes".equals(params.get("enabledOnly")) || "true".equals(params.get("enabledOnly"));
+    List<Language> altLanguages = new ArrayList<>();
+    if (params.get("altLanguages") != null) {
+      String[] altLangParams = params.get("altLanguages").split(",\\s*");
+      for (String langCode : altLangParams) {
+        Language altLang = parseLanguage(langCode);
+        altLanguages.add(altLang);
+        if (altLang.hasVariant() && !altLang.isVariant()) {
+          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+          throw new BadRequestException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
+        }
+      }
+    }
+    List<String> enabledRules = getEnabledRuleIds(params);
+
+    List<String> disabledRules = getDisabledRuleIds(params);
+    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", params);
+    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", params);
+
+    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new BadRequestException("You cannot specify disabled rules or categories using enabledOnly=true");
+    }
+    if (enabledRules.isEmpty() && enabledCategories.isEmpty() && useEnabledOnly) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new BadRequestException("You must specify enabled rules or categories when using enabledOnly=true");
+    }
+
+    boolean enableTempOffRules = "true".equals(params.get("enableTempOffRules"));
+    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
+            enabledCategories.size() > 0 || disabledCategories.size() > 0 || enableTempOffRules;
+    boolean allowIncompleteResults = "true".equals(params.get("allowIncompleteResults"));
+    JLanguageTool.Mode mode = ServerTools.getMode(params);
+    JLanguageTool.Level level = ServerTools.getLevel(params);
+    String[] toneTagNames = params.get("toneTags") != null ? params.get("toneTags").split(",") : null;
+    Set<ToneTag> toneTags = new HashSet<>(ToneTag.values().length);
+    if (toneTagNames != null) {
+      if (toneTagNames.length == 1 && toneTagNames[0].isEmpty()) { //&toneTags=
+        toneTags.add(ToneTag.ALL_WITHOUT_GOAL_SPECIFIC);
+      } else {
+        for (String toneTagName : toneTagNames) {
+          if (toneTagNames.length > 1 && (toneTagName.equals("NO_TONE_RULE") || toneTagName.equals("ALL_TONE_RULES"))) { //&toneTags=ALL_TONE_RULES or //&toneTags=NO_TONE_RULE
+            log.warn("NO_TONE_RULE and ALL_TONE_RULES will be ignored if more than one toneTag is in params.");
+            continue;
+          }
+          try {
+            toneTags.add(ToneTag.valueOf(toneTagName));
+          } catch (IllegalArgumentException ex) {
+            //just ignore unsupported toneTags
+            log.warn("Unsupported toneTag found in params: {}", toneTagName);
+          }
+        }
+      }
+    } else {
+      toneTags.add(ToneTag.ALL_WITHOUT_GOAL_SPECIFIC); //No toneTags param in request
+    }
+    String callback = params.get("callback");
+    // allowed to log input on errors?
+    boolean inputLogging = !params.getOrDefault("inputLogging", "").equals("no");
+    return new QueryParams(altLanguages, enabledRules, disabledRules,
+      enabledCategories, disabledCategories, useEnabledOnly,
+      useQuerySettings, allowIncompleteResults, enableHiddenRules, limits.getPremiumUid() != null && limits.hasPremium(), enableTempOffRules, mode, level, toneTags, callback, inputLogging);
+  }
+
+  /**
+   * Check several texts that share the same parameters, e.g. from {@code /v2/check/batch}. Request
+   * limits and user settings are evaluated once for the whole batch. Texts are grouped by language,
+   * each group is split into chunks that are checked in parallel on the text checker pool, each chunk
+   * with one pipeline borrowed from the pool. Results are streamed to the client as soon as they are ready.
+   * @since 6.3
+   */
+  void checkTexts(List<AnnotatedText> texts, HttpExchange httpExchange, Map<String, String> params, ErrorRequestLimiter errorRequestLimiter,
+                  String remoteAddress) throws Exception {
+    long timeStart = System.currentTimeMillis();
+    UserLimits limits = ServerTools.getUserLimits(params, config);
+    if (!config.isAnonymousAccessAllowed() && limits.getPremiumUid() == null) {
+      throw new AuthException("Anonymous access is prohibited on this server, please provide authentication.");
+    }
+    if (texts.isEmpty()) {
+      throw new BadRequestException("No texts to check");
+    }
+    if (texts.size() > config.getMaxCheckBatchSize()) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new BadRequestException("Too many texts in batch: " + texts.size() + ", maximum is " + config.getMaxCheckBatchSize());
+    }
+    // the batch is one request, so all texts together have to fit into the text length limit:
+    int totalLength = texts.stream().mapToInt(t -> t.getPlainText().length()).sum();
+    if (totalLength > limits.getMaxTextLength()) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_TEXT_SIZE);
+      throw new TextTooLongException("Your texts exceed the limit of " + limits.getMaxTextLength() +
+              " characters (they have " + totalLength + " characters in total). Please submit fewer or shorter texts.");
+    }
+    if (!config.isLocalApiMode()) {
+      RequestLimiter.checkUserLimit(getHttpReferrer(httpExchange), getHttpUserAgent(httpExchange), limits);
+    }
+    List<String> dictGroups = null;
+    String dictName = "default";
+    if (params.containsKey("dicts")) {
+      dictGroups = Arrays.asList(params.get("dicts").split(","));
+      dictGroups.sort(Comparator.naturalOrder());
+      dictName = "groups_" + String.join(",", dictGroups);
+    }
+    List<String> dictWords = limits.getPremiumUid() != null ? getUserDictWords(limits, dictGroups) : Collections.emptyList();
+    boolean filterDictionaryMatches = "true".equals(params.getOrDefault("filterDictionaryMatches", "true"));
+    Long textSessionId = getTextSessionId(params, httpExchange);
+    String agent = params.get("useragent") != null ? params.get("useragent") : "-";
+    List<String> abTest = getAbTest(params, agent, textSessionId);
+    boolean autoDetectLanguage = getLanguageAutoDetect(params);
+    List<String> preferredVariants = getPreferredVariants(params);
+    if (params.get("noopLanguages") != null && !autoDetectLanguage) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new BadRequestException("You can specify 'noopLanguages' only when also using 'language=auto'");
+    }
+    List<String> noopLangs = params.get("noopLanguages") != null ?
+            Arrays.asList(params.get("noopLanguages").split(",")) : Collections.emptyList();
+    List<String> preferredLangs = params.get("preferredLanguages") != null ?
+            Arrays.asList(params.get("preferredLanguages").split(",")) : Collections.emptyList();
+    String motherTongueParam = params.get("motherTongue");
+    Language motherTongue = motherTongueParam != null ? parseLanguage(motherTongueParam) : null;
+    // hidden (premium) matches are not supported in batch mode:
+    QueryParams qParams = getQueryParams(params, limits, false);
+    boolean testMode = params.getOrDefault("ld", "control").equalsIgnoreCase("test");
+
+    List<String> plainTexts = texts.stream().map(AnnotatedText::getPlainText).collect(Collectors.toList());
+    List<DetectedLanguage> detLangs = getLanguages(plainTexts, params, preferredVariants, noopLangs, preferredLangs, testMode);
+    Map<Language, List<Integer>> lang2indexes = new LinkedHashMap<>();
+    for (int i = 0; i < texts.size(); i++) {
+      lang2indexes.computeIfAbsent(detLangs.get(i).getGivenLanguage(), k -> new ArrayList<>()).add(i);
+    }
+
+    BlockingQueue<BatchItemResult> finished = new LinkedBlockingQueue<>();
+    List<Future<?>> futures = new ArrayList<>();
+    int parallelism = Math.max(1, config.getMaxTextCheckerThreads());
+    try {
+      for (Map.Entry<Language, List<Integer>> entry : lang2indexes.entrySet()) {
+        Language lang = entry.getKey();
+        UserConfig userConfig = new UserConfig(dictWords, getUserRules(limits, lang, dictGroups),
+                getRuleValues(params), config.getMaxSpellingSuggestions(),
+                limits.getPremiumUid(), dictName, limits.getDictCacheSize(),
+                null, filterDictionaryMatches, abTest, textSessionId,
+                false, preferredLangs);
+        PipelineSettings settings = new PipelineSettings(lang, motherTongue, qParams, config.globalConfig, userConfig);
+        List<Integer> indexes = entry.getValue();
+        int chunkSize = (indexes.size() + parallelism - 1) / parallelism;
+        for (int chunkStart = 0; chunkStart < indexes.size(); chunkStart += chunkSize) {
+          List<Integer> chunk = indexes.subList(chunkStart, Math.min(chunkStart + chunkSize, indexes.size()));
+          futures.add(executorService.submit(() -> checkBatchChunk(texts, chunk, settings, qParams, finished)));
+        }
+      }
+    } catch (RejectedExecutionException e) {
+      futures.forEach(f -> f.cancel(true));
+      throw new UnavailableException("Server overloaded, please try again later", e);
+    }
+
+    setHeaders(httpExchange);
+    boolean gzip = config.isGzipResponses() && ServerTools.acceptsGzip(httpExchange);
+    if (gzip) {
+      httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+    OutputStream out = gzip ? new GZIPOutputStream(httpExchange.getResponseBody(), GZIP_BUFFER_SIZE) : httpExchange.getResponseBody();
+    int compactMode = Integer.parseInt(params.getOrDefault("c", "0"));
+    long deadline = limits.getMaxCheckTimeMillis() < 0 ? Long.MAX_VALUE : timeStart + limits.getMaxCheckTimeMillis();
+    boolean[] written = new boolean[texts.size()];
+    int matchCount = 0;
+    String messageSent = "sent";
+    try {
+      try (JsonGenerator g = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+        g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        new RuleMatchesAsJsonSerializer(compactMode).writeBatchStart(g, limits.getPremiumUid() == null);
+        for (int done = 0; done < texts.size(); done++) {
+          long waitMillis = deadline - System.currentTimeMillis();
+          BatchItemResult item = waitMillis > 0 ? finished.poll(waitMillis, TimeUnit.MILLISECONDS) : null;
+          if (item == null) {
+            break;  // timeout, remaining texts are reported below
+          }
+          written[item.index] = true;
+          DetectedLanguage detLang = detLangs.get(item.index);
+          RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer(compactMode, detLang.getGivenLanguage());
+          if (item.error != null) {
+            log.warn("Checking text #" + item.index + " of batch failed: " + ServerTools.cleanUserTextFromMessage(item.error.getMessage(), params), item.error);
+            serializer.writeBatchItemError(g, item.index, "Internal error: " + ServerTools.cleanUserTextFromMessage(item.error.getMessage(), params));
+          } else {
+            matchCount += item.results.stream().mapToInt(r -> r.getRuleMatches().size()).sum();
+            serializer.writeBatchItem(g, item.index, item.results, texts.get(item.index), CONTEXT_SIZE, detLang);
+            ServerMetricsCollector.getInstance().logCheck(detLang.getGivenLanguage(), item.computationTimeMillis,
+              texts.get(item.index).getPlainText().length(), item.matchCount(), qParams.mode);
+          }
+          g.flush();  // let the client see this result now
+        }
+        int timedOut = 0;
+        for (int i = 0; i < texts.size(); i++) {
+          if (!written[i]) {
+            timedOut++;
+            new RuleMatchesAsJsonSerializer(compactMode).writeBatchItemError(g, i,
+              "Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() + " milliseconds for the whole batch");
+          }
+        }
+        if (timedOut > 0) {
+          futures.forEach(f -> f.cancel(true));
+          if (errorRequestLimiter != null) {
+            errorRequestLimiter.logAccess(remoteAddress, httpExchange.getRequestHeaders(), params);
+          }
+          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_CHECK_TIME);
+          log.info("Batch check timed out for " + timedOut + " of " + texts.size() + " texts");
+        }
+        new RuleMatchesAsJsonSerializer(compactMode).writeBatchEnd(g);
+      }
+      if (gzip) {
+        ((GZIPOutputStream) out).finish();
+      }
+      out.flush();
+      ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
+    } catch (IOException e) {
+      // the client is disconnected
+      futures.forEach(f -> f.cancel(true));
+      messageSent = "notSent: " + e.getMessage();
+    }
+    log.info("Batch check done: " + texts.size() + " texts, " + totalLength + " chars, languages: " + lang2indexes.keySet() +
+            ", " + matchCount + " matches, " + (System.currentTimeMillis() - timeStart) + "ms, agent:" + agent + ", " + messageSent +
+            (limits.getPremiumUid() != null ? ", uid:" + limits.getPremiumUid() : ""));
+  }
+
+  private void checkBatchChunk(List<AnnotatedText> texts, List<Integer> chunk, PipelineSettings settings, QueryParams qParams,
+                               BlockingQueue<BatchItemResult> finished) {
+    Pipeline lt = null;
+    try {
+      lt = pipelinePool.getPipeline(settings);
+      for (int index : chunk) {
+        if (Thread.currentThread().isInterrupted()) {
+          return;
+        }
+        long time = System.currentTimeMillis();
+        try {
+          Long textSessionId = qParams.regressionTestMode ? Long.valueOf(-2L) : settings.userConfig.getTextSessionId();
+          CheckResults result = lt.check2(texts.get(index), true, JLanguageTool.ParagraphHandling.NORMAL, null,
+            qParams.mode, qParams.level, qParams.toneTags, textSessionId);
+          result.getRuleMatches().forEach(RuleMatch::computeLazySuggestedReplacements);
+          finished.add(new BatchItemResult(index, Collections.singletonList(result), null, (int) (System.currentTimeMillis() - time)));
+        } catch (Exception e) {
+          finished.add(new BatchItemResult(index, null, e, (int) (System.currentTimeMillis() - time)));
+        }
+      }
+    } catch (Exception e) {
+      for (int index : chunk) {
+        finished.add(new BatchItemResult(index, null, e, 0));
+      }
+    } finally {
+      if (lt != null) {
+        try {
+          pipelinePool.returnPipeline(settings, lt);
+        } catch (Exception e) {
+          log.warn("Could not return pipeline to pool", e);
+        }
+      }
+    }
+  }
+
+  private static class BatchItemResult {
+    private final int index;
+    private final List<CheckResults> results;
+    private final Exception error;
+    private final int computationTimeMillis;
+
+    BatchItemResult(int index, List<CheckResults> results, Exception error, int computationTimeMillis) {
+      this.index = index;
+      this.results = results;
+      this.error = error;
+      this.computationTimeMillis = computationTimeMillis;
+    }
+
+    int matchCount() {
+      return results.stream().mapToInt(r -> r.getRuleMatches().size()).sum();
+    }
+  }
+
   @NotNull
   private Map<String, Integer> getRuleMatchCount(List<CheckResults> res) {
     Map<String, Integer> ruleMatchCount = new HashMap<>();
@@ -805,7 +1144,7 @@ abstract class TextChecker {
 
   private List<CheckResults> getRuleMatches(AnnotatedText aText, Language lang,
                                          Language motherTongue, Map<String, String> parameters,
-                                         QueryParams params, UserConfig userConfig,
+                                         QueryParams params, UserConfig userConfig, CheckDeadline deadline,
                                          /*DetectedLanguage detLang,
                                          List<String> preferredLangs, List<String> preferredVariants,*/
                                          RuleMatchListener listener) throws Exception {
@@ -814,6 +1153,9 @@ abstract class TextChecker {
       String matchesHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getMatchesCache().stats().hitRate() * 100.0f);
       String remoteHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getRemoteMatchesCache().stats().hitRate() * 100.0f);
       log.info("Cache stats: " + sentenceHitPercentage + "% / " + matchesHitPercentage + "% / " + remoteHitPercentage + "% hit rate");
+      CacheStatsRegistry.getStats().forEach((name, stats) ->
+        log.info("Cache stats for " + name + ": " + String.format(Locale.ENGLISH, "%.2f", stats.hitRate() * 100.0f) +
+          "% hit rate, " + stats.requestCount() + " requests, " + stats.evictionCount() + " evictions"));
     }
 
     if (parameters.get("sourceText") != null) {
@@ -832,7 +1174,7 @@ abstract class TextChecker {
       );
     } else {
       List<CheckResults> res = new ArrayList<>();
-      res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener));
+      res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, deadline, listener));
 //      NOTE: Not needed anymore. The "multilingual" parameter is not used.
 //      if (preferredLangs.size() < 2 || parameters.get("multilingual") == null || parameters.get("multilingual").equals("false")) {
 //        res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener));
@@ -876,7 +1218,8 @@ abstract class TextChecker {
     return parseLanguage(langCode);
   }
 
-  private List<CheckResults> getPipelineResults(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig, RuleMatchListener listener) throws Exception {
+  private List<CheckResults> getPipelineResults(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig,
+                                                CheckDeadline deadline, RuleMatchListener listener) throws Exception {
     PipelineSettings settings = null;
     Pipeline lt = null;
     List<CheckResults> res = new ArrayList<>();
@@ -888,7 +1231,7 @@ abstract class TextChecker {
         textSessionId = -2L; // magic value for remote rule roll-out - includes all results, even from disabled models
       }
       res.add(lt.check2(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener,
-        params.mode, params.level, params.toneTags, textSessionId));
+        params.mode, params.level, params.toneTags, textSessionId, deadline));
     } finally {
       if (lt != null) {
         pipelinePool.returnPipeline(settings, lt);
@@ -943,9 +1286,35 @@ abstract class TextChecker {
 
   DetectedLanguage detectLanguageOfString(String text, String fallbackLanguage, List<String> preferredVariants,
                                           List<String> noopLangs, List<String> preferredLangs, boolean forcePreferredLanguages) {
-    Language lang;
     String cleanText = languageIdentifier.cleanAndShortenText(text);
     DetectedLanguage detected = languageIdentifier.detectLanguage(cleanText, noopLangs, preferredLangs, forcePreferredLanguages);
+    return toDetectedLanguage(detected, fallbackLanguage, preferredVariants);
+  }
+
+  /**
+   * Like {@link #detectLanguageOfString(String, String, List, List, List, boolean)}, but for several texts
+   * at once. With the default language identifier, fastText is run once for the whole list.
+   * @since 6.3
+   */
+  List<DetectedLanguage> detectLanguageOfStrings(List<String> texts, String fallbackLanguage, List<String> preferredVariants,
+                                                 List<String> noopLangs, List<String> preferredLangs, boolean forcePreferredLanguages) {
+    List<DetectedLanguage> result = new ArrayList<>(texts.size());
+    if (languageIdentifier instanceof DefaultLanguageIdentifier && !forcePreferredLanguages) {
+      List<String> cleanTexts = texts.stream().map(languageIdentifier::cleanAndShortenText).collect(Collectors.toList());
+      List<DetectedLanguage> detected = ((DefaultLanguageIdentifier) languageIdentifier).detectLanguages(cleanTexts, noopLangs, preferredLangs);
+      for (DetectedLanguage detectedLanguage : detected) {
+        result.add(toDetectedLanguage(detectedLanguage, fallbackLanguage, preferredVariants));
+      }
+    } else {
+      for (String text : texts) {
+        result.add(detectLanguageOfString(text, fallbackLanguage, preferredVariants, noopLangs, preferredLangs, forcePreferredLanguages));
+      }
+    }
+    return result;
+  }
+
+  private DetectedLanguage toDetectedLanguage(@Nullable DetectedLanguage detected, String fallbackLanguage, List<String> preferredVariants) {
+    Language lang;
     if (detected == null) {
       lang = parseLanguage(fallbackLanguage != null ? fallbackLanguage : "en");
     } else {
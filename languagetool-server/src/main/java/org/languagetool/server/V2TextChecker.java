@@ -26,6 +26,8 @@ import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 import static org.languagetool.server.ServerTools.setCommonHeaders;
@@ -55,6 +57,14 @@ class V2TextChecker extends TextChecker {
       showPremiumHint, mode);
   }
 
+  @Override
+  protected void writeResponse(OutputStream out, AnnotatedText text, Language usedLang, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
+                               List<RuleMatch> hiddenMatches, String incompleteResultsReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException {
+    RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer(compactMode, usedLang);
+    serializer.ruleMatchesToJson2(out, matches, hiddenMatches, text, CONTEXT_SIZE, lang, incompleteResultsReason,
+      showPremiumHint, mode);
+  }
+
   @NotNull
   @Override
   protected List<String> getEnabledRuleIds(Map<String, String> parameters) {
@@ -114,6 +124,22 @@ class V2TextChecker extends TextChecker {
       detectedLang.getDetectionSource());
   }
 
+  @Override
+  @NotNull
+  protected List<DetectedLanguage> getLanguages(List<String> texts, Map<String, String> parameters, List<String> preferredVariants,
+                                                List<String> noopLangs, List<String> preferredLangs, boolean testMode) {
+    boolean forcePreferredLanguages = "true".equals(parameters.get("forcePreferredLanguages"));
+    List<DetectedLanguage> detectedLangs = detectLanguageOfStrings(texts, null, preferredVariants, noopLangs, preferredLangs, forcePreferredLanguages);
+    Language paramLang = getLanguageAutoDetect(parameters) ? null : parseLanguage(parameters.get("language"));
+    List<DetectedLanguage> result = new ArrayList<>(detectedLangs.size());
+    for (DetectedLanguage detectedLang : detectedLangs) {
+      Language givenLang = paramLang != null ? paramLang : detectedLang.getDetectedLanguage();
+      result.add(new DetectedLanguage(givenLang, detectedLang.getDetectedLanguage(), detectedLang.getDetectionConfidence(),
+        detectedLang.getDetectionSource()));
+    }
+    return result;
+  }
+
   @Override
   @NotNull
   protected List<String> getPreferredVariants(Map<String, String> parameters) {
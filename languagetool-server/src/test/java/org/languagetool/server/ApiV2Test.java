@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -29,9 +31,12 @@ import org.languagetool.rules.RuleMatch;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 public class ApiV2Test {
 
@@ -66,6 +71,50 @@ public class ApiV2Test {
     } catch (BadRequestException ignored) {}
   }
   
+  @Test
+  public void testCheckBatch() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig();
+    config.setMaxTextCheckerThreads(1);  // one chunk, so the texts are checked in order
+    config.setMaxCheckTimeMillisAnonymous(2000);
+    TextChecker checker = new V2TextChecker(config, false, null, new RequestCounter());
+    CountDownLatch release = new CountDownLatch(1);
+    Pipeline lt = mock(Pipeline.class);
+    doAnswer(invocation -> {
+      String text = invocation.<AnnotatedText>getArgument(0).getPlainText();
+      if (text.equals("fail")) {
+        throw new RuntimeException("checking failed");
+      }
+      if (text.equals("slow")) {
+        release.await();
+      }
+      return new CheckResults(Collections.emptyList(), Collections.emptyList());
+    }).when(lt).check2(any(), anyBoolean(), any(), any(), any(), any(), any(), any());
+    PipelinePool pool = spy(checker.pipelinePool);
+    doReturn(lt).when(pool).getPipeline(any());
+    doNothing().when(pool).returnPipeline(any(), any());
+    checker.pipelinePool = pool;
+    Map<String, String> params = new HashMap<>();
+    params.put("language", "en-US");
+    params.put("data", "{\"texts\": [\"This is fine.\", \"fail\", \"slow\", \"This is never checked.\"]}");
+    FakeHttpExchange httpExchange = new FakeHttpExchange("post");
+    try {
+      new ApiV2(checker, null).handleRequest("check/batch", httpExchange, params, null, null, config);
+    } finally {
+      release.countDown();
+    }
+    JsonNode results = new ObjectMapper().readTree(httpExchange.getOutput()).get("results");
+    assertThat(results.size(), is(4));
+    assertThat(results.get(0).get("index").asInt(), is(0));
+    assertThat(results.get(0).get("language").get("code").asText(), is("en-US"));
+    assertThat(results.get(0).get("matches").size(), is(0));
+    assertThat(results.get(1).get("index").asInt(), is(1));
+    assertThat(results.get(1).get("error").asText(), is("Internal error: checking failed"));
+    for (int i = 2; i < 4; i++) {
+      assertThat(results.get(i).get("index").asInt(), is(i));
+      assertTrue(results.get(i).get("error").asText().startsWith("Text checking took longer than allowed maximum"));
+    }
+  }
+
   @Test
   @Ignore("code is currently commented out")
   public void testRuleExamples() throws Exception {
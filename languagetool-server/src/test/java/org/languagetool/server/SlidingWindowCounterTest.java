@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SlidingWindowCounterTest {
+
+  @Test
+  public void testWindow() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(1000);
+    assertTrue(counter.isExpired(0));
+    counter.add(50, 10);
+    counter.add(60, 5);
+    counter.add(550, 1);
+    assertEquals(3, counter.getCount(600));
+    assertEquals(16, counter.getSize(600));
+    assertEquals(3, counter.getCount(999));
+    assertEquals(1, counter.getCount(1050));  // events from the first bucket are gone
+    assertEquals(1, counter.getSize(1050));
+    assertEquals(0, counter.getCount(1600));
+    assertTrue(counter.isExpired(1600));
+    counter.add(1650, 7);
+    assertEquals(1, counter.getCount(1650));
+    assertEquals(7, counter.getSize(1650));
+  }
+
+  @Test
+  public void testConcurrentAdd() throws InterruptedException {
+    SlidingWindowCounter counter = new SlidingWindowCounter(60_000);
+    long now = System.currentTimeMillis();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          counter.add(now, 2);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40_000, counter.getCount(now));
+    assertEquals(80_000, counter.getSize(now));
+  }
+
+}
@@ -20,6 +20,7 @@ package org.languagetool.server;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.languagetool.DetectedLanguage;
 import org.languagetool.markup.AnnotatedTextBuilder;
 
 import java.io.*;
@@ -145,6 +146,17 @@ public class TextCheckerTest {
       .getDetectedLanguage().getShortCodeWithCountryAndVariant(), is("sk-SK"));  // misdetected because it's not supported
   }
 
+  @Test
+  public void testDetectLanguageOfStrings() {
+    String german = "Das hier ist klar ein deutscher Text, sollte gut zu erkennen sein.";
+    List<DetectedLanguage> detected = checker.detectLanguageOfStrings(Arrays.asList(english, german, ""), "en", Arrays.asList("en-GB"),
+      Collections.emptyList(), Collections.emptyList(), false);
+    assertThat(detected.size(), is(3));
+    assertThat(detected.get(0).getDetectedLanguage().getShortCodeWithCountryAndVariant(), is("en-GB"));
+    assertThat(detected.get(1).getDetectedLanguage().getShortCodeWithCountryAndVariant(), is("de-DE"));
+    assertThat(detected.get(2).getDetectedLanguage().getShortCodeWithCountryAndVariant(), is("en-GB"));
+  }
+
   @Test
   @Ignore("requires fastText (binary and model) installed locally")
   public void testDetectLanguageOfStringWithFastText() {
@@ -18,9 +18,15 @@
  */
 package org.languagetool;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -39,6 +45,91 @@ public class ResultCacheTest {
     assertNull(cache.getIfPresent(new SimpleInputSentence("foo bar", Languages.getLanguageForShortCode("de"))));
   }
 
+  @Test
+  public void testMemoryBudget() throws Exception {
+    ResultCache cache = ResultCache.withMemoryBudget(1024 * 1024, 5, TimeUnit.MINUTES);
+    assertThat(cache.getWeightInBytes(cache.getSentenceCache()), is(0L));
+    JLanguageTool lt = new JLanguageTool(Languages.getLanguageForShortCode("en-US"));
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is a test sentence.");
+    SimpleInputSentence key = new SimpleInputSentence(sentence.getText(), Languages.getLanguageForShortCode("en-US"));
+    cache.put(key, sentence);
+    assertSame(sentence, cache.getIfPresent(key));
+    cache.getSentenceCache().cleanUp();
+    long weight = cache.getWeightInBytes(cache.getSentenceCache());
+    assertTrue("Unexpected weight: " + weight, weight > 1000 && weight < 100_000);
+    assertThat(cache.hitCount(), is(1L));
+    cache.getSentenceCache().invalidate(key);
+    assertThat(cache.getWeightInBytes(cache.getSentenceCache()), is(0L));
+    ResultCache sentenceCountCache = new ResultCache(100);
+    assertThat(sentenceCountCache.getWeightInBytes(sentenceCountCache.getSentenceCache()), is(-1L));
+  }
+
+  @Test
+  public void testMemoryBudgetWithSuggestionsComputedLater() throws Exception {
+    ResultCache cache = ResultCache.withMemoryBudget(1024 * 1024, 5, TimeUnit.MINUTES);
+    JLanguageTool lt = new JLanguageTool(Languages.getLanguageForShortCode("en-US"));
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is a test sentence.");
+    RuleMatch match = new RuleMatch(lt.getAllRules().get(0), sentence, 0, 4, "message");
+    match.setLazySuggestedReplacements(() -> Arrays.asList(new SuggestedReplacement("That"), new SuggestedReplacement("These")));
+    InputSentence key = new InputSentence(sentence.getText(), Languages.getLanguageForShortCode("en-US"), null, new HashSet<>(), new HashSet<>(),
+      new HashSet<>(), new HashSet<>(), new UserConfig(), Collections.emptyList(), JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT);
+    cache.put(key, Collections.singletonList(match));
+    cache.getMatchesCache().cleanUp();
+    assertTrue(cache.getWeightInBytes(cache.getMatchesCache()) > 0);
+    // weighing the match again would now give a different result:
+    assertThat(match.getSuggestedReplacements(), is(Arrays.asList("That", "These")));
+    cache.getMatchesCache().invalidate(key);
+    assertThat(cache.getWeightInBytes(cache.getMatchesCache()), is(0L));
+  }
+
+  @Test
+  public void testPersistentTier() throws Exception {
+    File dir = Files.createTempDirectory("lt-result-cache-test").toFile();
+    String text = "This is is a test.";
+    try {
+      ResultCache cache1 = new ResultCache(100);
+      cache1.enablePersistentTier(dir, 1024 * 1024);
+      List<RuleMatch> matches1 = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache1).check(text);
+      assertThat(matches1.size(), is(1));
+      cache1.closePersistentTier();
+
+      // a new cache, as after a restart:
+      ResultCache cache2 = new ResultCache(100);
+      cache2.enablePersistentTier(dir, 1024 * 1024);
+      List<RuleMatch> matches2 = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache2).check(text);
+      assertThat(cache2.getPersistentTierHitCount(), is(1L));
+      assertThat(matches2.toString(), is(matches1.toString()));
+      assertThat(matches2.get(0).getSuggestedReplacements(), is(matches1.get(0).getSuggestedReplacements()));
+      cache2.closePersistentTier();
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  @Test
+  public void testSecondLevelCache() throws Exception {
+    InMemorySecondLevelResultCache secondLevel = new InMemorySecondLevelResultCache();
+    String text = "This is is a test.";
+    ResultCache cache1 = new ResultCache(100);
+    cache1.enableSecondLevelCache(secondLevel, 10, 1000);
+    List<RuleMatch> matches1 = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache1).check(text);
+    assertThat(matches1.size(), is(1));
+    // matches are written in the background:
+    for (int i = 0; i < 100 && secondLevel.size() == 0; i++) {
+      Thread.sleep(50);
+    }
+    assertThat(secondLevel.size(), is(1L));
+    assertThat(cache1.getSecondLevelStats().getMissCount(), is(1L));
+
+    // another server using the same second-level cache:
+    ResultCache cache2 = new ResultCache(100);
+    cache2.enableSecondLevelCache(secondLevel, 10, 1000);
+    List<RuleMatch> matches2 = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache2).check(text);
+    assertThat(cache2.getSecondLevelStats().getHitCount(), is(1L));
+    assertThat(matches2.toString(), is(matches1.toString()));
+    assertThat(matches2.get(0).getSuggestedReplacements(), is(matches1.get(0).getSuggestedReplacements()));
+  }
+
   @Test
   public void testInputSentenceCache() {
     ResultCache cache = new ResultCache(100);